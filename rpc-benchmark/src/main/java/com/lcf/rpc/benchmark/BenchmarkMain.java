@@ -0,0 +1,24 @@
+package com.lcf.rpc.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 压测入口 (java -jar rpc-benchmark/target/benchmarks.jar [JMH 参数])
+ * 参数和 JMH 自带的命令行一致，例如只跑编解码：benchmarks.jar Codec -p payloadSize=1024
+ * 命令行没有指定 -prof 时默认挂上 GC 分析器，结果里带 gc.alloc.rate.norm (每次操作分配的字节数) 和 GC 次数 / 耗时。
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,131 @@
+package com.lcf.rpc.benchmark;
+
+import com.lcf.rpc.common.enumeration.RpcMessageType;
+import com.lcf.rpc.common.model.RpcMessage;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.core.provider.ServiceProviderImpl;
+import com.lcf.rpc.core.serialization.Serializer;
+import com.lcf.rpc.core.transport.NettyServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * 各个压测共用的工具：构造载荷 / 请求，在本机启动服务端
+ */
+public final class BenchmarkSupport {
+
+    public static final String ECHO_SERVICE = EchoService.class.getName();
+    public static final String ECHO_METHOD = "echo";
+
+    private static final Class<?>[] ECHO_PARAM_TYPES = {String.class};
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 指定长度的 ASCII 字符串 (UTF-8 下字节数等于长度)
+     */
+    public static String payload(int size) {
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 和客户端代理构造的请求一致 (Builder 创建，不池化)
+     */
+    public static RpcRequest echoRequest(String requestId, String payload) {
+        return RpcRequest.builder()
+                .requestId(requestId)
+                .interfaceName(ECHO_SERVICE)
+                .methodName(ECHO_METHOD)
+                .parameters(new Object[]{payload})
+                .paramTypes(ECHO_PARAM_TYPES)
+                .timeout(5000)
+                .build();
+    }
+
+    public static RpcMessage requestMessage(RpcRequest request, Serializer serializer) {
+        return RpcMessage.builder()
+                .codec(serializer.getCode())
+                .messageType(RpcMessageType.REQUEST.getCode())
+                .data(request)
+                .build();
+    }
+
+    /**
+     * 在本机空闲端口上启动服务端 (发布 EchoService)，端口可连接后返回
+     */
+    public static LocalServer startEchoServer() {
+        new ServiceProviderImpl().addServiceProvider(new EchoServiceImpl(), ECHO_SERVICE);
+        int port = freePort();
+        NettyServer server = new NettyServer(port);
+        Thread thread = new Thread(server::start, "rpc-benchmark-server");
+        thread.setDaemon(true);
+        thread.start();
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+        awaitListening(address);
+        return new LocalServer(server, address);
+    }
+
+    /**
+     * 本机的一个空闲端口
+     */
+    public static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 等待端口可以连接 (NettyServer.start() 是阻塞的，在其他线程中启动后用它等待启动完成)
+     */
+    public static void awaitListening(InetSocketAddress address) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try (Socket socket = new Socket()) {
+                socket.connect(address, 200);
+                return;
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("服务端没有在 10 秒内启动: " + address, e);
+                }
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(ie);
+                }
+            }
+        }
+    }
+
+    /**
+     * 本机启动的服务端
+     */
+    public static final class LocalServer {
+        private final NettyServer server;
+        private final InetSocketAddress address;
+
+        LocalServer(NettyServer server, InetSocketAddress address) {
+            this.server = server;
+            this.address = address;
+        }
+
+        public InetSocketAddress getAddress() {
+            return address;
+        }
+
+        public void stop() {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.lcf.rpc.benchmark;
+
+import com.lcf.rpc.core.protection.CircuitBreaker;
+import com.lcf.rpc.core.protection.CircuitBreakerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熔断器：一次调用在熔断器上的开销 (获取许可 + 记录结果)，单线程和多线程争用同一个节点的熔断器
+ * 结果中 1% 是失败，低于默认的失败率阈值，熔断器始终处于 CLOSED，测的是正常路径。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircuitBreakerBenchmark {
+
+    private CircuitBreaker breaker;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        breaker = new CircuitBreaker(CircuitBreakerConfig.of(BenchmarkSupport.ECHO_SERVICE, BenchmarkSupport.ECHO_METHOD),
+                "benchmark");
+    }
+
+    @Benchmark
+    public boolean uncontended() {
+        return call();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contended4() {
+        return call();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean contended16() {
+        return call();
+    }
+
+    /**
+     * 选路前的只读判断
+     */
+    @Benchmark
+    @Threads(16)
+    public boolean allowRequest16() {
+        return breaker.allowRequest();
+    }
+
+    private boolean call() {
+        if (!breaker.tryAcquirePermission()) {
+            return false;
+        }
+        if (ThreadLocalRandom.current().nextInt(100) == 0) {
+            breaker.recordFailure(1);
+        } else {
+            breaker.recordSuccess(1);
+        }
+        return true;
+    }
+}
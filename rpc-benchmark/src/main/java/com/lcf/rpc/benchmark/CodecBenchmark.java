@@ -0,0 +1,108 @@
+package com.lcf.rpc.benchmark;
+
+import com.lcf.rpc.common.constant.RpcConstants;
+import com.lcf.rpc.common.enumeration.RpcMessageType;
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.common.model.RpcMessage;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.netty.codec.RpcMessageDecoder;
+import com.lcf.rpc.core.netty.codec.RpcMessageEncoder;
+import com.lcf.rpc.core.netty.codec.RpcRequestCodec;
+import com.lcf.rpc.core.netty.codec.RpcResponseCodec;
+import com.lcf.rpc.core.pool.MessagePool;
+import com.lcf.rpc.core.serialization.Serializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 协议编解码：RpcMessageEncoder 编码成帧，再由 RpcMessageDecoder 解码回来 (EmbeddedChannel，不经过网络)
+ * 请求往返包含服务端在业务线程中的参数反序列化，响应往返包含客户端在调用线程中的结果反序列化，
+ * 也就是一次调用在两端编解码上的全部开销。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final String REQUEST_ID = "00000000-0000-0000-0000-000000000000";
+
+    @Param({"16", "1024", "16384"})
+    private int payloadSize;
+
+    @Param({"kryo", "json"})
+    private String serializerName;
+
+    private Serializer serializer;
+    private EmbeddedChannel channel;
+    private String payload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        serializer = ExtensionLoader.getExtensionLoader(Serializer.class).getExtension(serializerName);
+        channel = new EmbeddedChannel(new RpcMessageEncoder(serializer), new RpcMessageDecoder(serializer));
+        payload = BenchmarkSupport.payload(payloadSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public Object requestRoundTrip() {
+        RpcRequest request = BenchmarkSupport.echoRequest(REQUEST_ID, payload);
+        RpcMessage decoded = roundTrip(BenchmarkSupport.requestMessage(request, serializer));
+        RpcRequest received = (RpcRequest) decoded.getData();
+        MessagePool.recycle(decoded);
+        RpcRequestCodec.decodeParameters(received, serializer);
+        Object result = received.getParameters()[0];
+        MessagePool.recycle(received);
+        return result;
+    }
+
+    @Benchmark
+    public Object responseRoundTrip() {
+        RpcResponse response = MessagePool.newResponse(RpcResponseCode.SUCCESS.getCode(), "success", payload, REQUEST_ID);
+        RpcMessage decoded = roundTrip(MessagePool.newMessage(RpcMessageType.RESPONSE.getCode(), serializer.getCode(), response));
+        RpcResponse received = (RpcResponse) decoded.getData();
+        MessagePool.recycle(decoded);
+        RpcResponseCodec.decodeBody(received, serializer, String.class);
+        Object result = received.getData();
+        MessagePool.recycle(received);
+        return result;
+    }
+
+    /**
+     * 编码成一帧再解码 (帧长度校验一下，编码失败时编码器只打印异常)
+     */
+    private RpcMessage roundTrip(RpcMessage message) {
+        channel.writeOutbound(message);
+        ByteBuf frame = channel.readOutbound();
+        if (frame.readableBytes() <= RpcConstants.HEAD_LENGTH) {
+            frame.release();
+            throw new IllegalStateException("编码失败");
+        }
+        channel.writeInbound(frame);
+        return channel.readInbound();
+    }
+}
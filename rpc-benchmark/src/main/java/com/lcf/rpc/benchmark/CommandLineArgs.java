@@ -0,0 +1,99 @@
+package com.lcf.rpc.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 压测工具共用的命令行参数 (--key value 或 --key=value)
+ * 取值方法会把参数从剩余集合中移除，全部取完后调用 checkUnknown，剩下的就是无法识别的参数。
+ * 格式错误统一抛 IllegalArgumentException，由各工具的 main 打印并以 2 退出。
+ */
+public final class CommandLineArgs {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private CommandLineArgs() {
+    }
+
+    public static CommandLineArgs parse(String[] args) {
+        CommandLineArgs parsed = new CommandLineArgs();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                parsed.values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (i + 1 < args.length) {
+                parsed.values.put(arg.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("参数缺少取值: " + arg);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * @return 没有这个参数时返回 null
+     */
+    public String string(String name) {
+        return values.remove(name);
+    }
+
+    /**
+     * 必填参数
+     */
+    public String required(String name) {
+        String value = values.remove(name);
+        if (value == null) {
+            throw new IllegalArgumentException("缺少 --" + name);
+        }
+        return value;
+    }
+
+    public int intValue(String name, int defaultValue) {
+        String value = values.remove(name);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw notNumber(name, value);
+        }
+    }
+
+    public long longValue(String name, long defaultValue) {
+        String value = values.remove(name);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw notNumber(name, value);
+        }
+    }
+
+    public double doubleValue(String name, double defaultValue) {
+        String value = values.remove(name);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw notNumber(name, value);
+        }
+    }
+
+    public boolean booleanValue(String name, boolean defaultValue) {
+        String value = values.remove(name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * 所有参数取完后调用，还有剩余说明传了无法识别的参数
+     */
+    public void checkUnknown() {
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("无法识别的参数: " + values.keySet());
+        }
+    }
+
+    private static IllegalArgumentException notNumber(String name, String value) {
+        return new IllegalArgumentException("--" + name + " 的取值不是数字: " + value);
+    }
+}
@@ -0,0 +1,9 @@
+package com.lcf.rpc.benchmark;
+
+/**
+ * 压测用的服务：原样返回参数
+ */
+public interface EchoService {
+
+    String echo(String payload);
+}
@@ -0,0 +1,9 @@
+package com.lcf.rpc.benchmark;
+
+public class EchoServiceImpl implements EchoService {
+
+    @Override
+    public String echo(String payload) {
+        return payload;
+    }
+}
@@ -0,0 +1,80 @@
+package com.lcf.rpc.benchmark;
+
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.core.filter.FilterChain;
+import com.lcf.rpc.core.filter.FilterConfig;
+import com.lcf.rpc.core.filter.FilterContext;
+import com.lcf.rpc.core.filter.FilterGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 过滤器调用链：查表拿到编译好的调用链并执行 (和代理、NettyServerHandler 中的用法一致)
+ * 生效的过滤器取决于 META-INF/extensions 和 rpc.filter.exclude，默认是客户端 clientToken、服务端 serviceToken。
+ * emptyChain 是某个阶段没有过滤器时的开销 (只查表，调用方直接跳过)。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    private RpcRequest clientRequest;
+    private RpcRequest serverRequest;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FilterConfig.compile(EchoService.class);
+        clientRequest = BenchmarkSupport.echoRequest("client", "hello");
+        // 服务端收到的请求已经带着客户端过滤器写入的 attachments
+        serverRequest = BenchmarkSupport.echoRequest("server", "hello");
+        clientBefore(serverRequest);
+    }
+
+    @Benchmark
+    public RpcRequest client() {
+        return clientBefore(clientRequest);
+    }
+
+    @Benchmark
+    public RpcRequest server() {
+        FilterChain chain = FilterConfig.getChain(FilterGroup.SERVICE_BEFORE, BenchmarkSupport.ECHO_SERVICE,
+                BenchmarkSupport.ECHO_METHOD);
+        if (!chain.isEmpty()) {
+            FilterContext context = FilterContext.forServer(serverRequest);
+            chain.doFilter(context);
+            context.clear();
+        }
+        return serverRequest;
+    }
+
+    @Benchmark
+    public boolean emptyChain() {
+        return FilterConfig.getChain(FilterGroup.CLIENT_AFTER, BenchmarkSupport.ECHO_SERVICE,
+                BenchmarkSupport.ECHO_METHOD).isEmpty();
+    }
+
+    private static RpcRequest clientBefore(RpcRequest request) {
+        FilterChain chain = FilterConfig.getChain(FilterGroup.CLIENT_BEFORE, BenchmarkSupport.ECHO_SERVICE,
+                BenchmarkSupport.ECHO_METHOD);
+        if (!chain.isEmpty()) {
+            FilterContext context = FilterContext.forClient(request);
+            chain.doFilter(context);
+            context.clear();
+        }
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package com.lcf.rpc.benchmark;
+
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.core.loadbalancer.LoadBalancer;
+import com.lcf.rpc.registry.ServiceInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 负载均衡：每种 LoadBalancer 在 10 / 100 / 1000 个节点上选一次节点的开销
+ * 节点权重各不相同 (加权算法要真正计算)，请求参数在一组用户 ID 中轮换 (一致性哈希要真正查环)。
+ * 和线上一样每次选路都传入新复制的节点列表 (含复制的开销，各实现相同)。
+ * contended 用 8 个线程同时选路，看共享状态 (轮询计数、活跃数等) 的争用。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalancerBenchmark {
+
+    private static final int KEYS = 256;
+
+    @Param({"random", "roundRobin", "weightedRoundRobin", "consistentHash", "leastActive", "adaptive"})
+    private String loadBalancerName;
+
+    @Param({"10", "100", "1000"})
+    private int endpoints;
+
+    private LoadBalancer loadBalancer;
+    private List<ServiceInstance> instances;
+    private RpcRequest[] requests;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        loadBalancer = ExtensionLoader.getExtensionLoader(LoadBalancer.class).getExtension(loadBalancerName);
+        List<ServiceInstance> list = new ArrayList<>(endpoints);
+        for (int i = 0; i < endpoints; i++) {
+            String host = "10.0." + (i / 250) + "." + (i % 250 + 1);
+            list.add(new ServiceInstance(host, 9000, 50 + i % 4 * 50));
+        }
+        instances = list;
+        requests = new RpcRequest[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            requests[i] = BenchmarkSupport.echoRequest("request-" + i, "user-" + i);
+        }
+    }
+
+    @Benchmark
+    public ServiceInstance select() {
+        return loadBalancer.select(available(), nextRequest());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ServiceInstance contended() {
+        return loadBalancer.select(available(), nextRequest());
+    }
+
+    /**
+     * 和 RpcClientProxy 一样，每次调用都过滤出一个新的可用节点列表 (节点本身不变)，
+     * 按列表对象缓存状态的实现 (比如哈希环) 在这里会暴露出重建的开销
+     */
+    private List<ServiceInstance> available() {
+        return new ArrayList<>(instances);
+    }
+
+    private RpcRequest nextRequest() {
+        return requests[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+}
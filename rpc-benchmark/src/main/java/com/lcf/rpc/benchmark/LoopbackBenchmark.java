@@ -0,0 +1,106 @@
+package com.lcf.rpc.benchmark;
+
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.core.filter.FilterChain;
+import com.lcf.rpc.core.filter.FilterConfig;
+import com.lcf.rpc.core.filter.FilterContext;
+import com.lcf.rpc.core.filter.FilterGroup;
+import com.lcf.rpc.core.netty.codec.RpcResponseCodec;
+import com.lcf.rpc.core.pool.MessagePool;
+import com.lcf.rpc.core.serialization.Serializer;
+import com.lcf.rpc.core.transport.NettyClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本机回环：NettyClient → localhost → NettyServer → EchoService → 响应
+ * 同一个 JVM 中启动服务端，走真实的 TCP 连接、编解码、服务端过滤器、业务线程池和客户端结果解析。
+ * 不经过注册中心和负载均衡 (直接发往服务端地址)，客户端前置过滤器按代理的方式执行。
+ * single 是单线程串行调用 (看单次往返延迟)，concurrent 是 16 个线程同时调用 (看吞吐)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoopbackBenchmark {
+
+    @Param({"16", "1024", "16384"})
+    private int payloadSize;
+
+    private BenchmarkSupport.LocalServer server;
+    private NettyClient client;
+    private Serializer serializer;
+    private InetSocketAddress address;
+    private String payload;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        server = BenchmarkSupport.startEchoServer();
+        address = server.getAddress();
+        client = new NettyClient();
+        serializer = ExtensionLoader.getExtensionLoader(Serializer.class).getExtension(RpcProperties.getSerializer());
+        payload = BenchmarkSupport.payload(payloadSize);
+        FilterConfig.compile(EchoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public Object single() throws Exception {
+        return call();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Object concurrent() throws Exception {
+        return call();
+    }
+
+    private Object call() throws Exception {
+        RpcRequest request = BenchmarkSupport.echoRequest(UUID.randomUUID().toString(), payload);
+        FilterChain chain = FilterConfig.getChain(FilterGroup.CLIENT_BEFORE, BenchmarkSupport.ECHO_SERVICE,
+                BenchmarkSupport.ECHO_METHOD);
+        if (!chain.isEmpty()) {
+            FilterContext context = FilterContext.forClient(request);
+            chain.doFilter(context);
+            context.clear();
+        }
+        RpcResponse response = client.sendRequest(BenchmarkSupport.requestMessage(request, serializer), address)
+                .get(5, TimeUnit.SECONDS);
+        try {
+            if (response.getCode() != RpcResponseCode.SUCCESS.getCode()) {
+                throw new IllegalStateException("调用失败: " + response.getCode() + " " + response.getMessage());
+            }
+            RpcResponseCodec.decodeBody(response, serializer, String.class);
+            return response.getData();
+        } finally {
+            MessagePool.recycle(response);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.lcf.rpc.benchmark;
+
+import com.lcf.rpc.common.enumeration.RpcMessageType;
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.common.model.RpcMessage;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.netty.codec.RpcMessageDecoder;
+import com.lcf.rpc.core.netty.codec.RpcMessageEncoder;
+import com.lcf.rpc.core.netty.codec.RpcRequestCodec;
+import com.lcf.rpc.core.pool.MessagePool;
+import com.lcf.rpc.core.serialization.Serializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 协议对象池 (MessagePool) 的效果：服务端处理一个请求在协议对象上的完整生命周期
+ * 解码请求帧 → 反序列化参数 → 创建响应 → 编码响应帧 → 按归属规则回收。
+ * 两个方法代码相同，unpooled 在关闭对象池的 JVM 中运行 (-Dio.netty.recycler.maxCapacityPerThread=0)，
+ * 对比 gc.alloc.rate.norm 就是池化省下的每次请求分配量。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagePoolBenchmark {
+
+    private Serializer serializer;
+    private EmbeddedChannel channel;
+    private ByteBuf requestFrame;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        serializer = ExtensionLoader.getExtensionLoader(Serializer.class).getExtension("kryo");
+        channel = new EmbeddedChannel(new RpcMessageEncoder(serializer), new RpcMessageDecoder(serializer));
+        RpcRequest request = BenchmarkSupport.echoRequest("00000000-0000-0000-0000-000000000000",
+                BenchmarkSupport.payload(128));
+        channel.writeOutbound(BenchmarkSupport.requestMessage(request, serializer));
+        requestFrame = channel.readOutbound();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestFrame.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int pooled() {
+        return serverCycle();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dio.netty.recycler.maxCapacityPerThread=0")
+    public int unpooled() {
+        return serverCycle();
+    }
+
+    private int serverCycle() {
+        channel.writeInbound(requestFrame.retainedDuplicate());
+        RpcMessage inbound = channel.readInbound();
+        RpcRequest request = (RpcRequest) inbound.getData();
+        MessagePool.recycle(inbound);
+        RpcRequestCodec.decodeParameters(request, serializer);
+
+        RpcResponse response = MessagePool.newResponse(RpcResponseCode.SUCCESS.getCode(), "success",
+                request.getParameters()[0], request.getRequestId());
+        channel.writeOutbound(MessagePool.newMessage(RpcMessageType.RESPONSE.getCode(), serializer.getCode(), response));
+        MessagePool.recycle(request);
+
+        ByteBuf responseFrame = channel.readOutbound();
+        int length = responseFrame.readableBytes();
+        responseFrame.release();
+        return length;
+    }
+}
@@ -0,0 +1,69 @@
+package com.lcf.rpc.benchmark;
+
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.core.serialization.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列化器：KryoSerializer 对比 JsonSerializer
+ * 序列化的是参数数组 (和请求体第二段一致)，包含字符串、数字、列表和 Map。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"kryo", "json"})
+    private String serializerName;
+
+    @Param({"16", "1024", "16384"})
+    private int payloadSize;
+
+    private Serializer serializer;
+    private Object[] args;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        serializer = ExtensionLoader.getExtensionLoader(Serializer.class).getExtension(serializerName);
+        List<String> tags = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tags.add("tag-" + i);
+        }
+        Map<String, String> options = new HashMap<>();
+        options.put("region", "cn-east-1");
+        options.put("channel", "benchmark");
+        args = new Object[]{BenchmarkSupport.payload(payloadSize), 42, 1234567890123L, tags, options};
+        bytes = serializer.serialize(args);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(args);
+    }
+
+    @Benchmark
+    public Object[] deserialize() {
+        return serializer.deserialize(bytes, Object[].class);
+    }
+}
@@ -0,0 +1,359 @@
+package com.lcf.rpc.benchmark.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lcf.rpc.benchmark.BenchmarkSupport;
+import com.lcf.rpc.benchmark.CommandLineArgs;
+import com.lcf.rpc.benchmark.EchoService;
+import com.lcf.rpc.benchmark.EchoServiceImpl;
+import com.lcf.rpc.common.exception.RpcException;
+import com.lcf.rpc.core.proxy.RpcClientProxy;
+import com.lcf.rpc.core.transport.NettyClient;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 集群场景压测：启动进程内集群，按固定速率 (开环) 调用 EchoService，按时间表注入故障 / 变更成员，
+ * 每秒输出一行：吞吐、失败数、延迟 (从计划发出时间算起)、各节点收到的请求数 (看流量如何重新分布)
+ * <pre>
+ * java -cp benchmarks.jar com.lcf.rpc.benchmark.cluster.ClusterScenario \
+ *      --providers 4 --qps 2000 --duration 40 \
+ *      --events "10:slow:0:200,20:kill:1,25:unregister:1,30:restart:1" --json cluster.json
+ * </pre>
+ * 事件格式 "秒:动作[:节点[:参数]]"，秒数从统计开始 (预热之后) 算起：
+ * <pre>
+ * slow:i:延迟ms[:抖动ms]          节点变慢
+ * errors:i:比例[:FAIL|OVERLOAD|DROP|DISCONNECT]  按比例注入故障 (默认 FAIL)
+ * heal:i                         清除节点上的注入
+ * kill:i                         节点崩溃 (端口关闭、连接断开，注册中心里仍然存在)
+ * unregister:i                   从注册中心摘除 (相当于会话过期)
+ * shutdown:i                     优雅下线 (先摘除再关闭)
+ * restart:i                      在原端口重启并重新注册
+ * add                            扩容一个节点
+ * </pre>
+ * 其他参数：--concurrency 发请求的线程数 (默认 64)，--payload 字节 (默认 128)，--warmup 秒 (默认 5)，--json 输出路径。
+ * 负载均衡、重试、熔断等按 classpath 上的 rpc.properties 配置 (需要 rpc.registry.type=memory)。
+ */
+@Slf4j
+public class ClusterScenario {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private int providers = 4;
+    private int qps = 1000;
+    private int concurrency = 64;
+    private int payload = 128;
+    private int duration = 30;
+    private int warmup = 5;
+    private String events = "";
+    private String json;
+
+    private final Recorder recorder = new Recorder(HIGHEST_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        ClusterScenario scenario = new ClusterScenario();
+        try {
+            scenario.parse(args);
+            scenario.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (Exception e) {
+            log.error("场景执行失败", e);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private void parse(String[] args) {
+        CommandLineArgs values = CommandLineArgs.parse(args);
+        providers = values.intValue("providers", providers);
+        qps = values.intValue("qps", qps);
+        concurrency = values.intValue("concurrency", concurrency);
+        payload = values.intValue("payload", payload);
+        duration = values.intValue("duration", duration);
+        warmup = values.intValue("warmup", warmup);
+        String timeline = values.string("events");
+        events = timeline == null ? events : timeline;
+        json = values.string("json");
+        values.checkUnknown();
+        if (providers <= 0 || qps <= 0 || concurrency <= 0 || duration <= 0 || warmup < 0) {
+            throw new IllegalArgumentException("providers / qps / concurrency / duration 必须大于 0");
+        }
+    }
+
+    private void run() throws Exception {
+        Map<Integer, List<String[]>> timeline = parseEvents(events);
+        LocalCluster cluster = LocalCluster.start(EchoService.class, new EchoServiceImpl(), providers);
+        NettyClient client = new NettyClient();
+        EchoService echo = new RpcClientProxy(client).getProxy(EchoService.class);
+        String body = BenchmarkSupport.payload(payload);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "cluster-client-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers.prestartAllCoreThreads();
+
+        double intervalNanos = 1e9 / qps;
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(warmup);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(duration);
+        long nextTick = measureStart;
+        int second = 0;
+
+        Histogram total = new Histogram(HIGHEST_MICROS, 3);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<Map<String, Object>> applied = new ArrayList<>();
+        Map<String, Long> lastRequests = new HashMap<>();
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            long now = System.nanoTime();
+            // 每秒统计一次、执行到点的事件 (在调度线程中做，事件和流量的时间对齐)
+            while (now >= nextTick && nextTick <= end) {
+                if (second == 0) {
+                    recorder.reset();
+                    succeeded.sumThenReset();
+                    errors.clear();
+                    snapshotRequests(cluster, lastRequests);
+                    printHeader(cluster);
+                } else {
+                    rows.add(tick(second, cluster, lastRequests, total));
+                }
+                for (String[] event : timeline.getOrDefault(second, new ArrayList<>())) {
+                    applied.add(apply(cluster, second, event));
+                    if ("add".equals(event[0])) {
+                        // 节点数变了，重新打印表头
+                        printHeader(cluster);
+                    }
+                }
+                second++;
+                nextTick = measureStart + TimeUnit.SECONDS.toNanos(second);
+            }
+            if (intended >= end) {
+                break;
+            }
+            while (now < intended) {
+                LockSupport.parkNanos(Math.min(intended - now, nextTick - now));
+                now = System.nanoTime();
+                if (now >= nextTick) {
+                    break;
+                }
+            }
+            if (now < intended) {
+                i--;
+                continue;
+            }
+            workers.execute(() -> call(echo, body, intended));
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        printSummary(total);
+        if (json != null) {
+            writeJson(rows, applied, total);
+            System.out.println("JSON 报告: " + json);
+        }
+        client.close();
+        cluster.close();
+    }
+
+    private void call(EchoService echo, String body, long intended) {
+        try {
+            echo.echo(body);
+            succeeded.increment();
+        } catch (Exception e) {
+            String key = e instanceof RpcException ? ((RpcException) e).getErrorType().name() : e.getClass().getSimpleName();
+            errors.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+        recorder.recordValue(Math.min(micros, HIGHEST_MICROS));
+    }
+
+    private Map<String, Object> tick(int second, LocalCluster cluster, Map<String, Long> lastRequests, Histogram total) {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        long ok = succeeded.sumThenReset();
+        Map<String, Long> failed = new TreeMap<>();
+        errors.forEach((key, count) -> {
+            long n = count.sumThenReset();
+            if (n > 0) {
+                failed.put(key, n);
+            }
+        });
+        long failedTotal = failed.values().stream().mapToLong(Long::longValue).sum();
+        Map<String, Long> distribution = snapshotRequests(cluster, lastRequests);
+
+        StringBuilder line = new StringBuilder(String.format("%4d %7d %6d %9.2f %9.2f %9.2f  ", second, ok + failedTotal,
+                failedTotal, millis(interval.getValueAtPercentile(50)), millis(interval.getValueAtPercentile(99)),
+                millis(interval.getMaxValue())));
+        for (Long count : distribution.values()) {
+            line.append(String.format("%7d", count));
+        }
+        if (!failed.isEmpty()) {
+            line.append("  ").append(failed);
+        }
+        System.out.println(line);
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("second", second);
+        row.put("completed", ok + failedTotal);
+        row.put("failed", failed);
+        row.put("p50Millis", millis(interval.getValueAtPercentile(50)));
+        row.put("p99Millis", millis(interval.getValueAtPercentile(99)));
+        row.put("maxMillis", millis(interval.getMaxValue()));
+        row.put("providers", distribution);
+        return row;
+    }
+
+    /**
+     * 各节点上一秒收到的请求数 (按节点顺序)
+     */
+    private static Map<String, Long> snapshotRequests(LocalCluster cluster, Map<String, Long> last) {
+        Map<String, Long> delta = new LinkedHashMap<>();
+        for (LocalProvider provider : cluster.providers()) {
+            long requests = provider.faults().getRequests();
+            Long previous = last.put(provider.getKey(), requests);
+            delta.put(provider.getKey(), requests - (previous == null ? 0 : previous));
+        }
+        return delta;
+    }
+
+    private void printHeader(LocalCluster cluster) {
+        System.out.println();
+        System.out.printf("集群场景: %d 个节点，目标 QPS %d，线程 %d，统计 %ds%n", providers, qps, concurrency, duration);
+        StringBuilder header = new StringBuilder("   t    完成   失败   p50(ms)   p99(ms)   max(ms)  ");
+        for (LocalProvider provider : cluster.providers()) {
+            header.append(String.format("%7s", "p" + provider.getIndex()));
+        }
+        header.append("  (各节点收到的请求数；延迟从计划发出时间算起)");
+        System.out.println(header);
+    }
+
+    private void printSummary(Histogram total) {
+        System.out.println();
+        System.out.printf("全程: 完成 %d，p50 %.2f ms，p99 %.2f ms，p99.9 %.2f ms，max %.2f ms%n", total.getTotalCount(),
+                millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(99)),
+                millis(total.getValueAtPercentile(99.9)), millis(total.getMaxValue()));
+    }
+
+    private static Map<Integer, List<String[]>> parseEvents(String spec) {
+        Map<Integer, List<String[]>> timeline = new TreeMap<>();
+        if (spec == null || spec.trim().isEmpty()) {
+            return timeline;
+        }
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("事件格式应为 秒:动作[:节点[:参数]]: " + item);
+            }
+            int second = Integer.parseInt(parts[0]);
+            String[] event = new String[parts.length - 1];
+            System.arraycopy(parts, 1, event, 0, event.length);
+            timeline.computeIfAbsent(second, k -> new ArrayList<>()).add(event);
+        }
+        return timeline;
+    }
+
+    private static Map<String, Object> apply(LocalCluster cluster, int second, String[] event) {
+        String action = event[0];
+        String description;
+        if ("add".equals(action)) {
+            LocalProvider added = cluster.addProvider();
+            description = "扩容 p" + added.getIndex() + " (" + added.getKey() + ")";
+        } else {
+            if (event.length < 2) {
+                throw new IllegalArgumentException("事件缺少节点编号: " + String.join(":", event));
+            }
+            LocalProvider provider = cluster.provider(Integer.parseInt(event[1]));
+            switch (action) {
+                case "slow":
+                    long jitter = event.length > 3 ? Long.parseLong(event[3]) : 0;
+                    provider.faults().delay(Long.parseLong(event[2]), jitter);
+                    break;
+                case "errors":
+                    FaultInjector.Fault fault = event.length > 3 ? FaultInjector.Fault.valueOf(event[3])
+                            : FaultInjector.Fault.FAIL;
+                    provider.faults().errors(Double.parseDouble(event[2]), fault);
+                    break;
+                case "heal":
+                    provider.faults().heal();
+                    break;
+                case "kill":
+                    provider.kill();
+                    break;
+                case "unregister":
+                    provider.unregister();
+                    break;
+                case "shutdown":
+                    provider.shutdown();
+                    break;
+                case "restart":
+                    provider.restart();
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知的事件: " + action);
+            }
+            description = action + " p" + provider.getIndex() + (event.length > 2
+                    ? " " + String.join(":", Arrays.copyOfRange(event, 2, event.length)) : "");
+        }
+        System.out.println(">> " + second + "s " + description);
+        Map<String, Object> applied = new LinkedHashMap<>();
+        applied.put("second", second);
+        applied.put("event", description);
+        return applied;
+    }
+
+    private void writeJson(List<Map<String, Object>> rows, List<Map<String, Object>> applied, Histogram total)
+            throws Exception {
+        Map<String, Object> root = new LinkedHashMap<>();
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("providers", providers);
+        config.put("qps", qps);
+        config.put("concurrency", concurrency);
+        config.put("payload", payload);
+        config.put("durationSeconds", duration);
+        config.put("warmupSeconds", warmup);
+        config.put("events", events);
+        root.put("config", config);
+        root.put("events", applied);
+        root.put("timeline", rows);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("completed", total.getTotalCount());
+        summary.put("p50Millis", millis(total.getValueAtPercentile(50)));
+        summary.put("p99Millis", millis(total.getValueAtPercentile(99)));
+        summary.put("p999Millis", millis(total.getValueAtPercentile(99.9)));
+        summary.put("maxMillis", millis(total.getMaxValue()));
+        root.put("summary", summary);
+        Files.write(new File(json).toPath(), new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValueAsBytes(root));
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
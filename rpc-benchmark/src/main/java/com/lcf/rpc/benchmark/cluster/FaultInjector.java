@@ -0,0 +1,154 @@
+package com.lcf.rpc.benchmark.cluster;
+
+import com.lcf.rpc.common.enumeration.RpcMessageType;
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
+import com.lcf.rpc.common.model.RpcMessage;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.pool.MessagePool;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.util.concurrent.GlobalEventExecutor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个提供者的故障注入 (插在服务端解码器和 NettyServerHandler 之间，运行中随时可以调整)
+ * - 延迟：请求在 I/O 线程上延后 delay + [0, jitter] 毫秒再交给业务 Handler，不占用任何线程
+ * - 错误：按 errorRate 的比例注入 Fault 指定的故障，请求不会执行
+ * 同时统计收到的请求数 (看流量在节点间的分布)，并记录所有连接 (节点被“杀掉”时立即断开)。
+ */
+@ChannelHandler.Sharable
+public class FaultInjector extends ChannelInboundHandlerAdapter {
+
+    public enum Fault {
+        /** 返回失败响应 (500，客户端当作业务错误，不重试) */
+        FAIL,
+        /** 返回过载响应 (503，客户端换节点重试) */
+        OVERLOAD,
+        /** 不回响应 (客户端等到超时) */
+        DROP,
+        /** 断开连接 (客户端收到网络错误) */
+        DISCONNECT
+    }
+
+    private final ChannelGroup connections = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injected = new LongAdder();
+
+    private volatile long delayMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    private volatile Fault fault = Fault.FAIL;
+
+    /**
+     * 注入固定延迟和随机抖动
+     */
+    public FaultInjector delay(long delayMillis, long jitterMillis) {
+        this.delayMillis = Math.max(0, delayMillis);
+        this.jitterMillis = Math.max(0, jitterMillis);
+        return this;
+    }
+
+    /**
+     * 按比例注入故障
+     * @param rate 0 ~ 1
+     */
+    public FaultInjector errors(double rate, Fault fault) {
+        this.fault = fault;
+        this.errorRate = rate;
+        return this;
+    }
+
+    /**
+     * 清除所有注入
+     */
+    public FaultInjector heal() {
+        this.delayMillis = 0;
+        this.jitterMillis = 0;
+        this.errorRate = 0;
+        return this;
+    }
+
+    /**
+     * 收到的请求总数 (包括注入了故障的)
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getInjected() {
+        return injected.sum();
+    }
+
+    /**
+     * 立即断开所有客户端连接
+     */
+    public void disconnectAll() {
+        connections.close();
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        connections.add(ctx.channel());
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof RpcMessage) || ((RpcMessage) msg).getMessageType() != RpcMessageType.REQUEST.getCode()) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double rate = errorRate;
+        if (rate > 0 && random.nextDouble() < rate) {
+            injected.increment();
+            inject(ctx, (RpcMessage) msg);
+            return;
+        }
+        long delay = delayMillis;
+        long jitter = jitterMillis;
+        if (jitter > 0) {
+            delay += random.nextLong(jitter + 1);
+        }
+        if (delay > 0) {
+            ctx.executor().schedule(() -> ctx.fireChannelRead(msg), delay, TimeUnit.MILLISECONDS);
+        } else {
+            ctx.fireChannelRead(msg);
+        }
+    }
+
+    private void inject(ChannelHandlerContext ctx, RpcMessage message) {
+        RpcRequest request = (RpcRequest) message.getData();
+        String requestId = request.getRequestId();
+        byte codec = message.getCodec();
+        // 请求不再往后传，按归属规则在这里回收
+        MessagePool.recycle(message);
+        MessagePool.recycle(request);
+        switch (fault) {
+            case DROP:
+                return;
+            case DISCONNECT:
+                ctx.channel().close();
+                return;
+            case OVERLOAD:
+                respond(ctx, codec, RpcResponseCode.OVERLOADED.getCode(), "injected overload", requestId);
+                return;
+            case FAIL:
+            default:
+                respond(ctx, codec, RpcResponseCode.FAIL.getCode(), "injected failure", requestId);
+        }
+    }
+
+    private static void respond(ChannelHandlerContext ctx, byte codec, int code, String message, String requestId) {
+        RpcResponse response = MessagePool.newResponse(code, message, null, requestId);
+        ctx.writeAndFlush(MessagePool.newMessage(RpcMessageType.RESPONSE.getCode(), codec, response));
+    }
+}
@@ -0,0 +1,86 @@
+package com.lcf.rpc.benchmark.cluster;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.core.provider.ServiceProviderImpl;
+import com.lcf.rpc.registry.InMemoryRegistry;
+import com.lcf.rpc.registry.Registry;
+import com.lcf.rpc.registry.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 进程内集群：在一个 JVM 中启动 N 个提供者 (各自监听本机空闲端口)，通过进程内注册中心 (InMemoryRegistry) 发现
+ * 客户端照常使用 RpcClientProxy，负载均衡、熔断、重试、对冲都是真实的；配合 FaultInjector 可以在笔记本上
+ * 复现节点变慢、报错、宕机、扩缩容时的流量重新分布。需要 rpc.registry.type=memory。
+ * 限制：同一个 JVM 中的提供者共享服务实现 (ServiceProviderImpl 是全局的) 和负载统计 (ServerStatus)，
+ * 节点之间的差异只能通过 FaultInjector 制造。
+ */
+public class LocalCluster implements AutoCloseable {
+
+    private final String serviceName;
+    private final InMemoryRegistry registry;
+    private final List<LocalProvider> providers = new ArrayList<>();
+
+    private LocalCluster(String serviceName, InMemoryRegistry registry) {
+        this.serviceName = serviceName;
+        this.registry = registry;
+    }
+
+    /**
+     * 启动集群
+     * @param serviceInterface 服务接口
+     * @param implementation   服务实现 (所有提供者共用)
+     * @param size             提供者个数
+     */
+    public static <T> LocalCluster start(Class<T> serviceInterface, T implementation, int size) {
+        Registry registry = ExtensionLoader.getExtensionLoader(Registry.class).getExtension(RpcProperties.getRegistryType());
+        if (!(registry instanceof InMemoryRegistry)) {
+            throw new IllegalStateException("进程内集群需要 rpc.registry.type=memory，当前为 " + RpcProperties.getRegistryType());
+        }
+        new ServiceProviderImpl().addServiceProvider(implementation, serviceInterface.getName());
+        LocalCluster cluster = new LocalCluster(serviceInterface.getName(), (InMemoryRegistry) registry);
+        for (int i = 0; i < size; i++) {
+            cluster.addProvider();
+        }
+        return cluster;
+    }
+
+    /**
+     * 扩容：启动并注册一个新的提供者 (权重为默认值)
+     */
+    public synchronized LocalProvider addProvider() {
+        return addProvider(ServiceInstance.DEFAULT_WEIGHT);
+    }
+
+    public synchronized LocalProvider addProvider(int weight) {
+        LocalProvider provider = new LocalProvider(providers.size(), serviceName, weight, registry);
+        provider.start();
+        providers.add(provider);
+        return provider;
+    }
+
+    public synchronized LocalProvider provider(int index) {
+        return providers.get(index);
+    }
+
+    public synchronized List<LocalProvider> providers() {
+        return Collections.unmodifiableList(new ArrayList<>(providers));
+    }
+
+    /**
+     * 注册中心中当前可见的节点数
+     */
+    public int registeredSize() {
+        return registry.lookupInstances(serviceName).size();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (LocalProvider provider : providers) {
+            provider.shutdown();
+        }
+    }
+}
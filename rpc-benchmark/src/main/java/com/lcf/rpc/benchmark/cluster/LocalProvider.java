@@ -0,0 +1,111 @@
+package com.lcf.rpc.benchmark.cluster;
+
+import com.lcf.rpc.benchmark.BenchmarkSupport;
+import com.lcf.rpc.core.transport.NettyServer;
+import com.lcf.rpc.registry.InMemoryRegistry;
+import com.lcf.rpc.registry.ServiceInstance;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 集群中的一个提供者：一个 NettyServer (本机端口) + 注册中心中的一个节点 + 故障注入
+ * 成员变化可以分开控制，模拟不同的故障形态：
+ * - kill：进程崩溃，端口关闭、连接立即断开，但注册中心里还在 (会话还没过期)，需要再 unregister
+ * - shutdown：优雅下线，先注销再关闭
+ * - restart：在原端口上重新启动并注册
+ */
+@Slf4j
+public class LocalProvider {
+
+    private static final String HOST = "127.0.0.1";
+
+    private final int index;
+    private final String serviceName;
+    private final int weight;
+    private final InMemoryRegistry registry;
+    private final int port;
+    private final FaultInjector faults = new FaultInjector();
+
+    private volatile NettyServer server;
+
+    LocalProvider(int index, String serviceName, int weight, InMemoryRegistry registry) {
+        this.index = index;
+        this.serviceName = serviceName;
+        this.weight = weight;
+        this.registry = registry;
+        this.port = BenchmarkSupport.freePort();
+    }
+
+    /**
+     * 启动服务端并注册
+     */
+    public synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        NettyServer nettyServer = new NettyServer(port).addInboundHandler(() -> faults);
+        Thread thread = new Thread(nettyServer::start, "cluster-provider-" + index);
+        thread.setDaemon(true);
+        thread.start();
+        BenchmarkSupport.awaitListening(getAddress());
+        server = nettyServer;
+        register();
+        log.info("提供者 {} 已启动: {}", index, getKey());
+    }
+
+    public void register() {
+        registry.register(serviceName, new ServiceInstance(HOST, port, weight, System.currentTimeMillis(), 0));
+    }
+
+    public void unregister() {
+        registry.unregister(serviceName, getKey());
+    }
+
+    /**
+     * 崩溃：关闭端口并断开所有连接，不注销
+     */
+    public synchronized void kill() {
+        NettyServer current = server;
+        if (current == null) {
+            return;
+        }
+        server = null;
+        current.stop();
+        faults.disconnectAll();
+        log.info("提供者 {} 已被杀掉: {}", index, getKey());
+    }
+
+    /**
+     * 优雅下线：先注销，再关闭
+     */
+    public void shutdown() {
+        unregister();
+        kill();
+    }
+
+    public void restart() {
+        kill();
+        start();
+    }
+
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public FaultInjector faults() {
+        return faults;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getKey() {
+        return HOST + ":" + port;
+    }
+
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(HOST, port);
+    }
+}
@@ -0,0 +1,80 @@
+package com.lcf.rpc.benchmark.gate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 基线文件 (JSON，随代码提交)：生成基线时的运行环境 + 每项压测的结果
+ * 压测名的格式为 "类名.方法名 参数=值 ..."，例如 "CodecBenchmark.requestRoundTrip payloadSize=1024 serializerName=kryo"。
+ * 基线按运行环境分文件保存，文件名为 baseline-{环境标识}.json，环境标识见 environmentKey。
+ */
+@Data
+public class PerfBaseline {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private Map<String, String> environment = new LinkedHashMap<>();
+
+    private Map<String, PerfResult> benchmarks = new TreeMap<>();
+
+    /**
+     * 当前机器的运行环境 (CPU 数、JVM 版本不同时结果不可比)
+     */
+    static Map<String, String> currentEnvironment() {
+        Map<String, String> environment = new LinkedHashMap<>();
+        environment.put("createdAt", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        environment.put("jvm", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"));
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("cpus", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        return environment;
+    }
+
+    /**
+     * 环境标识：操作系统-架构-CPU 数-JDK 主版本，如 linux-amd64-1cpu-jdk17
+     * 只有标识相同的机器跑出的结果才拿来比较 (JVM 补丁版本、厂商不同只在报告里提示)
+     */
+    static String environmentKey(Map<String, String> environment) {
+        String os = environment.getOrDefault("os", "unknown").toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-");
+        String jvm = environment.getOrDefault("jvm", "");
+        String version = jvm.substring(jvm.lastIndexOf(' ') + 1);
+        return os + "-" + environment.getOrDefault("cpus", "0") + "cpu-jdk" + javaMajor(version);
+    }
+
+    /**
+     * "1.8.0_372" -> 8，"17.0.9" -> 17
+     */
+    private static String javaMajor(String version) {
+        String[] parts = version.split("[._\\-+]");
+        if (parts.length > 1 && "1".equals(parts[0])) {
+            return parts[1];
+        }
+        return parts.length > 0 && !parts[0].isEmpty() ? parts[0] : "unknown";
+    }
+
+    static File fileFor(File dir, Map<String, String> environment) {
+        return new File(dir, "baseline-" + environmentKey(environment) + ".json");
+    }
+
+    static PerfBaseline load(File file) throws IOException {
+        return MAPPER.readValue(Files.readAllBytes(file.toPath()), PerfBaseline.class);
+    }
+
+    void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        Files.write(file.toPath(), MAPPER.writeValueAsBytes(this));
+    }
+}
@@ -0,0 +1,324 @@
+package com.lcf.rpc.benchmark.gate;
+
+import com.lcf.rpc.benchmark.CommandLineArgs;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 性能回归检查：跑 PerfSuite 中固定的压测，和仓库里的基线比较，退化超过阈值时以非 0 退出 (构建失败)
+ * <pre>
+ * mvn -B verify -Pperf -pl rpc-benchmark -am                       检查
+ * mvn -B verify -Pperf -pl rpc-benchmark -am -Dperf.update=true    生成 / 重新生成本机环境的基线
+ * </pre>
+ * 判定规则 (JMH 的 Error 是 99.9% 置信区间的半宽)：
+ * - 吞吐退化：比基线差超过 --max-drop，并且两次结果的置信区间不重叠；只超过阈值、区间重叠的记为“波动”，不算失败
+ * - 分配增加：每次操作分配的字节数 (gc.alloc.rate.norm) 超过 基线 × (1 + --max-alloc-growth) + --alloc-slack，
+ *   并且置信区间不重叠 (纯计算的压测分配量几乎没有波动，回环这类有网络和线程池参与的会有)
+ * - 缺失：基线中有、本次没有跑出结果的压测 (被删除或改名) 也算失败，确认后重新生成基线
+ * 基线和机器相关，按环境标识 (操作系统-架构-CPU 数-JDK 主版本，见 PerfBaseline.environmentKey) 分文件保存在
+ * rpc-benchmark/perf/baseline-{环境标识}.json。不拿别的机器上的数字判定退化，本机环境没有基线 (或指定的基线文件
+ * 环境不符) 时默认失败，提示先在同类机器上生成基线并提交；加 --skip-on-env-mismatch true 时改为跳过
+ * (不跑压测，返回 0，输出和报告中标明“已跳过”)。
+ * 参数：--baseline 基线目录 (按环境选文件) 或基线文件 (必填)，
+ * --update true 只跑压测并覆盖本机环境的基线，--skip-on-env-mismatch true 没有可比的基线时跳过而不是失败，--forks (默认 2)，
+ * --max-drop (默认 0.10)，--max-alloc-growth (默认 0.10)，--alloc-slack 字节 (默认 16)，
+ * --results 本次结果的输出路径 (格式同基线，可选)，--report 报告的输出路径 (可选)。
+ */
+@Slf4j
+public class PerfGate {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+    // 报告前几列的显示宽度
+    private static final int[] COLUMN_WIDTHS = {10, 76, 20, 20, 9};
+
+    // 基线目录或基线文件 (见 resolveBaseline)
+    private File baseline;
+    private File results;
+    private File report;
+    private boolean update;
+    private boolean skipOnEnvMismatch;
+    private int forks = 2;
+    private double maxDrop = 0.10;
+    private double maxAllocGrowth = 0.10;
+    private double allocSlack = 16;
+
+    public static void main(String[] args) {
+        int status;
+        try {
+            PerfGate gate = new PerfGate();
+            gate.parse(args);
+            status = gate.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            status = 2;
+        } catch (Exception e) {
+            log.error("性能回归检查执行失败", e);
+            status = 2;
+        }
+        System.exit(status);
+    }
+
+    private void parse(String[] args) {
+        CommandLineArgs values = CommandLineArgs.parse(args);
+        baseline = new File(values.required("baseline"));
+        String resultsPath = values.string("results");
+        results = resultsPath == null || resultsPath.isEmpty() ? null : new File(resultsPath);
+        String reportPath = values.string("report");
+        report = reportPath == null || reportPath.isEmpty() ? null : new File(reportPath);
+        update = values.booleanValue("update", false);
+        skipOnEnvMismatch = values.booleanValue("skip-on-env-mismatch", false);
+        forks = values.intValue("forks", forks);
+        maxDrop = values.doubleValue("max-drop", maxDrop);
+        maxAllocGrowth = values.doubleValue("max-alloc-growth", maxAllocGrowth);
+        allocSlack = values.doubleValue("alloc-slack", allocSlack);
+        values.checkUnknown();
+        if (forks <= 0 || maxDrop < 0 || maxAllocGrowth < 0 || allocSlack < 0) {
+            throw new IllegalArgumentException("forks 必须大于 0，阈值不能小于 0");
+        }
+    }
+
+    /**
+     * @return 0 通过 (或按 --skip-on-env-mismatch 跳过)，1 有退化、缺失或没有可比的基线
+     */
+    private int run() throws Exception {
+        PerfBaseline current = new PerfBaseline();
+        current.setEnvironment(PerfBaseline.currentEnvironment());
+        String key = PerfBaseline.environmentKey(current.getEnvironment());
+        File baselineFile = baseline.getName().endsWith(".json")
+                ? baseline : PerfBaseline.fileFor(baseline, current.getEnvironment());
+        PerfBaseline base = null;
+        if (!update) {
+            if (!baselineFile.isFile()) {
+                return envMismatch("本机环境 " + key + " 没有基线 (" + baselineFile + ")");
+            }
+            base = PerfBaseline.load(baselineFile);
+            String baseKey = PerfBaseline.environmentKey(base.getEnvironment());
+            if (!key.equals(baseKey)) {
+                return envMismatch("基线 " + baselineFile + " 的环境为 " + baseKey + "，本机为 " + key + "，结果不可比");
+            }
+        }
+        for (PerfSuite.Entry entry : PerfSuite.entries()) {
+            log.info("运行压测: {}", entry);
+            for (RunResult result : runEntry(entry)) {
+                current.getBenchmarks().put(nameOf(result.getParams()), toResult(result));
+            }
+        }
+        if (results != null) {
+            current.save(results);
+        }
+        if (update) {
+            current.save(baselineFile);
+            System.out.println("基线已更新: " + baselineFile + " (" + current.getBenchmarks().size() + " 项)，请和代码一起提交");
+            return 0;
+        }
+        return compare(base, current);
+    }
+
+    /**
+     * 没有可比的基线：默认失败，显式加了 --skip-on-env-mismatch 才跳过
+     */
+    private int envMismatch(String reason) throws IOException {
+        String out;
+        int status;
+        if (skipOnEnvMismatch) {
+            out = "==== 性能回归检查：已跳过 ====\n" + reason + "。按 --skip-on-env-mismatch 跳过，本次没有做任何比较\n";
+            status = 0;
+        } else {
+            out = "==== 性能回归检查：失败 ====\n" + reason + "。\n"
+                    + "在同类机器上用 -Dperf.update=true 生成基线并提交；确实要在这类机器上放行时加 -Dperf.skipOnEnvMismatch=true\n";
+            status = 1;
+        }
+        System.out.print(out);
+        if (report != null) {
+            Files.write(report.toPath(), out.getBytes(StandardCharsets.UTF_8));
+        }
+        return status;
+    }
+
+    private Collection<RunResult> runEntry(PerfSuite.Entry entry) throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(entry.include())
+                .forks(forks)
+                .addProfiler(GCProfiler.class)
+                .shouldFailOnError(true);
+        for (Map.Entry<String, String[]> param : entry.params().entrySet()) {
+            options.param(param.getKey(), param.getValue());
+        }
+        return new Runner(options.build()).run();
+    }
+
+    /**
+     * "类名.方法名 参数=值 ..."
+     */
+    private static String nameOf(BenchmarkParams params) {
+        String benchmark = params.getBenchmark();
+        int methodDot = benchmark.lastIndexOf('.');
+        StringBuilder name = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', methodDot - 1) + 1));
+        for (String key : params.getParamsKeys()) {
+            name.append(' ').append(key).append('=').append(params.getParam(key));
+        }
+        return name.toString();
+    }
+
+    private static PerfResult toResult(RunResult runResult) {
+        Result<?> primary = runResult.getPrimaryResult();
+        double error = primary.getScoreError();
+        Result<?> alloc = runResult.getSecondaryResults().get(ALLOC_NORM);
+        boolean hasAlloc = alloc != null && !Double.isNaN(alloc.getScore());
+        return new PerfResult(runResult.getParams().getMode().shortLabel(), primary.getScoreUnit(),
+                round(primary.getScore()), Double.isNaN(error) ? 0 : round(error),
+                hasAlloc ? round(alloc.getScore()) : -1,
+                hasAlloc && !Double.isNaN(alloc.getScoreError()) ? round(alloc.getScoreError()) : 0);
+    }
+
+    private int compare(PerfBaseline base, PerfBaseline current) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        int failures = 0;
+        Map<String, PerfResult> all = new TreeMap<>(base.getBenchmarks());
+        all.putAll(current.getBenchmarks());
+        for (String name : all.keySet()) {
+            PerfResult before = base.getBenchmarks().get(name);
+            PerfResult after = current.getBenchmarks().get(name);
+            String status;
+            if (before == null) {
+                status = "新增";
+            } else if (after == null) {
+                // 压测被删除或改名：不能当作通过，确认后重新生成基线
+                status = "失败:缺失";
+                failures++;
+            } else {
+                status = judge(before, after);
+                if (status.startsWith("失败")) {
+                    failures++;
+                }
+            }
+            rows.add(new String[]{status, name, format(before), format(after), change(before, after), alloc(before, after)});
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("==== 性能回归检查 (基线 ").append(baseline).append(") ====\n");
+        warnEnvironment(base.getEnvironment(), current.getEnvironment(), out);
+        appendRow(out, "状态", "压测", "基线", "本次", "变化", "分配 B/op (基线 -> 本次)");
+        for (String[] row : rows) {
+            appendRow(out, row);
+        }
+        out.append(String.format("共 %d 项，失败 %d 项 (阈值：吞吐变差超过 %.0f%% 且置信区间不重叠；分配增加超过 %.0f%% + %.0f B 且置信区间不重叠；基线中的压测本次缺失)%n",
+                rows.size(), failures, maxDrop * 100, maxAllocGrowth * 100, allocSlack));
+        if (failures > 0) {
+            out.append("如果这次改动本来就会带来这些变化，用 -Dperf.update=true 重新生成基线，和代码一起提交并在 PR 中说明\n");
+        }
+        System.out.print(out);
+        if (report != null) {
+            Files.write(report.toPath(), out.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return failures > 0 ? 1 : 0;
+    }
+
+    /**
+     * 比较一项压测：失败 (吞吐 / 分配)、波动、提升或通过
+     */
+    private String judge(PerfResult before, PerfResult after) {
+        if (before.getAllocBytesPerOp() >= 0 && after.getAllocBytesPerOp() >= 0
+                && after.getAllocBytesPerOp() > before.getAllocBytesPerOp() * (1 + maxAllocGrowth) + allocSlack
+                && after.getAllocBytesPerOp() - after.getAllocError() > before.getAllocBytesPerOp() + before.getAllocError()) {
+            return "失败:分配";
+        }
+        if (!Objects.equals(before.getUnit(), after.getUnit()) || !Objects.equals(before.getMode(), after.getMode())) {
+            // 单位或模式变了 (压测本身改过)，分数不可比
+            return "需更新基线";
+        }
+        // worse > 0 表示变差的比例；separated 表示两次的置信区间不重叠
+        double worse;
+        boolean separatedWorse;
+        boolean separatedBetter;
+        if (before.isHigherBetter()) {
+            worse = (before.getScore() - after.getScore()) / before.getScore();
+            separatedWorse = after.getScore() + after.getError() < before.getScore() - before.getError();
+            separatedBetter = after.getScore() - after.getError() > before.getScore() + before.getError();
+        } else {
+            worse = (after.getScore() - before.getScore()) / before.getScore();
+            separatedWorse = after.getScore() - after.getError() > before.getScore() + before.getError();
+            separatedBetter = after.getScore() + after.getError() < before.getScore() - before.getError();
+        }
+        if (worse > maxDrop) {
+            return separatedWorse ? "失败:吞吐" : "波动";
+        }
+        if (-worse > maxDrop && separatedBetter) {
+            return "提升";
+        }
+        return "通过";
+    }
+
+    /**
+     * 按显示宽度对齐 (中文字符占两列)
+     */
+    private static void appendRow(StringBuilder out, String... columns) {
+        for (int i = 0; i < columns.length; i++) {
+            out.append(columns[i]);
+            if (i < COLUMN_WIDTHS.length) {
+                int width = 0;
+                for (int j = 0; j < columns[i].length(); j++) {
+                    width += columns[i].charAt(j) > 0x2E80 ? 2 : 1;
+                }
+                for (int pad = Math.max(1, COLUMN_WIDTHS[i] - width + 1); pad > 0; pad--) {
+                    out.append(' ');
+                }
+            }
+        }
+        out.append('\n');
+    }
+
+    /**
+     * 环境标识相同才会走到比较，这里只提示 JVM 厂商 / 补丁版本的差异
+     */
+    private static void warnEnvironment(Map<String, String> base, Map<String, String> current, StringBuilder out) {
+        String before = base.get("jvm");
+        String after = current.get("jvm");
+        if (before != null && !before.equals(after)) {
+            out.append(String.format("注意：基线的 JVM 为 %s，本机为 %s，结果可能有偏差%n", before, after));
+        }
+    }
+
+    private static String format(PerfResult result) {
+        if (result == null) {
+            return "-";
+        }
+        return String.format("%.2f ± %.2f", result.getScore(), result.getError());
+    }
+
+    private static String change(PerfResult before, PerfResult after) {
+        if (before == null || after == null || before.getScore() == 0) {
+            return "";
+        }
+        return String.format("%+.1f%%", (after.getScore() - before.getScore()) * 100 / before.getScore());
+    }
+
+    private static String alloc(PerfResult before, PerfResult after) {
+        return String.format("%s -> %s", allocOf(before), allocOf(after));
+    }
+
+    private static String allocOf(PerfResult result) {
+        return result == null || result.getAllocBytesPerOp() < 0 ? "-" : String.format("%.0f", result.getAllocBytesPerOp());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
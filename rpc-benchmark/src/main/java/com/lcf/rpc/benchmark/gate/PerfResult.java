@@ -0,0 +1,45 @@
+package com.lcf.rpc.benchmark.gate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一项压测的结果 (基线文件中的一条)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PerfResult {
+
+    /**
+     * JMH 模式 (thrpt / avgt / sample / ss)，thrpt 越大越好，其余越小越好
+     */
+    private String mode;
+
+    /**
+     * 分数的单位，如 ops/ms
+     */
+    private String unit;
+
+    private double score;
+
+    /**
+     * 99.9% 置信区间的半宽 (JMH 的 Error)，迭代次数不够时为 0
+     */
+    private double error;
+
+    /**
+     * 每次操作分配的字节数 (gc.alloc.rate.norm)，没有数据时为 -1
+     */
+    private double allocBytesPerOp;
+
+    /**
+     * 分配字节数的置信区间半宽 (有网络、线程池参与的压测分配量也有波动)
+     */
+    private double allocError;
+
+    boolean isHigherBetter() {
+        return "thrpt".equals(mode);
+    }
+}
@@ -0,0 +1,82 @@
+package com.lcf.rpc.benchmark.gate;
+
+import com.lcf.rpc.benchmark.CircuitBreakerBenchmark;
+import com.lcf.rpc.benchmark.CodecBenchmark;
+import com.lcf.rpc.benchmark.FilterChainBenchmark;
+import com.lcf.rpc.benchmark.LoadBalancerBenchmark;
+import com.lcf.rpc.benchmark.LoopbackBenchmark;
+import com.lcf.rpc.benchmark.MessagePoolBenchmark;
+import com.lcf.rpc.benchmark.SerializerBenchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回归检查固定跑的压测 (rpc-core 的热路径)，每项是一组 JMH 方法加上固定的参数
+ * 只挑有代表性的参数组合，全部跑完约 5 分钟；增删条目后需要重新生成基线。
+ */
+final class PerfSuite {
+
+    private static final List<Entry> ENTRIES;
+
+    static {
+        List<Entry> entries = new ArrayList<>();
+        // 编解码 / 序列化：中等大小的载荷，默认的 Kryo
+        entries.add(new Entry(CodecBenchmark.class, "requestRoundTrip|responseRoundTrip")
+                .param("payloadSize", "1024").param("serializerName", "kryo"));
+        entries.add(new Entry(SerializerBenchmark.class, "serialize|deserialize")
+                .param("payloadSize", "1024").param("serializerName", "kryo"));
+        // 每次调用都会走的选址、过滤器链、熔断判断
+        entries.add(new Entry(LoadBalancerBenchmark.class, "select")
+                .param("loadBalancerName", "roundRobin", "consistentHash", "adaptive").param("endpoints", "100"));
+        entries.add(new Entry(FilterChainBenchmark.class, "client|server"));
+        entries.add(new Entry(CircuitBreakerBenchmark.class, "uncontended"));
+        entries.add(new Entry(MessagePoolBenchmark.class, "pooled"));
+        // 本机回环的完整调用 (编码、网络栈、服务端分发、解码)
+        entries.add(new Entry(LoopbackBenchmark.class, "single").param("payloadSize", "1024"));
+        ENTRIES = Collections.unmodifiableList(entries);
+    }
+
+    private PerfSuite() {
+    }
+
+    static List<Entry> entries() {
+        return ENTRIES;
+    }
+
+    static final class Entry {
+
+        private final Class<?> benchmark;
+        private final String methods;
+        private final Map<String, String[]> params = new LinkedHashMap<>();
+
+        Entry(Class<?> benchmark, String methods) {
+            this.benchmark = benchmark;
+            this.methods = methods;
+        }
+
+        Entry param(String name, String... values) {
+            params.put(name, values);
+            return this;
+        }
+
+        /**
+         * JMH 的 include 正则 (只匹配这个类里列出的方法)
+         */
+        String include() {
+            return "^" + benchmark.getName().replace(".", "\\.") + "\\.(" + methods + ")$";
+        }
+
+        Map<String, String[]> params() {
+            return params;
+        }
+
+        @Override
+        public String toString() {
+            return benchmark.getSimpleName() + "." + methods.replace("|", ",");
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.lcf.rpc.benchmark.loadgen;
+
+import com.lcf.rpc.core.proxy.RpcClientProxy;
+import com.lcf.rpc.core.transport.NettyClient;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环压测工具：按固定速率向服务发请求，统计延迟百分位和错误
+ * 走真实的客户端 (RpcClientProxy + NettyClient)，注册中心、负载均衡、重试等都按 rpc.properties 配置，
+ * 所以 classpath 上需要有目标环境的 rpc.properties 和服务接口类，例如：
+ * <pre>
+ * java -cp conf:rpc-demo.jar:benchmarks.jar com.lcf.rpc.benchmark.loadgen.LoadGenerator \
+ *      --service com.lcf.rpc.demo.api.HelloService --qps 2000 --concurrency 128 --duration 60 --json result.json
+ * </pre>
+ * 调度线程按计划时间 (start + i / qps) 把请求交给发请求的线程池，不等待上一个请求返回；
+ * 线程都忙时请求在队列中排队，排队时间计入延迟 (见 LoadReport)。参数说明见 LoadOptions。
+ */
+@Slf4j
+public class LoadGenerator {
+
+    // 统计结束后等待在途请求返回的最长时间
+    private static final long DRAIN_SECONDS = 30;
+
+    private final LoadOptions options;
+
+    private LoadGenerator(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("用法: LoadGenerator --service <接口> [--methods a:3,b:1] [--qps 1000] [--concurrency 64]"
+                    + " [--payload 128] [--duration 60] [--warmup 10] [--name 名字] [--json 文件] [--hgrm 文件]");
+            System.exit(2);
+            return;
+        }
+        // NettyClient、注册中心客户端的线程不都是守护线程，结束时直接退出
+        try {
+            LoadReport report = new LoadGenerator(options).run();
+            report.print(System.out);
+            if (options.json != null) {
+                report.writeJson(new File(options.json));
+                System.out.println("JSON 报告: " + options.json);
+            }
+            if (options.hgrm != null) {
+                report.writeHgrm(new File(options.hgrm));
+                System.out.println("百分位分布: " + options.hgrm);
+            }
+        } catch (Exception e) {
+            log.error("压测失败", e);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private LoadReport run() throws Exception {
+        Class<?> serviceInterface = Class.forName(options.service);
+        MethodMix mix = MethodMix.parse(serviceInterface, options.methods, options.payload);
+        LoadReport report = new LoadReport(options, mix);
+
+        NettyClient client = new NettyClient();
+        Object proxy = new RpcClientProxy(client).getProxy(serviceInterface);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(options.concurrency, options.concurrency,
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "loadgen-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers.prestartAllCoreThreads();
+
+        log.info("开始压测: {} qps={} threads={} warmup={}s duration={}s", report.getName(), options.qps,
+                options.concurrency, options.warmup, options.duration);
+        double intervalNanos = 1e9 / options.qps;
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(options.warmup);
+        long end = measureStart + TimeUnit.SECONDS.toNanos(options.duration);
+        long scheduled = 0;
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long now = System.nanoTime();
+            while (now < intended) {
+                LockSupport.parkNanos(intended - now);
+                now = System.nanoTime();
+            }
+            if (intended >= measureStart) {
+                report.updateDispatchLag(now - intended);
+                scheduled++;
+            }
+            int method = mix.next();
+            workers.execute(() -> call(proxy, mix, method, intended, measureStart, report));
+        }
+        report.setScheduled(scheduled);
+
+        workers.shutdown();
+        if (!workers.awaitTermination(DRAIN_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("{} 秒内仍有请求没有返回，不再等待 (队列中还有 {} 个)", DRAIN_SECONDS, workers.getQueue().size());
+        }
+        report.setElapsedNanos(Math.max(end, System.nanoTime()) - measureStart);
+        client.close();
+        return report;
+    }
+
+    private static void call(Object proxy, MethodMix mix, int method, long intended, long measureStart,
+                             LoadReport report) {
+        Method target = mix.method(method);
+        long begin = System.nanoTime();
+        Throwable error = null;
+        try {
+            target.invoke(proxy, mix.args(method));
+        } catch (InvocationTargetException e) {
+            error = e.getCause();
+        } catch (Exception e) {
+            error = e;
+        }
+        if (intended < measureStart) {
+            // 预热期间的结果不统计
+            return;
+        }
+        long finished = System.nanoTime();
+        if (error == null) {
+            report.recordSuccess(method, finished - intended, finished - begin);
+        } else {
+            report.recordFailure(method, finished - intended, finished - begin, error);
+        }
+    }
+}
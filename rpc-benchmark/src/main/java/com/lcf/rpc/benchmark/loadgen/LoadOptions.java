@@ -0,0 +1,56 @@
+package com.lcf.rpc.benchmark.loadgen;
+
+import com.lcf.rpc.benchmark.CommandLineArgs;
+
+/**
+ * 压测参数 (命令行 --key value 或 --key=value)
+ * <pre>
+ * --service      服务接口全限定名 (必填，接口类需要在 classpath 上)
+ * --methods      方法及权重，如 sayHello:3,query:1 (默认接口的全部方法，权重相同)
+ * --qps          目标 QPS，按固定间隔发出，不受响应快慢影响 (默认 1000)
+ * --concurrency  发请求的线程数，即最多同时在途的调用数 (默认 64)
+ * --payload      字符串 / byte[] 参数的大小，字节 (默认 128)
+ * --duration     统计时长，秒 (默认 60)
+ * --warmup       预热时长，秒，预热期间的结果不统计 (默认 10)
+ * --name         本次压测的名字，写进报告 (默认 service#methods)
+ * --json         JSON 报告的输出路径 (可选)
+ * --hgrm         HdrHistogram 百分位分布的输出路径 (可选，可以用 HdrHistogram 的绘图工具画图)
+ * </pre>
+ */
+final class LoadOptions {
+
+    String service;
+    String methods;
+    int qps = 1000;
+    int concurrency = 64;
+    int payload = 128;
+    int duration = 60;
+    int warmup = 10;
+    String name;
+    String json;
+    String hgrm;
+
+    private LoadOptions() {
+    }
+
+    static LoadOptions parse(String[] args) {
+        CommandLineArgs values = CommandLineArgs.parse(args);
+        LoadOptions options = new LoadOptions();
+        options.service = values.required("service");
+        options.methods = values.string("methods");
+        options.qps = values.intValue("qps", options.qps);
+        options.concurrency = values.intValue("concurrency", options.concurrency);
+        options.payload = values.intValue("payload", options.payload);
+        options.duration = values.intValue("duration", options.duration);
+        options.warmup = values.intValue("warmup", options.warmup);
+        options.name = values.string("name");
+        options.json = values.string("json");
+        options.hgrm = values.string("hgrm");
+        values.checkUnknown();
+        if (options.qps <= 0 || options.concurrency <= 0 || options.duration <= 0 || options.warmup < 0
+                || options.payload < 0) {
+            throw new IllegalArgumentException("qps / concurrency / duration 必须大于 0，warmup / payload 不能小于 0");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,234 @@
+package com.lcf.rpc.benchmark.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lcf.rpc.common.exception.RpcException;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测统计 (多个发请求的线程同时写入) 和报告输出
+ * 两种耗时：
+ * - latency：从“计划发出时间”算起，包含在客户端排队等线程的时间。开环压测中服务变慢时请求会积压，
+ *   这部分等待真实用户也会感受到，不会被漏掉 (没有 coordinated omission)
+ * - service：从实际调用代理算起，只是一次调用本身的耗时
+ * 直方图单位微秒，最大记录 1 小时，3 位有效数字。
+ */
+final class LoadReport {
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final LoadOptions options;
+    private final MethodMix mix;
+
+    private final Histogram latency = newHistogram();
+    private final Histogram service = newHistogram();
+    private final Histogram[] methodLatency;
+    private final LongAdder[] methodErrors;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    // 由发请求的调度线程写入
+    private volatile long scheduled;
+    private volatile long maxDispatchLagMicros;
+    private volatile long elapsedNanos;
+
+    LoadReport(LoadOptions options, MethodMix mix) {
+        this.options = options;
+        this.mix = mix;
+        this.methodLatency = new Histogram[mix.size()];
+        this.methodErrors = new LongAdder[mix.size()];
+        for (int i = 0; i < mix.size(); i++) {
+            methodLatency[i] = newHistogram();
+            methodErrors[i] = new LongAdder();
+        }
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    void recordSuccess(int method, long latencyNanos, long serviceNanos) {
+        record(method, latencyNanos, serviceNanos);
+        succeeded.increment();
+    }
+
+    void recordFailure(int method, long latencyNanos, long serviceNanos, Throwable error) {
+        record(method, latencyNanos, serviceNanos);
+        failed.increment();
+        methodErrors[method].increment();
+        errors.computeIfAbsent(errorKey(error), k -> new LongAdder()).increment();
+    }
+
+    private void record(int method, long latencyNanos, long serviceNanos) {
+        long latencyMicros = Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        latency.recordValue(latencyMicros);
+        methodLatency[method].recordValue(latencyMicros);
+        service.recordValue(Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(serviceNanos)));
+    }
+
+    /**
+     * 错误分类：RpcException 按类型 (TIMEOUT、OVERLOADED ...)，其他按异常类名
+     */
+    private static String errorKey(Throwable error) {
+        if (error instanceof RpcException) {
+            return ((RpcException) error).getErrorType().name();
+        }
+        return error.getClass().getSimpleName();
+    }
+
+    void setScheduled(long scheduled) {
+        this.scheduled = scheduled;
+    }
+
+    void updateDispatchLag(long lagNanos) {
+        long lagMicros = TimeUnit.NANOSECONDS.toMicros(lagNanos);
+        if (lagMicros > maxDispatchLagMicros) {
+            maxDispatchLagMicros = lagMicros;
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    String getName() {
+        return options.name != null ? options.name : options.service + "#" + mix.describe();
+    }
+
+    long getCompleted() {
+        return succeeded.sum() + failed.sum();
+    }
+
+    double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getCompleted() * 1e9 / elapsedNanos;
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.println("==== 压测结果: " + getName() + " ====");
+        out.printf("目标 QPS %d，线程 %d，统计 %ds (预热 %ds)，载荷 %d 字节%n",
+                options.qps, options.concurrency, options.duration, options.warmup, options.payload);
+        out.printf("计划 %d，完成 %d，成功 %d，失败 %d，实际吞吐 %.1f/s%n",
+                scheduled, getCompleted(), succeeded.sum(), failed.sum(), getThroughput());
+        if (maxDispatchLagMicros > 1000) {
+            out.printf("注意：调度线程最多落后计划 %.1f ms，压测机本身可能已经饱和%n", maxDispatchLagMicros / 1000.0);
+        }
+        printHistogram(out, "延迟 (从计划发出时间算起，ms)", latency);
+        printHistogram(out, "服务时间 (从实际发出算起，ms)", service);
+        if (mix.size() > 1) {
+            out.println("按方法:");
+            for (int i = 0; i < mix.size(); i++) {
+                Histogram h = methodLatency[i];
+                out.printf("  %-24s 次数 %-10d 失败 %-8d p50 %.3f  p99 %.3f  max %.3f%n", mix.method(i).getName(),
+                        h.getTotalCount(), methodErrors[i].sum(), millis(h.getValueAtPercentile(50)),
+                        millis(h.getValueAtPercentile(99)), millis(h.getMaxValue()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            out.println("错误:");
+            for (Map.Entry<String, Long> entry : errorCounts().entrySet()) {
+                out.printf("  %-24s %d%n", entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static void printHistogram(PrintStream out, String title, Histogram histogram) {
+        out.println(title + ":");
+        StringBuilder sb = new StringBuilder("  ");
+        for (double p : PERCENTILES) {
+            sb.append(String.format("p%s %.3f  ", format(p), millis(histogram.getValueAtPercentile(p))));
+        }
+        sb.append(String.format("max %.3f  mean %.3f", millis(histogram.getMaxValue()), histogram.getMean() / 1000));
+        out.println(sb);
+    }
+
+    /**
+     * JSON 报告 (字段稳定，流水线中可以直接比较两次压测)
+     */
+    void writeJson(File file) throws IOException {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("name", getName());
+        root.put("timestamp", System.currentTimeMillis());
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("service", options.service);
+        config.put("methods", mix.describe());
+        config.put("qps", options.qps);
+        config.put("concurrency", options.concurrency);
+        config.put("payload", options.payload);
+        config.put("durationSeconds", options.duration);
+        config.put("warmupSeconds", options.warmup);
+        root.put("config", config);
+        root.put("scheduled", scheduled);
+        root.put("completed", getCompleted());
+        root.put("succeeded", succeeded.sum());
+        root.put("failed", failed.sum());
+        root.put("throughput", round(getThroughput()));
+        root.put("maxDispatchLagMillis", round(maxDispatchLagMicros / 1000.0));
+        root.put("latencyMillis", histogramJson(latency));
+        root.put("serviceTimeMillis", histogramJson(service));
+        Map<String, Object> methods = new LinkedHashMap<>();
+        for (int i = 0; i < mix.size(); i++) {
+            Map<String, Object> method = histogramJson(methodLatency[i]);
+            method.put("count", methodLatency[i].getTotalCount());
+            method.put("failed", methodErrors[i].sum());
+            methods.put(mix.method(i).getName(), method);
+        }
+        root.put("methods", methods);
+        root.put("errors", errorCounts());
+        byte[] json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(root);
+        Files.write(file.toPath(), json);
+    }
+
+    /**
+     * HdrHistogram 的百分位分布文本 (.hgrm，单位 ms)
+     */
+    void writeHgrm(File file) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file), false, "UTF-8")) {
+            latency.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static Map<String, Object> histogramJson(Histogram histogram) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            map.put("p" + format(p), millis(histogram.getValueAtPercentile(p)));
+        }
+        map.put("max", millis(histogram.getMaxValue()));
+        map.put("mean", round(histogram.getMean() / 1000));
+        return map;
+    }
+
+    private Map<String, Long> errorCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((key, count) -> counts.put(key, count.sum()));
+        return counts;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String format(double percentile) {
+        return percentile == (long) percentile ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,169 @@
+package com.lcf.rpc.benchmark.loadgen;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按权重随机选择要调用的方法，并为每个方法预先生成一组参数 (所有调用共用，参数对象不会被修改)
+ * 参数按类型生成：String / byte[] 为 payload 大小，数字为固定值，其他类型传 null。
+ * 同名重载方法只取参数最少的一个。
+ */
+final class MethodMix {
+
+    private final Method[] methods;
+    private final Object[][] args;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private MethodMix(Method[] methods, int[] weights, int payload) {
+        this.methods = methods;
+        this.args = new Object[methods.length][];
+        this.cumulativeWeights = new int[methods.length];
+        int total = 0;
+        for (int i = 0; i < methods.length; i++) {
+            args[i] = generateArgs(methods[i], payload);
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * @param spec "name:weight,name:weight"，权重可省略 (为 1)；null 表示接口的全部方法
+     */
+    static MethodMix parse(Class<?> serviceInterface, String spec, int payload) {
+        List<Method> methods = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        if (spec == null || spec.trim().isEmpty()) {
+            for (Method method : serviceInterface.getMethods()) {
+                if (method.equals(find(serviceInterface, method.getName()))) {
+                    methods.add(method);
+                    weights.add(1);
+                }
+            }
+        } else {
+            for (String item : spec.split(",")) {
+                String[] parts = item.trim().split(":");
+                Method method = find(serviceInterface, parts[0].trim());
+                if (method == null) {
+                    throw new IllegalArgumentException("接口 " + serviceInterface.getName() + " 没有方法: " + parts[0]);
+                }
+                int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+                if (weight <= 0) {
+                    throw new IllegalArgumentException("方法权重必须大于 0: " + item);
+                }
+                methods.add(method);
+                weights.add(weight);
+            }
+        }
+        if (methods.isEmpty()) {
+            throw new IllegalArgumentException("接口 " + serviceInterface.getName() + " 没有可调用的方法");
+        }
+        int[] weightArray = new int[weights.size()];
+        for (int i = 0; i < weightArray.length; i++) {
+            weightArray[i] = weights.get(i);
+        }
+        return new MethodMix(methods.toArray(new Method[0]), weightArray, payload);
+    }
+
+    private static Method find(Class<?> serviceInterface, String name) {
+        return Arrays.stream(serviceInterface.getMethods())
+                .filter(m -> m.getName().equals(name))
+                .min(Comparator.comparingInt(Method::getParameterCount))
+                .orElse(null);
+    }
+
+    /**
+     * 选一个方法 (返回下标)
+     */
+    int next() {
+        if (methods.length == 1) {
+            return 0;
+        }
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return methods.length - 1;
+    }
+
+    int size() {
+        return methods.length;
+    }
+
+    Method method(int index) {
+        return methods[index];
+    }
+
+    Object[] args(int index) {
+        return args[index];
+    }
+
+    String describe() {
+        StringBuilder sb = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < methods.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(methods[i].getName()).append(':').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return sb.toString();
+    }
+
+    private static Object[] generateArgs(Method method, int payload) {
+        Class<?>[] types = method.getParameterTypes();
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            values[i] = generate(types[i], payload);
+        }
+        return values;
+    }
+
+    private static Object generate(Class<?> type, int payload) {
+        if (type == String.class || type == CharSequence.class || type == Object.class) {
+            StringBuilder sb = new StringBuilder(payload);
+            for (int i = 0; i < payload; i++) {
+                sb.append((char) ('a' + i % 26));
+            }
+            return sb.toString();
+        }
+        if (type == byte[].class) {
+            byte[] bytes = new byte[payload];
+            ThreadLocalRandom.current().nextBytes(bytes);
+            return bytes;
+        }
+        if (type == int.class || type == Integer.class) {
+            return 42;
+        }
+        if (type == long.class || type == Long.class) {
+            return 42L;
+        }
+        if (type == short.class || type == Short.class) {
+            return (short) 42;
+        }
+        if (type == byte.class || type == Byte.class) {
+            return (byte) 42;
+        }
+        if (type == double.class || type == Double.class) {
+            return 42.0;
+        }
+        if (type == float.class || type == Float.class) {
+            return 42.0f;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.TRUE;
+        }
+        if (type == char.class || type == Character.class) {
+            return 'a';
+        }
+        return null;
+    }
+}
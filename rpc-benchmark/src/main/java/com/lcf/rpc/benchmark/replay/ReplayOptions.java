@@ -0,0 +1,60 @@
+package com.lcf.rpc.benchmark.replay;
+
+import com.lcf.rpc.benchmark.CommandLineArgs;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 回放参数 (命令行 --key value 或 --key=value)
+ * <pre>
+ * --capture       录制目录或其中某个段文件 (必填，目录中有多次录制时取最近的一次)
+ * --target        回放目标 host:port (必填)
+ * --baseline      对照节点 host:port (可选)，每个请求同时发给它，比较两边的状态码和结果
+ * --speed         回放速度倍数，2 表示按两倍速发出，0 表示不按时间、尽快发出 (默认 1)
+ * --limit         最多回放的帧数 (默认全部)
+ * --timeout       等待响应的超时时间 ms (默认 5000)
+ * --max-in-flight 最多同时在途的请求数，达到上限时暂停发送 (默认 1024)
+ * --json          JSON 报告的输出路径 (可选)
+ * </pre>
+ */
+final class ReplayOptions {
+
+    String capture;
+    InetSocketAddress target;
+    InetSocketAddress baseline;
+    double speed = 1;
+    long limit = Long.MAX_VALUE;
+    long timeout = 5000;
+    int maxInFlight = 1024;
+    String json;
+
+    private ReplayOptions() {
+    }
+
+    static ReplayOptions parse(String[] args) {
+        CommandLineArgs values = CommandLineArgs.parse(args);
+        ReplayOptions options = new ReplayOptions();
+        options.capture = values.required("capture");
+        options.target = address(values.required("target"));
+        String baseline = values.string("baseline");
+        options.baseline = baseline == null ? null : address(baseline);
+        options.speed = values.doubleValue("speed", options.speed);
+        options.limit = values.longValue("limit", options.limit);
+        options.timeout = values.longValue("timeout", options.timeout);
+        options.maxInFlight = values.intValue("max-in-flight", options.maxInFlight);
+        options.json = values.string("json");
+        values.checkUnknown();
+        if (options.speed < 0 || options.limit <= 0 || options.timeout <= 0 || options.maxInFlight <= 0) {
+            throw new IllegalArgumentException("speed 不能小于 0，limit / timeout / max-in-flight 必须大于 0");
+        }
+        return options;
+    }
+
+    private static InetSocketAddress address(String value) {
+        int colon = value.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("地址格式应为 host:port: " + value);
+        }
+        return new InetSocketAddress(value.substring(0, colon).trim(), Integer.parseInt(value.substring(colon + 1).trim()));
+    }
+}
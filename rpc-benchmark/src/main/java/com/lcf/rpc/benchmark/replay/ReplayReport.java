@@ -0,0 +1,285 @@
+package com.lcf.rpc.benchmark.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 回放统计 (响应回调在多个线程中写入) 和报告输出
+ * 延迟从“计划发出时间”(录制时的到达时间按速度换算) 算起，直方图单位微秒。
+ * 有对照节点时逐个比较两边的状态码和响应体 (错误信息 + 结果的序列化字节)，不需要结果类在 classpath 上；
+ * 结果里带时间戳、随机数的方法每次都会不同，看报告时需要区分。
+ */
+final class ReplayReport {
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    // 报告中最多列出的不一致示例
+    private static final int MAX_SAMPLES = 20;
+
+    private final ReplayOptions options;
+
+    private final Histogram latency = newHistogram();
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> skipped = new ConcurrentHashMap<>();
+
+    private final LongAdder compared = new LongAdder();
+    private final LongAdder codeMismatches = new LongAdder();
+    private final LongAdder bodyMismatches = new LongAdder();
+    private final Samples samples = new Samples();
+
+    // 由调度线程写入
+    private volatile long sent;
+    private volatile long captureNanos;
+    private volatile long maxDispatchLagMicros;
+    private volatile long elapsedNanos;
+
+    ReplayReport(ReplayOptions options) {
+        this.options = options;
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * 记录目标节点的一个结果
+     * @param outcome 状态码，或没有响应时的错误类型 (TIMEOUT 等)
+     */
+    void recordResponse(String method, long latencyNanos, String outcome, boolean failed) {
+        long micros = Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        latency.recordValue(micros);
+        MethodStats stats = methods.computeIfAbsent(method, k -> new MethodStats());
+        stats.latency.recordValue(micros);
+        if (failed) {
+            stats.failed.increment();
+        }
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+    }
+
+    void recordSkipped(String reason) {
+        skipped.computeIfAbsent(reason, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 比较目标节点和对照节点的结果 (body 为响应体中请求号、状态码之后的部分，没有响应时为 null)
+     */
+    void compare(String method, String requestId, String targetOutcome, byte[] targetBody,
+                 String baselineOutcome, byte[] baselineBody) {
+        compared.increment();
+        String difference;
+        if (!targetOutcome.equals(baselineOutcome)) {
+            codeMismatches.increment();
+            difference = "状态不同: 目标 " + describe(targetOutcome, targetBody)
+                    + " / 对照 " + describe(baselineOutcome, baselineBody);
+        } else if (!Arrays.equals(targetBody, baselineBody)) {
+            bodyMismatches.increment();
+            difference = "结果不同: 目标 " + length(targetBody) + " 字节 / 对照 " + length(baselineBody) + " 字节";
+        } else {
+            return;
+        }
+        samples.offer(method + " (录制的请求号 " + requestId + ") " + difference);
+    }
+
+    private static String describe(String outcome, byte[] body) {
+        String message = messageOf(body);
+        return message == null ? outcome : outcome + " \"" + message + "\"";
+    }
+
+    /**
+     * 响应体开头的错误信息 (4 字节长度 + UTF-8，-1 为 null，见 RpcResponseCodec)
+     */
+    private static String messageOf(byte[] body) {
+        if (body == null || body.length < 4) {
+            return null;
+        }
+        int length = ((body[0] & 0xFF) << 24) | ((body[1] & 0xFF) << 16) | ((body[2] & 0xFF) << 8) | (body[3] & 0xFF);
+        if (length < 0 || 4 + length > body.length) {
+            return null;
+        }
+        String message = new String(body, 4, length, StandardCharsets.UTF_8);
+        return message.length() > 120 ? message.substring(0, 120) + "..." : message;
+    }
+
+    private static int length(byte[] body) {
+        return body == null ? 0 : body.length;
+    }
+
+    void setSent(long sent) {
+        this.sent = sent;
+    }
+
+    void setCaptureNanos(long captureNanos) {
+        this.captureNanos = captureNanos;
+    }
+
+    void updateDispatchLag(long lagNanos) {
+        long lagMicros = TimeUnit.NANOSECONDS.toMicros(lagNanos);
+        if (lagMicros > maxDispatchLagMicros) {
+            maxDispatchLagMicros = lagMicros;
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    long getMismatches() {
+        return codeMismatches.sum() + bodyMismatches.sum();
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.println("==== 回放结果: " + options.capture + " -> " + address(options) + " ====");
+        out.printf("录制时长 %.1fs，速度 %s，实际用时 %.1fs%n", captureNanos / 1e9,
+                options.speed == 0 ? "不限" : options.speed + "x", elapsedNanos / 1e9);
+        out.printf("发送 %d，完成 %d，跳过 %d%n", sent, latency.getTotalCount(), sum(skipped));
+        if (options.speed > 0 && maxDispatchLagMicros > 1000) {
+            out.printf("注意：调度线程最多落后计划 %.1f ms，回放机或在途上限可能已经饱和%n", maxDispatchLagMicros / 1000.0);
+        }
+        if (!skipped.isEmpty()) {
+            out.println("跳过的帧:");
+            counts(skipped).forEach((reason, count) -> out.printf("  %-40s %d%n", reason, count));
+        }
+        out.println("结果: " + counts(outcomes));
+        StringBuilder sb = new StringBuilder("延迟 (从计划发出时间算起，ms):\n  ");
+        for (double p : PERCENTILES) {
+            sb.append(String.format("p%s %.3f  ", format(p), millis(latency.getValueAtPercentile(p))));
+        }
+        sb.append(String.format("max %.3f  mean %.3f", millis(latency.getMaxValue()), latency.getMean() / 1000));
+        out.println(sb);
+        out.println("按方法:");
+        new TreeMap<>(methods).forEach((method, stats) -> out.printf("  %-48s 次数 %-8d 失败 %-6d p50 %.3f  p99 %.3f  max %.3f%n",
+                method, stats.latency.getTotalCount(), stats.failed.sum(), millis(stats.latency.getValueAtPercentile(50)),
+                millis(stats.latency.getValueAtPercentile(99)), millis(stats.latency.getMaxValue())));
+        if (options.baseline != null) {
+            out.printf("与对照 %s 比较 %d 对：状态不同 %d，结果不同 %d%n", options.baseline.getHostString() + ":"
+                    + options.baseline.getPort(), compared.sum(), codeMismatches.sum(), bodyMismatches.sum());
+            for (String sample : samples.snapshot()) {
+                out.println("  " + sample);
+            }
+            if (getMismatches() > MAX_SAMPLES) {
+                out.println("  ... (只列出前 " + MAX_SAMPLES + " 个)");
+            }
+        }
+    }
+
+    void writeJson(File file) throws IOException {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("timestamp", System.currentTimeMillis());
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("capture", options.capture);
+        config.put("target", address(options));
+        config.put("baseline", options.baseline == null ? null
+                : options.baseline.getHostString() + ":" + options.baseline.getPort());
+        config.put("speed", options.speed);
+        config.put("timeoutMillis", options.timeout);
+        config.put("maxInFlight", options.maxInFlight);
+        root.put("config", config);
+        root.put("captureSeconds", round(captureNanos / 1e9));
+        root.put("elapsedSeconds", round(elapsedNanos / 1e9));
+        root.put("sent", sent);
+        root.put("completed", latency.getTotalCount());
+        root.put("skipped", counts(skipped));
+        root.put("outcomes", counts(outcomes));
+        root.put("maxDispatchLagMillis", round(maxDispatchLagMicros / 1000.0));
+        root.put("latencyMillis", histogramJson(latency));
+        Map<String, Object> methodsJson = new LinkedHashMap<>();
+        new TreeMap<>(methods).forEach((method, stats) -> {
+            Map<String, Object> json = histogramJson(stats.latency);
+            json.put("count", stats.latency.getTotalCount());
+            json.put("failed", stats.failed.sum());
+            methodsJson.put(method, json);
+        });
+        root.put("methods", methodsJson);
+        if (options.baseline != null) {
+            Map<String, Object> comparison = new LinkedHashMap<>();
+            comparison.put("compared", compared.sum());
+            comparison.put("outcomeMismatches", codeMismatches.sum());
+            comparison.put("bodyMismatches", bodyMismatches.sum());
+            comparison.put("samples", samples.snapshot());
+            root.put("comparison", comparison);
+        }
+        byte[] json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(root);
+        Files.write(file.toPath(), json);
+    }
+
+    private static String address(ReplayOptions options) {
+        return options.target.getHostString() + ":" + options.target.getPort();
+    }
+
+    private static Map<String, Object> histogramJson(Histogram histogram) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            map.put("p" + format(p), millis(histogram.getValueAtPercentile(p)));
+        }
+        map.put("max", millis(histogram.getMaxValue()));
+        map.put("mean", round(histogram.getMean() / 1000));
+        return map;
+    }
+
+    private static Map<String, Long> counts(Map<String, LongAdder> adders) {
+        Map<String, Long> counts = new TreeMap<>();
+        adders.forEach((key, count) -> counts.put(key, count.sum()));
+        return counts;
+    }
+
+    private static long sum(Map<String, LongAdder> adders) {
+        return adders.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String format(double percentile) {
+        return percentile == (long) percentile ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static final class MethodStats {
+        final Histogram latency = newHistogram();
+        final LongAdder failed = new LongAdder();
+    }
+
+    /**
+     * 只保留前 MAX_SAMPLES 个不一致的示例
+     */
+    private static final class Samples {
+        private final ConcurrentLinkedQueue<String> items = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        void offer(String item) {
+            if (size.incrementAndGet() <= MAX_SAMPLES) {
+                items.offer(item);
+            }
+        }
+
+        List<String> snapshot() {
+            return new ArrayList<>(items);
+        }
+    }
+}
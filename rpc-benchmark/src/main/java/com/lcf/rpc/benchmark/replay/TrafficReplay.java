@@ -0,0 +1,284 @@
+package com.lcf.rpc.benchmark.replay;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.constant.AttachmentKeys;
+import com.lcf.rpc.common.constant.RpcConstants;
+import com.lcf.rpc.common.enumeration.RpcMessageType;
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
+import com.lcf.rpc.common.exception.RpcException;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.capture.CaptureReader;
+import com.lcf.rpc.core.netty.codec.RpcRequestCodec;
+import com.lcf.rpc.core.pool.MessagePool;
+import com.lcf.rpc.core.serialization.Serializer;
+import com.lcf.rpc.core.transport.NettyClient;
+import io.netty.buffer.ByteBuf;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 流量回放：读取服务端录制的请求帧 (见 rpc-core 的 TrafficCapture)，按录制时的节奏 (或按倍速) 重新发给目标节点
+ * <pre>
+ * java -cp app.jar:benchmarks.jar com.lcf.rpc.benchmark.replay.TrafficReplay \
+ *      --capture capture/ --target 10.0.0.5:9000 --baseline 10.0.0.6:9000 --speed 2 --json replay.json
+ * </pre>
+ * 请求通过 NettyClient 直连目标节点 (不经过注册中心、负载均衡、过滤器)，请求号换成新的，
+ * 参数按录制的字节原样发出，不需要反序列化；链路追踪上下文会被去掉，Token 等其他 attachments 保留。
+ * 需要注意：
+ * - 回放端的 rpc.serializer 要和录制时服务端的一致；
+ * - 参数类型要在 classpath 上 (请求元数据里按类名查找)，找不到的帧会被跳过并计数；
+ * - 回放会真实执行业务方法，有副作用的方法只能对隔离环境回放。
+ * 有 --baseline 时，每个请求同时发给对照节点，比较两边的状态码和结果字节，有不一致时进程以 3 退出。
+ */
+@Slf4j
+public class TrafficReplay {
+
+    private final ReplayOptions options;
+    private final ReplayReport report;
+    private final Serializer serializer;
+    private final NettyClient client;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Semaphore inFlight;
+
+    private TrafficReplay(ReplayOptions options) {
+        this.options = options;
+        this.report = new ReplayReport(options);
+        this.serializer = ExtensionLoader.getExtensionLoader(Serializer.class).getExtension(RpcProperties.getSerializer());
+        this.client = new NettyClient();
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "replay-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 大部分请求都会在超时前完成，取消的超时任务要及时移出队列
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.inFlight = new Semaphore(options.maxInFlight);
+    }
+
+    public static void main(String[] args) {
+        int status;
+        try {
+            ReplayOptions options = ReplayOptions.parse(args);
+            status = new TrafficReplay(options).run() > 0 ? 3 : 0;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            status = 2;
+        } catch (Exception e) {
+            log.error("回放失败", e);
+            status = 1;
+        }
+        // NettyClient 的线程不是守护线程，直接退出
+        System.exit(status);
+    }
+
+    /**
+     * @return 和对照节点不一致的请求数
+     */
+    private long run() throws Exception {
+        CaptureReader reader = CaptureReader.open(Paths.get(options.capture));
+        log.info("读取录制: {} 个段文件，录制开始于 {}", reader.getSegments().size(), new Date(reader.getStartMillis()));
+
+        long start = System.nanoTime();
+        long firstOffset = -1;
+        long lastOffset = 0;
+        long lastIntended = start;
+        long sent = 0;
+        while (sent < options.limit && reader.next()) {
+            ByteBuf frame = reader.getFrame();
+            RpcRequest request = decode(frame);
+            if (request == null) {
+                continue;
+            }
+            RpcRequest baselineRequest = options.baseline == null ? null : decode(frame);
+
+            long offset = reader.getOffsetNanos();
+            if (firstOffset < 0) {
+                firstOffset = offset;
+            }
+            lastOffset = Math.max(lastOffset, offset);
+            long intended;
+            if (options.speed == 0) {
+                intended = System.nanoTime();
+            } else {
+                // 多个 I/O 线程并发录制，相邻帧的时间可能略有倒序，早于上一帧的按上一帧的时间发出
+                intended = Math.max(lastIntended, start + (long) ((offset - firstOffset) / options.speed));
+                long now;
+                while ((now = System.nanoTime()) < intended) {
+                    LockSupport.parkNanos(intended - now);
+                }
+            }
+            lastIntended = intended;
+            inFlight.acquire();
+            report.updateDispatchLag(System.nanoTime() - intended);
+            dispatch(request, baselineRequest, intended);
+            sent++;
+        }
+        report.setSent(sent);
+        report.setCaptureNanos(firstOffset < 0 ? 0 : lastOffset - firstOffset);
+
+        // 等所有在途请求结束 (每个请求最多等 timeout)
+        if (!inFlight.tryAcquire(options.maxInFlight, options.timeout + 5000, TimeUnit.MILLISECONDS)) {
+            log.warn("仍有请求没有结束，直接输出报告");
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        report.print(System.out);
+        if (options.json != null) {
+            report.writeJson(new File(options.json));
+            System.out.println("JSON 报告: " + options.json);
+        }
+        client.close();
+        timer.shutdownNow();
+        return report.getMismatches();
+    }
+
+    /**
+     * 解析录制的帧 (协议头 + 请求体)，不能回放的帧计数后返回 null
+     */
+    private RpcRequest decode(ByteBuf frame) {
+        int start = frame.readerIndex();
+        for (int i = 0; i < RpcConstants.MAGIC_NUMBER.length; i++) {
+            if (frame.getByte(start + i) != RpcConstants.MAGIC_NUMBER[i]) {
+                report.recordSkipped("魔数不对");
+                return null;
+            }
+        }
+        byte version = frame.getByte(start + 4);
+        if (version != RpcConstants.VERSION) {
+            report.recordSkipped("协议版本 " + version + " (当前为 " + RpcConstants.VERSION + ")");
+            return null;
+        }
+        byte codec = frame.getByte(start + 5);
+        if (codec != serializer.getCode()) {
+            // 参数字节原样发出，序列化器不一致时服务端无法解析，所有帧都一样，直接停止
+            throw new IllegalArgumentException("录制的请求使用序列化器 code=" + codec + "，回放端 rpc.serializer="
+                    + RpcProperties.getSerializer() + " (code=" + serializer.getCode() + ")，需要配置成一致");
+        }
+        if (frame.getByte(start + 6) != RpcMessageType.REQUEST.getCode()) {
+            report.recordSkipped("不是请求帧");
+            return null;
+        }
+        int bodyLength = frame.getInt(start + 7);
+        RpcRequest request = RpcRequestCodec.decodeMetadata(frame.slice(start + RpcConstants.HEAD_LENGTH, bodyLength),
+                bodyLength);
+        for (Class<?> paramType : request.getParamTypes()) {
+            if (paramType == null) {
+                report.recordSkipped("参数类型不在 classpath 上: " + request.getInterfaceName() + "#" + request.getMethodName());
+                return null;
+            }
+        }
+        if (request.getAttachments() != null) {
+            // 不把回放的调用接到录制时的链路上
+            request.getAttachments().remove(AttachmentKeys.TRACE_ID);
+            request.getAttachments().remove(AttachmentKeys.SPAN_ID);
+        }
+        return request;
+    }
+
+    private void dispatch(RpcRequest request, RpcRequest baselineRequest, long intended) {
+        String method = request.getInterfaceName() + "#" + request.getMethodName();
+        String recordedId = request.getRequestId();
+        CompletableFuture<RpcResponse> target = send(request, options.target);
+        CompletableFuture<RpcResponse> baseline = baselineRequest == null ? null : send(baselineRequest, options.baseline);
+
+        CompletableFuture<Void> recorded = target.handle((response, error) -> {
+            String outcome = outcomeOf(response, error);
+            report.recordResponse(method, System.nanoTime() - intended, outcome, !isSuccess(outcome));
+            return null;
+        });
+        CompletableFuture<?> done = baseline == null ? recorded
+                : CompletableFuture.allOf(recorded, baseline.handle((response, error) -> null));
+        done.whenComplete((ignored, error) -> {
+            try {
+                RpcResponse targetResponse = resultOf(target);
+                if (baseline != null) {
+                    RpcResponse baselineResponse = resultOf(baseline);
+                    report.compare(method, recordedId,
+                            outcomeOf(target), targetResponse == null ? null : targetResponse.getBody(),
+                            outcomeOf(baseline), baselineResponse == null ? null : baselineResponse.getBody());
+                    recycle(baselineResponse);
+                }
+                recycle(targetResponse);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private CompletableFuture<RpcResponse> send(RpcRequest request, InetSocketAddress address) {
+        String requestId = UUID.randomUUID().toString();
+        request.setRequestId(requestId);
+        CompletableFuture<RpcResponse> future;
+        try {
+            future = client.sendRequest(MessagePool.newMessage(RpcMessageType.REQUEST.getCode(), serializer.getCode(),
+                    request), address);
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        CompletableFuture<RpcResponse> result = future;
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (result.completeExceptionally(new TimeoutException())) {
+                client.cancelRequest(requestId);
+            }
+        }, options.timeout, TimeUnit.MILLISECONDS);
+        result.whenComplete((response, error) -> timeout.cancel(false));
+        return result;
+    }
+
+    private static boolean isSuccess(String outcome) {
+        return String.valueOf(RpcResponseCode.SUCCESS.getCode()).equals(outcome);
+    }
+
+    private static String outcomeOf(CompletableFuture<RpcResponse> future) {
+        try {
+            return outcomeOf(future.join(), null);
+        } catch (CompletionException e) {
+            return outcomeOf(null, e.getCause());
+        }
+    }
+
+    /**
+     * 状态码，没有响应时为错误类型
+     */
+    private static String outcomeOf(RpcResponse response, Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error == null) {
+            return String.valueOf(response.getCode());
+        }
+        if (error instanceof TimeoutException) {
+            return "TIMEOUT";
+        }
+        if (error instanceof RpcException) {
+            return ((RpcException) error).getErrorType().name();
+        }
+        return error.getClass().getSimpleName();
+    }
+
+    private static RpcResponse resultOf(CompletableFuture<RpcResponse> future) {
+        return future.isCompletedExceptionally() ? null : future.join();
+    }
+
+    private static void recycle(RpcResponse response) {
+        if (response != null) {
+            MessagePool.recycle(response);
+        }
+    }
+}
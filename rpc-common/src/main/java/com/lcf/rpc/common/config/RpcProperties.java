@@ -28,6 +28,28 @@ public class RpcProperties {
 
     // --- 获取配置的工具方法 (带默认值) ---
 
+    /**
+     * 通用读取 (供按 服务/方法 分级覆盖的配置使用)
+     */
+    public static String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    /**
+     * 按 方法 > 服务 > 全局 的顺序读取配置，例如 prefix = "rpc.client."、name = "timeout" 时依次查找：
+     * rpc.client.com.xxx.HelloService.sayHello.timeout / rpc.client.com.xxx.HelloService.timeout / rpc.client.timeout
+     */
+    public static String getMethodProperty(String prefix, String serviceName, String methodName, String name, String defaultValue) {
+        String value = properties.getProperty(prefix + serviceName + "." + methodName + "." + name);
+        if (value == null) {
+            value = properties.getProperty(prefix + serviceName + "." + name);
+        }
+        if (value == null) {
+            value = properties.getProperty(prefix + name);
+        }
+        return value == null ? defaultValue : value.trim();
+    }
+
     public static String getRegistryAddress() {
         return properties.getProperty("rpc.registry.address", "127.0.0.1:2181");
     }
@@ -41,6 +63,70 @@ public class RpcProperties {
         return Integer.parseInt(port);
     }
 
+    /**
+     * 本节点注册到注册中心的权重 (默认 100，机器越强配得越大)
+     */
+    public static int getServerWeight() {
+        String weight = properties.getProperty("rpc.server.weight", "100");
+        return Integer.parseInt(weight);
+    }
+
+    /**
+     * 本节点的预热时长 (毫秒，默认 60 秒，0 表示不预热)
+     * 刚启动的节点在这段时间内权重线性爬升，避免 JIT 未编译、缓存为空时接满流量
+     */
+    public static int getServerWarmup() {
+        String warmup = properties.getProperty("rpc.server.warmup", "60000");
+        return Integer.parseInt(warmup);
+    }
+
+    /**
+     * 注册前是否执行服务端预热 (编解码、反射调用链路空跑)
+     */
+    public static boolean isServerWarmupRoutineEnabled() {
+        return Boolean.parseBoolean(properties.getProperty("rpc.server.warmup.routine", "false"));
+    }
+
+    /**
+     * 服务端预热的循环次数
+     */
+    public static int getServerWarmupIterations() {
+        String iterations = properties.getProperty("rpc.server.warmup.iterations", "2000");
+        return Integer.parseInt(iterations);
+    }
+
+    /**
+     * 服务端业务线程数
+     */
+    public static int getServerThreads() {
+        String threads = properties.getProperty("rpc.server.threads", "200");
+        return Integer.parseInt(threads);
+    }
+
+    /**
+     * 服务端业务线程池队列长度 (满了直接拒绝，不无限堆积)
+     */
+    public static int getServerQueueSize() {
+        String queues = properties.getProperty("rpc.server.queues", "1024");
+        return Integer.parseInt(queues);
+    }
+
+    /**
+     * 排队时长目标 (毫秒)：持续超过该值视为过载，开始从低优先级丢弃排队的请求
+     */
+    public static int getServerQueueTarget() {
+        String target = properties.getProperty("rpc.server.queue.target", "10");
+        return Integer.parseInt(target);
+    }
+
+    /**
+     * 排队时长的观察窗口 (毫秒)：排队时长连续超过目标这么久才开始丢弃，短暂的突发不丢
+     */
+    public static int getServerQueueInterval() {
+        String interval = properties.getProperty("rpc.server.queue.interval", "100");
+        return Integer.parseInt(interval);
+    }
+
     public static String getSerializer() {
         return properties.getProperty("rpc.serializer", "kryo");
     }
@@ -49,8 +135,11 @@ public class RpcProperties {
         return properties.getProperty("rpc.loadbalancer", "consistentHash");
     }
 
+    /**
+     * 固定 QPS 限流 (默认 0 表示关闭，服务端默认使用自适应并发限流)
+     */
     public static double getRateLimitQps() {
-        String qps = properties.getProperty("rpc.ratelimit.qps", "100");
+        String qps = properties.getProperty("rpc.ratelimit.qps", "0");
         return Double.parseDouble(qps);
     }
 }
\ No newline at end of file
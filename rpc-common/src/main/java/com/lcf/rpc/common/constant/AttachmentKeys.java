@@ -0,0 +1,21 @@
+package com.lcf.rpc.common.constant;
+
+/**
+ * 常用的 attachment Key
+ * 这些 Key 在协议中只占 1 个字节 (见 AttachmentCodec)，自定义 Key 按字符串传输。
+ */
+public class AttachmentKeys {
+
+    // 鉴权 Token
+    public static final String TOKEN = "token";
+
+    // 链路追踪：traceId 中是二进制的链路上下文 (见 rpc-core 的 TraceContext)，spanId 保留
+    public static final String TRACE_ID = "traceId";
+    public static final String SPAN_ID = "spanId";
+
+    // 优先级 (RpcPriority 的名字，如 "HIGH")
+    public static final String PRIORITY = "priority";
+
+    private AttachmentKeys() {
+    }
+}
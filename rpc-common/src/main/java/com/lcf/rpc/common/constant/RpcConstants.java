@@ -4,9 +4,12 @@ public class RpcConstants {
     // 魔数：用来校验是不是我们的协议包 (比如 CAFEBABE，这里用 LCF-RPC 的 hex)
     public static final byte[] MAGIC_NUMBER = {(byte) 'l', (byte) 'c', (byte) 'f', (byte) 'r'};
 
-    // 版本号
-    public static final byte VERSION = 1;
+    // 版本号 (2: 请求体拆分为路由元数据 + 参数两段；3: attachments 改为二进制编码；4: 响应头带服务端各阶段耗时)
+    public static final byte VERSION = 4;
 
     // 头部总长度 (魔数4 + 版本1 + 序列化1 + 类型1 + 长度4 = 11字节)
     public static final int HEAD_LENGTH = 11;
+
+    // 单帧最大长度 (头部 + 消息体)，超过的帧视为数据损坏
+    public static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.lcf.rpc.common.enumeration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 请求优先级
+ * 服务端过载时先丢低优先级的请求，保证健康检查、核心租户等关键流量的延迟。
+ * 声明顺序即调度顺序 (CRITICAL 最先执行)；code 是线上传输的值，0 为默认的 NORMAL。
+ * 优先级由客户端声明，服务端只对白名单方法承认 CRITICAL，其余降为 HIGH (见服务端 PriorityPolicy)。
+ */
+@AllArgsConstructor
+@Getter
+public enum RpcPriority {
+    CRITICAL((byte) 3), // 健康检查、核心链路，永不因排队过久被丢弃
+    HIGH((byte) 2),
+    NORMAL((byte) 0),
+    LOW((byte) 1); // 批量任务、离线同步
+
+    private final byte code;
+
+    public static RpcPriority fromCode(byte code) {
+        for (RpcPriority value : values()) {
+            if (value.code == code) {
+                return value;
+            }
+        }
+        return NORMAL;
+    }
+
+    /**
+     * 按名称解析 (忽略大小写)，无法识别时返回 null
+     */
+    public static RpcPriority fromName(String name) {
+        for (RpcPriority value : values()) {
+            if (value.name().equalsIgnoreCase(name)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
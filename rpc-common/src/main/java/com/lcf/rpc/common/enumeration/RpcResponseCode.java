@@ -10,7 +10,8 @@ public enum RpcResponseCode {
     SUCCESS(200, "调用成功"),
     FAIL(500, "调用失败"),
     NOT_FOUND_METHOD(501, "未找到指定方法"),
-    NOT_FOUND_CLASS(502, "未找到指定类");
+    NOT_FOUND_CLASS(502, "未找到指定类"),
+    OVERLOADED(503, "服务端过载，请求未执行");
 
     private final int code;
     private final String message;
@@ -0,0 +1,50 @@
+package com.lcf.rpc.common.exception;
+
+import lombok.Getter;
+
+/**
+ * RPC 框架异常
+ * 作用：区分失败的类型，重试、熔断等策略据此判断“这次失败能不能重试、算不算节点故障”。
+ */
+@Getter
+public class RpcException extends RuntimeException {
+
+    public enum ErrorType {
+        /**
+         * 没有可用的服务节点
+         */
+        NO_PROVIDER,
+        /**
+         * 网络错误 (建连失败 / 连接已断开 / 写出失败)，请求没有到达服务端
+         */
+        NETWORK,
+        /**
+         * 等待响应超时，请求可能已经在服务端执行了
+         */
+        TIMEOUT,
+        /**
+         * 服务端过载 (被限流拒绝)，请求没有执行，可以换个节点重试
+         */
+        OVERLOADED,
+        /**
+         * 客户端舱壁拒绝 (服务 / 节点的在途请求数达到上限)，请求没有发出
+         */
+        REJECTED,
+        /**
+         * 服务端业务报错 (服务端已经执行过了)
+         */
+        BIZ
+    }
+
+    private final ErrorType errorType;
+
+    public RpcException(ErrorType errorType, String message) {
+        super(message);
+        this.errorType = errorType;
+    }
+
+    public RpcException(ErrorType errorType, String message, Throwable cause) {
+        super(message, cause);
+        this.errorType = errorType;
+    }
+}
@@ -6,8 +6,11 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -96,6 +99,20 @@ public class ExtensionLoader<T> {
         return (T) instance;
     }
 
+    /**
+     * 获取所有扩展名 (过滤器等需要加载全部实现的扩展点使用)
+     */
+    public Set<String> getSupportedExtensions() {
+        return Collections.unmodifiableSet(new TreeSet<>(getExtensionClasses().keySet()));
+    }
+
+    /**
+     * 获取扩展类 (不创建实例，用于读取类上的注解)
+     */
+    public Class<?> getExtensionClass(String name) {
+        return getExtensionClasses().get(name);
+    }
+
     /**
      * 创建扩展实例 (加载类 -> 实例化)
      */
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -55,6 +56,19 @@ public class RpcRequest implements Serializable {
      */
     private Object[] parameters;
 
+    /**
+     * 剩余超时时间 (毫秒)，0 表示不限制
+     * 作用：把客户端的超时传给服务端，服务端据此丢弃调用方已经放弃等待的请求。
+     * 传相对时长而不是绝对时间戳，不受两台机器时钟不一致的影响 (服务端收到后换算成本机的截止时间)。
+     */
+    private long timeout;
+
+    /**
+     * 优先级 (RpcPriority 的 code，0 为 NORMAL)
+     * 作用：服务端过载时按优先级调度和丢弃请求。
+     */
+    private byte priority;
+
     // ----------- 进阶扩展字段 (V2.0 版本再考虑) -----------
     // private String version; // 服务版本号 (如 v1.0, v2.0)，用于灰度发布
     // private String group;   // 服务分组
@@ -62,4 +76,27 @@ public class RpcRequest implements Serializable {
     // 隐式参数背包 (用于存放 Token, TraceId 等)
     // 拦截器里的数据才能跟着请求发到服务端
     private Map<String, Object> attachments;
+
+    /**
+     * 尚未反序列化的参数字节 (不参与序列化)
+     * 作用：解码时只解析路由元数据，参数等请求通过限流、鉴权后才在业务线程中反序列化。
+     * 客户端编码时如果有这个字段，直接写出而不再序列化 parameters (回放录制的请求)。
+     */
+    @ToString.Exclude
+    private transient byte[] parameterBytes;
+
+    /**
+     * 阶段时间戳 (System.nanoTime，不参与序列化)
+     * 客户端：请求编码完成的时间 (编码器填入)；服务端：请求解码完成的时间 (解码器填入)
+     */
+    @ToString.Exclude
+    private transient long encodedNanos;
+
+    /**
+     * 报文大小 (字节，不含协议头，不参与序列化)：服务端解码时填入
+     */
+    @ToString.Exclude
+    private transient int wireSize;
+    @ToString.Exclude
+    private transient long receivedNanos;
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.lcf.rpc.common.model;
 
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.io.Serializable;
 
@@ -30,7 +32,7 @@ public class RpcResponse implements Serializable {
      * 作用：200 表示成功，500 表示服务端报错。
      * 建议配合枚举使用。
      */
-    private Integer code;
+    private int code;
 
     /**
      * 响应信息 / 错误信息
@@ -44,6 +46,55 @@ public class RpcResponse implements Serializable {
      */
     private Object data;
 
+    /**
+     * 服务端负载信号 (处理中请求数 / 排队数 / CPU，压缩成一个 int，见 ServerLoad)
+     * 作用：客户端据此避开快被打满的节点，不用等到超时才发现。
+     */
+    private int serverLoad;
+
+    /**
+     * 服务端各阶段耗时 (微秒)：排队 (解码 -> 开始执行) / 执行 (过滤器 + 业务方法) / 服务端总耗时 (解码 -> 响应编码完成)
+     * 作用：随响应头传回，客户端据此拆分一次调用的耗时 (见 CallTiming)。请求没有执行时前两项为 0。
+     */
+    private int serverQueueMicros;
+    private int serverInvokeMicros;
+    private int serverTotalMicros;
+
+    /**
+     * 尚未解析的错误信息和结果 (只在客户端使用，不参与序列化)
+     * 作用：I/O 线程只解析请求号用来匹配请求，结果交给等待它的调用线程按方法返回类型反序列化。
+     */
+    @ToString.Exclude
+    private transient byte[] body;
+
+    /**
+     * 报文大小 (字节，不含协议头，不参与序列化)：客户端解码时填入，用于统计响应大小
+     */
+    @ToString.Exclude
+    private transient int wireSize;
+
+    /**
+     * 响应对应的服务、方法 (只在服务端使用，不参与序列化)：编码器据此按方法统计响应大小
+     */
+    @ToString.Exclude
+    private transient String interfaceName;
+    @ToString.Exclude
+    private transient String methodName;
+
+    /**
+     * 阶段时间戳 (System.nanoTime，不参与序列化)
+     * 服务端：请求解码完成 / 开始执行 / 执行结束的时间，编码器据此算出各阶段耗时；
+     * 客户端：响应头解码完成的时间 (解码器填入)
+     */
+    @ToString.Exclude
+    private transient long requestReceivedNanos;
+    @ToString.Exclude
+    private transient long dispatchNanos;
+    @ToString.Exclude
+    private transient long invokeEndNanos;
+    @ToString.Exclude
+    private transient long receivedNanos;
+
     /**
      * 快捷方法：生成成功响应
      */
@@ -56,6 +107,17 @@ public class RpcResponse implements Serializable {
                 .build();
     }
 
+    /**
+     * 快捷方法：生成过载响应 (请求被限流拒绝，没有执行，客户端可以换个节点重试)
+     */
+    public static RpcResponse overloaded(String message, String requestId) {
+        return RpcResponse.builder()
+                .code(RpcResponseCode.OVERLOADED.getCode())
+                .message(message)
+                .requestId(requestId)
+                .build();
+    }
+
     /**
      * 快捷方法：生成失败响应
      */
@@ -0,0 +1,63 @@
+package com.lcf.rpc.common.model;
+
+/**
+ * 服务端负载信号 (随 RpcResponse 捎带回客户端)
+ * 为了在线路上只占几个字节，三个指标被压缩进一个 int：
+ * <pre>
+ * bit 0      : 是否携带了负载信号 (老版本服务端为 0)
+ * bit 1~7    : CPU 使用率 (0~100)
+ * bit 8~19   : 业务线程池排队数 (超过 4095 按 4095 计)
+ * bit 20~30  : 正在执行的请求数 (超过 2047 按 2047 计)
+ * </pre>
+ * 最高位不用，保证是正数，Kryo 变长编码下最多 5 字节。
+ */
+public final class ServerLoad {
+
+    /**
+     * 没有负载信号
+     */
+    public static final int NONE = 0;
+
+    private static final int MAX_CPU = 100;
+    private static final int MAX_QUEUE = (1 << 12) - 1;
+    private static final int MAX_INFLIGHT = (1 << 11) - 1;
+
+    private ServerLoad() {
+    }
+
+    /**
+     * 压缩负载信号
+     * @param inflight 正在执行的请求数
+     * @param queueDepth 排队数
+     * @param cpuPercent CPU 使用率 (0~100)
+     */
+    public static int pack(int inflight, int queueDepth, int cpuPercent) {
+        int cpu = Math.min(Math.max(cpuPercent, 0), MAX_CPU);
+        int queue = Math.min(Math.max(queueDepth, 0), MAX_QUEUE);
+        int active = Math.min(Math.max(inflight, 0), MAX_INFLIGHT);
+        return 1 | (cpu << 1) | (queue << 8) | (active << 20);
+    }
+
+    public static boolean isPresent(int load) {
+        return (load & 1) != 0;
+    }
+
+    public static int cpuPercent(int load) {
+        return (load >>> 1) & 0x7F;
+    }
+
+    public static int queueDepth(int load) {
+        return (load >>> 8) & MAX_QUEUE;
+    }
+
+    public static int inflight(int load) {
+        return (load >>> 20) & MAX_INFLIGHT;
+    }
+
+    public static String toString(int load) {
+        if (!isPresent(load)) {
+            return "none";
+        }
+        return "inflight=" + inflight(load) + ", queue=" + queueDepth(load) + ", cpu=" + cpuPercent(load) + "%";
+    }
+}
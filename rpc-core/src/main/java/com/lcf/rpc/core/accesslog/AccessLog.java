@@ -0,0 +1,180 @@
+package com.lcf.rpc.core.accesslog;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步、采样的访问日志 (每次调用一条，客户端按每次发往节点的请求记录，服务端按每个收到的请求记录)
+ * 调用线程只做采样判断并把定长记录写进无锁环形缓冲区，格式化和输出都在后台线程中完成，
+ * I/O 线程和业务线程上没有字符串拼接。输出到名为 rpc.access 的 logger，可以单独配置 appender。
+ * 采样规则：失败和慢调用 (耗时超过 slowThreshold) 总是记录；其余按 sampleRate 随机采样，slowOnly 时不记录。
+ * <pre>
+ * rpc.accesslog.enabled       是否开启 (默认 true)
+ * rpc.accesslog.sampleRate    正常调用的采样率 0 ~ 1 (默认 0.01)
+ * rpc.accesslog.slowThreshold 慢调用阈值 ms (默认 500)
+ * rpc.accesslog.slowOnly      只记录失败和慢调用 (默认 false)
+ * rpc.accesslog.bufferSize    缓冲区槽位数 (默认 8192)，写满时丢弃新记录
+ * </pre>
+ */
+@Slf4j
+public class AccessLog {
+
+    public static final byte CLIENT = 0;
+    public static final byte SERVER = 1;
+
+    // 没有响应码时的状态 (负数，和服务端响应码区分)
+    /** 客户端：超时或网络失败，没有收到响应 */
+    public static final int NO_RESPONSE = -1;
+    /** 客户端：对冲落败，不再等待响应 */
+    public static final int ABANDONED = -2;
+    /** 服务端：排队期间已过截止时间，没有执行也没有响应 */
+    public static final int EXPIRED = -3;
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("rpc.access");
+
+    // 空闲时后台线程的休眠时长
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    // 丢弃数的汇报间隔
+    private static final long DROP_REPORT_MILLIS = 10_000;
+
+    private static final boolean ENABLED;
+    private static final double SAMPLE_RATE;
+    private static final long SLOW_NANOS;
+    private static final boolean SLOW_ONLY;
+    private static final AccessLogBuffer BUFFER;
+
+    static {
+        ENABLED = Boolean.parseBoolean(RpcProperties.getProperty("rpc.accesslog.enabled", "true"));
+        SAMPLE_RATE = Double.parseDouble(RpcProperties.getProperty("rpc.accesslog.sampleRate", "0.01"));
+        SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(RpcProperties.getProperty("rpc.accesslog.slowThreshold", "500")));
+        SLOW_ONLY = Boolean.parseBoolean(RpcProperties.getProperty("rpc.accesslog.slowOnly", "false"));
+        if (ENABLED) {
+            BUFFER = new AccessLogBuffer(Integer.parseInt(RpcProperties.getProperty("rpc.accesslog.bufferSize", "8192")));
+            Thread writer = new Thread(new Writer(BUFFER), "rpc-access-log");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            BUFFER = null;
+        }
+    }
+
+    private AccessLog() {
+    }
+
+    /**
+     * 记录一次调用 (未被采样时什么都不做)
+     * @param side CLIENT / SERVER
+     * @param peer 对端地址 (客户端为节点 "ip:port"，服务端为连接的远端地址)，输出时才转成字符串
+     * @param code 响应码，或 NO_RESPONSE / ABANDONED / EXPIRED
+     * @param detail 附加信息 (客户端为阶段耗时 CallTiming)，输出时才转成字符串，可以为 null
+     */
+    public static void log(byte side, String service, String method, String requestId, Object peer,
+                           int code, long latencyNanos, Object detail) {
+        if (!ENABLED || !isSampled(code, latencyNanos)) {
+            return;
+        }
+        BUFFER.offer(System.currentTimeMillis(), latencyNanos, side, code, service, method, requestId, peer, detail);
+    }
+
+    private static boolean isSampled(int code, long latencyNanos) {
+        if (code != RpcResponseCode.SUCCESS.getCode() || latencyNanos >= SLOW_NANOS) {
+            return true;
+        }
+        if (SLOW_ONLY) {
+            return false;
+        }
+        return SAMPLE_RATE >= 1 || ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE;
+    }
+
+    /**
+     * 后台线程：取出记录、格式化、输出
+     */
+    private static class Writer implements Runnable, AccessLogBuffer.AccessLogConsumer {
+
+        private final AccessLogBuffer buffer;
+        private final StringBuilder line = new StringBuilder(256);
+        private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        private final Date date = new Date();
+        private long reportedDropped;
+        private long lastReport = System.currentTimeMillis();
+
+        Writer(AccessLogBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    boolean drained = false;
+                    while (buffer.poll(this)) {
+                        drained = true;
+                    }
+                    reportDropped();
+                    if (!drained) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                } catch (Throwable e) {
+                    log.warn("输出访问日志失败", e);
+                }
+            }
+        }
+
+        @Override
+        public void accept(long timestamp, long latencyNanos, byte side, int code,
+                           Object service, Object method, Object requestId, Object peer, Object detail) {
+            if (!ACCESS_LOG.isInfoEnabled()) {
+                return;
+            }
+            date.setTime(timestamp);
+            line.setLength(0);
+            line.append(timeFormat.format(date))
+                    .append(side == CLIENT ? " client " : " server ")
+                    .append(service).append('#').append(method)
+                    .append(" id=").append(requestId)
+                    .append(side == CLIENT ? " to=" : " from=").append(peer)
+                    .append(" status=").append(statusOf(code))
+                    .append(" cost=").append(latencyNanos / 1000 / 1000.0).append("ms");
+            if (detail != null) {
+                line.append(" [").append(detail).append(']');
+            }
+            ACCESS_LOG.info(line.toString());
+        }
+
+        private void reportDropped() {
+            long now = System.currentTimeMillis();
+            if (now - lastReport < DROP_REPORT_MILLIS) {
+                return;
+            }
+            lastReport = now;
+            long dropped = buffer.getDropped();
+            if (dropped > reportedDropped) {
+                log.warn("访问日志缓冲区已满，{} 秒内丢弃 {} 条记录", DROP_REPORT_MILLIS / 1000, dropped - reportedDropped);
+                reportedDropped = dropped;
+            }
+        }
+
+        private static String statusOf(int code) {
+            switch (code) {
+                case NO_RESPONSE:
+                    return "NO_RESPONSE";
+                case ABANDONED:
+                    return "ABANDONED";
+                case EXPIRED:
+                    return "EXPIRED";
+                default:
+                    return String.valueOf(code);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.lcf.rpc.core.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问日志环形缓冲区 (多生产者、单消费者，无锁)
+ * 每条记录是定长槽位：3 个 long (时间戳、耗时、端 + 状态码) 和 5 个引用 (服务、方法、请求号、对端、附加信息)，
+ * 引用指向调用中已有的不可变对象，写入时不拼字符串、不分配内存。
+ * 每个槽位带一个序号 (Vyukov 有界队列)：生产者 CAS 抢占写指针，写完数据后发布序号，
+ * 消费者看到序号就绪才读取，读完把槽位归还给下一圈。缓冲区满时直接丢弃并计数，从不阻塞调用线程。
+ */
+public class AccessLogBuffer {
+
+    static final int LONGS = 3;
+    static final int REFS = 5;
+
+    private final int mask;
+    private final long[] longs;
+    private final Object[] refs;
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+    // 只有消费线程读写
+    private long head;
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param capacity 槽位数，向上取整为 2 的幂
+     */
+    public AccessLogBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.longs = new long[size * LONGS];
+        this.refs = new Object[size * REFS];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一条记录 (任意线程)
+     * @return false 表示缓冲区已满，记录被丢弃
+     */
+    public boolean offer(long timestamp, long latencyNanos, byte side, int code,
+                         Object service, Object method, Object requestId, Object peer, Object detail) {
+        long pos;
+        int index;
+        while (true) {
+            pos = tail.get();
+            index = (int) (pos & mask);
+            long seq = sequences.get(index);
+            if (seq == pos) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+            } else if (seq < pos) {
+                // 槽位还没被消费线程归还：缓冲区满了
+                dropped.increment();
+                return false;
+            }
+            // seq > pos：别的生产者已经抢走了这个位置，重读写指针
+        }
+        int l = index * LONGS;
+        longs[l] = timestamp;
+        longs[l + 1] = latencyNanos;
+        longs[l + 2] = ((long) side << 32) | (code & 0xFFFFFFFFL);
+        int r = index * REFS;
+        refs[r] = service;
+        refs[r + 1] = method;
+        refs[r + 2] = requestId;
+        refs[r + 3] = peer;
+        refs[r + 4] = detail;
+        // 发布：序号写入对消费线程可见时，上面的数据也一定可见
+        sequences.lazySet(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * 取出一条记录交给 consumer (只能由消费线程调用)
+     * @return false 表示当前没有就绪的记录
+     */
+    public boolean poll(AccessLogConsumer consumer) {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return false;
+        }
+        int l = index * LONGS;
+        int r = index * REFS;
+        long packed = longs[l + 2];
+        consumer.accept(longs[l], longs[l + 1], (byte) (packed >>> 32), (int) packed,
+                refs[r], refs[r + 1], refs[r + 2], refs[r + 3], refs[r + 4]);
+        // 清掉引用，不让缓冲区拖住已经结束的调用对象
+        refs[r] = null;
+        refs[r + 1] = null;
+        refs[r + 2] = null;
+        refs[r + 3] = null;
+        refs[r + 4] = null;
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return true;
+    }
+
+    /**
+     * 累计因缓冲区满而丢弃的记录数
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * 读取一条记录的回调
+     */
+    public interface AccessLogConsumer {
+        void accept(long timestamp, long latencyNanos, byte side, int code,
+                    Object service, Object method, Object requestId, Object peer, Object detail);
+    }
+}
@@ -0,0 +1,15 @@
+package com.lcf.rpc.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 幂等标记 (作用于服务接口的方法或整个接口)
+ * 只有幂等方法才会在超时后重试；非幂等方法只在请求确定没发出去 (建连失败等) 时重试，防止重复写入。
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
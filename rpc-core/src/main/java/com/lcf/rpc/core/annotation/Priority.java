@@ -0,0 +1,18 @@
+package com.lcf.rpc.core.annotation;
+
+import com.lcf.rpc.common.enumeration.RpcPriority;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 请求优先级 (作用于服务接口的方法或整个接口，方法上的优先)
+ * 也可以由客户端过滤器写入 attachments 的 "priority" (如 "HIGH")，attachments 中的值优先级最高。
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Priority {
+    RpcPriority value() default RpcPriority.NORMAL;
+}
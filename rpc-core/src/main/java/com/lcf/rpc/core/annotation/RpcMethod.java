@@ -0,0 +1,27 @@
+package com.lcf.rpc.core.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 方法级调用配置 (作用于服务接口的方法)，优先级高于 rpc.properties
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RpcMethod {
+
+    // 超时时间 (毫秒)，-1 表示取配置 rpc.client.timeout
+    int timeout() default -1;
+
+    // 最大重试次数 (不含首次调用)，-1 表示取配置 rpc.client.retries
+    int retries() default -1;
+
+    // 额外允许重试的异常 (命中时即使方法不是幂等的也会重试)
+    Class<? extends Throwable>[] retryOn() default {};
+
+    // 对冲请求延迟："" 表示取配置 rpc.client.hedgeDelay，"off" 关闭，"50" 固定 50ms，"p95" 取节点 p95 耗时
+    // 只对 @Idempotent 方法生效
+    String hedgeDelay() default "";
+}
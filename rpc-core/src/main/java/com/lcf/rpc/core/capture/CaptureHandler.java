@@ -0,0 +1,52 @@
+package com.lcf.rpc.core.capture;
+
+import com.lcf.rpc.common.constant.RpcConstants;
+import com.lcf.rpc.common.enumeration.RpcMessageType;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+import java.util.List;
+
+/**
+ * 录制用的分帧 Handler (放在 RpcMessageDecoder 前面，每个连接一个实例)
+ * 按协议头里的长度切出完整的帧，请求帧交给 TrafficCapture 录制，然后把帧 (零拷贝的切片) 原样传给解码器。
+ * 不校验魔数和版本，格式错误的数据照常交给解码器报错。
+ * 长度为负或超过 MAX_FRAME_LENGTH 时无法再分帧，此后这个连接的数据全部原样透传 (不再录制)，由解码器报错断开。
+ */
+public class CaptureHandler extends ByteToMessageDecoder {
+
+    // 协议头中消息类型和体长度的偏移 (魔数4 + 版本1 + 序列化1)
+    private static final int TYPE_OFFSET = 6;
+    private static final int LENGTH_OFFSET = 7;
+
+    // 遇到无法分帧的长度后置为 true，之后的数据不再解析
+    private boolean passThrough;
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        if (passThrough) {
+            out.add(in.readRetainedSlice(in.readableBytes()));
+            return;
+        }
+        if (in.readableBytes() < RpcConstants.HEAD_LENGTH) {
+            return;
+        }
+        int start = in.readerIndex();
+        int bodyLength = in.getInt(start + LENGTH_OFFSET);
+        // 先校验再相加，HEAD_LENGTH + bodyLength 在 bodyLength 接近 int 上限时会溢出成负数
+        if (bodyLength < 0 || bodyLength > RpcConstants.MAX_FRAME_LENGTH - RpcConstants.HEAD_LENGTH) {
+            passThrough = true;
+            out.add(in.readRetainedSlice(in.readableBytes()));
+            return;
+        }
+        int frameLength = RpcConstants.HEAD_LENGTH + bodyLength;
+        if (in.readableBytes() < frameLength) {
+            return;
+        }
+        if (in.getByte(start + TYPE_OFFSET) == RpcMessageType.REQUEST.getCode()) {
+            TrafficCapture.record(in, start, frameLength);
+        }
+        out.add(in.readRetainedSlice(frameLength));
+    }
+}
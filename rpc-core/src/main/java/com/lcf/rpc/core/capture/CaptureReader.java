@@ -0,0 +1,165 @@
+package com.lcf.rpc.core.capture;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 按顺序读取一次录制的所有帧 (格式见 CaptureWriter)
+ * <pre>
+ * CaptureReader reader = CaptureReader.open(dir);
+ * while (reader.next()) {
+ *     reader.getOffsetNanos();  // 相对录制开始的到达时间
+ *     reader.getFrame();        // 原始帧，只在下一次 next() 之前有效
+ * }
+ * </pre>
+ * 多个 I/O 线程并发写入，同一段内的记录按预留顺序排列，到达时间大体递增但不严格，回放时按需自行排序。
+ */
+public class CaptureReader {
+
+    private final List<Path> segments;
+    private final long startMillis;
+
+    private int segmentIndex = -1;
+    private MappedByteBuffer buffer;
+    private ByteBuf wrapped;
+    private int position;
+
+    private long offsetNanos;
+    private ByteBuf frame;
+
+    private CaptureReader(List<Path> segments, long startMillis) {
+        this.segments = segments;
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * 打开目录中的一次录制
+     * 目录里有多次录制 (多次启动) 时取最近的一次；也可以直接传某个段文件，读取它所属的那次录制
+     */
+    public static CaptureReader open(Path path) throws IOException {
+        Path dir = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+        String session = Files.isDirectory(path) ? null : sessionOf(path.getFileName().toString());
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir,
+                CaptureWriter.FILE_PREFIX + "*" + CaptureWriter.FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        if (session == null) {
+            long latest = -1;
+            for (Path file : files) {
+                long startMillis = Long.parseLong(sessionOf(file.getFileName().toString()));
+                if (startMillis > latest) {
+                    latest = startMillis;
+                    session = String.valueOf(latest);
+                }
+            }
+        }
+        List<Path> segments = new ArrayList<>();
+        for (Path file : files) {
+            if (sessionOf(file.getFileName().toString()).equals(session)) {
+                segments.add(file);
+            }
+        }
+        if (segments.isEmpty()) {
+            throw new IOException("没有找到录制文件: " + path);
+        }
+        // 文件名中的段序号是定长的，按名字排序即按写入顺序
+        Collections.sort(segments);
+        return new CaptureReader(segments, Long.parseLong(session));
+    }
+
+    /**
+     * 文件名 rpc-capture-<开始时间>-<段序号>.seg 中的开始时间
+     */
+    private static String sessionOf(String fileName) {
+        String name = fileName.substring(CaptureWriter.FILE_PREFIX.length(),
+                fileName.length() - CaptureWriter.FILE_SUFFIX.length());
+        return name.substring(0, name.lastIndexOf('-'));
+    }
+
+    /**
+     * 读到下一帧
+     * @return false 表示所有段都已读完
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (buffer != null && position + CaptureWriter.RECORD_HEADER_LENGTH <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length > 0 && position + CaptureWriter.RECORD_HEADER_LENGTH + length <= buffer.capacity()) {
+                    offsetNanos = buffer.getLong(position + 4);
+                    int start = position + CaptureWriter.RECORD_HEADER_LENGTH;
+                    frame = wrapped.slice(start, length);
+                    position = start + length;
+                    return true;
+                }
+            }
+            // 长度为 0：这个段后面没有数据了 (写满切段，或录制结束)
+            if (!openNextSegment()) {
+                return false;
+            }
+        }
+    }
+
+    private boolean openNextSegment() throws IOException {
+        buffer = null;
+        while (++segmentIndex < segments.size()) {
+            Path path = segments.get(segmentIndex);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (mapped.capacity() < CaptureWriter.FILE_HEADER_LENGTH) {
+                    continue;
+                }
+                if (mapped.getInt(0) != CaptureWriter.MAGIC) {
+                    throw new IOException("不是录制文件: " + path);
+                }
+                if (mapped.getInt(4) != CaptureWriter.FORMAT_VERSION) {
+                    throw new IOException("不支持的录制文件版本 " + mapped.getInt(4) + ": " + path);
+                }
+                buffer = mapped;
+                wrapped = Unpooled.wrappedBuffer(mapped);
+                position = CaptureWriter.FILE_HEADER_LENGTH;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前帧相对录制开始的到达时间
+     */
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    /**
+     * 当前帧 (协议头 + 请求体)，只在下一次 next() 之前有效
+     */
+    public ByteBuf getFrame() {
+        return frame;
+    }
+
+    /**
+     * 录制开始的时间 (毫秒时间戳)
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public List<Path> getSegments() {
+        return segments;
+    }
+}
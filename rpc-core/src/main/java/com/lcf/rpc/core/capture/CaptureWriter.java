@@ -0,0 +1,286 @@
+package com.lcf.rpc.core.capture;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.internal.PlatformDependent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 录制文件写入：按固定大小切分的段文件，每个段整体映射到内存 (MappedByteBuffer)
+ * <pre>
+ * 段文件：文件头 magic(4) | 格式版本(4) | 录制开始时间 ms(8) | 段序号(4) | 保留(4)
+ *         记录 ... 帧长度(4) | 相对录制开始的时间 ns(8) | 原始帧 (协议头 + 请求体)
+ * </pre>
+ * 写入线程 (I/O 线程) 用 CAS 在当前段里预留位置，各自往不相交的区域拷贝，不加锁、不做系统调用；
+ * 帧长度最后写，读取时遇到长度为 0 即为段尾 (新文件映射后全是 0，预留了但没写完的位置也读不到)。
+ * 段切换不在写入线程上做系统调用：后台线程 (rpc-capture-roller) 总是预先建好下一个段，
+ * 当前段写满时由第一个发现的线程把预备段换上来 (只是一次引用交换)，刷盘、解除映射、删除旧段、
+ * 再预建下一个段都交给后台线程。预备段还没建好时 (写入速度超过建文件的速度)，这期间的帧记为丢弃。
+ * 换下来的段等所有正在写它的线程写完后解除映射 (不等 GC)，被删除的旧段因此能立即释放磁盘空间；
+ * 解除映射依赖 Netty 的 PlatformDependent.freeDirectBuffer，JVM 不支持时退化为等 GC 回收映射。
+ */
+@Slf4j
+public class CaptureWriter {
+
+    static final int MAGIC = 0x6C636663;
+    static final int FORMAT_VERSION = 1;
+    static final int FILE_HEADER_LENGTH = 24;
+    static final int RECORD_HEADER_LENGTH = 12;
+    static final String FILE_PREFIX = "rpc-capture-";
+    static final String FILE_SUFFIX = ".seg";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+
+    // 以下两个字段只在构造函数、后台线程和 close (后台线程结束后) 中访问
+    private final Deque<Path> segments = new ArrayDeque<>();
+    private int nextIndex;
+
+    private volatile Segment current;
+    // 预先建好的下一个段
+    private final AtomicReference<Segment> spare = new AtomicReference<>();
+    private final ExecutorService roller;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param segmentBytes 单个段文件的大小
+     * @param maxSegments  最多保留的段文件数
+     */
+    public CaptureWriter(Path dir, int segmentBytes, int maxSegments) throws IOException {
+        if (segmentBytes <= FILE_HEADER_LENGTH + RECORD_HEADER_LENGTH) {
+            throw new IllegalArgumentException("段文件太小: " + segmentBytes);
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = Math.max(1, maxSegments);
+        Files.createDirectories(dir);
+        this.current = openSegment();
+        this.spare.set(openSegment());
+        this.roller = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "rpc-capture-roller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 追加一帧 (任意线程，不改变 frame 的读写索引)
+     * @return false 表示没有写入 (帧比段还大，或者写入器已关闭)
+     */
+    public boolean append(ByteBuf frame, int index, int length, long nanos) {
+        int recordLength = RECORD_HEADER_LENGTH + length;
+        if (recordLength > segmentBytes - FILE_HEADER_LENGTH) {
+            dropped.increment();
+            return false;
+        }
+        while (true) {
+            Segment segment = current;
+            if (segment == null) {
+                dropped.increment();
+                return false;
+            }
+            // 先登记为写入者再确认段没被换下，后台线程等写入者归零后才解除映射
+            segment.writers.incrementAndGet();
+            try {
+                if (segment != current) {
+                    continue;
+                }
+                int position = segment.reserve(recordLength);
+                if (position >= 0) {
+                    segment.write(position, frame, index, length, nanos - startNanos);
+                    recorded.increment();
+                    return true;
+                }
+            } finally {
+                segment.writers.decrementAndGet();
+            }
+            if (!rotate(segment)) {
+                dropped.increment();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 当前段写满，换上预备段 (只有第一个发现写满的线程真正切换)
+     * 锁内只有引用交换和提交任务，刷盘、建文件等系统调用都在后台线程
+     * @return true 表示当前段已经换过，可以重试；false 表示没有可用的段 (预备段还没建好，或已停止录制)
+     */
+    private synchronized boolean rotate(Segment full) {
+        if (current != full) {
+            return current != null;
+        }
+        Segment next = spare.getAndSet(null);
+        if (next == null) {
+            return false;
+        }
+        current = next;
+        try {
+            roller.execute(() -> retire(full));
+        } catch (RuntimeException e) {
+            // 已关闭
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 后台线程：换下来的段刷盘、解除映射，再预建下一个段 (顺带删除超出保留个数的旧段)
+     */
+    private void retire(Segment full) {
+        while (full.writers.get() > 0) {
+            Thread.yield();
+        }
+        full.buffer.force();
+        PlatformDependent.freeDirectBuffer(full.buffer);
+        if (current == null) {
+            return;
+        }
+        try {
+            spare.set(openSegment());
+        } catch (IOException e) {
+            log.error("创建录制段文件失败，停止录制", e);
+            current = null;
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        int index = nextIndex++;
+        Path path = dir.resolve(String.format("%s%d-%05d%s", FILE_PREFIX, startMillis, index, FILE_SUFFIX));
+        MappedByteBuffer buffer;
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(segmentBytes);
+            // 映射在文件关闭后仍然有效
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putLong(8, startMillis);
+        buffer.putInt(16, index);
+        segments.addLast(path);
+        // 预备段不算在保留个数里
+        trimSegments(maxSegments + 1);
+        log.info("流量录制预建段文件: {}", path);
+        return new Segment(buffer);
+    }
+
+    /**
+     * 删除最旧的段文件，只保留 keep 个 (被删的段都已解除映射)
+     */
+    private void trimSegments(int keep) {
+        while (segments.size() > keep) {
+            Path oldest = segments.removeFirst();
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                log.warn("删除旧的录制段文件失败: {}", oldest, e);
+            }
+        }
+    }
+
+    /**
+     * 停止录制，把当前段刷到磁盘 (当前段的映射留给 GC 回收，关闭时可能还有线程在写)
+     */
+    public synchronized void close() {
+        Segment segment = current;
+        current = null;
+        roller.shutdown();
+        try {
+            roller.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (segment != null) {
+            segment.buffer.force();
+        }
+        // 没用上的预备段只有文件头，直接删掉
+        Segment unused = spare.getAndSet(null);
+        if (unused != null) {
+            PlatformDependent.freeDirectBuffer(unused.buffer);
+            Path path = segments.pollLast();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("删除未使用的录制段文件失败: {}", path, e);
+            }
+        }
+        trimSegments(maxSegments);
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * 累计写入的帧数
+     */
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    /**
+     * 累计没有写入的帧数 (帧太大、写入器已关闭)
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private static final class Segment {
+
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger position = new AtomicInteger(FILE_HEADER_LENGTH);
+        // 正在往这个段里写的线程数
+        private final AtomicInteger writers = new AtomicInteger();
+
+        Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * 预留 length 字节，返回起始位置；放不下返回 -1
+         */
+        int reserve(int length) {
+            while (true) {
+                int start = position.get();
+                if (start + length > buffer.capacity()) {
+                    return -1;
+                }
+                if (position.compareAndSet(start, start + length)) {
+                    return start;
+                }
+            }
+        }
+
+        void write(int position, ByteBuf frame, int index, int length, long offsetNanos) {
+            // 绝对位置读写不改变 buffer 的状态，多个线程写不相交的区域是安全的；复制出来的视图只用于批量拷贝
+            ByteBuffer target = buffer.duplicate();
+            // 按 Buffer 调用，编译出的代码在 Java 8 上也能运行 (Java 9 起 ByteBuffer 重写了这两个方法)
+            ((Buffer) target).limit(position + RECORD_HEADER_LENGTH + length);
+            ((Buffer) target).position(position + RECORD_HEADER_LENGTH);
+            frame.getBytes(index, target);
+            buffer.putLong(position + 4, offsetNanos);
+            buffer.putInt(position, length);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.lcf.rpc.core.capture;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import io.netty.buffer.ByteBuf;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 服务端流量录制：把收到的请求帧 (协议头 + 请求体，原样) 连同到达时间写进内存映射的段文件，
+ * 之后可以用回放工具 (rpc-benchmark 的 TrafficReplay) 按原来的节奏重新发给新版本的服务。
+ * 开启后服务端 Pipeline 在解码器前多一个 CaptureHandler，I/O 线程上只多一次内存拷贝。
+ * <pre>
+ * rpc.capture.enabled      是否开启 (默认 false)
+ * rpc.capture.dir          段文件目录 (默认 capture)
+ * rpc.capture.segmentSize  单个段文件大小 MB (默认 64)
+ * rpc.capture.maxSegments  最多保留的段文件数 (默认 8)，超出时删除最旧的
+ * rpc.capture.sampleRate   录制比例 0 ~ 1 (默认 1)
+ * </pre>
+ * 录下的是原始字节，包括 attachments 中的 Token 等信息，录制文件需要按敏感数据保管。
+ */
+@Slf4j
+public class TrafficCapture {
+
+    private static final double SAMPLE_RATE;
+    private static final CaptureWriter WRITER;
+
+    static {
+        CaptureWriter writer = null;
+        if (Boolean.parseBoolean(RpcProperties.getProperty("rpc.capture.enabled", "false"))) {
+            String dir = RpcProperties.getProperty("rpc.capture.dir", "capture");
+            int segmentMb = Integer.parseInt(RpcProperties.getProperty("rpc.capture.segmentSize", "64"));
+            int maxSegments = Integer.parseInt(RpcProperties.getProperty("rpc.capture.maxSegments", "8"));
+            try {
+                writer = new CaptureWriter(Paths.get(dir), segmentMb << 20, maxSegments);
+                CaptureWriter shutdown = writer;
+                Runtime.getRuntime().addShutdownHook(new Thread(shutdown::close, "rpc-capture-shutdown"));
+                log.info("流量录制已开启: dir={}, segmentSize={}MB, maxSegments={}", dir, segmentMb, maxSegments);
+            } catch (IOException | RuntimeException e) {
+                log.error("流量录制初始化失败，不录制", e);
+            }
+        }
+        WRITER = writer;
+        SAMPLE_RATE = Double.parseDouble(RpcProperties.getProperty("rpc.capture.sampleRate", "1"));
+    }
+
+    private TrafficCapture() {
+    }
+
+    public static boolean isEnabled() {
+        return WRITER != null;
+    }
+
+    /**
+     * 录制一帧 (I/O 线程调用，未被采样时什么都不做)
+     * @param frame  包含完整帧的缓冲区，读写索引不变
+     * @param index  帧起始位置
+     * @param length 帧长度 (协议头 + 请求体)
+     */
+    public static void record(ByteBuf frame, int index, int length) {
+        if (WRITER == null) {
+            return;
+        }
+        if (SAMPLE_RATE < 1 && ThreadLocalRandom.current().nextDouble() >= SAMPLE_RATE) {
+            return;
+        }
+        WRITER.append(frame, index, length, System.nanoTime());
+    }
+
+    /**
+     * 累计录制的帧数 (未开启时为 0)
+     */
+    public static long getRecorded() {
+        return WRITER == null ? 0 : WRITER.getRecorded();
+    }
+
+    /**
+     * 停止录制并刷盘 (进程退出时也会自动执行)
+     */
+    public static void stop() {
+        if (WRITER != null) {
+            WRITER.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.lcf.rpc.core.context;
+
+import com.lcf.rpc.common.enumeration.RpcPriority;
+import com.lcf.rpc.core.trace.TraceContext;
+
+/**
+ * RPC 调用上下文 (线程级)
+ * 服务端在执行业务方法前写入，业务方法中再发起的 RPC 调用 (嵌套调用) 会自动继承这里的信息：
+ * - deadline：上游调用方的截止时间，嵌套调用的超时不会超过它，上游已经放弃的请求不再往下游发
+ * - priority：上游请求的优先级，嵌套调用没有单独声明时沿用
+ * - traceContext：当前服务端 Span 的链路上下文，嵌套调用的客户端 Span 以它为父 Span
+ */
+public class RpcContext {
+
+    private static final ThreadLocal<RpcContext> CONTEXT = ThreadLocal.withInitial(RpcContext::new);
+
+    // 截止时间 (本机时间戳，毫秒)，0 表示没有截止时间
+    private long deadline;
+
+    // 优先级，null 表示没有上游请求
+    private RpcPriority priority;
+
+    // 链路上下文，null 表示没有上游请求
+    private TraceContext traceContext;
+
+    private RpcContext() {
+    }
+
+    public static RpcContext getContext() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * 清理上下文 (业务线程是复用的，请求结束后必须调用，一般放在 finally 中)
+     */
+    public static void removeContext() {
+        CONTEXT.remove();
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    public RpcPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(RpcPriority priority) {
+        this.priority = priority;
+    }
+
+    public TraceContext getTraceContext() {
+        return traceContext;
+    }
+
+    public void setTraceContext(TraceContext traceContext) {
+        this.traceContext = traceContext;
+    }
+
+    /**
+     * 距离截止时间还剩多少毫秒
+     * @return 没有截止时间时返回 Long.MAX_VALUE
+     */
+    public long getRemainingMillis() {
+        return deadline == 0 ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+    }
+}
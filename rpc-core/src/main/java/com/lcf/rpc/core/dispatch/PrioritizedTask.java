@@ -0,0 +1,42 @@
+package com.lcf.rpc.core.dispatch;
+
+import com.lcf.rpc.common.enumeration.RpcPriority;
+
+/**
+ * 带优先级的业务任务
+ * 除了要执行的逻辑，还带一个“被丢弃”时的回调 (比如给客户端回一个过载响应、归还限流名额)，
+ * 任务在队列里等太久被 PriorityTaskQueue 丢弃时调用。
+ */
+public class PrioritizedTask implements Runnable {
+
+    private final RpcPriority priority;
+    private final Runnable task;
+    private final Runnable onShed;
+
+    // 入队时间 (纳秒)，用于计算排队时长
+    long enqueueTime;
+
+    public PrioritizedTask(RpcPriority priority, Runnable task, Runnable onShed) {
+        this.priority = priority;
+        this.task = task;
+        this.onShed = onShed;
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+
+    public RpcPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * 任务被丢弃 (不会再执行)
+     */
+    void shed() {
+        if (onShed != null) {
+            onShed.run();
+        }
+    }
+}
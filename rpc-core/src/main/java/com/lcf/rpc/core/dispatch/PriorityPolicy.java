@@ -0,0 +1,72 @@
+package com.lcf.rpc.core.dispatch;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.enumeration.RpcPriority;
+import com.lcf.rpc.core.limit.AdaptiveConcurrencyLimiter;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务端优先级策略
+ * 优先级由客户端声明，服务端不能直接信任：CRITICAL 不走自适应限流、排队再久也不丢，任何调用方都能靠它绕过准入控制。
+ * 所以 CRITICAL 只对白名单里的方法生效，其他方法的 CRITICAL 请求降为 HIGH：
+ * <pre>
+ * rpc.server.priority.critical=false        是否承认 CRITICAL，可按 服务 / 方法 覆盖，
+ *                                           如 rpc.server.priority.com.xxx.HealthService.check.critical=true
+ * rpc.server.priority.criticalLimit=16      白名单方法上 CRITICAL 请求的并发上限 (同样可按 服务 / 方法 覆盖)
+ * </pre>
+ * CRITICAL 请求虽然不占自适应限流的名额，但受这个单独的固定上限约束，超出按过载拒绝。
+ * 白名单在服务发布时按接口方法生成，没有发布的 服务 / 方法 一律降级。
+ */
+public class PriorityPolicy {
+
+    private static final String PREFIX = "rpc.server.priority.";
+
+    // 服务名 -> 方法名 -> CRITICAL 请求的并发限流器 (只有白名单方法才有)
+    private static final Map<String, Map<String, AdaptiveConcurrencyLimiter>> CRITICAL_LIMITERS =
+            new ConcurrentHashMap<>();
+
+    private PriorityPolicy() {
+    }
+
+    /**
+     * 服务发布时读取接口各方法的白名单配置
+     */
+    public static void register(Class<?> interfaceClass) {
+        String serviceName = interfaceClass.getName();
+        for (Method method : interfaceClass.getMethods()) {
+            String methodName = method.getName();
+            if (!Boolean.parseBoolean(RpcProperties.getMethodProperty(PREFIX, serviceName, methodName, "critical",
+                    "false"))) {
+                continue;
+            }
+            int limit = Integer.parseInt(RpcProperties.getMethodProperty(PREFIX, serviceName, methodName,
+                    "criticalLimit", "16"));
+            // 上下限相同，即固定上限，不做自适应调整
+            CRITICAL_LIMITERS.computeIfAbsent(serviceName, k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(methodName, k -> new AdaptiveConcurrencyLimiter(
+                            serviceName + "#" + methodName + "#critical", limit, limit, limit, 100, 10));
+        }
+    }
+
+    /**
+     * 服务端认可的优先级：不在白名单中的 CRITICAL 降为 HIGH，其他优先级原样返回
+     */
+    public static RpcPriority resolve(String serviceName, String methodName, RpcPriority requested) {
+        if (requested == RpcPriority.CRITICAL && getCriticalLimiter(serviceName, methodName) == null) {
+            return RpcPriority.HIGH;
+        }
+        return requested;
+    }
+
+    /**
+     * 白名单方法上 CRITICAL 请求的限流器
+     * @return 方法不在白名单中时返回 null
+     */
+    public static AdaptiveConcurrencyLimiter getCriticalLimiter(String serviceName, String methodName) {
+        Map<String, AdaptiveConcurrencyLimiter> methods = CRITICAL_LIMITERS.get(serviceName);
+        return methods == null ? null : methods.get(methodName);
+    }
+}
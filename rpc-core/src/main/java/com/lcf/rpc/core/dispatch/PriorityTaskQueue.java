@@ -0,0 +1,358 @@
+package com.lcf.rpc.core.dispatch;
+
+import com.lcf.rpc.common.enumeration.RpcPriority;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按优先级调度、按排队时长丢弃的有界任务队列 (业务线程池使用)
+ * 1. 调度：每个优先级一条 FIFO 通道，出队时总是先取优先级最高的非空通道，关键请求不用排在批量请求后面。
+ * 2. 丢弃 (CoDel 思路)：出队时检查排队时长 (各通道中等得最久的任务)，连续 interval 时间都超过 target，
+ *    说明队列是“堆积”而不是“突发”，进入丢弃状态：每次出队顺带从最低优先级的通道开始，
+ *    丢掉排队超过 target 的任务 (CRITICAL 永不丢弃)，直到排队时长回到 target 以下。
+ * 3. 有界：队列满时，新来的请求如果比队里最低的优先级高，就挤掉最低优先级通道里最新的任务，否则拒绝。
+ * 被丢弃的任务会回调 PrioritizedTask 的 onShed (在锁外执行)，由调用方给客户端回过载响应。
+ */
+public class PriorityTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private static final int LANES = RpcPriority.values().length;
+
+    // 每次出队最多顺带丢弃的任务数，避免单次出队耗时过长
+    private static final int SHED_BATCH = 8;
+
+    private final int capacity;
+    private final long targetNanos;
+    private final long intervalNanos;
+
+    private final ArrayDeque<Runnable>[] lanes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    // 任务总数 (锁内修改，锁外可直接读)
+    private volatile int count;
+
+    // 累计丢弃数 (监控指标)
+    private final LongAdder shedCount = new LongAdder();
+
+    // CoDel 状态 (锁内读写)：排队时长首次超过 target 后的观察截止时间，0 表示当前未超过
+    private long firstAboveTime;
+    private volatile boolean dropping;
+
+    // 本次出队顺带丢弃的任务 (锁内写入，出队线程在锁内取走、锁外回调)，只在丢弃状态下才创建
+    private List<Runnable> shedBatch;
+
+    @SuppressWarnings("unchecked")
+    public PriorityTaskQueue(int capacity, long targetMillis, long intervalMillis) {
+        this.capacity = capacity;
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.lanes = (ArrayDeque<Runnable>[]) new ArrayDeque<?>[LANES];
+        for (int i = 0; i < LANES; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        if (runnable == null) {
+            throw new NullPointerException();
+        }
+        int lane = laneOf(runnable);
+        if (runnable instanceof PrioritizedTask) {
+            ((PrioritizedTask) runnable).enqueueTime = System.nanoTime();
+        }
+        Runnable victim = null;
+        lock.lock();
+        try {
+            if (count >= capacity) {
+                int lowest = lowestNonEmptyLane();
+                if (lowest <= lane) {
+                    return false;
+                }
+                victim = lanes[lowest].pollLast();
+                count--;
+            }
+            lanes[lane].offerLast(runnable);
+            count++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (victim != null) {
+            shed(victim);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable, long timeout, TimeUnit unit) {
+        // 有界队列满了直接拒绝，不阻塞 I/O 线程
+        return offer(runnable);
+    }
+
+    @Override
+    public void put(Runnable runnable) {
+        if (!offer(runnable)) {
+            throw new IllegalStateException("Queue full");
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        List<Runnable> shed;
+        Runnable task;
+        lock.lock();
+        try {
+            if (count == 0) {
+                return null;
+            }
+            task = dequeue();
+            shed = takeShedBatch();
+        } finally {
+            lock.unlock();
+        }
+        shedAll(shed);
+        return task;
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        List<Runnable> shed;
+        Runnable task;
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            task = dequeue();
+            shed = takeShedBatch();
+        } finally {
+            lock.unlock();
+        }
+        shedAll(shed);
+        return task;
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        List<Runnable> shed;
+        Runnable task;
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            task = dequeue();
+            shed = takeShedBatch();
+        } finally {
+            lock.unlock();
+        }
+        shedAll(shed);
+        return task;
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> queue : lanes) {
+                if (!queue.isEmpty()) {
+                    return queue.peekFirst();
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> queue : lanes) {
+                if (queue.remove(o)) {
+                    count--;
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - count);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            for (ArrayDeque<Runnable> queue : lanes) {
+                while (drained < maxElements && !queue.isEmpty()) {
+                    c.add(queue.pollFirst());
+                    drained++;
+                }
+            }
+            count -= drained;
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 快照迭代器 (只用于线程池关闭 / 监控，不支持删除)
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        lock.lock();
+        try {
+            List<Runnable> snapshot = new ArrayList<>(count);
+            for (ArrayDeque<Runnable> queue : lanes) {
+                snapshot.addAll(queue);
+            }
+            return Collections.unmodifiableList(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 累计因排队过久或被挤出而丢弃的任务数
+     */
+    public long getShedCount() {
+        return shedCount.sum();
+    }
+
+    /**
+     * 当前是否处于丢弃状态 (持续过载)
+     */
+    public boolean isDropping() {
+        return dropping;
+    }
+
+    /**
+     * 出队 (锁内调用)，顺带更新 CoDel 状态，需要丢弃的任务放进 shedBatch，由调用方取走后在锁外回调
+     */
+    private Runnable dequeue() {
+        Runnable task = null;
+        for (ArrayDeque<Runnable> queue : lanes) {
+            if (!queue.isEmpty()) {
+                task = queue.pollFirst();
+                break;
+            }
+        }
+        count--;
+
+        // 过载信号取各通道队头 (等得最久的任务) 和本次出队任务中最长的排队时长：
+        // 高优先级任务被优先调度，只看出队任务会掩盖低优先级通道的堆积
+        long now = System.nanoTime();
+        long sojourn = sojournOf(task, now);
+        for (ArrayDeque<Runnable> queue : lanes) {
+            if (!queue.isEmpty()) {
+                sojourn = Math.max(sojourn, sojournOf(queue.peekFirst(), now));
+            }
+        }
+        if (sojourn < targetNanos) {
+            firstAboveTime = 0;
+            dropping = false;
+        } else if (firstAboveTime == 0) {
+            firstAboveTime = now + intervalNanos;
+        } else if (now >= firstAboveTime) {
+            dropping = true;
+        }
+
+        if (dropping) {
+            // 从最低优先级开始丢，CRITICAL (第 0 条通道) 不丢
+            int shedThisTime = 0;
+            for (int lane = LANES - 1; lane > 0 && shedThisTime < SHED_BATCH; lane--) {
+                ArrayDeque<Runnable> queue = lanes[lane];
+                while (shedThisTime < SHED_BATCH && !queue.isEmpty()
+                        && sojournOf(queue.peekFirst(), now) >= targetNanos) {
+                    if (shedBatch == null) {
+                        shedBatch = new ArrayList<>(SHED_BATCH);
+                    }
+                    shedBatch.add(queue.pollFirst());
+                    shedThisTime++;
+                    count--;
+                }
+            }
+        }
+        return task;
+    }
+
+    /**
+     * 取走本次出队要丢弃的任务 (锁内调用)，没有丢弃时返回 null
+     */
+    private List<Runnable> takeShedBatch() {
+        List<Runnable> shed = shedBatch;
+        shedBatch = null;
+        return shed;
+    }
+
+    private void shedAll(List<Runnable> shed) {
+        if (shed == null) {
+            return;
+        }
+        for (Runnable task : shed) {
+            shed(task);
+        }
+    }
+
+    private void shed(Runnable task) {
+        shedCount.increment();
+        if (task instanceof PrioritizedTask) {
+            ((PrioritizedTask) task).shed();
+        }
+    }
+
+    private int lowestNonEmptyLane() {
+        for (int lane = LANES - 1; lane >= 0; lane--) {
+            if (!lanes[lane].isEmpty()) {
+                return lane;
+            }
+        }
+        return -1;
+    }
+
+    private static long sojournOf(Runnable task, long now) {
+        // 普通任务 (非 RPC 请求) 不参与按排队时长丢弃
+        return task instanceof PrioritizedTask ? now - ((PrioritizedTask) task).enqueueTime : 0;
+    }
+
+    private static int laneOf(Runnable task) {
+        return task instanceof PrioritizedTask
+                ? ((PrioritizedTask) task).getPriority().ordinal()
+                : RpcPriority.NORMAL.ordinal();
+    }
+}
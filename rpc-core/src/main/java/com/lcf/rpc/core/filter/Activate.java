@@ -0,0 +1,27 @@
+package com.lcf.rpc.core.filter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明过滤器在哪些阶段生效、执行顺序
+ * 没有这个注解的过滤器不会被加载。
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Activate {
+
+    /**
+     * 生效阶段
+     */
+    FilterGroup[] group();
+
+    /**
+     * 执行顺序，越小越先执行 (相同时按扩展名排序)
+     */
+    int order() default 0;
+}
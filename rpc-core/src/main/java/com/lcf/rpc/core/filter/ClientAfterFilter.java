@@ -1,4 +0,0 @@
-package com.lcf.rpc.core.filter;
-
-// 客户端收到响应后
-public interface ClientAfterFilter extends Filter {}
@@ -1,4 +0,0 @@
-package com.lcf.rpc.core.filter;
-// 客户端发送前
-public interface ClientBeforeFilter extends Filter {}
-
@@ -1,5 +1,18 @@
 package com.lcf.rpc.core.filter;
 
+/**
+ * 过滤器 (SPI 扩展点)
+ * 实现类配置在 META-INF/extensions/com.lcf.rpc.core.filter.Filter 中，并用 @Activate 声明生效阶段和顺序。
+ * 启动时按 服务 + 方法 编译成数组 (见 FilterConfig)，调用时直接遍历；实例是单例，需要线程安全。
+ */
 public interface Filter {
-    void doFilter(FilterData filterData);
-}
\ No newline at end of file
+
+    void doFilter(FilterContext context);
+
+    /**
+     * 是否对某个方法生效 (只在编译调用链时调用，不在调用路径上)
+     */
+    default boolean isApplicable(String serviceName, String methodName) {
+        return true;
+    }
+}
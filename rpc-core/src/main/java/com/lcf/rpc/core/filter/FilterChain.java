@@ -1,18 +1,30 @@
 package com.lcf.rpc.core.filter;
 
-import java.util.ArrayList;
-import java.util.List;
+/**
+ * 编译好的过滤器调用链 (某个方法在某个阶段要执行的过滤器，已排好序)
+ * 不可变，多线程共享。
+ */
+public final class FilterChain {
 
-public class FilterChain {
-    private List<Filter> filters = new ArrayList<>();
+    static final FilterChain EMPTY = new FilterChain(new Filter[0]);
 
-    public void addFilter(Filter filter) {
-        filters.add(filter);
+    private final Filter[] filters;
+
+    FilterChain(Filter[] filters) {
+        this.filters = filters;
+    }
+
+    public boolean isEmpty() {
+        return filters.length == 0;
+    }
+
+    public int size() {
+        return filters.length;
     }
 
-    public void doFilter(FilterData data) {
+    public void doFilter(FilterContext context) {
         for (Filter filter : filters) {
-            filter.doFilter(data);
+            filter.doFilter(context);
         }
     }
-}
\ No newline at end of file
+}
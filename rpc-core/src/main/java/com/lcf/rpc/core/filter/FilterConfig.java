@@ -1,36 +1,123 @@
 package com.lcf.rpc.core.filter;
 
-import com.lcf.rpc.core.filter.client.ClientTokenFilter;
-import com.lcf.rpc.core.filter.server.ServerRateLimitFilter; // 导入限流过滤器
-import com.lcf.rpc.core.filter.server.ServiceTokenFilter;
-import lombok.Getter;
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import lombok.extern.slf4j.Slf4j;
 
-@Getter
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 过滤器调用链
+ * 1. 通过 ExtensionLoader 加载所有 Filter 扩展，按 @Activate 的 order 排序。
+ * 2. 按 服务 + 方法 编译成各阶段的数组：服务发布 / 创建代理时编译接口的全部方法，调用时只查表。
+ *    某个阶段没有生效的过滤器时拿到的是空链，调用方据此直接跳过。
+ * 3. 可以按服务 / 方法排除过滤器 (逗号分隔的扩展名)，如：
+ * <pre>
+ * rpc.filter.exclude=rateLimit
+ * rpc.filter.com.lcf.rpc.demo.api.HelloService.sayHello.exclude=serviceToken
+ * </pre>
+ */
+@Slf4j
 public class FilterConfig {
 
-    private static final FilterChain clientBeforeChain = new FilterChain();
-    private static final FilterChain clientAfterChain = new FilterChain();
-    private static final FilterChain serviceBeforeChain = new FilterChain();
-    private static final FilterChain serviceAfterChain = new FilterChain();
+    private static final String PREFIX = "rpc.filter.";
+
+    private static final FilterGroup[] GROUPS = FilterGroup.values();
+
+    // 服务 -> 方法 -> 各阶段的调用链 (下标为 FilterGroup.ordinal())
+    private static final Map<String, Map<String, FilterChain[]>> CHAINS = new ConcurrentHashMap<>();
+
+    private FilterConfig() {
+    }
 
-    // 静态块初始化：加载过滤器
-    static {
-        // --- 客户端链 ---
-        // 客户端发送前，带上 Token
-        clientBeforeChain.addFilter(new ClientTokenFilter());
+    /**
+     * 获取某个方法在某个阶段的调用链
+     */
+    public static FilterChain getChain(FilterGroup group, String serviceName, String methodName) {
+        Map<String, FilterChain[]> methods = CHAINS.get(serviceName);
+        FilterChain[] chains = methods != null ? methods.get(methodName) : null;
+        if (chains == null) {
+            // 没有预先编译过的方法 (服务端收到了不存在的方法名等)：临时编译，不缓存，防止缓存被任意方法名撑大
+            chains = build(serviceName, methodName);
+        }
+        return chains[group.ordinal()];
+    }
 
-        // --- 服务端链 (ServiceBeforeChain) ---
-        // 1.  先限流 (保护系统)
-        serviceBeforeChain.addFilter(new ServerRateLimitFilter());
+    /**
+     * 编译接口中所有方法的调用链 (服务发布、创建客户端代理时调用)
+     */
+    public static void compile(Class<?> interfaceClass) {
+        Map<String, FilterChain[]> methods = CHAINS.computeIfAbsent(interfaceClass.getName(),
+                k -> new ConcurrentHashMap<>());
+        for (Method method : interfaceClass.getMethods()) {
+            methods.computeIfAbsent(method.getName(), k -> build(interfaceClass.getName(), k));
+        }
+    }
 
-        // 2.  后鉴权 (验证身份)
-        serviceBeforeChain.addFilter(new ServiceTokenFilter());
+    private static FilterChain[] build(String serviceName, String methodName) {
+        Set<String> excluded = new HashSet<>(Arrays.asList(
+                RpcProperties.getMethodProperty(PREFIX, serviceName, methodName, "exclude", "").split(",")));
+        FilterChain[] chains = new FilterChain[GROUPS.length];
+        for (FilterGroup group : GROUPS) {
+            List<Filter> filters = new ArrayList<>();
+            for (ActivatedFilter activated : Activated.FILTERS) {
+                if (activated.groups.contains(group) && !excluded.contains(activated.name)
+                        && activated.filter.isApplicable(serviceName, methodName)) {
+                    filters.add(activated.filter);
+                }
+            }
+            chains[group.ordinal()] = filters.isEmpty() ? FilterChain.EMPTY
+                    : new FilterChain(filters.toArray(new Filter[0]));
+        }
+        return chains;
+    }
 
+    private static final class ActivatedFilter {
+        private final String name;
+        private final Filter filter;
+        private final Set<FilterGroup> groups;
+        private final int order;
 
+        ActivatedFilter(String name, Filter filter, Activate activate) {
+            this.name = name;
+            this.filter = filter;
+            this.groups = new HashSet<>(Arrays.asList(activate.group()));
+            this.order = activate.order();
+        }
     }
 
-    public static FilterChain getClientBeforeChain() { return clientBeforeChain; }
-    public static FilterChain getClientAfterChain() { return clientAfterChain; }
-    public static FilterChain getServiceBeforeChain() { return serviceBeforeChain; }
-    public static FilterChain getServiceAfterChain() { return serviceAfterChain; }
-}
\ No newline at end of file
+    /**
+     * 所有声明了 @Activate 的过滤器 (按 order、扩展名排好序)，首次使用时加载
+     */
+    private static final class Activated {
+        private static final List<ActivatedFilter> FILTERS = load();
+
+        private static List<ActivatedFilter> load() {
+            ExtensionLoader<Filter> loader = ExtensionLoader.getExtensionLoader(Filter.class);
+            List<ActivatedFilter> filters = new ArrayList<>();
+            for (String name : loader.getSupportedExtensions()) {
+                Activate activate = loader.getExtensionClass(name).getAnnotation(Activate.class);
+                if (activate == null) {
+                    log.warn("过滤器 {} 没有 @Activate 注解，忽略", name);
+                    continue;
+                }
+                filters.add(new ActivatedFilter(name, loader.getExtension(name), activate));
+            }
+            // 扩展名已经有序，稳定排序保证 order 相同时按扩展名执行
+            filters.sort(Comparator.comparingInt(f -> f.order));
+            for (ActivatedFilter filter : filters) {
+                log.info("加载过滤器: {} (order={}, group={})", filter.name, filter.order, filter.groups);
+            }
+            return Collections.unmodifiableList(filters);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.lcf.rpc.core.filter;
+
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.metrics.CallTiming;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 过滤器上下文
+ * 直接持有请求和响应 (不复制字段)，过滤器对 attachments 的修改就是对请求本身的修改。
+ * 每个线程客户端、服务端各复用一个实例：服务端业务方法中发起的嵌套调用用的是客户端那一个，互不覆盖。
+ * 只在一次调用期间有效，调用结束后会被清空，过滤器不要把它保存下来或交给其他线程。
+ */
+public final class FilterContext {
+
+    private static final ThreadLocal<FilterContext> CLIENT = ThreadLocal.withInitial(FilterContext::new);
+    private static final ThreadLocal<FilterContext> SERVER = ThreadLocal.withInitial(FilterContext::new);
+
+    private RpcRequest request;
+    private RpcResponse response;
+    private CallTiming timing;
+    private long startTime;
+
+    private FilterContext() {
+    }
+
+    /**
+     * 客户端发起调用时获取 (调用结束后需要 clear)
+     */
+    public static FilterContext forClient(RpcRequest request) {
+        return CLIENT.get().reset(request);
+    }
+
+    /**
+     * 服务端处理请求时获取 (处理结束后需要 clear)
+     */
+    public static FilterContext forServer(RpcRequest request) {
+        return SERVER.get().reset(request);
+    }
+
+    private FilterContext reset(RpcRequest request) {
+        this.request = request;
+        this.response = null;
+        this.timing = null;
+        this.startTime = System.currentTimeMillis();
+        return this;
+    }
+
+    /**
+     * 释放对请求和响应的引用，避免线程长期持有大对象
+     */
+    public void clear() {
+        this.request = null;
+        this.response = null;
+    }
+
+    public RpcRequest getRequest() {
+        return request;
+    }
+
+    public RpcResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(RpcResponse response) {
+        this.response = response;
+    }
+
+    /**
+     * 本次调用的阶段耗时 (只在客户端后置过滤器中可用，其他时候为 null)
+     */
+    public CallTiming getTiming() {
+        return timing;
+    }
+
+    public void setTiming(CallTiming timing) {
+        this.timing = timing;
+    }
+
+    public String getServiceName() {
+        return request.getInterfaceName();
+    }
+
+    public String getMethodName() {
+        return request.getMethodName();
+    }
+
+    /**
+     * 参数 (服务端的前置过滤器执行时参数还没有反序列化，为 null)
+     */
+    public Object[] getArgs() {
+        return request.getParameters();
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public Object getAttachment(String key) {
+        Map<String, Object> attachments = request.getAttachments();
+        return attachments == null ? null : attachments.get(key);
+    }
+
+    public void setAttachment(String key, Object value) {
+        Map<String, Object> attachments = request.getAttachments();
+        if (attachments == null) {
+            attachments = new HashMap<>(4);
+            request.setAttachments(attachments);
+        }
+        attachments.put(key, value);
+    }
+}
@@ -0,0 +1,23 @@
+package com.lcf.rpc.core.filter;
+
+/**
+ * 过滤器生效的阶段
+ */
+public enum FilterGroup {
+    /**
+     * 客户端发送前
+     */
+    CLIENT_BEFORE,
+    /**
+     * 客户端收到响应后
+     */
+    CLIENT_AFTER,
+    /**
+     * 服务端收到请求后 (反序列化参数、执行业务方法之前)
+     */
+    SERVICE_BEFORE,
+    /**
+     * 服务端处理完后 (发送响应前)
+     */
+    SERVICE_AFTER
+}
@@ -1,4 +0,0 @@
-package com.lcf.rpc.core.filter;
-
-// 服务端处理完后 (发送响应前)
-public interface ServiceAfterFilter extends Filter {}
@@ -1,4 +0,0 @@
-package com.lcf.rpc.core.filter;
-
-// 服务端收到请求后 (处理前)
-public interface ServiceBeforeFilter extends Filter {}
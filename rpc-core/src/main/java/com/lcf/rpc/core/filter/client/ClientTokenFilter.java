@@ -1,20 +1,22 @@
 package com.lcf.rpc.core.filter.client;
 
-import com.lcf.rpc.core.filter.ClientBeforeFilter;
-import com.lcf.rpc.core.filter.FilterData;
-import lombok.extern.slf4j.Slf4j;
+import com.lcf.rpc.common.constant.AttachmentKeys;
+import com.lcf.rpc.core.filter.Activate;
+import com.lcf.rpc.core.filter.Filter;
+import com.lcf.rpc.core.filter.FilterContext;
+import com.lcf.rpc.core.filter.FilterGroup;
 
-import java.util.HashMap;
+/**
+ * 客户端发送前带上 Token
+ */
+@Activate(group = FilterGroup.CLIENT_BEFORE, order = 100)
+public class ClientTokenFilter implements Filter {
+
+    // 模拟从上下文获取 Token
+    private static final String TOKEN = "secret-token-123";
 
-@Slf4j
-public class ClientTokenFilter implements ClientBeforeFilter {
     @Override
-    public void doFilter(FilterData filterData) {
-        if (filterData.getAttachments() == null) {
-            filterData.setAttachments(new HashMap<>());
-        }
-        // 模拟从上下文获取 Token
-        filterData.getAttachments().put("token", "secret-token-123");
-        log.info("客户端过滤器: 已添加 Token");
+    public void doFilter(FilterContext context) {
+        context.setAttachment(AttachmentKeys.TOKEN, TOKEN);
     }
-}
\ No newline at end of file
+}
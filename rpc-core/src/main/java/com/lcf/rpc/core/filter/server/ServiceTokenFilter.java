@@ -1,21 +1,26 @@
 package com.lcf.rpc.core.filter.server;
 
-import com.lcf.rpc.core.filter.FilterData;
-import com.lcf.rpc.core.filter.ServiceBeforeFilter;
+import com.lcf.rpc.common.constant.AttachmentKeys;
+import com.lcf.rpc.core.filter.Activate;
+import com.lcf.rpc.core.filter.Filter;
+import com.lcf.rpc.core.filter.FilterContext;
+import com.lcf.rpc.core.filter.FilterGroup;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Map;
-
+/**
+ * 服务端鉴权 (在限流之后)
+ */
 @Slf4j
-public class ServiceTokenFilter implements ServiceBeforeFilter {
-    @Override
-    public void doFilter(FilterData filterData) {
-        Map<String, Object> attachments = filterData.getAttachments();
-        String token = (attachments != null) ? (String) attachments.get("token") : null;
+@Activate(group = FilterGroup.SERVICE_BEFORE, order = 200)
+public class ServiceTokenFilter implements Filter {
 
-        if (!"secret-token-123".equals(token)) {
+    private static final String TOKEN = "secret-token-123";
+
+    @Override
+    public void doFilter(FilterContext context) {
+        if (!TOKEN.equals(context.getAttachment(AttachmentKeys.TOKEN))) {
             throw new RuntimeException("非法访问: Token 无效或缺失");
         }
-        log.info("服务端过滤器: Token 校验通过");
+        log.debug("服务端过滤器: Token 校验通过");
     }
-}
\ No newline at end of file
+}
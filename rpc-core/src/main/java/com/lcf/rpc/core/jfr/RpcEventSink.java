@@ -0,0 +1,29 @@
+package com.lcf.rpc.core.jfr;
+
+/**
+ * 事件输出 (JfrEventSink 或空实现，见 RpcEvents)
+ * begin 返回的事件对象交回对应的 end；事件未开启时返回 null，end 收到 null 什么都不做。
+ */
+interface RpcEventSink {
+
+    Object beginClientCall();
+
+    void endClientCall(Object event, String service, String method, String endpoint, String requestId, int status,
+                       int responseSize);
+
+    Object beginServerDispatch();
+
+    void endServerDispatch(Object event, String service, String method, Object peer, int status, int requestSize);
+
+    Object beginSerialization();
+
+    void endSerialization(Object event, Object serializer, boolean serialize, Class<?> type, int size);
+
+    Object beginConnection();
+
+    void endConnection(Object event, String endpoint, boolean success);
+
+    void circuitBreakerTransition(String breaker, Object from, Object to);
+
+    void rateLimitRejection(String service, String method, String limiter, long limit);
+}
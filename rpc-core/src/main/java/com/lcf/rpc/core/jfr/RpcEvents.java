@@ -0,0 +1,169 @@
+package com.lcf.rpc.core.jfr;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JDK Flight Recorder 自定义事件 (调用方只和这个类打交道)
+ * <pre>
+ * com.lcf.rpc.ClientCall               客户端发往某个节点的一次请求 (默认关闭，阈值 10ms)
+ * com.lcf.rpc.ServerDispatch           服务端处理一个请求 (默认关闭，阈值 10ms)
+ * com.lcf.rpc.Serialization            参数 / 结果的序列化与反序列化 (默认关闭，阈值 1ms)
+ * com.lcf.rpc.Connection               建立连接
+ * com.lcf.rpc.CircuitBreakerTransition 熔断器状态切换
+ * com.lcf.rpc.RateLimitRejection       服务端过载拒绝
+ * </pre>
+ * 开关和阈值用 JFR 配置文件控制，rpc-core 自带一份 jfr/lcf-rpc.jfc (从 jar 中取出后使用)，例如：
+ * jcmd &lt;pid&gt; JFR.start settings=default,/path/to/lcf-rpc.jfc
+ * <p>
+ * jdk.jfr 只在 JDK 11+ (以及 8u262+) 中存在：JfrEventSink 和各事件类放在 src/main/jfr，由 jfr profile
+ * 在 JDK 11+ 上单独编译 (字节码仍为 Java 8)，本类只通过反射加载 JfrEventSink，
+ * 加载失败 (JDK 8 构建的 jar 里没有这些类 / JFR 不可用) 或 rpc.jfr.enabled=false 时换成空实现，调用方不受影响。
+ * 没有录制在进行时每次调用只多一次 isEnabled 判断，不创建事件对象。
+ */
+@Slf4j
+public final class RpcEvents {
+
+    private static final RpcEventSink SINK = load();
+
+    private RpcEvents() {
+    }
+
+    private static RpcEventSink load() {
+        if (!Boolean.parseBoolean(RpcProperties.getProperty("rpc.jfr.enabled", "true"))) {
+            return new NoopEventSink();
+        }
+        try {
+            Class.forName("jdk.jfr.Event", false, RpcEvents.class.getClassLoader());
+            return (RpcEventSink) Class.forName("com.lcf.rpc.core.jfr.JfrEventSink")
+                    .getDeclaredConstructor().newInstance();
+        } catch (Throwable e) {
+            log.debug("JFR 不可用，不输出 RPC 事件: {}", e.toString());
+            return new NoopEventSink();
+        }
+    }
+
+    /**
+     * 客户端请求开始
+     * @return 事件对象 (交给 endClientCall)，未开启时为 null
+     */
+    public static Object beginClientCall() {
+        return SINK.beginClientCall();
+    }
+
+    public static void endClientCall(Object event, String service, String method, String endpoint, String requestId,
+                                     int status, int responseSize) {
+        SINK.endClientCall(event, service, method, endpoint, requestId, status, responseSize);
+    }
+
+    /**
+     * 服务端开始处理请求
+     * @return 事件对象 (交给 endServerDispatch)，未开启时为 null
+     */
+    public static Object beginServerDispatch() {
+        return SINK.beginServerDispatch();
+    }
+
+    public static void endServerDispatch(Object event, String service, String method, Object peer, int status,
+                                         int requestSize) {
+        SINK.endServerDispatch(event, service, method, peer, status, requestSize);
+    }
+
+    /**
+     * 序列化 / 反序列化开始
+     * @return 事件对象 (交给 endSerialization)，未开启时为 null
+     */
+    public static Object beginSerialization() {
+        return SINK.beginSerialization();
+    }
+
+    /**
+     * @param serializer 序列化器 (提交事件时才取名字)
+     * @param serialize  true 为序列化，false 为反序列化
+     * @param type       对象类型
+     * @param size       字节数
+     */
+    public static void endSerialization(Object event, Object serializer, boolean serialize, Class<?> type, int size) {
+        SINK.endSerialization(event, serializer, serialize, type, size);
+    }
+
+    /**
+     * 建立连接开始
+     * @return 事件对象 (交给 endConnection)，未开启时为 null
+     */
+    public static Object beginConnection() {
+        return SINK.beginConnection();
+    }
+
+    public static void endConnection(Object event, String endpoint, boolean success) {
+        SINK.endConnection(event, endpoint, success);
+    }
+
+    /**
+     * 熔断器状态切换
+     */
+    public static void circuitBreakerTransition(String breaker, Object from, Object to) {
+        SINK.circuitBreakerTransition(breaker, from, to);
+    }
+
+    /**
+     * 服务端过载拒绝
+     * @param limiter 拒绝的原因 (concurrency / qps / threadPool / queue)
+     * @param limit   当时的上限，没有时为 0
+     */
+    public static void rateLimitRejection(String service, String method, String limiter, long limit) {
+        SINK.rateLimitRejection(service, method, limiter, limit);
+    }
+
+    /**
+     * 空实现 (JFR 不可用或被关闭)
+     */
+    private static final class NoopEventSink implements RpcEventSink {
+
+        @Override
+        public Object beginClientCall() {
+            return null;
+        }
+
+        @Override
+        public void endClientCall(Object event, String service, String method, String endpoint, String requestId,
+                                  int status, int responseSize) {
+        }
+
+        @Override
+        public Object beginServerDispatch() {
+            return null;
+        }
+
+        @Override
+        public void endServerDispatch(Object event, String service, String method, Object peer, int status,
+                                      int requestSize) {
+        }
+
+        @Override
+        public Object beginSerialization() {
+            return null;
+        }
+
+        @Override
+        public void endSerialization(Object event, Object serializer, boolean serialize, Class<?> type, int size) {
+        }
+
+        @Override
+        public Object beginConnection() {
+            return null;
+        }
+
+        @Override
+        public void endConnection(Object event, String endpoint, boolean success) {
+        }
+
+        @Override
+        public void circuitBreakerTransition(String breaker, Object from, Object to) {
+        }
+
+        @Override
+        public void rateLimitRejection(String service, String method, String limiter, long limit) {
+        }
+    }
+}
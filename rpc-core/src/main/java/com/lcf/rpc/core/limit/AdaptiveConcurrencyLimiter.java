@@ -0,0 +1,156 @@
+package com.lcf.rpc.core.limit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应并发限流器 (Gradient2 算法，参考 Netflix concurrency-limits)
+ * 不配置固定 QPS，而是根据观测到的耗时自动估算“最合适的并发数”：
+ * 1. 长期耗时 longRtt (慢速 EWMA) 代表服务不排队时的正常耗时，短期耗时 shortRtt 是最近一个窗口的平均耗时。
+ * 2. gradient = tolerance * longRtt / shortRtt，限制在 [0.5, 1]：耗时没变长时为 1，排队导致耗时变长时 < 1。
+ * 3. newLimit = limit * gradient + sqrt(limit)：耗时正常时每个窗口多放一点，耗时变长时按比例收缩。
+ * 4. 实际并发不到上限的一半时不调整 (流量没压满，观测不出上限在哪)。
+ * 超过上限的请求立即拒绝，不排队。
+ * 调用路径上只有原子计数；限流值由每个窗口结束时抢到标志位的线程计算一次，不加锁。
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    // 长期耗时的平滑窗口 (以“窗口数”计)
+    private static final int LONG_WINDOW = 600;
+
+    // 允许耗时比正常情况长多少倍还不收缩
+    private static final double TOLERANCE = 1.5;
+
+    // 限流值的平滑系数
+    private static final double SMOOTHING = 0.2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final int windowSamples;
+
+    // 当前并发上限 (调用路径上只读)
+    private volatile int limit;
+
+    // 正在处理的请求数
+    private final AtomicInteger inflight = new AtomicInteger(0);
+
+    // 当前窗口的耗时样本
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder rttCount = new LongAdder();
+    private final PeakTracker maxInflight = new PeakTracker();
+    private volatile long windowStart = System.nanoTime();
+
+    // 只允许一个线程计算新的限流值；以下两个字段只在持有标志位时读写
+    private final AtomicBoolean updating = new AtomicBoolean(false);
+    private double estimatedLimit;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      long windowMillis, int windowSamples) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.windowSamples = windowSamples;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * 尝试获取一个并发名额
+     * @return false 表示已达到并发上限，请求应立即拒绝
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                maxInflight.update(current + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求结束，归还名额并提交耗时样本
+     * @param rttNanos 从获取名额到处理完成的耗时 (含排队时间)
+     */
+    public void release(long rttNanos) {
+        inflight.decrementAndGet();
+        rttSum.add(rttNanos);
+        rttCount.increment();
+        long now = System.nanoTime();
+        if (now - windowStart >= windowNanos) {
+            tryUpdateLimit(now);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void tryUpdateLimit(long now) {
+        if (rttCount.sum() < windowSamples || !updating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (now - windowStart < windowNanos) {
+                // 别的线程刚刚结算过这个窗口
+                return;
+            }
+            windowStart = now;
+            long count = rttCount.sumThenReset();
+            long sum = rttSum.sumThenReset();
+            int peak = maxInflight.reset(inflight.get());
+            if (count > 0) {
+                updateLimit((double) sum / count, peak);
+            }
+        } finally {
+            updating.set(false);
+        }
+    }
+
+    private void updateLimit(double shortRtt, int peakInflight) {
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / LONG_WINDOW;
+        }
+        // 最近的耗时远低于长期耗时 (比如一阵高负载过去后恢复正常)：长期耗时按 1/LONG_WINDOW 慢慢回落会一直偏高，
+        // 梯度始终是 1，耗时再变长时限流值收缩不及时，所以这时让它较快地降下来
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (peakInflight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        if ((int) newLimit != limit) {
+            log.debug("并发上限调整 [{}]: {} -> {} (shortRtt={}us, longRtt={}us)", name, limit, (int) newLimit,
+                    (long) shortRtt / 1000, (long) longRtt / 1000);
+        }
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+}
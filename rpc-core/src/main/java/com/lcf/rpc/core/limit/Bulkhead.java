@@ -0,0 +1,129 @@
+package com.lcf.rpc.core.limit;
+
+import com.lcf.rpc.common.config.RpcProperties;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 客户端舱壁 (并发隔离)
+ * 限制同时在途的请求数，满了立即拒绝而不是排队：一个卡死的服务/节点最多占住 maxConcurrent 个调用线程，
+ * 不会把整个 Web 层的线程都拖进 future.get 里。
+ * 两个粒度：
+ * - 服务级 (本类的 ofService)：rpc.client.bulkhead.{服务}.maxConcurrent > rpc.client.bulkhead.maxConcurrent
+ * - 节点级 (RpcStatus 持有)：rpc.client.bulkhead.maxPerEndpoint，满了的节点负载均衡直接跳过
+ * 只有一个原子计数，获取名额时 CAS，不加锁；同时统计拒绝次数和达到过的最高并发 (监控指标)。
+ */
+public class Bulkhead {
+
+    private static final String PREFIX = "rpc.client.bulkhead.";
+
+    // 服务名 -> 服务级舱壁
+    private static final Map<String, Bulkhead> SERVICE_BULKHEADS = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    // 最大并发数，<= 0 表示不限制 (只计数)
+    private final int maxConcurrent;
+
+    private final AtomicInteger concurrent = new AtomicInteger(0);
+    private final PeakTracker peak = new PeakTracker();
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * 获取服务级舱壁 (不存在则创建)
+     */
+    public static Bulkhead ofService(String serviceName) {
+        Bulkhead bulkhead = SERVICE_BULKHEADS.get(serviceName);
+        if (bulkhead == null) {
+            bulkhead = SERVICE_BULKHEADS.computeIfAbsent(serviceName, k -> {
+                String value = RpcProperties.getProperty(PREFIX + serviceName + ".maxConcurrent", null);
+                if (value == null) {
+                    value = RpcProperties.getProperty(PREFIX + "maxConcurrent", "0");
+                }
+                return new Bulkhead(serviceName, Integer.parseInt(value.trim()));
+            });
+        }
+        return bulkhead;
+    }
+
+    /**
+     * 节点级舱壁的并发上限 (默认 200，<= 0 表示不限制)
+     */
+    public static int getMaxPerEndpoint() {
+        return Integer.parseInt(RpcProperties.getProperty(PREFIX + "maxPerEndpoint", "200").trim());
+    }
+
+    /**
+     * 所有服务级舱壁 (监控指标)
+     */
+    public static Collection<Bulkhead> getServiceBulkheads() {
+        return Collections.unmodifiableCollection(SERVICE_BULKHEADS.values());
+    }
+
+    /**
+     * 尝试获取名额
+     * @return false 表示已满，调用方应立即失败或换节点
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = concurrent.get();
+            if (maxConcurrent > 0 && current >= maxConcurrent) {
+                rejected.increment();
+                return false;
+            }
+        } while (!concurrent.compareAndSet(current, current + 1));
+        peak.update(current + 1);
+        return true;
+    }
+
+    /**
+     * 归还名额 (必须与 tryAcquire 成功配对，一般放在 finally 中)
+     */
+    public void release() {
+        concurrent.decrementAndGet();
+    }
+
+    /**
+     * 是否已满 (只读判断，选路前过滤节点用)
+     */
+    public boolean isFull() {
+        return maxConcurrent > 0 && concurrent.get() >= maxConcurrent;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getConcurrent() {
+        return concurrent.get();
+    }
+
+    /**
+     * 达到过的最高并发数
+     */
+    public int getPeak() {
+        return peak.get();
+    }
+
+    /**
+     * 累计拒绝次数
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
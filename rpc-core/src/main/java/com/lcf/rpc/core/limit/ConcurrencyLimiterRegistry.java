@@ -0,0 +1,73 @@
+package com.lcf.rpc.core.limit;
+
+import com.lcf.rpc.common.config.RpcProperties;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务端并发限流器注册表
+ * 粒度是 服务 + 方法：慢方法被限住不影响同一个服务的其他方法。
+ * 参数支持按 服务 / 方法 分级覆盖，如 rpc.server.limiter.com.xxx.HelloService.sayHello.maxLimit=200
+ * 限流器只在服务发布时按接口方法创建：服务名、方法名来自客户端，不能让任意名字在 I/O 线程上新建限流器撑爆内存。
+ */
+public class ConcurrencyLimiterRegistry {
+
+    private static final String PREFIX = "rpc.server.limiter.";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(RpcProperties.getProperty(PREFIX + "enabled", "true"));
+
+    // 服务名 -> 方法名 -> 限流器 (两级缓存，调用路径上不拼接字符串 Key)
+    private static final Map<String, Map<String, AdaptiveConcurrencyLimiter>> LIMITERS = new ConcurrentHashMap<>();
+
+    private ConcurrencyLimiterRegistry() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 服务发布时为接口的每个方法创建限流器
+     */
+    public static void register(Class<?> interfaceClass) {
+        String serviceName = interfaceClass.getName();
+        Map<String, AdaptiveConcurrencyLimiter> methods = LIMITERS.computeIfAbsent(serviceName,
+                k -> new ConcurrentHashMap<>());
+        for (Method method : interfaceClass.getMethods()) {
+            methods.computeIfAbsent(method.getName(), k -> create(serviceName, k));
+        }
+    }
+
+    /**
+     * 获取某个方法的限流器
+     * @return 服务或方法没有发布时返回 null (不限流，请求随后会因找不到服务 / 方法而失败)
+     */
+    public static AdaptiveConcurrencyLimiter get(String serviceName, String methodName) {
+        Map<String, AdaptiveConcurrencyLimiter> methods = LIMITERS.get(serviceName);
+        return methods == null ? null : methods.get(methodName);
+    }
+
+    /**
+     * 所有限流器 (监控指标，服务名 -> 方法名 -> 限流器)
+     */
+    public static Map<String, Map<String, AdaptiveConcurrencyLimiter>> getLimiters() {
+        return Collections.unmodifiableMap(LIMITERS);
+    }
+
+    private static AdaptiveConcurrencyLimiter create(String serviceName, String methodName) {
+        return new AdaptiveConcurrencyLimiter(serviceName + "#" + methodName,
+                getInt(serviceName, methodName, "initialLimit", 20),
+                getInt(serviceName, methodName, "minLimit", 4),
+                getInt(serviceName, methodName, "maxLimit", 1000),
+                getInt(serviceName, methodName, "windowMillis", 100),
+                getInt(serviceName, methodName, "windowSamples", 10));
+    }
+
+    private static int getInt(String serviceName, String methodName, String name, int defaultValue) {
+        String value = RpcProperties.getMethodProperty(PREFIX, serviceName, methodName, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,29 @@
+package com.lcf.rpc.core.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发数的最高值 (舱壁的监控指标、限流器每个窗口的最大并发)
+ * 每次获取名额后都会调用 update，大多数时候并发并没有创新高：先读一次，创新高时才 CAS 更新。
+ */
+final class PeakTracker {
+
+    private final AtomicInteger peak = new AtomicInteger(0);
+
+    void update(int value) {
+        if (value > peak.get()) {
+            peak.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    int get() {
+        return peak.get();
+    }
+
+    /**
+     * 取出当前最高值，并从 value 重新开始记录 (窗口切换时用)
+     */
+    int reset(int value) {
+        return peak.getAndSet(value);
+    }
+}
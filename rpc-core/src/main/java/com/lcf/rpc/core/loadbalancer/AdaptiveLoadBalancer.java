@@ -0,0 +1,78 @@
+package com.lcf.rpc.core.loadbalancer;
+
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.ServerLoad;
+import com.lcf.rpc.core.status.RpcStatus;
+import com.lcf.rpc.registry.ServiceInstance;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 自适应负载均衡 (根据服务端上报的负载信号避开热点节点)
+ * 思路：Power of Two Choices —— 随机挑两个节点，比较负载代价，选代价低的那个。
+ * 不每次都选全局最优，是为了避免负载信号更新前所有客户端一窝蜂涌向同一个“最闲”节点。
+ * 代价 = (客户端活跃数 + 服务端处理中数 + 排队数 * 排队惩罚) * (100 + CPU%) / 权重，
+ * CPU 超过热点阈值时再额外放大，让节点在真正超时之前就被绕开。
+ * 负载信号过期 (节点很久没被调用) 时只看客户端活跃数，给它重新接流量的机会。
+ */
+public class AdaptiveLoadBalancer implements LoadBalancer {
+
+    // 负载信号有效期 (毫秒)
+    private static final long LOAD_MAX_AGE = 3000;
+
+    // 排队比执行更说明节点扛不住了，排队数加倍惩罚
+    private static final int QUEUE_PENALTY = 2;
+
+    // CPU 热点阈值 (%)，超过后代价翻 4 倍
+    private static final int HOT_CPU_PERCENT = 90;
+    private static final int HOT_PENALTY = 4;
+
+    @Override
+    public ServiceInstance select(List<ServiceInstance> serviceInstances, RpcRequest rpcRequest) {
+        if (serviceInstances == null || serviceInstances.isEmpty()) {
+            return null;
+        }
+        int size = serviceInstances.size();
+        if (size == 1) {
+            return serviceInstances.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        // 第二个节点保证和第一个不同
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = serviceInstances.get(first);
+        ServiceInstance b = serviceInstances.get(second);
+        long now = System.currentTimeMillis();
+        return cost(a, now) <= cost(b, now) ? a : b;
+    }
+
+    private long cost(ServiceInstance instance, long now) {
+        RpcStatus status = RpcStatus.getStatus(instance.getKey());
+        long pending = status.getActive();
+        int cpu = 0;
+
+        int load = status.getServerLoad(LOAD_MAX_AGE);
+        if (ServerLoad.isPresent(load)) {
+            pending += ServerLoad.inflight(load) + (long) ServerLoad.queueDepth(load) * QUEUE_PENALTY;
+            cpu = ServerLoad.cpuPercent(load);
+        }
+
+        // +1 保证空闲节点之间仍能按权重和 CPU 区分
+        long cost = (pending + 1) * (100 + cpu);
+        if (cpu >= HOT_CPU_PERCENT) {
+            cost *= HOT_PENALTY;
+        }
+        // 预热中的节点权重小，代价被放大
+        int weight = instance.getWarmupWeight(now);
+        if (weight <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return cost * ServiceInstance.DEFAULT_WEIGHT / weight;
+    }
+}
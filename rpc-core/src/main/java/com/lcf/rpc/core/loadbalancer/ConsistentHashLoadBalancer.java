@@ -1,6 +1,7 @@
 package com.lcf.rpc.core.loadbalancer;
 
 import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.registry.ServiceInstance;
 import lombok.extern.slf4j.Slf4j;
 
 import java.nio.charset.StandardCharsets;
@@ -22,23 +23,21 @@ public class ConsistentHashLoadBalancer implements LoadBalancer {
     private final Map<String, ConsistentHashSelector> selectors = new ConcurrentHashMap<>();
 
     @Override
-    public String select(List<String> serviceAddresses, RpcRequest rpcRequest) {
+    public ServiceInstance select(List<ServiceInstance> serviceInstances, RpcRequest rpcRequest) {
         // 利用本次请求的参数作为 Hash Key
         // 这里默认取第一个参数作为哈希依据，你可以根据业务改为 userId 等
         Object[] parameters = rpcRequest.getParameters();
         String hashKey = (parameters != null && parameters.length > 0) ? parameters[0].toString() : "";
 
-        // 生成这一组服务列表的唯一标识 (Identity Hash Code)
-        // 如果服务列表变了（扩容/缩容），identityHashCode 也会变，触发重构哈希环
-        int identityHashCode = System.identityHashCode(serviceAddresses);
         String serviceName = rpcRequest.getInterfaceName();
 
         ConsistentHashSelector selector = selectors.get(serviceName);
 
-        // 如果还没有初始化，或者服务列表变了，就需要重新构建哈希环
-        if (selector == null || selector.identityHashCode != identityHashCode) {
-            selectors.put(serviceName, new ConsistentHashSelector(serviceAddresses, VIRTUAL_NODE_SIZE, identityHashCode));
-            selector = selectors.get(serviceName);
+        // 如果还没有初始化，或者节点变了 (扩容/缩容、熔断摘除)，就需要重新构建哈希环
+        // 按节点内容比较而不是列表对象：调用方每次都会过滤出一个新的列表，节点没变时不能重建
+        if (selector == null || !selector.matches(serviceInstances)) {
+            selector = new ConsistentHashSelector(serviceInstances, VIRTUAL_NODE_SIZE);
+            selectors.put(serviceName, selector);
         }
 
         return selector.select(hashKey);
@@ -48,17 +47,20 @@ public class ConsistentHashLoadBalancer implements LoadBalancer {
      * 内部类：具体的哈希环选择逻辑
      */
     static class ConsistentHashSelector {
-        private final TreeMap<Long, String> virtualInvokers;
-        private final int identityHashCode;
+        private final TreeMap<Long, ServiceInstance> virtualInvokers;
+        // 构建哈希环时的节点 (按列表顺序)，用来判断节点是否变了
+        private final String[] memberKeys;
 
-        public ConsistentHashSelector(List<String> invokers, int replicaNumber, int identityHashCode) {
+        public ConsistentHashSelector(List<ServiceInstance> invokers, int replicaNumber) {
             this.virtualInvokers = new TreeMap<>();
-            this.identityHashCode = identityHashCode;
+            this.memberKeys = new String[invokers.size()];
 
-            for (String invoker : invokers) {
+            for (int n = 0; n < memberKeys.length; n++) {
+                ServiceInstance invoker = invokers.get(n);
+                memberKeys[n] = invoker.getKey();
                 // 为每个真实节点生成 replicaNumber 个虚拟节点
                 for (int i = 0; i < replicaNumber / 4; i++) {
-                    byte[] digest = md5(invoker + i);
+                    byte[] digest = md5(invoker.getKey() + i);
                     for (int h = 0; h < 4; h++) {
                         long m = hash(digest, h);
                         virtualInvokers.put(m, invoker);
@@ -67,14 +69,29 @@ public class ConsistentHashLoadBalancer implements LoadBalancer {
             }
         }
 
-        public String select(String rpcServiceKey) {
+        /**
+         * 节点列表是否和构建哈希环时相同 (逐个比较节点标识，不分配对象)
+         */
+        boolean matches(List<ServiceInstance> invokers) {
+            if (invokers.size() != memberKeys.length) {
+                return false;
+            }
+            for (int n = 0; n < memberKeys.length; n++) {
+                if (!memberKeys[n].equals(invokers.get(n).getKey())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public ServiceInstance select(String rpcServiceKey) {
             byte[] digest = md5(rpcServiceKey);
             return selectForKey(hash(digest, 0));
         }
 
-        private String selectForKey(long hash) {
+        private ServiceInstance selectForKey(long hash) {
             // 在环上找到 >= hash 的第一个节点
-            Map.Entry<Long, String> entry = virtualInvokers.ceilingEntry(hash);
+            Map.Entry<Long, ServiceInstance> entry = virtualInvokers.ceilingEntry(hash);
             if (entry == null) {
                 // 如果没找到（超过了环的最大值），则取环上的第一个节点（回绕）
                 entry = virtualInvokers.firstEntry();
@@ -0,0 +1,98 @@
+package com.lcf.rpc.core.loadbalancer;
+
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.core.status.RpcStatus;
+import com.lcf.rpc.registry.ServiceInstance;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最少活跃数负载均衡
+ * 思路：活跃数 (正在处理中的请求数) 越少，说明节点处理得越快，优先选它。
+ * 活跃数相同时按权重随机，权重越大越容易被选中 (权重会按预热时长打折)。
+ * 活跃数来自 RpcStatus 的原子计数，选路过程不加锁、不分配对象 (两遍扫描代替临时数组)。
+ * 权重为 0 的节点不接流量，扫描时跳过；全部为 0 时返回 null。
+ */
+public class LeastActiveLoadBalancer implements LoadBalancer {
+
+    @Override
+    public ServiceInstance select(List<ServiceInstance> serviceInstances, RpcRequest rpcRequest) {
+        if (serviceInstances == null || serviceInstances.isEmpty()) {
+            return null;
+        }
+        int size = serviceInstances.size();
+        if (size == 1) {
+            ServiceInstance only = serviceInstances.get(0);
+            return only.getWeight() > 0 ? only : null;
+        }
+
+        long now = System.currentTimeMillis();
+
+        // 1. 第一遍：找出最小活跃数，并统计最小活跃数节点的个数和总权重
+        int leastActive = Integer.MAX_VALUE;
+        int leastCount = 0;
+        int totalWeight = 0;
+        int firstWeight = 0;
+        boolean sameWeight = true;
+        ServiceInstance leastInstance = null;
+        for (int i = 0; i < size; i++) {
+            ServiceInstance instance = serviceInstances.get(i);
+            if (instance.getWeight() <= 0) {
+                continue;
+            }
+            int active = RpcStatus.getStatus(instance.getKey()).getActive();
+            int weight = instance.getWarmupWeight(now);
+            if (active < leastActive) {
+                // 发现更小的活跃数，重新开始统计
+                leastActive = active;
+                leastCount = 1;
+                totalWeight = weight;
+                firstWeight = weight;
+                sameWeight = true;
+                leastInstance = instance;
+            } else if (active == leastActive) {
+                leastCount++;
+                totalWeight += weight;
+                if (sameWeight && weight != firstWeight) {
+                    sameWeight = false;
+                }
+            }
+        }
+
+        // 2. 只有一个最小活跃数节点 (或者没有可接流量的节点)，直接返回
+        if (leastCount <= 1) {
+            return leastInstance;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // 3. 多个节点活跃数相同且权重不同：按权重随机 (第二遍扫描)
+        // 注意：两遍之间活跃数可能变化，找不到时退化为第一个最小活跃数节点
+        if (!sameWeight && totalWeight > 0) {
+            int offset = random.nextInt(totalWeight);
+            for (int i = 0; i < size; i++) {
+                ServiceInstance instance = serviceInstances.get(i);
+                if (instance.getWeight() <= 0 || RpcStatus.getStatus(instance.getKey()).getActive() != leastActive) {
+                    continue;
+                }
+                offset -= instance.getWarmupWeight(now);
+                if (offset < 0) {
+                    return instance;
+                }
+            }
+            return leastInstance;
+        }
+
+        // 4. 权重都一样：在最小活跃数节点中等概率随机
+        int target = random.nextInt(leastCount);
+        for (int i = 0; i < size; i++) {
+            ServiceInstance instance = serviceInstances.get(i);
+            if (instance.getWeight() > 0 && RpcStatus.getStatus(instance.getKey()).getActive() == leastActive
+                    && target-- == 0) {
+                return instance;
+            }
+        }
+        return leastInstance;
+    }
+}
@@ -1,14 +1,16 @@
 package com.lcf.rpc.core.loadbalancer;
 
 import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.registry.ServiceInstance;
+
 import java.util.List;
 
 public interface LoadBalancer {
     /**
      * 从服务列表中选择一个
-     * @param serviceAddresses 服务地址列表
+     * @param serviceInstances 服务实例列表 (携带权重等元数据)
      * @param rpcRequest 本次 RPC 请求的详细参数 (用于提取哈希键)
-     * @return 选中的服务地址
+     * @return 选中的服务实例
      */
-    String select(List<String> serviceAddresses, RpcRequest rpcRequest);
-}
\ No newline at end of file
+    ServiceInstance select(List<ServiceInstance> serviceInstances, RpcRequest rpcRequest);
+}
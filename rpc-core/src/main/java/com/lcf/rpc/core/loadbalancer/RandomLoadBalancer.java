@@ -1,19 +1,50 @@
 package com.lcf.rpc.core.loadbalancer;
 
 import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.registry.ServiceInstance;
+
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * 加权随机
+ * 权重都一样时就是普通随机；权重不同 (或者有节点在预热) 时按权重比例随机。
+ */
 public class RandomLoadBalancer implements LoadBalancer {
-    private final Random random = new Random();
 
     @Override
-    public String select(List<String> serviceAddresses, RpcRequest rpcRequest) {
-        if (serviceAddresses == null || serviceAddresses.isEmpty()) {
+    public ServiceInstance select(List<ServiceInstance> serviceInstances, RpcRequest rpcRequest) {
+        if (serviceInstances == null || serviceInstances.isEmpty()) {
             return null;
         }
-        // 忽略 rpcRequest，继续随机逻辑
-        int index = random.nextInt(serviceAddresses.size());
-        return serviceAddresses.get(index);
+        int size = serviceInstances.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // 1. 统计总权重，顺便判断权重是否都一样
+        long now = System.currentTimeMillis();
+        int totalWeight = 0;
+        boolean sameWeight = true;
+        int firstWeight = serviceInstances.get(0).getWarmupWeight(now);
+        for (int i = 0; i < size; i++) {
+            int weight = serviceInstances.get(i).getWarmupWeight(now);
+            totalWeight += weight;
+            if (sameWeight && weight != firstWeight) {
+                sameWeight = false;
+            }
+        }
+
+        // 2. 权重不同：落在哪个区间就选哪个
+        if (totalWeight > 0 && !sameWeight) {
+            int offset = random.nextInt(totalWeight);
+            for (int i = 0; i < size; i++) {
+                offset -= serviceInstances.get(i).getWarmupWeight(now);
+                if (offset < 0) {
+                    return serviceInstances.get(i);
+                }
+            }
+        }
+
+        // 3. 权重一样：普通随机
+        return serviceInstances.get(random.nextInt(size));
     }
-}
\ No newline at end of file
+}
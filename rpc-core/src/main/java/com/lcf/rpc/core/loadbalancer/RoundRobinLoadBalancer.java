@@ -1,7 +1,10 @@
 package com.lcf.rpc.core.loadbalancer;
 
 import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.registry.ServiceInstance;
+
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class RoundRobinLoadBalancer implements LoadBalancer {
@@ -9,16 +12,34 @@ public class RoundRobinLoadBalancer implements LoadBalancer {
     private final AtomicInteger index = new AtomicInteger(0);
 
     @Override
-    public String select(List<String> serviceAddresses, RpcRequest rpcRequest) {
-        if (serviceAddresses == null || serviceAddresses.isEmpty()) {
+    public ServiceInstance select(List<ServiceInstance> serviceInstances, RpcRequest rpcRequest) {
+        if (serviceInstances == null || serviceInstances.isEmpty()) {
             return null;
         }
         // 忽略 rpcRequest，继续轮询逻辑
-        int currentIndex = index.getAndIncrement();
-        if (currentIndex < 0) {
-            index.set(0);
-            currentIndex = 0;
+        int size = serviceInstances.size();
+        long now = System.currentTimeMillis();
+        ServiceInstance fallback = null;
+        // 轮到预热中的节点时，按 预热权重/权重 的概率接受，否则让给下一个节点
+        // 这样新节点的流量占比随预热进度线性爬升，最多尝试一圈；权重为 0 的节点不接流量，直接跳过
+        for (int i = 0; i < size; i++) {
+            int currentIndex = index.getAndIncrement();
+            if (currentIndex < 0) {
+                index.set(0);
+                currentIndex = 0;
+            }
+            ServiceInstance instance = serviceInstances.get(currentIndex % size);
+            int weight = instance.getWeight();
+            if (weight <= 0) {
+                continue;
+            }
+            int warmupWeight = instance.getWarmupWeight(now);
+            if (warmupWeight >= weight || ThreadLocalRandom.current().nextInt(weight) < warmupWeight) {
+                return instance;
+            }
+            fallback = instance;
         }
-        return serviceAddresses.get(currentIndex % serviceAddresses.size());
+        // 一圈都没接受：返回最后一个可接流量的节点，全部为 0 时返回 null
+        return fallback;
     }
-}
\ No newline at end of file
+}
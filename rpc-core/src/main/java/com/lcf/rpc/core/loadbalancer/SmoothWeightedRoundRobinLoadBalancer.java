@@ -0,0 +1,126 @@
+package com.lcf.rpc.core.loadbalancer;
+
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.registry.ServiceInstance;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 平滑加权轮询 (Nginx 的 smooth weighted round-robin)
+ * 算法：每次选择时，每个节点的 current += weight，选出 current 最大的节点，
+ * 再把它的 current 减去总权重。权重 {5,1,1} 会得到 a a b a c a a 这样均匀穿插的序列，
+ * 而不是普通加权轮询的 a a a a a b c。刚启动的节点使用预热后的权重。
+ * 每个节点的 current 是 AtomicLong，选路只做 CAS，不加锁；节点状态常驻缓存，选路时不分配对象。
+ * 权重为 0 的节点不接流量，直接跳过；下线节点的状态按 RECYCLE_PERIOD 周期性清理，不在每次选路时扫描。
+ */
+public class SmoothWeightedRoundRobinLoadBalancer implements LoadBalancer {
+
+    // 节点超过这个时间没被选路扫描到，认为已经下线，清理其状态
+    private static final long RECYCLE_PERIOD = 60000;
+
+    // Key: 服务名, Value: 该服务下所有节点的轮询状态
+    private final Map<String, ServiceState> serviceStates = new ConcurrentHashMap<>();
+
+    @Override
+    public ServiceInstance select(List<ServiceInstance> serviceInstances, RpcRequest rpcRequest) {
+        if (serviceInstances == null || serviceInstances.isEmpty()) {
+            return null;
+        }
+        int size = serviceInstances.size();
+        if (size == 1) {
+            ServiceInstance only = serviceInstances.get(0);
+            return only.getWeight() > 0 ? only : null;
+        }
+
+        String serviceName = rpcRequest.getInterfaceName();
+        ServiceState state = serviceStates.get(serviceName);
+        if (state == null) {
+            state = serviceStates.computeIfAbsent(serviceName, k -> new ServiceState());
+        }
+        Map<String, WeightedNode> nodes = state.nodes;
+
+        long now = System.currentTimeMillis();
+        long totalWeight = 0;
+        long maxCurrent = Long.MIN_VALUE;
+        ServiceInstance selected = null;
+        WeightedNode selectedNode = null;
+
+        for (int i = 0; i < size; i++) {
+            ServiceInstance instance = serviceInstances.get(i);
+            if (instance.getWeight() <= 0) {
+                continue;
+            }
+            int weight = instance.getWarmupWeight(now);
+            WeightedNode node = nodes.get(instance.getKey());
+            if (node == null) {
+                WeightedNode newNode = new WeightedNode(weight);
+                WeightedNode previous = nodes.putIfAbsent(instance.getKey(), newNode);
+                node = (previous != null) ? previous : newNode;
+            }
+            // 权重在注册中心被调整了 (或者还在预热爬升) 时只更新权重，不清零 current：
+            // 预热期间权重几乎每次都变，清零会让爬升中的节点不断丢掉已累计的份额；
+            // 每轮所有节点的 current 之和仍为 0，按新权重累计几轮就会自然收敛。只有新加入的节点从 0 开始
+            if (node.weight != weight) {
+                node.weight = weight;
+            }
+            long current = node.current.addAndGet(weight);
+            node.lastUpdate = now;
+            if (current > maxCurrent) {
+                maxCurrent = current;
+                selected = instance;
+                selectedNode = node;
+            }
+            totalWeight += weight;
+        }
+
+        // 每隔 RECYCLE_PERIOD 清理一次长时间没出现的节点 (同一时刻只让一个线程清理)
+        // 不能用 "节点数对不上" 作为触发条件：候选列表是过滤后的子集时，每次选路都会对不上
+        if (now - state.lastCleanup >= RECYCLE_PERIOD && state.updating.compareAndSet(false, true)) {
+            try {
+                state.lastCleanup = now;
+                Iterator<WeightedNode> it = nodes.values().iterator();
+                while (it.hasNext()) {
+                    if (now - it.next().lastUpdate > RECYCLE_PERIOD) {
+                        it.remove();
+                    }
+                }
+            } finally {
+                state.updating.set(false);
+            }
+        }
+
+        if (selectedNode == null) {
+            // 全部节点权重为 0
+            return null;
+        }
+        selectedNode.current.addAndGet(-totalWeight);
+        return selected;
+    }
+
+    /**
+     * 单个服务的轮询状态
+     */
+    private static class ServiceState {
+        private final Map<String, WeightedNode> nodes = new ConcurrentHashMap<>();
+        private final AtomicBoolean updating = new AtomicBoolean(false);
+        private volatile long lastCleanup = System.currentTimeMillis();
+    }
+
+    /**
+     * 单个节点的轮询状态
+     */
+    private static class WeightedNode {
+        private volatile int weight;
+        private final AtomicLong current = new AtomicLong(0);
+        private volatile long lastUpdate;
+
+        WeightedNode(int weight) {
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.lcf.rpc.core.metrics;
+
+import com.lcf.rpc.common.model.RpcResponse;
+
+/**
+ * 一次调用的耗时拆分 (客户端收到响应并解析完结果后组装，单位微秒)
+ * <pre>
+ * 代理入口 ─ 请求编码完成 ─┬─ 服务端解码 ─ 开始执行 ─ 执行结束 ─ 响应编码完成 ─┬─ 客户端解码 ─ 结果解析完成
+ *   CLIENT_PREPARE         │   SERVER_QUEUE   SERVER_INVOKE   SERVER_ENCODE  │     CLIENT_DECODE
+ *                          └────────────── NETWORK (两段网络 + 对端 I/O) ─────┘
+ * </pre>
+ * CLIENT_PREPARE 包含过滤器、负载均衡、等待连接、请求序列化，以及之前失败的重试和退避；
+ * NETWORK = 客户端发出到收到的时长 - 服务端总耗时，两台机器的时钟不需要对齐；
+ * CLIENT_DECODE 包含唤醒调用线程和结果反序列化。
+ * 服务端阶段耗时由响应头带回 (见 RpcResponseCodec)，请求没有执行 (过载拒绝) 时为 0。
+ */
+public final class CallTiming {
+
+    public enum Phase {
+        CLIENT_PREPARE("client_prepare"),
+        NETWORK("network"),
+        SERVER_QUEUE("server_queue"),
+        SERVER_INVOKE("server_invoke"),
+        SERVER_ENCODE("server_encode"),
+        CLIENT_DECODE("client_decode");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[] micros = new long[PHASES.length];
+    private final long totalMicros;
+
+    private CallTiming(long totalMicros) {
+        this.totalMicros = totalMicros;
+    }
+
+    /**
+     * @param startNanos   代理入口的时间
+     * @param encodedNanos 请求编码完成的时间 (0 表示未知，CLIENT_PREPARE / NETWORK 记为 0)
+     * @param response     响应 (带着服务端阶段耗时和客户端解码时间)
+     * @param endNanos     结果解析完成的时间
+     */
+    public static CallTiming of(long startNanos, long encodedNanos, RpcResponse response, long endNanos) {
+        CallTiming timing = new CallTiming(micros(endNanos - startNanos));
+        long serverTotal = response.getServerTotalMicros();
+        long queue = response.getServerQueueMicros();
+        long invoke = response.getServerInvokeMicros();
+        long received = response.getReceivedNanos();
+        if (encodedNanos > 0) {
+            timing.set(Phase.CLIENT_PREPARE, micros(encodedNanos - startNanos));
+            if (received > 0) {
+                timing.set(Phase.NETWORK, micros(received - encodedNanos) - serverTotal);
+            }
+        }
+        timing.set(Phase.SERVER_QUEUE, queue);
+        timing.set(Phase.SERVER_INVOKE, invoke);
+        timing.set(Phase.SERVER_ENCODE, serverTotal - queue - invoke);
+        if (received > 0) {
+            timing.set(Phase.CLIENT_DECODE, micros(endNanos - received));
+        }
+        return timing;
+    }
+
+    public long get(Phase phase) {
+        return micros[phase.ordinal()];
+    }
+
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    private void set(Phase phase, long value) {
+        micros[phase.ordinal()] = Math.max(0, value);
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(128).append("total=").append(totalMicros).append("us");
+        for (Phase phase : PHASES) {
+            sb.append(' ').append(phase.label).append('=').append(micros[phase.ordinal()]);
+        }
+        return sb.toString();
+    }
+}
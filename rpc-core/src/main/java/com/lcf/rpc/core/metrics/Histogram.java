@@ -0,0 +1,73 @@
+package com.lcf.rpc.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁直方图 (HdrHistogram 的对数-线性分桶思路)
+ * 0 ~ 31 每个值一个桶；之后每个 2 的幂区间再等分成 16 个子桶，相对误差不超过 1/16，
+ * 最大记录 2^40 - 1 (微秒约 12 天 / 字节约 1TB)，超出的记入最后一个桶。
+ * 记录时只有一次数组下标计算和原子加，读快照时复制计数数组，不阻塞记录方。
+ */
+public final class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 线性部分 [0, 32)
+    private static final int LINEAR = SUB_BUCKETS * 2;
+    private static final int MAX_BITS = 40;
+    private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+    static final int BUCKETS = LINEAR + (MAX_BITS - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(copy, count.sum(), sum.sum(), max.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * 桶内的最大值 (分位数按桶上界报告，不会低估)
+     */
+    static long upperBoundOf(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int offset = index - LINEAR;
+        int exponent = offset / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = offset % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lower = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,58 @@
+package com.lcf.rpc.core.metrics;
+
+/**
+ * 直方图快照 (只读)
+ * 快照期间仍有数据写入，总数与各桶之和可能有极小的出入，分位数按各桶之和计算。
+ */
+public final class HistogramSnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long count, long sum, long max) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param quantile 0 ~ 1，如 0.99
+     */
+    public long getValueAtQuantile(double quantile) {
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(Histogram.upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+}
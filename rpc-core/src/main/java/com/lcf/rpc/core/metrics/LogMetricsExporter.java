@@ -0,0 +1,25 @@
+package com.lcf.rpc.core.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * 把方法级指标输出到日志 (调试用，每个周期每个方法一行)
+ */
+@Slf4j
+public class LogMetricsExporter implements MetricsExporter {
+
+    @Override
+    public void export(List<MetricsSnapshot> snapshots) {
+        for (MetricsSnapshot s : snapshots) {
+            if (s.getEndpoint() != null || s.getRequests() == 0) {
+                continue;
+            }
+            HistogramSnapshot latency = s.getLatency();
+            log.info("[{}] {}#{} 请求 {} 失败 {} 在途 {} 耗时(us) p50={} p99={} max={}", s.getSide(), s.getService(),
+                    s.getMethod(), s.getRequests(), s.getErrors(), s.getInflight(),
+                    latency.getValueAtQuantile(0.5), latency.getValueAtQuantile(0.99), latency.getMax());
+        }
+    }
+}
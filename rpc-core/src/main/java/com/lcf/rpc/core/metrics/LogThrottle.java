@@ -0,0 +1,38 @@
+package com.lcf.rpc.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志限频：同一类日志每个周期最多输出一条，期间被压下的次数累计到下一条里一起报告。
+ * 用在限流、丢弃这类按请求触发的告警上 (过载时每秒成千上万次，逐条打日志反而会拖垮 I/O 线程)。
+ * 精确计数看 RpcMetrics，这里只负责让人在日志里知道“发生了，频率大概多少”。
+ * <pre>
+ * long suppressed = throttle.acquire();
+ * if (suppressed >= 0) {
+ *     log.warn("... (此前另有 {} 次)", ..., suppressed);
+ * }
+ * </pre>
+ */
+public final class LogThrottle {
+
+    private final long intervalMillis;
+    private final AtomicLong nextLogTime = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogThrottle(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * @return 允许输出时返回上次输出以来被压下的次数 (>= 0)；本周期已输出过时返回 -1
+     */
+    public long acquire() {
+        long now = System.currentTimeMillis();
+        long next = nextLogTime.get();
+        if (now >= next && nextLogTime.compareAndSet(next, now + intervalMillis)) {
+            return suppressed.getAndSet(0);
+        }
+        suppressed.incrementAndGet();
+        return -1;
+    }
+}
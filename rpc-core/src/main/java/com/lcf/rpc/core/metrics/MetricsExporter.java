@@ -0,0 +1,12 @@
+package com.lcf.rpc.core.metrics;
+
+import java.util.List;
+
+/**
+ * 指标导出 (SPI 扩展点，配置在 META-INF/extensions/com.lcf.rpc.core.metrics.MetricsExporter)
+ * MetricsReporter 按 rpc.metrics.interval 周期性地把快照交给 rpc.metrics.exporter 指定的实现。
+ */
+public interface MetricsExporter {
+
+    void export(List<MetricsSnapshot> snapshots);
+}
@@ -0,0 +1,199 @@
+package com.lcf.rpc.core.metrics;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 调用指标注册表
+ * <pre>
+ * 客户端：服务 + 方法 (一次完整调用，包含重试)；服务 + 方法 + 节点 (每次发往节点的请求)
+ * 服务端：服务 + 方法 (收到请求到写出响应)
+ * </pre>
+ * 服务端的服务名、方法名来自客户端，指标组只在服务发布时按接口方法创建，没有发布的 服务 / 方法 统一记到 unknown 组上，
+ * 任意名字的请求不会新建指标组；客户端的指标组 (含服务级的分组) 超过 rpc.metrics.maxSeries 后不再新建 (记到空实现上)。
+ * 配置：
+ * <pre>
+ * rpc.metrics.enabled=true      是否统计
+ * rpc.metrics.maxSeries=10000   最多保留的指标组数
+ * rpc.metrics.exporter=         定期导出的方式 (prometheus / log)，为空时不导出，只能通过 snapshot() 拉取
+ * rpc.metrics.interval=10000    导出周期 (ms)
+ * </pre>
+ */
+@Slf4j
+public class MetricsRegistry {
+
+    public static final String CLIENT = "client";
+    public static final String SERVER = "server";
+    // 服务端没有发布的 服务 / 方法 共用的指标组名
+    public static final String UNKNOWN = "unknown";
+
+    private static final String PREFIX = "rpc.metrics.";
+
+    private static final boolean ENABLED = Boolean.parseBoolean(RpcProperties.getProperty(PREFIX + "enabled", "true"));
+    private static final int MAX_SERIES = Integer.parseInt(RpcProperties.getProperty(PREFIX + "maxSeries", "10000"));
+
+    // 服务名 -> 方法名 -> 指标 (两级缓存，调用路径上不拼接字符串 Key)
+    private static final Map<String, Map<String, RpcMetrics>> CLIENT_METRICS = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, RpcMetrics>> SERVER_METRICS = new ConcurrentHashMap<>();
+    // 服务名 -> 方法名 -> 节点 -> 指标
+    private static final Map<String, Map<String, Map<String, RpcMetrics>>> ENDPOINT_METRICS = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger SERIES = new AtomicInteger();
+
+    private static final RpcMetrics UNKNOWN_SERVER = new RpcMetrics(true);
+    private static volatile boolean unknownServerUsed;
+
+    static {
+        if (ENABLED) {
+            MetricsReporter.start();
+        }
+    }
+
+    private MetricsRegistry() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * 客户端方法级指标
+     */
+    public static RpcMetrics client(String serviceName, String methodName) {
+        return ENABLED ? lookup(CLIENT_METRICS, serviceName, methodName) : RpcMetrics.NOOP;
+    }
+
+    /**
+     * 客户端节点级指标
+     */
+    public static RpcMetrics clientEndpoint(String serviceName, String methodName, String endpoint) {
+        if (!ENABLED) {
+            return RpcMetrics.NOOP;
+        }
+        Map<String, Map<String, RpcMetrics>> methods = getOrCreateGroup(ENDPOINT_METRICS, serviceName);
+        if (methods == null) {
+            return RpcMetrics.NOOP;
+        }
+        Map<String, RpcMetrics> endpoints = getOrCreateGroup(methods, methodName);
+        return endpoints == null ? RpcMetrics.NOOP : getOrCreate(endpoints, endpoint);
+    }
+
+    /**
+     * 服务发布时为接口的每个方法创建服务端指标组
+     */
+    public static void registerServer(Class<?> interfaceClass) {
+        if (!ENABLED) {
+            return;
+        }
+        Map<String, RpcMetrics> methods = getOrCreateGroup(SERVER_METRICS, interfaceClass.getName());
+        if (methods == null) {
+            return;
+        }
+        for (Method method : interfaceClass.getMethods()) {
+            getOrCreate(methods, method.getName());
+        }
+    }
+
+    /**
+     * 服务端方法级指标 (只查找，不新建)
+     * @return 服务或方法没有发布时返回共用的 unknown 指标组
+     */
+    public static RpcMetrics server(String serviceName, String methodName) {
+        if (!ENABLED) {
+            return RpcMetrics.NOOP;
+        }
+        Map<String, RpcMetrics> methods = SERVER_METRICS.get(serviceName);
+        RpcMetrics metrics = methods == null ? null : methods.get(methodName);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (!unknownServerUsed) {
+            unknownServerUsed = true;
+        }
+        return UNKNOWN_SERVER;
+    }
+
+    /**
+     * 所有指标的快照
+     */
+    public static List<MetricsSnapshot> snapshot() {
+        List<MetricsSnapshot> snapshots = new ArrayList<>();
+        collect(snapshots, CLIENT, CLIENT_METRICS);
+        for (Map.Entry<String, Map<String, Map<String, RpcMetrics>>> service : ENDPOINT_METRICS.entrySet()) {
+            for (Map.Entry<String, Map<String, RpcMetrics>> method : service.getValue().entrySet()) {
+                for (Map.Entry<String, RpcMetrics> endpoint : method.getValue().entrySet()) {
+                    snapshots.add(endpoint.getValue().snapshot(CLIENT, service.getKey(), method.getKey(),
+                            endpoint.getKey()));
+                }
+            }
+        }
+        collect(snapshots, SERVER, SERVER_METRICS);
+        if (unknownServerUsed) {
+            snapshots.add(UNKNOWN_SERVER.snapshot(SERVER, UNKNOWN, UNKNOWN, null));
+        }
+        return snapshots;
+    }
+
+    private static void collect(List<MetricsSnapshot> snapshots, String side, Map<String, Map<String, RpcMetrics>> metrics) {
+        for (Map.Entry<String, Map<String, RpcMetrics>> service : metrics.entrySet()) {
+            for (Map.Entry<String, RpcMetrics> method : service.getValue().entrySet()) {
+                snapshots.add(method.getValue().snapshot(side, service.getKey(), method.getKey(), null));
+            }
+        }
+    }
+
+    private static RpcMetrics lookup(Map<String, Map<String, RpcMetrics>> metrics, String serviceName, String methodName) {
+        Map<String, RpcMetrics> methods = getOrCreateGroup(metrics, serviceName);
+        return methods == null ? RpcMetrics.NOOP : getOrCreate(methods, methodName);
+    }
+
+    private static RpcMetrics getOrCreate(Map<String, RpcMetrics> metrics, String key) {
+        RpcMetrics value = metrics.get(key);
+        if (value != null) {
+            return value;
+        }
+        if (full()) {
+            return RpcMetrics.NOOP;
+        }
+        return metrics.computeIfAbsent(key, k -> {
+            SERIES.incrementAndGet();
+            return new RpcMetrics(true);
+        });
+    }
+
+    /**
+     * 取出或新建一个分组 (服务 -> 方法、方法 -> 节点)，分组本身也占用指标组数
+     * @return 达到上限时返回 null
+     */
+    private static <V> Map<String, V> getOrCreateGroup(Map<String, Map<String, V>> groups, String key) {
+        Map<String, V> group = groups.get(key);
+        if (group != null) {
+            return group;
+        }
+        if (full()) {
+            return null;
+        }
+        return groups.computeIfAbsent(key, k -> {
+            SERIES.incrementAndGet();
+            return new ConcurrentHashMap<>();
+        });
+    }
+
+    private static boolean full() {
+        if (SERIES.get() < MAX_SERIES) {
+            return false;
+        }
+        // 只有第一次触顶时打印 (计数停在 MAX_SERIES + 1，不会一直累加)
+        if (SERIES.compareAndSet(MAX_SERIES, MAX_SERIES + 1)) {
+            log.warn("指标组数达到上限 {}，之后新出现的 服务/方法/节点 不再统计", MAX_SERIES);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package com.lcf.rpc.core.metrics;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定期导出指标 (配置了 rpc.metrics.exporter 时启动一个守护线程)
+ */
+@Slf4j
+class MetricsReporter {
+
+    private MetricsReporter() {
+    }
+
+    static void start() {
+        String name = RpcProperties.getProperty("rpc.metrics.exporter", "").trim();
+        if (name.isEmpty()) {
+            return;
+        }
+        long interval = Long.parseLong(RpcProperties.getProperty("rpc.metrics.interval", "10000"));
+        MetricsExporter exporter = ExtensionLoader.getExtensionLoader(MetricsExporter.class).getExtension(name);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "rpc-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                exporter.export(MetricsRegistry.snapshot());
+            } catch (Throwable e) {
+                log.warn("导出指标失败", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("指标导出已开启: {}, 周期 {}ms", name, interval);
+    }
+}
@@ -0,0 +1,44 @@
+package com.lcf.rpc.core.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一组调用指标的快照 (交给 MetricsExporter 导出)
+ */
+@Getter
+@AllArgsConstructor
+public class MetricsSnapshot {
+
+    // client / server
+    private final String side;
+    private final String service;
+    private final String method;
+    // 节点 "ip:port"，方法级汇总为 null
+    private final String endpoint;
+
+    private final long requests;
+    private final long errors;
+    private final long inflight;
+    // 对冲请求数 (客户端方法级)
+    private final long hedges;
+    // 没有执行的请求数 (服务端，下标为 RejectReason 的 ordinal)
+    private final long[] rejected;
+
+    // 耗时 (微秒)
+    private final HistogramSnapshot latency;
+    // 请求 / 响应报文大小 (字节，不含 11 字节协议头)
+    private final HistogramSnapshot requestBytes;
+    private final HistogramSnapshot responseBytes;
+
+    // 阶段耗时 (微秒，下标为 CallTiming.Phase 的 ordinal)，没有记录过时为 null
+    private final HistogramSnapshot[] phases;
+
+    public long getRejected(RejectReason reason) {
+        return rejected[reason.ordinal()];
+    }
+
+    public HistogramSnapshot getPhase(CallTiming.Phase phase) {
+        return phases == null ? null : phases[phase.ordinal()];
+    }
+}
@@ -0,0 +1,36 @@
+package com.lcf.rpc.core.metrics;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * 把指标按 Prometheus 文本格式写到文件 (rpc.metrics.prometheus.file，默认 rpc-metrics.prom)
+ * 先写临时文件再原子替换，采集方不会读到写了一半的文件。
+ */
+@Slf4j
+public class PrometheusFileExporter implements MetricsExporter {
+
+    private final Path file = Paths.get(RpcProperties.getProperty("rpc.metrics.prometheus.file", "rpc-metrics.prom"));
+
+    @Override
+    public void export(List<MetricsSnapshot> snapshots) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                PrometheusTextWriter.write(snapshots, writer);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写出指标文件失败: {}", file, e);
+        }
+    }
+}
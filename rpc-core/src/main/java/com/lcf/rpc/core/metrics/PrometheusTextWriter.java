@@ -0,0 +1,238 @@
+package com.lcf.rpc.core.metrics;
+
+import com.lcf.rpc.core.limit.AdaptiveConcurrencyLimiter;
+import com.lcf.rpc.core.limit.Bulkhead;
+import com.lcf.rpc.core.limit.ConcurrencyLimiterRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 Prometheus 文本格式 (0.0.4) 输出指标
+ * <pre>
+ * rpc_requests_total / rpc_errors_total   counter
+ * rpc_inflight                            gauge
+ * rpc_hedges_total                        counter (客户端方法级)
+ * rpc_rejected_total                      counter (服务端，另有 reason 标签，见 RejectReason)
+ * rpc_latency_seconds                     summary (0.5 / 0.9 / 0.99 / 0.999 分位)
+ * rpc_request_bytes / rpc_response_bytes  summary
+ * rpc_phase_seconds                       summary (客户端方法级，另有 phase 标签，见 CallTiming)
+ * 标签：side、service、method，节点级指标另有 endpoint
+ * 以下不来自快照，直接读取各组件的当前状态：
+ * rpc_bulkhead_inflight / rpc_bulkhead_limit / rpc_bulkhead_peak   gauge (客户端服务级舱壁，只有 service 标签)
+ * rpc_bulkhead_rejected_total                                       counter
+ * rpc_concurrency_limit / rpc_concurrency_inflight                  gauge (服务端自适应限流器的当前上限和在途数)
+ * </pre>
+ * 文件可以交给 node_exporter 的 textfile collector 采集，也可以由应用自己的 HTTP 接口返回，框架不依赖外部服务。
+ */
+public class PrometheusTextWriter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final double MICROS_PER_SECOND = 1_000_000D;
+
+    private PrometheusTextWriter() {
+    }
+
+    public static String write(List<MetricsSnapshot> snapshots) {
+        StringBuilder out = new StringBuilder(snapshots.size() * 1024);
+        write(snapshots, out);
+        return out.toString();
+    }
+
+    public static void write(List<MetricsSnapshot> snapshots, Appendable out) {
+        try {
+            header(out, "rpc_requests_total", "counter", "Total RPC calls");
+            for (MetricsSnapshot s : snapshots) {
+                sample(out, "rpc_requests_total", s, null, s.getRequests());
+            }
+            header(out, "rpc_errors_total", "counter", "Failed RPC calls");
+            for (MetricsSnapshot s : snapshots) {
+                sample(out, "rpc_errors_total", s, null, s.getErrors());
+            }
+            header(out, "rpc_inflight", "gauge", "RPC calls in flight");
+            for (MetricsSnapshot s : snapshots) {
+                sample(out, "rpc_inflight", s, null, s.getInflight());
+            }
+            header(out, "rpc_hedges_total", "counter", "Hedged RPC requests sent");
+            for (MetricsSnapshot s : snapshots) {
+                if (MetricsRegistry.CLIENT.equals(s.getSide()) && s.getEndpoint() == null) {
+                    sample(out, "rpc_hedges_total", s, null, s.getHedges());
+                }
+            }
+            header(out, "rpc_rejected_total", "counter", "RPC requests rejected without execution");
+            for (MetricsSnapshot s : snapshots) {
+                if (MetricsRegistry.SERVER.equals(s.getSide())) {
+                    for (RejectReason reason : RejectReason.values()) {
+                        sample(out, "rpc_rejected_total", s, "reason", reason.getLabel(), null,
+                                s.getRejected(reason));
+                    }
+                }
+            }
+            header(out, "rpc_latency_seconds", "summary", "RPC call latency");
+            for (MetricsSnapshot s : snapshots) {
+                summary(out, "rpc_latency_seconds", s, s.getLatency(), MICROS_PER_SECOND);
+            }
+            header(out, "rpc_request_bytes", "summary", "RPC request body size");
+            for (MetricsSnapshot s : snapshots) {
+                summary(out, "rpc_request_bytes", s, s.getRequestBytes(), 1);
+            }
+            header(out, "rpc_response_bytes", "summary", "RPC response body size");
+            for (MetricsSnapshot s : snapshots) {
+                summary(out, "rpc_response_bytes", s, s.getResponseBytes(), 1);
+            }
+            header(out, "rpc_phase_seconds", "summary", "RPC call latency by phase");
+            for (MetricsSnapshot s : snapshots) {
+                for (CallTiming.Phase phase : CallTiming.Phase.values()) {
+                    HistogramSnapshot histogram = s.getPhase(phase);
+                    if (histogram != null) {
+                        summary(out, "rpc_phase_seconds", s, "phase", phase.getLabel(), histogram,
+                                MICROS_PER_SECOND);
+                    }
+                }
+            }
+            writeBulkheads(out);
+            writeConcurrencyLimits(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 服务端自适应限流器：当前并发上限 (随耗时变化) 和在途数
+     */
+    private static void writeConcurrencyLimits(Appendable out) throws IOException {
+        Map<String, Map<String, AdaptiveConcurrencyLimiter>> limiters = ConcurrencyLimiterRegistry.getLimiters();
+        if (limiters.isEmpty()) {
+            return;
+        }
+        header(out, "rpc_concurrency_limit", "gauge", "Adaptive concurrency limit");
+        for (Map.Entry<String, Map<String, AdaptiveConcurrencyLimiter>> service : limiters.entrySet()) {
+            for (Map.Entry<String, AdaptiveConcurrencyLimiter> method : service.getValue().entrySet()) {
+                sample(out, "rpc_concurrency_limit", MetricsRegistry.SERVER, service.getKey(), method.getKey(),
+                        method.getValue().getLimit());
+            }
+        }
+        header(out, "rpc_concurrency_inflight", "gauge", "Requests holding an adaptive concurrency permit");
+        for (Map.Entry<String, Map<String, AdaptiveConcurrencyLimiter>> service : limiters.entrySet()) {
+            for (Map.Entry<String, AdaptiveConcurrencyLimiter> method : service.getValue().entrySet()) {
+                sample(out, "rpc_concurrency_inflight", MetricsRegistry.SERVER, service.getKey(), method.getKey(),
+                        method.getValue().getInflight());
+            }
+        }
+    }
+
+    /**
+     * 客户端服务级舱壁：在途数、上限、达到过的最高并发和拒绝次数 (上限 0 表示不限制，只计数)
+     */
+    private static void writeBulkheads(Appendable out) throws IOException {
+        Collection<Bulkhead> bulkheads = Bulkhead.getServiceBulkheads();
+        if (bulkheads.isEmpty()) {
+            return;
+        }
+        header(out, "rpc_bulkhead_inflight", "gauge", "Calls in flight through the service bulkhead");
+        for (Bulkhead bulkhead : bulkheads) {
+            sample(out, "rpc_bulkhead_inflight", MetricsRegistry.CLIENT, bulkhead.getName(), null, bulkhead.getConcurrent());
+        }
+        header(out, "rpc_bulkhead_limit", "gauge", "Service bulkhead limit (0 = unlimited)");
+        for (Bulkhead bulkhead : bulkheads) {
+            sample(out, "rpc_bulkhead_limit", MetricsRegistry.CLIENT, bulkhead.getName(), null,
+                    Math.max(bulkhead.getMaxConcurrent(), 0));
+        }
+        header(out, "rpc_bulkhead_peak", "gauge", "Highest concurrency seen by the service bulkhead");
+        for (Bulkhead bulkhead : bulkheads) {
+            sample(out, "rpc_bulkhead_peak", MetricsRegistry.CLIENT, bulkhead.getName(), null, bulkhead.getPeak());
+        }
+        header(out, "rpc_bulkhead_rejected_total", "counter", "Calls rejected by the service bulkhead");
+        for (Bulkhead bulkhead : bulkheads) {
+            sample(out, "rpc_bulkhead_rejected_total", MetricsRegistry.CLIENT, bulkhead.getName(), null,
+                    bulkhead.getRejected());
+        }
+    }
+
+    private static void header(Appendable out, String name, String type, String help) throws IOException {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void summary(Appendable out, String name, MetricsSnapshot s, HistogramSnapshot histogram,
+                                double divisor) throws IOException {
+        summary(out, name, s, null, null, histogram, divisor);
+    }
+
+    private static void summary(Appendable out, String name, MetricsSnapshot s, String labelName, String labelValue,
+                                HistogramSnapshot histogram, double divisor) throws IOException {
+        if (histogram.getCount() == 0) {
+            return;
+        }
+        for (double quantile : QUANTILES) {
+            sample(out, name, s, labelName, labelValue, String.valueOf(quantile),
+                    histogram.getValueAtQuantile(quantile) / divisor);
+        }
+        sample(out, name + "_sum", s, labelName, labelValue, null, histogram.getSum() / divisor);
+        sample(out, name + "_count", s, labelName, labelValue, null, histogram.getCount());
+    }
+
+    private static void sample(Appendable out, String name, MetricsSnapshot s, String quantile, double value)
+            throws IOException {
+        sample(out, name, s, null, null, quantile, value);
+    }
+
+    private static void sample(Appendable out, String name, MetricsSnapshot s, String labelName, String labelValue,
+                               String quantile, double value) throws IOException {
+        out.append(name).append("{side=\"").append(s.getSide()).append('"');
+        label(out, "service", s.getService());
+        label(out, "method", s.getMethod());
+        if (s.getEndpoint() != null) {
+            label(out, "endpoint", s.getEndpoint());
+        }
+        if (labelName != null) {
+            label(out, labelName, labelValue);
+        }
+        if (quantile != null) {
+            label(out, "quantile", quantile);
+        }
+        value(out, value);
+    }
+
+    /**
+     * 不来自快照的指标 (method 为 null 时不输出 method 标签)
+     */
+    private static void sample(Appendable out, String name, String side, String service, String method, double value)
+            throws IOException {
+        out.append(name).append("{side=\"").append(side).append('"');
+        label(out, "service", service);
+        if (method != null) {
+            label(out, "method", method);
+        }
+        value(out, value);
+    }
+
+    private static void value(Appendable out, double value) throws IOException {
+        out.append("} ");
+        if (value == (long) value) {
+            out.append(Long.toString((long) value));
+        } else {
+            out.append(Double.toString(value));
+        }
+        out.append('\n');
+    }
+
+    private static void label(Appendable out, String name, String value) throws IOException {
+        out.append(',').append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,26 @@
+package com.lcf.rpc.core.metrics;
+
+/**
+ * 服务端没有执行请求的原因 (按原因分别计数，导出为 rpc_rejected_total 的 reason 标签)
+ */
+public enum RejectReason {
+
+    // 自适应并发限流拒绝
+    CONCURRENCY("concurrency"),
+    // 业务线程池 (队列) 已满
+    THREAD_POOL("threadPool"),
+    // 排队期间已过调用方的截止时间 (不执行，也不回响应)
+    EXPIRED("expired"),
+    // 持续过载时排队过久被丢弃
+    QUEUE("queue");
+
+    private final String label;
+
+    RejectReason(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,139 @@
+package com.lcf.rpc.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一组调用指标 (某个 服务 + 方法，或 服务 + 方法 + 节点)
+ * 计数器都是 LongAdder (分段计数，高并发下不争抢同一个缓存行)，耗时和报文大小用 Histogram。
+ * 耗时以微秒记录，报文大小以字节记录。
+ */
+public final class RpcMetrics {
+
+    static final RpcMetrics NOOP = new RpcMetrics(false);
+
+    private final boolean enabled;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inflight = new LongAdder();
+    // 对冲请求数 (只有客户端方法级指标会记录)
+    private final LongAdder hedges = new LongAdder();
+    // 服务端没有执行的请求数 (下标为 RejectReason 的 ordinal，只有服务端指标会记录)
+    private final LongAdder[] rejected = newCounters(RejectReason.values().length);
+    private final Histogram latency = new Histogram();
+    private final Histogram requestBytes = new Histogram();
+    private final Histogram responseBytes = new Histogram();
+    // 阶段耗时 (只有客户端方法级指标会记录，第一次记录时才创建)
+    private volatile Histogram[] phases;
+
+    RpcMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 调用开始
+     */
+    public void begin() {
+        if (enabled) {
+            requests.increment();
+            inflight.increment();
+        }
+    }
+
+    /**
+     * 调用结束 (与 begin 一一对应)
+     * @param elapsedNanos 耗时
+     * @param error 是否失败
+     */
+    public void end(long elapsedNanos, boolean error) {
+        if (enabled) {
+            inflight.decrement();
+            latency.record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+            if (error) {
+                errors.increment();
+            }
+        }
+    }
+
+    /**
+     * 发出一次对冲请求
+     */
+    public void recordHedge() {
+        if (enabled) {
+            hedges.increment();
+        }
+    }
+
+    /**
+     * 请求没有执行就被拒绝 / 丢弃 (仍然要调用 end，这里只是按原因分别计数)
+     */
+    public void recordReject(RejectReason reason) {
+        if (enabled) {
+            rejected[reason.ordinal()].increment();
+        }
+    }
+
+    public void recordRequestBytes(int bytes) {
+        if (enabled) {
+            requestBytes.record(bytes);
+        }
+    }
+
+    public void recordResponseBytes(int bytes) {
+        if (enabled) {
+            responseBytes.record(bytes);
+        }
+    }
+
+    /**
+     * 记录一次调用的阶段耗时
+     */
+    public void recordPhases(CallTiming timing) {
+        if (!enabled) {
+            return;
+        }
+        Histogram[] histograms = phases;
+        if (histograms == null) {
+            histograms = initPhases();
+        }
+        for (CallTiming.Phase phase : CallTiming.Phase.values()) {
+            histograms[phase.ordinal()].record(timing.get(phase));
+        }
+    }
+
+    private synchronized Histogram[] initPhases() {
+        if (phases == null) {
+            Histogram[] histograms = new Histogram[CallTiming.Phase.values().length];
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram();
+            }
+            phases = histograms;
+        }
+        return phases;
+    }
+
+    private static LongAdder[] newCounters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+
+    MetricsSnapshot snapshot(String side, String service, String method, String endpoint) {
+        Histogram[] histograms = phases;
+        HistogramSnapshot[] phaseSnapshots = null;
+        if (histograms != null) {
+            phaseSnapshots = new HistogramSnapshot[histograms.length];
+            for (int i = 0; i < histograms.length; i++) {
+                phaseSnapshots[i] = histograms[i].snapshot();
+            }
+        }
+        long[] rejectedCounts = new long[rejected.length];
+        for (int i = 0; i < rejected.length; i++) {
+            rejectedCounts[i] = rejected[i].sum();
+        }
+        return new MetricsSnapshot(side, service, method, endpoint, requests.sum(), errors.sum(), inflight.sum(),
+                hedges.sum(), rejectedCounts, latency.snapshot(), requestBytes.snapshot(), responseBytes.snapshot(), phaseSnapshots);
+    }
+}
@@ -0,0 +1,149 @@
+package com.lcf.rpc.core.netty.codec;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.constant.AttachmentKeys;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * attachments 二进制编解码 (不经过序列化器)
+ * <pre>
+ * 个数(2) | 条目 ...
+ * 条目 = Key | 值类型(1) | 值
+ *   Key  : 常用 Key 为 1 字节编号 (1 ~ 127)；自定义 Key 为 0 + 2 字节长度 + UTF-8
+ *   值   : STRING = 2 字节长度 + UTF-8；BYTES = 4 字节长度 + 原始字节；LONG = 8 字节
+ * </pre>
+ * 解码后的值类型：字符串为 String，byte[] 为 byte[]，整数 (Integer / Long / Short / Byte) 统一为 Long，
+ * 其他类型按 toString 传成 String。
+ * Key 编号写进了协议，只能在 KEYS 末尾追加，不能调整已有的顺序。
+ * 解码时所有长度都先和剩余字节数比较，BYTES 值另受 rpc.attachment.maxBytesLength 限制 (默认 1MB)，
+ * 超出时抛 CorruptedFrameException，不按对端给的长度分配内存。
+ */
+public class AttachmentCodec {
+
+    private static final byte CUSTOM_KEY = 0;
+
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_BYTES = 1;
+    private static final byte TYPE_LONG = 2;
+
+    // 最短的条目：Key 编号(1) + 值类型(1) + 空字符串(2)
+    private static final int MIN_ENTRY_LENGTH = 4;
+
+    private static final int MAX_BYTES_LENGTH = Integer.parseInt(
+            RpcProperties.getProperty("rpc.attachment.maxBytesLength", "1048576").trim());
+
+    // 下标即编号，0 保留给自定义 Key
+    private static final String[] KEYS = {
+            null,
+            AttachmentKeys.TOKEN,
+            AttachmentKeys.TRACE_ID,
+            AttachmentKeys.SPAN_ID,
+            null, // 保留：曾分配给 deadline (剩余超时时间已作为请求元数据的 timeout 字段传输)，编号不再复用
+            AttachmentKeys.PRIORITY
+    };
+
+    private static final Map<String, Byte> KEY_IDS = new HashMap<>();
+
+    static {
+        for (int i = 1; i < KEYS.length; i++) {
+            if (KEYS[i] != null) {
+                KEY_IDS.put(KEYS[i], (byte) i);
+            }
+        }
+    }
+
+    private AttachmentCodec() {
+    }
+
+    public static void encode(Map<String, Object> attachments, ByteBuf out) {
+        int countIndex = out.writerIndex();
+        out.writeShort(0);
+        if (attachments == null || attachments.isEmpty()) {
+            return;
+        }
+        int count = 0;
+        for (Map.Entry<String, Object> entry : attachments.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            Byte keyId = KEY_IDS.get(entry.getKey());
+            if (keyId != null) {
+                out.writeByte(keyId);
+            } else {
+                out.writeByte(CUSTOM_KEY);
+                RpcRequestCodec.writeString(out, entry.getKey());
+            }
+            writeValue(out, value);
+            count++;
+        }
+        out.setShort(countIndex, count);
+    }
+
+    /**
+     * @return 没有 attachment 时返回 null
+     */
+    public static Map<String, Object> decode(ByteBuf in) {
+        int count = in.readUnsignedShort();
+        if (count == 0) {
+            return null;
+        }
+        if (count * MIN_ENTRY_LENGTH > in.readableBytes()) {
+            throw new CorruptedFrameException("attachment 个数 " + count + " 超出剩余长度 " + in.readableBytes());
+        }
+        Map<String, Object> attachments = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte keyId = in.readByte();
+            String key;
+            if (keyId == CUSTOM_KEY) {
+                key = RpcRequestCodec.readString(in);
+            } else if (keyId > 0 && keyId < KEYS.length && KEYS[keyId] != null) {
+                key = KEYS[keyId];
+            } else {
+                throw new CorruptedFrameException("Unknown attachment key id: " + keyId);
+            }
+            attachments.put(key, readValue(in));
+        }
+        return attachments;
+    }
+
+    private static void writeValue(ByteBuf out, Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(TYPE_BYTES);
+            out.writeInt(bytes.length);
+            out.writeBytes(bytes);
+        } else {
+            out.writeByte(TYPE_STRING);
+            RpcRequestCodec.writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(ByteBuf in) {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_STRING:
+                return RpcRequestCodec.readString(in);
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_BYTES:
+                int length = in.readInt();
+                if (length < 0 || length > in.readableBytes() || length > MAX_BYTES_LENGTH) {
+                    throw new CorruptedFrameException("attachment 字节值长度 " + length + " 非法 (剩余 "
+                            + in.readableBytes() + " 字节，上限 " + MAX_BYTES_LENGTH + ")");
+                }
+                byte[] bytes = new byte[length];
+                in.readBytes(bytes);
+                return bytes;
+            default:
+                throw new CorruptedFrameException("Unknown attachment value type: " + type);
+        }
+    }
+}
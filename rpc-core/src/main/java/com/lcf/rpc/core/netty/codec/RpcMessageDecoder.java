@@ -5,10 +5,12 @@ import com.lcf.rpc.common.enumeration.RpcMessageType;
 import com.lcf.rpc.common.model.RpcMessage;
 import com.lcf.rpc.common.model.RpcRequest;
 import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.pool.MessagePool;
 import com.lcf.rpc.core.serialization.Serializer;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
 import lombok.AllArgsConstructor;
 
 import java.nio.charset.StandardCharsets;
@@ -39,9 +41,19 @@ public class RpcMessageDecoder extends ByteToMessageDecoder {
 
         // 4. 读取头部其他信息
         byte version = in.readByte();
+        if (version != RpcConstants.VERSION) {
+            // 请求体布局随版本变化 (v2 起请求分为元数据 + 参数两段)，不同版本无法互通
+            throw new IllegalArgumentException("Unsupported protocol version: " + version);
+        }
         byte serializerCode = in.readByte();
         byte messageType = in.readByte();
         int bodyLength = in.readInt(); // 数据长度
+        if (bodyLength < 0) {
+            throw new CorruptedFrameException("Negative body length: " + bodyLength);
+        }
+        if (bodyLength > RpcConstants.MAX_FRAME_LENGTH - RpcConstants.HEAD_LENGTH) {
+            throw new CorruptedFrameException("Body length exceeds max frame length: " + bodyLength);
+        }
 
         // 5. 检查数据包是否完整
         if (in.readableBytes() < bodyLength) {
@@ -50,25 +62,27 @@ public class RpcMessageDecoder extends ByteToMessageDecoder {
             return;
         }
 
-        // 6. 读取 Body
-        byte[] bodyBytes = new byte[bodyLength];
-        in.readBytes(bodyBytes);
-
-        // 7. 反序列化 (⚠️ 核心修改点)
+        // 6. 读取并解析 Body
         Object body;
 
         // 情况 A: 心跳包 (PING/PONG) -> 直接转 String，不走 序列化器
         if (messageType == RpcMessageType.HEARTBEAT_REQUEST.getCode() ||
                 messageType == RpcMessageType.HEARTBEAT_RESPONSE.getCode()) {
-            body = new String(bodyBytes, StandardCharsets.UTF_8);
+            body = in.readCharSequence(bodyLength, StandardCharsets.UTF_8).toString();
         }
-        // 情况 B: 普通业务请求 -> 转 RpcRequest
+        // 情况 B: 普通业务请求 -> 只解析路由元数据，参数留到请求被准入后在业务线程反序列化
         else if (messageType == RpcMessageType.REQUEST.getCode()) {
-            body = serializer.deserialize(bodyBytes, RpcRequest.class);
+            RpcRequest request = RpcRequestCodec.decodeMetadata(in, bodyLength);
+            request.setReceivedNanos(System.nanoTime());
+            // 请求大小由 Handler 找到已发布的 服务 / 方法 后记入指标
+            request.setWireSize(bodyLength);
+            body = request;
         }
-        // 情况 C: 普通业务响应 -> 转 RpcResponse
+        // 情况 C: 普通业务响应 -> 只解析请求号等头部，结果留给调用线程反序列化
         else if (messageType == RpcMessageType.RESPONSE.getCode()) {
-            body = serializer.deserialize(bodyBytes, RpcResponse.class);
+            RpcResponse response = RpcResponseCodec.decodeHeader(in, bodyLength);
+            response.setReceivedNanos(System.nanoTime());
+            body = response;
         }
         // 情况 D: 未知类型
         else {
@@ -76,11 +90,7 @@ public class RpcMessageDecoder extends ByteToMessageDecoder {
         }
 
         // 8. 封装成 RpcMessage 传递给下一个 Handler
-        RpcMessage rpcMessage = RpcMessage.builder()
-                .codec(serializerCode)
-                .messageType(messageType)
-                .data(body)
-                .build();
+        RpcMessage rpcMessage = MessagePool.newMessage(messageType, serializerCode, body);
 
         out.add(rpcMessage);
     }
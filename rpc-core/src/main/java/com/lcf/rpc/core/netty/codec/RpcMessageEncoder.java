@@ -3,6 +3,10 @@ package com.lcf.rpc.core.netty.codec;
 import com.lcf.rpc.common.constant.RpcConstants;
 import com.lcf.rpc.common.enumeration.RpcMessageType;
 import com.lcf.rpc.common.model.RpcMessage;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.metrics.MetricsRegistry;
+import com.lcf.rpc.core.pool.MessagePool;
 import com.lcf.rpc.core.serialization.Serializer;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
@@ -26,26 +30,44 @@ public class RpcMessageEncoder extends MessageToByteEncoder<RpcMessage> {
             // 4. 写入消息类型 (1 byte)
             out.writeByte(msg.getMessageType());
 
-            // 5. 序列化 Body
-            byte[] bodyBytes = null;
+            // 5. 先占位数据长度 (4 bytes)，写完 Body 再回填 - 关键！解决粘包
+            int lengthIndex = out.writerIndex();
+            out.writeInt(0);
+
+            // 6. 写入数据内容
             // 特殊处理心跳包：心跳包没有复杂的 body，不需要走序列化
             if (msg.getMessageType() == RpcMessageType.HEARTBEAT_REQUEST.getCode() ||
                     msg.getMessageType() == RpcMessageType.HEARTBEAT_RESPONSE.getCode()) {
                 // 心跳数据直接转字节
-                 bodyBytes = msg.getData().toString().getBytes();
+                out.writeBytes(msg.getData().toString().getBytes());
+            } else if (msg.getMessageType() == RpcMessageType.REQUEST.getCode()) {
+                // 请求：路由元数据 + 参数分段写出，服务端可以只解析元数据
+                RpcRequest request = (RpcRequest) msg.getData();
+                RpcRequestCodec.encode(request, serializer, out);
+                request.setEncodedNanos(System.nanoTime());
+                MetricsRegistry.client(request.getInterfaceName(), request.getMethodName())
+                        .recordRequestBytes(out.writerIndex() - lengthIndex - 4);
             } else {
-                // 普通业务数据，走序列化器
-                 bodyBytes = serializer.serialize(msg.getData());
+                // 响应：请求号 / 状态码在前，结果在后，客户端可以先匹配请求再解析结果
+                RpcResponse response = (RpcResponse) msg.getData();
+                RpcResponseCodec.encode(response, serializer, out);
+                if (response.getInterfaceName() != null) {
+                    MetricsRegistry.server(response.getInterfaceName(), response.getMethodName())
+                            .recordResponseBytes(out.writerIndex() - lengthIndex - 4);
+                }
             }
 
-            // 6. 写入数据长度 (4 bytes) - 关键！解决粘包
-            out.writeInt(bodyBytes.length);
-
-            // 7. 写入数据内容
-            out.writeBytes(bodyBytes);
+            // 7. 回填数据长度
+            out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
 
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            // 出站消息交给 Channel 后归编码器所有，写完即回收 (只有池化的对象会被回收，见 MessagePool)
+            if (msg.getMessageType() == RpcMessageType.RESPONSE.getCode()) {
+                MessagePool.recycle((RpcResponse) msg.getData());
+            }
+            MessagePool.recycle(msg);
         }
     }
 }
\ No newline at end of file
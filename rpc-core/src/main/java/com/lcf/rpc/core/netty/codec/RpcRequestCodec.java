@@ -0,0 +1,188 @@
+package com.lcf.rpc.core.netty.codec;
+
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.core.jfr.RpcEvents;
+import com.lcf.rpc.core.pool.MessagePool;
+import com.lcf.rpc.core.serialization.Serializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 请求体编解码 (分段信封)
+ * 请求体分成两段，服务端解码时只解析第一段，参数等请求被准入后才反序列化：
+ * <pre>
+ * 第一段：路由元数据 (手写二进制，不走序列化器)
+ *   requestId | interfaceName | methodName | timeout(8) | priority(1)
+ *   | 参数个数(2) | 参数类型名 ... | attachments (见 AttachmentCodec)
+ *   字符串均为 2 字节长度 + UTF-8
+ * 第二段：参数 (序列化器序列化的 Object[])，占满请求体剩余部分
+ * </pre>
+ * 元数据足够完成路由、限流、鉴权、丢弃判断，被拒绝的请求不会付出反序列化参数的代价。
+ */
+public class RpcRequestCodec {
+
+    private static final int MAX_SHORT_STRING = 0xFFFF;
+
+    // 参数类型名 -> Class (基本类型 Class.forName 找不到，预先放进去)
+    private static final Map<String, Class<?>> CLASS_CACHE = new ConcurrentHashMap<>();
+
+    // 找不到的类型名 (类型名来自客户端，每次都 Class.forName 会在 I/O 线程上反复扫描类路径)
+    // 条数有上限，满了整体清空，防止被任意类型名撑爆内存
+    private static final int MAX_MISSING_CLASSES = 1024;
+    private static final Map<String, Boolean> MISSING_CLASSES = new ConcurrentHashMap<>();
+
+    static {
+        Class<?>[] primitives = {boolean.class, byte.class, char.class, short.class, int.class, long.class,
+                float.class, double.class, void.class};
+        for (Class<?> primitive : primitives) {
+            CLASS_CACHE.put(primitive.getName(), primitive);
+        }
+    }
+
+    private RpcRequestCodec() {
+    }
+
+    /**
+     * 写出请求体 (元数据 + 参数)
+     */
+    public static void encode(RpcRequest request, Serializer serializer, ByteBuf out) {
+        writeString(out, request.getRequestId());
+        writeString(out, request.getInterfaceName());
+        writeString(out, request.getMethodName());
+        out.writeLong(request.getTimeout());
+        out.writeByte(request.getPriority());
+
+        Class<?>[] paramTypes = request.getParamTypes();
+        int paramCount = paramTypes == null ? 0 : paramTypes.length;
+        out.writeShort(paramCount);
+        for (int i = 0; i < paramCount; i++) {
+            writeString(out, paramTypes[i].getName());
+        }
+
+        AttachmentCodec.encode(request.getAttachments(), out);
+
+        if (paramCount > 0 && request.getParameterBytes() != null) {
+            // 参数已经是序列化好的字节 (回放录制的请求)，原样写出
+            out.writeBytes(request.getParameterBytes());
+        } else if (paramCount > 0) {
+            Object[] parameters = request.getParameters() == null ? new Object[paramCount] : request.getParameters();
+            Object event = RpcEvents.beginSerialization();
+            byte[] bytes = serializer.serialize(parameters);
+            RpcEvents.endSerialization(event, serializer, true, Object[].class, bytes.length);
+            out.writeBytes(bytes);
+        }
+    }
+
+    /**
+     * 只解析元数据，参数原样保留为字节 (RpcRequest.parameterBytes)，等 decodeParameters 再反序列化
+     * 只在本请求体的切片内读取，长度字段不可信时抛 CorruptedFrameException，不会读到下一个请求
+     * @param length 请求体总长度
+     */
+    public static RpcRequest decodeMetadata(ByteBuf in, int length) {
+        ByteBuf body = in.readSlice(length);
+        RpcRequest request = MessagePool.newRequest();
+        try {
+            request.setRequestId(readString(body));
+            request.setInterfaceName(readString(body));
+            request.setMethodName(readString(body));
+            request.setTimeout(body.readLong());
+            request.setPriority(body.readByte());
+
+            int paramCount = body.readUnsignedShort();
+            // 每个参数类型名至少占 2 字节长度，先校验再按个数分配数组
+            if (paramCount * 2 > body.readableBytes()) {
+                throw new CorruptedFrameException("参数个数 " + paramCount + " 超出请求体长度 " + length);
+            }
+            Class<?>[] paramTypes = new Class<?>[paramCount];
+            for (int i = 0; i < paramCount; i++) {
+                // 找不到的类型留空，查找方法时会失败并返回错误响应，不影响同一连接上的其他请求
+                paramTypes[i] = resolveClass(readString(body));
+            }
+            request.setParamTypes(paramTypes);
+
+            request.setAttachments(AttachmentCodec.decode(body));
+
+            // 元数据之后剩下的都是参数：没有参数却有剩余字节，说明元数据和参数的分界不对
+            int remaining = body.readableBytes();
+            if (remaining > 0 && paramCount == 0) {
+                throw new CorruptedFrameException("请求没有参数，但元数据之后还有 " + remaining + " 字节");
+            }
+            if (remaining > 0) {
+                byte[] parameterBytes = new byte[remaining];
+                body.readBytes(parameterBytes);
+                request.setParameterBytes(parameterBytes);
+            }
+            return request;
+        } catch (IndexOutOfBoundsException e) {
+            MessagePool.recycle(request);
+            throw new CorruptedFrameException("请求元数据超出请求体长度 " + length, e);
+        } catch (RuntimeException e) {
+            MessagePool.recycle(request);
+            throw e;
+        }
+    }
+
+    /**
+     * 反序列化参数 (服务端在业务线程中、请求被准入后调用)
+     */
+    public static void decodeParameters(RpcRequest request, Serializer serializer) {
+        byte[] parameterBytes = request.getParameterBytes();
+        if (parameterBytes == null) {
+            if (request.getParameters() == null) {
+                request.setParameters(new Object[0]);
+            }
+            return;
+        }
+        Object event = RpcEvents.beginSerialization();
+        request.setParameters(serializer.deserialize(parameterBytes, Object[].class));
+        RpcEvents.endSerialization(event, serializer, false, Object[].class, parameterBytes.length);
+        request.setParameterBytes(null);
+    }
+
+    static void writeString(ByteBuf out, String value) {
+        int length = ByteBufUtil.utf8Bytes(value);
+        if (length > MAX_SHORT_STRING) {
+            throw new IllegalArgumentException("字符串过长 (" + length + " 字节)，超过协议上限 " + MAX_SHORT_STRING);
+        }
+        out.writeShort(length);
+        ByteBufUtil.writeUtf8(out, value);
+    }
+
+    static String readString(ByteBuf in) {
+        int length = in.readUnsignedShort();
+        if (length > in.readableBytes()) {
+            throw new CorruptedFrameException("字符串长度 " + length + " 超出剩余长度 " + in.readableBytes());
+        }
+        return in.readCharSequence(length, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * 按类名查找类 (带缓存，找不到的类型名也缓存)，找不到返回 null
+     */
+    static Class<?> resolveClass(String name) {
+        Class<?> clazz = CLASS_CACHE.get(name);
+        if (clazz != null) {
+            return clazz;
+        }
+        if (MISSING_CLASSES.containsKey(name)) {
+            return null;
+        }
+        try {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            clazz = Class.forName(name, false, loader != null ? loader : RpcRequestCodec.class.getClassLoader());
+            CLASS_CACHE.put(name, clazz);
+            return clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            if (MISSING_CLASSES.size() >= MAX_MISSING_CLASSES) {
+                MISSING_CLASSES.clear();
+            }
+            MISSING_CLASSES.put(name, Boolean.TRUE);
+            return null;
+        }
+    }
+}
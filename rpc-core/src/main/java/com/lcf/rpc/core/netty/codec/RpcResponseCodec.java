@@ -0,0 +1,178 @@
+package com.lcf.rpc.core.netty.codec;
+
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.jfr.RpcEvents;
+import com.lcf.rpc.core.pool.MessagePool;
+import com.lcf.rpc.core.serialization.Serializer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 响应体编解码 (延迟反序列化)
+ * <pre>
+ * 第一段：requestId | code(4) | serverLoad(4)                     -> I/O 线程解析，用于匹配请求、记录负载
+ *         | 排队(4) | 执行(4) | 服务端总耗时(4) (微秒)             -> 客户端拆分调用耗时，总耗时在结果编码完成后回填
+ * 第二段：message(4 字节长度 + UTF-8，-1 为 null) | 结果类型名 | 结果 -> 调用线程按方法返回类型解析
+ * </pre>
+ * 客户端 I/O 线程只做匹配，结果的反序列化 (可能很大) 挪到等待结果的调用线程上，
+ * 多个调用线程并行解析，不会在少数几个 I/O 线程上排队；对冲落败、超时放弃的响应也不再被解析。
+ */
+public class RpcResponseCodec {
+
+    // 第二段最短的长度：message 长度(4) + 结果类型名长度(2)
+    private static final int MIN_BODY_LENGTH = 6;
+
+    private RpcResponseCodec() {
+    }
+
+    /**
+     * 写出响应体
+     */
+    public static void encode(RpcResponse response, Serializer serializer, ByteBuf out) {
+        RpcRequestCodec.writeString(out, response.getRequestId());
+        out.writeInt(response.getCode());
+        out.writeInt(response.getServerLoad());
+        writeServerTiming(response, out);
+        int totalIndex = out.writerIndex() - 4;
+
+        String message = response.getMessage();
+        if (message == null) {
+            out.writeInt(-1);
+        } else {
+            int lengthIndex = out.writerIndex();
+            out.writeInt(0);
+            int length = ByteBufUtil.writeUtf8(out, message);
+            out.setInt(lengthIndex, length);
+        }
+
+        Object data = response.getData();
+        if (data == null) {
+            RpcRequestCodec.writeString(out, "");
+        } else {
+            // 结果的实际类型随数据一起传：返回值声明为接口 (List 等) 时，Kryo 需要具体类型才能还原
+            RpcRequestCodec.writeString(out, data.getClass().getName());
+            Object event = RpcEvents.beginSerialization();
+            byte[] bytes = serializer.serialize(data);
+            RpcEvents.endSerialization(event, serializer, true, data.getClass(), bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        if (response.getRequestReceivedNanos() > 0) {
+            out.setInt(totalIndex, micros(System.nanoTime() - response.getRequestReceivedNanos()));
+        }
+    }
+
+    /**
+     * 服务端阶段耗时：排队 / 执行按时间戳算出，总耗时先占位 (由 encode 回填)
+     * 没有时间戳的响应 (如预热时构造的响应) 全部写 0
+     */
+    private static void writeServerTiming(RpcResponse response, ByteBuf out) {
+        long received = response.getRequestReceivedNanos();
+        long dispatch = response.getDispatchNanos();
+        long invokeEnd = response.getInvokeEndNanos();
+        out.writeInt(received > 0 && dispatch > 0 ? micros(dispatch - received) : 0);
+        out.writeInt(dispatch > 0 && invokeEnd > 0 ? micros(invokeEnd - dispatch) : 0);
+        out.writeInt(0);
+    }
+
+    private static int micros(long nanos) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, nanos / 1000));
+    }
+
+    /**
+     * 只解析请求号、状态码和负载信号，其余部分原样保留为字节 (RpcResponse.body)，等 decodeBody 再解析
+     * 只在本响应体的切片内读取，长度字段不可信时抛 CorruptedFrameException，不会读到下一个响应
+     * @param length 响应体总长度
+     */
+    public static RpcResponse decodeHeader(ByteBuf in, int length) {
+        ByteBuf frame = in.readSlice(length);
+        String requestId;
+        int code;
+        int serverLoad;
+        int queueMicros;
+        int invokeMicros;
+        int totalMicros;
+        try {
+            requestId = RpcRequestCodec.readString(frame);
+            code = frame.readInt();
+            serverLoad = frame.readInt();
+            queueMicros = frame.readInt();
+            invokeMicros = frame.readInt();
+            totalMicros = frame.readInt();
+        } catch (IndexOutOfBoundsException e) {
+            throw new CorruptedFrameException("响应头超出响应体长度 " + length, e);
+        }
+        // 头部之后是第二段，至少要放得下 message 长度和结果类型名长度
+        if (frame.readableBytes() < MIN_BODY_LENGTH) {
+            throw new CorruptedFrameException("响应头之后只剩 " + frame.readableBytes() + " 字节，响应体长度 " + length);
+        }
+        RpcResponse response = MessagePool.newResponse(code, null, null, requestId);
+        response.setServerLoad(serverLoad);
+        response.setServerQueueMicros(queueMicros);
+        response.setServerInvokeMicros(invokeMicros);
+        response.setServerTotalMicros(totalMicros);
+        response.setWireSize(length);
+        byte[] body = new byte[frame.readableBytes()];
+        frame.readBytes(body);
+        response.setBody(body);
+        return response;
+    }
+
+    /**
+     * 解析错误信息和结果 (客户端在调用线程中调用)
+     * 结果优先按服务端传回的实际类型解析，客户端没有这个类时退回方法的返回类型
+     * @param returnType 方法的返回类型
+     */
+    public static void decodeBody(RpcResponse response, Serializer serializer, Class<?> returnType) {
+        byte[] body = response.getBody();
+        if (body == null) {
+            return;
+        }
+        ByteBuf in = Unpooled.wrappedBuffer(body);
+        int messageLength = in.readInt();
+        if (messageLength >= 0) {
+            response.setMessage(in.readCharSequence(messageLength, StandardCharsets.UTF_8).toString());
+        }
+        String dataClassName = RpcRequestCodec.readString(in);
+        if (!dataClassName.isEmpty()) {
+            Class<?> dataType = RpcRequestCodec.resolveClass(dataClassName);
+            if (dataType == null) {
+                dataType = wrap(returnType);
+            }
+            byte[] dataBytes = new byte[in.readableBytes()];
+            in.readBytes(dataBytes);
+            Object event = RpcEvents.beginSerialization();
+            response.setData(serializer.deserialize(dataBytes, dataType));
+            RpcEvents.endSerialization(event, serializer, false, dataType, dataBytes.length);
+        }
+        response.setBody(null);
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == char.class) {
+            return Character.class;
+        }
+        return Void.class;
+    }
+}
@@ -3,6 +3,7 @@ package com.lcf.rpc.core.netty.handler;
 import com.lcf.rpc.common.enumeration.RpcMessageType;
 import com.lcf.rpc.common.model.RpcMessage;
 import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.pool.MessagePool;
 import com.lcf.rpc.core.transport.UnprocessedRequests;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -48,6 +49,8 @@ public class NettyClientHandler extends SimpleChannelInboundHandler<RpcMessage>
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RpcMessage msg) throws Exception {
         byte messageType = msg.getMessageType();
+        Object data = msg.getData();
+        MessagePool.recycle(msg);
 
         // 处理心跳响应
         if (messageType == RpcMessageType.HEARTBEAT_RESPONSE.getCode()) {
@@ -55,10 +58,10 @@ public class NettyClientHandler extends SimpleChannelInboundHandler<RpcMessage>
             return;
         }
 
-        log.info("收到服务端消息: {}", msg);
+        log.debug("收到服务端消息: {}", data);
 
-        // 正常响应处理
-        RpcResponse response = (RpcResponse) msg.getData();
+        // 正常响应处理 (响应交给等待它的调用线程，由调用线程回收)
+        RpcResponse response = (RpcResponse) data;
         unprocessedRequests.complete(response);
     }
 
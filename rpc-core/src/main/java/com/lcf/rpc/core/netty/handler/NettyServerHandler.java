@@ -1,12 +1,34 @@
 package com.lcf.rpc.core.netty.handler;
 
 import com.lcf.rpc.common.enumeration.RpcMessageType;
+import com.lcf.rpc.common.enumeration.RpcPriority;
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
+import com.lcf.rpc.common.exception.RpcException;
 import com.lcf.rpc.common.model.RpcMessage;
 import com.lcf.rpc.common.model.RpcRequest;
 import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.accesslog.AccessLog;
+import com.lcf.rpc.core.context.RpcContext;
+import com.lcf.rpc.core.dispatch.PrioritizedTask;
+import com.lcf.rpc.core.dispatch.PriorityPolicy;
 import com.lcf.rpc.core.filter.FilterConfig;
-import com.lcf.rpc.core.filter.FilterData;
+import com.lcf.rpc.core.filter.FilterChain;
+import com.lcf.rpc.core.filter.FilterContext;
+import com.lcf.rpc.core.filter.FilterGroup;
+import com.lcf.rpc.core.jfr.RpcEvents;
+import com.lcf.rpc.core.limit.AdaptiveConcurrencyLimiter;
+import com.lcf.rpc.core.limit.ConcurrencyLimiterRegistry;
+import com.lcf.rpc.core.metrics.LogThrottle;
+import com.lcf.rpc.core.metrics.MetricsRegistry;
+import com.lcf.rpc.core.metrics.RejectReason;
+import com.lcf.rpc.core.metrics.RpcMetrics;
+import com.lcf.rpc.core.netty.codec.RpcRequestCodec;
+import com.lcf.rpc.core.pool.MessagePool;
 import com.lcf.rpc.core.provider.ServiceProviderImpl;
+import com.lcf.rpc.core.serialization.Serializer;
+import com.lcf.rpc.core.status.ServerStatus;
+import com.lcf.rpc.core.trace.Span;
+import com.lcf.rpc.core.trace.Tracing;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.timeout.IdleState;
@@ -14,12 +36,33 @@ import io.netty.handler.timeout.IdleStateEvent;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 public class NettyServerHandler extends SimpleChannelInboundHandler<RpcMessage> {
 
+    // 拒绝 / 丢弃类告警的限频周期：过载时按请求逐条打日志会拖垮 I/O 线程，精确数量看 rpc_rejected_total
+    private static final long REJECT_LOG_INTERVAL = 5000;
+    private static final LogThrottle CONCURRENCY_LOG = new LogThrottle(REJECT_LOG_INTERVAL);
+    private static final LogThrottle THREAD_POOL_LOG = new LogThrottle(REJECT_LOG_INTERVAL);
+    private static final LogThrottle EXPIRED_LOG = new LogThrottle(REJECT_LOG_INTERVAL);
+    private static final LogThrottle SHED_LOG = new LogThrottle(REJECT_LOG_INTERVAL);
+
     // 引入服务提供者 (这里先直接new，后续可以单例管理)
     private final ServiceProviderImpl serviceProvider = new ServiceProviderImpl();
+
+    // 业务线程池 (由 NettyServer 创建，所有连接共享)
+    private final ExecutorService businessExecutor;
+
+    // 参数反序列化在业务线程中进行 (解码器只解析路由元数据)
+    private final Serializer serializer;
+
+    public NettyServerHandler(ExecutorService businessExecutor, Serializer serializer) {
+        this.businessExecutor = businessExecutor;
+        this.serializer = serializer;
+    }
+
     // 1. 处理心跳超时事件
     @Override
     public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
@@ -37,30 +80,163 @@ public class NettyServerHandler extends SimpleChannelInboundHandler<RpcMessage>
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RpcMessage msg) throws Exception {
         byte messageType = msg.getMessageType();
+        byte codec = msg.getCodec();
+        Object data = msg.getData();
+        // 入站消息只是个信封，取出内容后立即回收 (请求归本 Handler，处理结束后回收)
+        MessagePool.recycle(msg);
 
         //  2. 如果是心跳包
         if (messageType == RpcMessageType.HEARTBEAT_REQUEST.getCode()) {
-            log.info("收到心跳包 PING");
+            log.debug("收到心跳包 PING");
             // 构建 PONG 消息
-            RpcMessage pong = RpcMessage.builder()
-                    .codec(msg.getCodec())
-                    .messageType(RpcMessageType.HEARTBEAT_RESPONSE.getCode())
-                    .data("PONG")
-                    .build();
+            RpcMessage pong = MessagePool.newMessage(RpcMessageType.HEARTBEAT_RESPONSE.getCode(), codec, "PONG");
             ctx.writeAndFlush(pong);
             return; // 直接返回，不走后面的业务逻辑
         }
-        RpcRequest request = (RpcRequest) msg.getData();
-        log.info("服务端收到请求: {}", request);
+        RpcRequest request = (RpcRequest) data;
+        log.debug("服务端收到请求: {}", request);
 
+        // 客户端传来的是剩余超时时间，换算成本机的截止时间 (0 表示不限制)
+        long timeout = request.getTimeout();
+        long deadline = timeout <= 0 ? 0 : System.currentTimeMillis() + timeout;
+
+        // 优先级由客户端声明、服务端决定：不在白名单中的 CRITICAL 降为 HIGH，改写回请求，嵌套调用继承的也是降级后的值
+        RpcPriority priority = PriorityPolicy.resolve(request.getInterfaceName(), request.getMethodName(),
+                RpcPriority.fromCode(request.getPriority()));
+        request.setPriority(priority.getCode());
+
+        // 指标：从收到请求到写出响应 (包含排队时间)
+        // 只记到服务发布时创建的指标组上，没有发布的 服务 / 方法 共用 unknown 组
+        long admitTime = System.nanoTime();
+        RpcMetrics metrics = MetricsRegistry.server(request.getInterfaceName(), request.getMethodName());
+        metrics.begin();
+        metrics.recordRequestBytes(request.getWireSize());
+        Object event = RpcEvents.beginServerDispatch();
+
+        // 自适应并发限流 (服务 + 方法)：超过并发上限立即拒绝，不进队列，客户端收到过载响应后换节点重试
+        // 白名单方法的 CRITICAL 请求 (健康检查等) 不占自适应限流的名额，改受单独的固定并发上限约束
+        // 限流器在服务发布时创建，没有发布的服务 / 方法拿到 null，不在这里新建
+        AdaptiveConcurrencyLimiter limiter = priority == RpcPriority.CRITICAL
+                ? PriorityPolicy.getCriticalLimiter(request.getInterfaceName(), request.getMethodName())
+                : ConcurrencyLimiterRegistry.isEnabled()
+                ? ConcurrencyLimiterRegistry.get(request.getInterfaceName(), request.getMethodName()) : null;
+        if (limiter != null && !limiter.tryAcquire()) {
+            metrics.recordReject(RejectReason.CONCURRENCY);
+            long suppressed = CONCURRENCY_LOG.acquire();
+            if (suppressed >= 0) {
+                log.warn("方法 {} 并发数达到上限 {}，拒绝请求: {} (此前另有 {} 次并发限流拒绝未打印)", limiter.getName(),
+                        limiter.getLimit(), request.getRequestId(), suppressed);
+            }
+            RpcEvents.rateLimitRejection(request.getInterfaceName(), request.getMethodName(), "concurrency",
+                    limiter.getLimit());
+            writeResponse(ctx, overloaded("Server is overloaded: concurrency limit " + limiter.getLimit(), request));
+            complete(ctx, request, metrics, admitTime, event, RpcResponseCode.OVERLOADED.getCode());
+            MessagePool.recycle(request);
+            return;
+        }
+
+        // 业务逻辑交给业务线程池，避免慢方法阻塞 I/O 线程
+        // 线程池按优先级调度，过载时排队过久的低优先级请求会被丢弃 (回过载响应，客户端换节点重试)
+        try {
+            businessExecutor.execute(new PrioritizedTask(priority,
+                    () -> handleRequest(ctx, request, deadline, limiter, admitTime, metrics, event),
+                    () -> shedRequest(ctx, request, limiter, admitTime, metrics, event)));
+        } catch (RejectedExecutionException e) {
+            metrics.recordReject(RejectReason.THREAD_POOL);
+            long suppressed = THREAD_POOL_LOG.acquire();
+            if (suppressed >= 0) {
+                log.warn("业务线程池已满，拒绝请求: {} (此前另有 {} 次同类拒绝未打印)", request.getRequestId(), suppressed);
+            }
+            RpcEvents.rateLimitRejection(request.getInterfaceName(), request.getMethodName(), "threadPool", 0);
+            if (limiter != null) {
+                limiter.release(System.nanoTime() - admitTime);
+            }
+            writeResponse(ctx, overloaded("Server is busy: business thread pool is full", request));
+            complete(ctx, request, metrics, admitTime, event, RpcResponseCode.OVERLOADED.getCode());
+            MessagePool.recycle(request);
+        }
+    }
+
+    private void handleRequest(ChannelHandlerContext ctx, RpcRequest request, long deadline,
+                               AdaptiveConcurrencyLimiter limiter, long admitTime, RpcMetrics metrics, Object event) {
+        int code = AccessLog.EXPIRED;
+        long dispatchNanos = System.nanoTime();
+        try {
+            // 在队列里等待期间过了截止时间：调用方已经超时放弃，执行了也没人要结果，
+            // 过滤器和业务方法都不跑，也不回响应 (客户端早已不再等待这个请求号)
+            if (deadline > 0 && System.currentTimeMillis() >= deadline) {
+                metrics.recordReject(RejectReason.EXPIRED);
+                long suppressed = EXPIRED_LOG.acquire();
+                if (suppressed >= 0) {
+                    log.warn("请求排队期间已过截止时间，跳过执行: {} (此前另有 {} 次同类跳过未打印)", request.getRequestId(),
+                            suppressed);
+                }
+                return;
+            }
+            RpcResponse response = invoke(request, deadline);
+            // 阶段时间戳随响应交给编码器，算出排队 / 执行耗时写进响应头
+            response.setDispatchNanos(dispatchNanos);
+            response.setInvokeEndNanos(System.nanoTime());
+            // 响应写出后可能已被回收，先取出响应码
+            code = response.getCode();
+            writeResponse(ctx, response);
+        } finally {
+            complete(ctx, request, metrics, admitTime, event, code);
+            // 耗时样本包含排队时间，排队变长限流器就会收缩并发上限
+            if (limiter != null) {
+                limiter.release(System.nanoTime() - admitTime);
+            }
+            MessagePool.recycle(request);
+        }
+    }
+
+    /**
+     * 请求在队列里排队过久被丢弃 (没有执行)
+     */
+    private void shedRequest(ChannelHandlerContext ctx, RpcRequest request, AdaptiveConcurrencyLimiter limiter,
+                             long admitTime, RpcMetrics metrics, Object event) {
+        metrics.recordReject(RejectReason.QUEUE);
+        long suppressed = SHED_LOG.acquire();
+        if (suppressed >= 0) {
+            log.warn("服务端持续过载，丢弃排队过久的请求: {} (优先级 {}，此前另有 {} 次丢弃未打印)", request.getRequestId(),
+                    RpcPriority.fromCode(request.getPriority()), suppressed);
+        }
+        RpcEvents.rateLimitRejection(request.getInterfaceName(), request.getMethodName(), "queue", 0);
+        if (limiter != null) {
+            limiter.release(System.nanoTime() - admitTime);
+        }
+        writeResponse(ctx, overloaded("Server is overloaded: request queued too long", request));
+        complete(ctx, request, metrics, admitTime, event, RpcResponseCode.OVERLOADED.getCode());
+        MessagePool.recycle(request);
+    }
+
+    private RpcResponse invoke(RpcRequest request, long deadline) {
         RpcResponse response;
+        ServerStatus.beginInvoke();
+        // 截止时间和优先级写入上下文，业务方法中发起的嵌套 RPC 调用会自动继承
+        RpcContext context = RpcContext.getContext();
+        context.setDeadline(deadline);
+        context.setPriority(RpcPriority.fromCode(request.getPriority()));
+        // 服务端 Span：未采样时是 NOOP，上下文为“不采样”，嵌套调用沿用这个决定
+        Span span = Tracing.startServerSpan(request);
+        context.setTraceContext(span.context());
+        String spanError = null;
+        // 过滤器调用链 (服务发布时已编译好)，没有生效的过滤器时整段跳过
+        String interfaceName = request.getInterfaceName();
+        FilterChain beforeChain = FilterConfig.getChain(FilterGroup.SERVICE_BEFORE, interfaceName, request.getMethodName());
+        FilterChain afterChain = FilterConfig.getChain(FilterGroup.SERVICE_AFTER, interfaceName, request.getMethodName());
+        FilterContext filterContext = beforeChain.isEmpty() && afterChain.isEmpty()
+                ? null : FilterContext.forServer(request);
         try {
-            // --- 插入点 3：执行 ServiceBefore 链 (鉴权) ---
-            FilterData filterData = new FilterData(request);
+            // --- 插入点 3：执行 ServiceBefore 链 (限流、鉴权) ---
             // 如果鉴权失败，这里会抛异常，直接跳到 catch 块，不会执行反射
-            FilterConfig.getServiceBeforeChain().doFilter(filterData);
+            if (!beforeChain.isEmpty()) {
+                beforeChain.doFilter(filterContext);
+            }
+            // 通过准入后才反序列化参数，被拒绝的请求不付出这部分代价
+            RpcRequestCodec.decodeParameters(request, serializer);
+
             // 1. 从本地注册表中获取服务实例
-            String interfaceName = request.getInterfaceName();
             Object service = serviceProvider.getServiceProvider(interfaceName);
 
             // 2. 使用反射调用方法
@@ -68,24 +244,71 @@ public class NettyServerHandler extends SimpleChannelInboundHandler<RpcMessage>
             Object result = method.invoke(service, request.getParameters());
 
             // 3. 封装成功结果
-            response = RpcResponse.success(result, request.getRequestId());
+            response = response(RpcResponseCode.SUCCESS.getCode(), "success", result, request);
             // 插入点 4：执行 ServiceAfter 链 ---
-            filterData.setResponse(response);
-            FilterConfig.getServiceAfterChain().doFilter(filterData);
+            if (!afterChain.isEmpty()) {
+                filterContext.setResponse(response);
+                afterChain.doFilter(filterContext);
+            }
 
         } catch (Exception e) {
+            // 过滤器中的限流 (固定 QPS) 拒绝：请求没有执行，按过载返回
+            if (e instanceof RpcException && ((RpcException) e).getErrorType() == RpcException.ErrorType.OVERLOADED) {
+                spanError = e.getMessage();
+                return overloaded(e.getMessage(), request);
+            }
             // 捕获鉴权异常或业务异常
             String errorMessage = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            spanError = String.valueOf(errorMessage);
             log.error("RPC执行失败: {}", errorMessage);
-            response = RpcResponse.fail(errorMessage, request.getRequestId());
+            response = response(RpcResponseCode.FAIL.getCode(), errorMessage, null, request);
+        } finally {
+            if (filterContext != null) {
+                filterContext.clear();
+            }
+            span.finish(spanError);
+            RpcContext.removeContext();
+            ServerStatus.endInvoke();
         }
+        return response;
+    }
+
+    /**
+     * 请求处理结束 (回收请求之前调用)：记录指标、JFR 事件和访问日志
+     */
+    private static void complete(ChannelHandlerContext ctx, RpcRequest request, RpcMetrics metrics, long admitTime,
+                                 Object event, int code) {
+        long elapsed = System.nanoTime() - admitTime;
+        metrics.end(elapsed, code != RpcResponseCode.SUCCESS.getCode());
+        RpcEvents.endServerDispatch(event, request.getInterfaceName(), request.getMethodName(),
+                ctx.channel().remoteAddress(), code, request.getWireSize());
+        AccessLog.log(AccessLog.SERVER, request.getInterfaceName(), request.getMethodName(), request.getRequestId(),
+                ctx.channel().remoteAddress(), code, elapsed, null);
+    }
+
+    private void writeResponse(ChannelHandlerContext ctx, RpcResponse response) {
+        // 捎带负载信号，客户端据此避开热点节点
+        response.setServerLoad(ServerStatus.currentLoad());
 
         // 发送响应
-        RpcMessage responseMsg = RpcMessage.builder()
-                .codec((byte) 1)
-                .messageType(RpcMessageType.RESPONSE.getCode())
-                .data(response)
-                .build();
+        // 响应和消息交给编码器，写出后回收
+        RpcMessage responseMsg = MessagePool.newMessage(RpcMessageType.RESPONSE.getCode(), (byte) 1, response);
         ctx.writeAndFlush(responseMsg);
     }
+
+    /**
+     * 过载响应 (请求被限流拒绝，没有执行，客户端可以换个节点重试)
+     */
+    private static RpcResponse overloaded(String message, RpcRequest request) {
+        return response(RpcResponseCode.OVERLOADED.getCode(), message, null, request);
+    }
+
+    private static RpcResponse response(int code, String message, Object data, RpcRequest request) {
+        RpcResponse response = MessagePool.newResponse(code, message, data, request.getRequestId());
+        // 编码器按方法统计响应大小、计算服务端耗时
+        response.setInterfaceName(request.getInterfaceName());
+        response.setMethodName(request.getMethodName());
+        response.setRequestReceivedNanos(request.getReceivedNanos());
+        return response;
+    }
 }
\ No newline at end of file
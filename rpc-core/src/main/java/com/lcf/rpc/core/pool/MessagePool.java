@@ -0,0 +1,186 @@
+package com.lcf.rpc.core.pool;
+
+import com.lcf.rpc.common.model.RpcMessage;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import io.netty.util.Recycler;
+
+/**
+ * 协议对象池 (基于 Netty Recycler，按线程缓存，支持跨线程回收)
+ * 只池化生命周期清楚的对象，归属规则：
+ * <pre>
+ * 服务端
+ *   入站 RpcMessage : 解码器创建，NettyServerHandler 取出请求后立即回收
+ *   入站 RpcRequest : 解码器创建，归 NettyServerHandler；写出响应 / 被拒绝 / 被丢弃之后回收
+ *   出站 RpcResponse、RpcMessage : NettyServerHandler 创建，交给 Channel 后归编码器，写出后回收
+ * 客户端
+ *   入站 RpcMessage : 解码器创建，NettyClientHandler 取出响应后立即回收
+ *   入站 RpcResponse : 解码器创建，交给等待它的调用线程，取出结果后回收；没有人等待时由 I/O 线程直接回收
+ *   出站 RpcRequest : 不池化 (重试、对冲会多次发送同一个请求，写出是异步的，无法确定最后一次写出的时机)
+ * </pre>
+ * 回收后对象会被清空并交给下一个请求，回收方之后不能再访问它；过滤器、业务代码也不要保存请求 / 响应对象
+ * (参数数组、结果对象本身不复用，可以保留)。
+ * 不是从池里取出的对象 (Builder 创建的) 回收时直接忽略。
+ * 关闭对象池：-Dio.netty.recycler.maxCapacityPerThread=0
+ */
+public final class MessagePool {
+
+    private static final Recycler<PooledRequest> REQUESTS = new Recycler<PooledRequest>() {
+        @Override
+        protected PooledRequest newObject(Handle<PooledRequest> handle) {
+            return new PooledRequest(handle);
+        }
+    };
+
+    private static final Recycler<PooledResponse> RESPONSES = new Recycler<PooledResponse>() {
+        @Override
+        protected PooledResponse newObject(Handle<PooledResponse> handle) {
+            return new PooledResponse(handle);
+        }
+    };
+
+    private static final Recycler<PooledMessage> MESSAGES = new Recycler<PooledMessage>() {
+        @Override
+        protected PooledMessage newObject(Handle<PooledMessage> handle) {
+            return new PooledMessage(handle);
+        }
+    };
+
+    private MessagePool() {
+    }
+
+    public static RpcRequest newRequest() {
+        PooledRequest request = REQUESTS.get();
+        request.recycled = false;
+        return request;
+    }
+
+    public static RpcResponse newResponse(int code, String message, Object data, String requestId) {
+        PooledResponse response = RESPONSES.get();
+        response.recycled = false;
+        response.setCode(code);
+        response.setMessage(message);
+        response.setData(data);
+        response.setRequestId(requestId);
+        return response;
+    }
+
+    public static RpcMessage newMessage(byte messageType, byte codec, Object data) {
+        PooledMessage message = MESSAGES.get();
+        message.recycled = false;
+        message.setMessageType(messageType);
+        message.setCodec(codec);
+        message.setData(data);
+        return message;
+    }
+
+    /**
+     * 回收请求 (非池化对象或已经回收过的对象直接忽略)
+     */
+    public static void recycle(RpcRequest request) {
+        if (request instanceof PooledRequest) {
+            ((PooledRequest) request).recycle();
+        }
+    }
+
+    public static void recycle(RpcResponse response) {
+        if (response instanceof PooledResponse) {
+            ((PooledResponse) response).recycle();
+        }
+    }
+
+    /**
+     * 只回收消息本身，不回收其中的请求 / 响应 (它们的归属不同)
+     */
+    public static void recycle(RpcMessage message) {
+        if (message instanceof PooledMessage) {
+            ((PooledMessage) message).recycle();
+        }
+    }
+
+    private static final class PooledRequest extends RpcRequest {
+        private static final long serialVersionUID = 1L;
+
+        private final Recycler.Handle<PooledRequest> handle;
+        private boolean recycled;
+
+        PooledRequest(Recycler.Handle<PooledRequest> handle) {
+            this.handle = handle;
+        }
+
+        void recycle() {
+            if (recycled) {
+                return;
+            }
+            recycled = true;
+            setRequestId(null);
+            setInterfaceName(null);
+            setMethodName(null);
+            setParamTypes(null);
+            setParameters(null);
+            setTimeout(0);
+            setPriority((byte) 0);
+            setAttachments(null);
+            setParameterBytes(null);
+            setEncodedNanos(0);
+            setWireSize(0);
+            setReceivedNanos(0);
+            handle.recycle(this);
+        }
+    }
+
+    private static final class PooledResponse extends RpcResponse {
+        private static final long serialVersionUID = 1L;
+
+        private final Recycler.Handle<PooledResponse> handle;
+        private boolean recycled;
+
+        PooledResponse(Recycler.Handle<PooledResponse> handle) {
+            this.handle = handle;
+        }
+
+        void recycle() {
+            if (recycled) {
+                return;
+            }
+            recycled = true;
+            setRequestId(null);
+            setCode(0);
+            setMessage(null);
+            setData(null);
+            setServerLoad(0);
+            setServerQueueMicros(0);
+            setServerInvokeMicros(0);
+            setServerTotalMicros(0);
+            setBody(null);
+            setWireSize(0);
+            setInterfaceName(null);
+            setMethodName(null);
+            setRequestReceivedNanos(0);
+            setDispatchNanos(0);
+            setInvokeEndNanos(0);
+            setReceivedNanos(0);
+            handle.recycle(this);
+        }
+    }
+
+    private static final class PooledMessage extends RpcMessage {
+        private final Recycler.Handle<PooledMessage> handle;
+        private boolean recycled;
+
+        PooledMessage(Recycler.Handle<PooledMessage> handle) {
+            this.handle = handle;
+        }
+
+        void recycle() {
+            if (recycled) {
+                return;
+            }
+            recycled = true;
+            setMessageType((byte) 0);
+            setCodec((byte) 0);
+            setData(null);
+            handle.recycle(this);
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.lcf.rpc.core.protection;
 
+import com.lcf.rpc.core.jfr.RpcEvents;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * 简易版熔断器
+ * 熔断器 (滑动窗口 + 无锁状态机)
+ * 1. CLOSED：调用结果记入滑动窗口，窗口内调用数达到 minimumNumberOfCalls 后，
+ *    失败率或慢调用率超过阈值即熔断。成功调用只做计数，不做判断。
+ * 2. OPEN：冷却 waitDurationInOpenState 内全部拒绝，冷却结束后进入 HALF_OPEN。
+ * 3. HALF_OPEN：只放行 permittedCallsInHalfOpenState 个探测请求，
+ *    探测失败率超过阈值回到 OPEN，全部探测完成且达标则回到 CLOSED。
+ * 状态连同它需要的数据 (窗口 / 冷却开始时间 / 探测名额) 放在一个不可变的 StateHolder 里，
+ * 状态切换就是一次 CAS 换引用，全程不加锁；只有切换状态时才创建对象。
  */
 @Slf4j
 public class CircuitBreaker {
@@ -15,62 +24,173 @@ public class CircuitBreaker {
         CLOSED, OPEN, HALF_OPEN
     }
 
-    private volatile State state = State.CLOSED;
+    private final CircuitBreakerConfig config;
 
-    // 统计指标
-    private final AtomicInteger failureCount = new AtomicInteger(0);
-    private final AtomicInteger requestCount = new AtomicInteger(0);
+    // 名字 (服务#方法@节点)，只用于 JFR 事件
+    private final String name;
 
-    // 配置参数
-    private final int failureThreshold = 2; // 失败次数阈值 (简化版用次数，标准版用百分比)
-    private final long waitTime = 5000; // 熔断冷却时间 (5秒)
-    private volatile long lastFailureTime = 0; // 上次进入熔断的时间
+    private final AtomicReference<StateHolder> holder;
 
-    public synchronized boolean allowRequest() {
-        if (state == State.OPEN) {
-            // 如果在冷却时间内，直接拒绝
-            if (System.currentTimeMillis() - lastFailureTime < waitTime) {
+    public CircuitBreaker(CircuitBreakerConfig config) {
+        this(config, null);
+    }
+
+    public CircuitBreaker(CircuitBreakerConfig config, String name) {
+        this.config = config;
+        this.name = name;
+        this.holder = new AtomicReference<>(closed());
+    }
+
+    /**
+     * 节点当前是否可用 (只读判断，选路前过滤节点用，不消耗半开探测名额)
+     * OPEN 冷却结束时会在这里切换到 HALF_OPEN。
+     */
+    public boolean allowRequest() {
+        StateHolder current = holder.get();
+        switch (current.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - current.openedAt < config.getWaitDurationInOpenState()) {
+                    return false;
+                }
+                // 冷却时间已过，进入半开状态 (CAS 失败说明别的线程已经切换过了)
+                if (holder.compareAndSet(current, halfOpen())) {
+                    RpcEvents.circuitBreakerTransition(name, State.OPEN, State.HALF_OPEN);
+                    log.info("熔断器冷却结束，进入半开状态 [HALF_OPEN]，最多放行 {} 个探测请求",
+                            config.getPermittedCallsInHalfOpenState());
+                }
+                return holder.get().state != State.OPEN;
+            case HALF_OPEN:
+            default:
+                return current.permits.get() > 0;
+        }
+    }
+
+    /**
+     * 真正发请求前获取许可 (被负载均衡选中之后调用)
+     * 半开状态下会消耗一个探测名额，名额用完返回 false。
+     */
+    public boolean tryAcquirePermission() {
+        if (!allowRequest()) {
+            return false;
+        }
+        StateHolder current = holder.get();
+        if (current.state != State.HALF_OPEN) {
+            return current.state == State.CLOSED;
+        }
+        while (true) {
+            int permits = current.permits.get();
+            if (permits <= 0) {
                 return false;
             }
-            // 冷却时间已过，进入半开状态，允许尝试一次
-            log.info("熔断器冷却结束，进入半开状态 [HALF_OPEN]，尝试恢复...");
-            state = State.HALF_OPEN;
-            return true;
+            if (current.permits.compareAndSet(permits, permits - 1)) {
+                return true;
+            }
         }
-        return true; // CLOSED 或 HALF_OPEN (其实 Half-Open 应该只允许一个，这里简化处理)
     }
 
-    public synchronized void recordSuccess() {
-        if (state == State.HALF_OPEN) {
-            log.info("试探请求成功，熔断器关闭 [CLOSED]，系统恢复正常！");
-            state = State.CLOSED;
-            resetCounts();
-        } else if (state == State.CLOSED) {
-            resetCounts(); // 成功了就清空失败计数 (简化逻辑)
+    /**
+     * 记录成功调用
+     * @param durationMillis 调用耗时，超过阈值算慢调用
+     */
+    public void recordSuccess(long durationMillis) {
+        onResult(false, durationMillis);
+    }
+
+    /**
+     * 记录失败调用
+     * @param durationMillis 调用耗时
+     */
+    public void recordFailure(long durationMillis) {
+        onResult(true, durationMillis);
+    }
+
+    private void onResult(boolean failure, long durationMillis) {
+        boolean slow = durationMillis >= config.getSlowCallDurationThreshold();
+        StateHolder current = holder.get();
+        if (current.state == State.CLOSED) {
+            long now = System.currentTimeMillis();
+            current.window.record(now, failure, slow);
+            // 成功且不慢的调用不可能让熔断器打开，跳过汇总
+            if (failure || slow) {
+                checkClosed(current, now);
+            }
+        } else if (current.state == State.HALF_OPEN) {
+            checkHalfOpen(current, failure || slow);
         }
+        // OPEN 状态下到达的结果 (熔断前发出的请求) 直接忽略
     }
 
-    public synchronized void recordFailure() {
-        if (state == State.CLOSED) {
-            int failures = failureCount.incrementAndGet();
-            if (failures >= failureThreshold) {
-                log.warn("失败次数达到阈值 ({})，熔断器打开 [OPEN]！暂停服务 {}ms", failures, waitTime);
-                state = State.OPEN;
-                lastFailureTime = System.currentTimeMillis();
+    private void checkClosed(StateHolder current, long now) {
+        SlidingWindow.Snapshot snapshot = current.window.snapshot(now);
+        if (snapshot.getTotal() < config.getMinimumNumberOfCalls()) {
+            return;
+        }
+        int failureRate = snapshot.getFailureRate();
+        int slowCallRate = snapshot.getSlowCallRate();
+        if (failureRate >= config.getFailureRateThreshold() || slowCallRate >= config.getSlowCallRateThreshold()) {
+            if (holder.compareAndSet(current, open())) {
+                RpcEvents.circuitBreakerTransition(name, State.CLOSED, State.OPEN);
+                log.warn("失败率 {}% / 慢调用率 {}% 达到阈值 (调用数 {})，熔断器打开 [OPEN]！暂停服务 {}ms",
+                        failureRate, slowCallRate, snapshot.getTotal(), config.getWaitDurationInOpenState());
             }
-        } else if (state == State.HALF_OPEN) {
-            log.warn("试探请求失败，熔断器继续保持打开 [OPEN]！");
-            state = State.OPEN;
-            lastFailureTime = System.currentTimeMillis();
         }
     }
 
-    private void resetCounts() {
-        failureCount.set(0);
-        requestCount.set(0);
+    private void checkHalfOpen(StateHolder current, boolean bad) {
+        int permitted = config.getPermittedCallsInHalfOpenState();
+        int bads = bad ? current.probeFailures.incrementAndGet() : current.probeFailures.get();
+        int finished = current.probeFinished.incrementAndGet();
+        if ((long) bads * 100 / permitted >= config.getFailureRateThreshold()) {
+            if (holder.compareAndSet(current, open())) {
+                RpcEvents.circuitBreakerTransition(name, State.HALF_OPEN, State.OPEN);
+                log.warn("试探请求失败 ({}/{})，熔断器重新打开 [OPEN]！", bads, permitted);
+            }
+        } else if (finished >= permitted) {
+            if (holder.compareAndSet(current, closed())) {
+                RpcEvents.circuitBreakerTransition(name, State.HALF_OPEN, State.CLOSED);
+                log.info("试探请求全部完成 (失败 {}/{})，熔断器关闭 [CLOSED]，系统恢复正常！", bads, permitted);
+            }
+        }
     }
 
     public State getState() {
-        return state;
+        return holder.get().state;
+    }
+
+    private StateHolder closed() {
+        return new StateHolder(State.CLOSED, new SlidingWindow(config.getSlidingWindowMillis(), config.getSlidingWindowBuckets()),
+                0, 0);
+    }
+
+    private StateHolder open() {
+        return new StateHolder(State.OPEN, null, System.currentTimeMillis(), 0);
+    }
+
+    private StateHolder halfOpen() {
+        return new StateHolder(State.HALF_OPEN, null, 0, config.getPermittedCallsInHalfOpenState());
+    }
+
+    /**
+     * 状态及其附属数据 (引用不可变，计数器本身是原子的)
+     */
+    private static class StateHolder {
+        private final State state;
+        // CLOSED：滑动窗口
+        private final SlidingWindow window;
+        // OPEN：进入熔断的时间
+        private final long openedAt;
+        // HALF_OPEN：剩余探测名额 / 已完成的探测数 / 失败的探测数
+        private final AtomicInteger permits;
+        private final AtomicInteger probeFinished = new AtomicInteger(0);
+        private final AtomicInteger probeFailures = new AtomicInteger(0);
+
+        StateHolder(State state, SlidingWindow window, long openedAt, int permits) {
+            this.state = state;
+            this.window = window;
+            this.openedAt = openedAt;
+            this.permits = new AtomicInteger(permits);
+        }
     }
-}
\ No newline at end of file
+}
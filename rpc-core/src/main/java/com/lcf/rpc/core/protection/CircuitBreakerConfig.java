@@ -0,0 +1,82 @@
+package com.lcf.rpc.core.protection;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import lombok.Getter;
+
+/**
+ * 熔断器配置
+ * 支持按 服务 / 方法 分级覆盖，查找顺序 (以 failureRateThreshold 为例)：
+ * <pre>
+ * rpc.circuitbreaker.com.xxx.HelloService.sayHello.failureRateThreshold   (方法级)
+ * rpc.circuitbreaker.com.xxx.HelloService.failureRateThreshold            (服务级)
+ * rpc.circuitbreaker.failureRateThreshold                                 (全局)
+ * </pre>
+ */
+@Getter
+public class CircuitBreakerConfig {
+
+    private static final String PREFIX = "rpc.circuitbreaker.";
+
+    /**
+     * 失败率阈值 (%)：窗口内失败率达到该值即熔断
+     */
+    private final int failureRateThreshold;
+
+    /**
+     * 慢调用率阈值 (%)：窗口内慢调用占比达到该值即熔断
+     */
+    private final int slowCallRateThreshold;
+
+    /**
+     * 慢调用耗时阈值 (毫秒)：超过即视为慢调用
+     */
+    private final long slowCallDurationThreshold;
+
+    /**
+     * 最小调用数：窗口内调用数不足时不计算比率，避免 2 次失败就熔断
+     */
+    private final int minimumNumberOfCalls;
+
+    /**
+     * 滑动窗口长度 (毫秒)
+     */
+    private final long slidingWindowMillis;
+
+    /**
+     * 滑动窗口的桶数
+     */
+    private final int slidingWindowBuckets;
+
+    /**
+     * 熔断后的冷却时间 (毫秒)，之后进入半开
+     */
+    private final long waitDurationInOpenState;
+
+    /**
+     * 半开状态允许放行的探测请求数
+     */
+    private final int permittedCallsInHalfOpenState;
+
+    private CircuitBreakerConfig(String serviceName, String methodName) {
+        this.failureRateThreshold = getInt(serviceName, methodName, "failureRateThreshold", 50);
+        this.slowCallRateThreshold = getInt(serviceName, methodName, "slowCallRateThreshold", 100);
+        this.slowCallDurationThreshold = getInt(serviceName, methodName, "slowCallDurationThreshold", 1000);
+        this.minimumNumberOfCalls = getInt(serviceName, methodName, "minimumNumberOfCalls", 20);
+        this.slidingWindowMillis = getInt(serviceName, methodName, "slidingWindowMillis", 10000);
+        this.slidingWindowBuckets = Math.max(1, getInt(serviceName, methodName, "slidingWindowBuckets", 10));
+        this.waitDurationInOpenState = getInt(serviceName, methodName, "waitDurationInOpenState", 5000);
+        this.permittedCallsInHalfOpenState = Math.max(1, getInt(serviceName, methodName, "permittedCallsInHalfOpenState", 5));
+    }
+
+    /**
+     * 解析某个方法的熔断配置
+     */
+    public static CircuitBreakerConfig of(String serviceName, String methodName) {
+        return new CircuitBreakerConfig(serviceName, methodName);
+    }
+
+    private static int getInt(String serviceName, String methodName, String name, int defaultValue) {
+        String value = RpcProperties.getMethodProperty(PREFIX, serviceName, methodName, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,56 @@
+package com.lcf.rpc.core.protection;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 熔断器注册表
+ * 熔断粒度是 方法 + 节点：同一个节点上一个方法挂了，不影响其他方法。
+ * 两级缓存 (Method -> 节点 -> 熔断器)，调用路径上不拼接字符串 Key。
+ */
+public class CircuitBreakerRegistry {
+
+    private static final Map<Method, MethodBreakers> BREAKERS = new ConcurrentHashMap<>();
+
+    private CircuitBreakerRegistry() {
+    }
+
+    /**
+     * 获取某个方法的熔断器组 (每次调用取一次即可)
+     */
+    public static MethodBreakers of(Method method) {
+        MethodBreakers breakers = BREAKERS.get(method);
+        if (breakers == null) {
+            breakers = BREAKERS.computeIfAbsent(method, m -> new MethodBreakers(
+                    CircuitBreakerConfig.of(m.getDeclaringClass().getName(), m.getName()),
+                    m.getDeclaringClass().getName() + "#" + m.getName()));
+        }
+        return breakers;
+    }
+
+    /**
+     * 单个方法在各个节点上的熔断器，共享同一份配置
+     */
+    public static class MethodBreakers {
+        private final CircuitBreakerConfig config;
+        private final String name;
+        private final Map<String, CircuitBreaker> endpointBreakers = new ConcurrentHashMap<>();
+
+        MethodBreakers(CircuitBreakerConfig config, String name) {
+            this.config = config;
+            this.name = name;
+        }
+
+        /**
+         * @param endpoint 节点地址 "ip:port"
+         */
+        public CircuitBreaker get(String endpoint) {
+            CircuitBreaker breaker = endpointBreakers.get(endpoint);
+            if (breaker == null) {
+                breaker = endpointBreakers.computeIfAbsent(endpoint, k -> new CircuitBreaker(config, name + "@" + k));
+            }
+            return breaker;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.lcf.rpc.core.protection;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按时间分桶的滑动窗口计数器 (无锁)
+ * 窗口被切成 N 个桶放在环形数组里，每个桶统计一段时间内的 调用数 / 失败数 / 慢调用数。
+ * 桶过期时用 CAS 整体换成新桶，不需要加锁清零；计数用 LongAdder，高并发下不会在同一个缓存行上争抢。
+ */
+public class SlidingWindow {
+
+    private final long windowMillis;
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public SlidingWindow(long windowMillis, int bucketCount) {
+        this.bucketCount = bucketCount;
+        this.bucketMillis = Math.max(1, windowMillis / bucketCount);
+        this.windowMillis = this.bucketMillis * bucketCount;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    /**
+     * 记录一次调用
+     * @param failure 是否失败
+     * @param slow 是否慢调用
+     */
+    public void record(long now, boolean failure, boolean slow) {
+        Bucket bucket = currentBucket(now);
+        bucket.total.increment();
+        if (failure) {
+            bucket.failures.increment();
+        }
+        if (slow) {
+            bucket.slowCalls.increment();
+        }
+    }
+
+    /**
+     * 汇总窗口内的统计数据
+     */
+    public Snapshot snapshot(long now) {
+        long total = 0;
+        long failures = 0;
+        long slowCalls = 0;
+        long windowStart = now - windowMillis;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            // 只统计仍在窗口内的桶
+            if (bucket != null && bucket.start > windowStart) {
+                total += bucket.total.sum();
+                failures += bucket.failures.sum();
+                slowCalls += bucket.slowCalls.sum();
+            }
+        }
+        return new Snapshot(total, failures, slowCalls);
+    }
+
+    private Bucket currentBucket(long now) {
+        long timeId = now / bucketMillis;
+        int index = (int) (timeId % bucketCount);
+        long bucketStart = timeId * bucketMillis;
+        while (true) {
+            Bucket old = buckets.get(index);
+            if (old != null && old.start == bucketStart) {
+                return old;
+            }
+            if (old != null && old.start > bucketStart) {
+                // 时钟回拨等极端情况，直接记到现有桶里
+                return old;
+            }
+            // 桶不存在或已过期：CAS 换成新桶，失败说明别的线程抢先换好了，重读即可
+            Bucket fresh = new Bucket(bucketStart);
+            if (buckets.compareAndSet(index, old, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static class Bucket {
+        private final long start;
+        private final LongAdder total = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slowCalls = new LongAdder();
+
+        Bucket(long start) {
+            this.start = start;
+        }
+    }
+
+    /**
+     * 窗口统计快照
+     */
+    public static class Snapshot {
+        private final long total;
+        private final long failures;
+        private final long slowCalls;
+
+        Snapshot(long total, long failures, long slowCalls) {
+            this.total = total;
+            this.failures = failures;
+            this.slowCalls = slowCalls;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public int getFailureRate() {
+            return total == 0 ? 0 : (int) (failures * 100 / total);
+        }
+
+        public int getSlowCallRate() {
+            return total == 0 ? 0 : (int) (slowCalls * 100 / total);
+        }
+    }
+}
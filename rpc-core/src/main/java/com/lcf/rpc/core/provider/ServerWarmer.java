@@ -0,0 +1,126 @@
+package com.lcf.rpc.core.provider;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.enumeration.RpcMessageType;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.common.model.RpcMessage;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.netty.codec.RpcMessageDecoder;
+import com.lcf.rpc.core.netty.codec.RpcMessageEncoder;
+import com.lcf.rpc.core.netty.codec.RpcRequestCodec;
+import com.lcf.rpc.core.netty.codec.RpcResponseCodec;
+import com.lcf.rpc.core.serialization.Serializer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+
+/**
+ * 服务端预热
+ * 作用：在服务注册到注册中心之前，空跑若干次 编码 -> 解码 -> 方法查找 -> 响应编解码 的链路，
+ * 让 JIT 提前编译热点代码、序列化器提前缓存类信息，避免第一批真实流量承担冷启动的代价。
+ * 不会用假参数调用业务方法 (可能有副作用)，业务自己的预热逻辑请实现 Warmable。
+ */
+@Slf4j
+public class ServerWarmer {
+
+    private ServerWarmer() {
+    }
+
+    /**
+     * 预热单个服务
+     * @param service 服务实现
+     * @param interfaceClass 服务接口
+     * @param iterations 循环次数
+     */
+    public static void warmup(Object service, Class<?> interfaceClass, int iterations) {
+        long start = System.currentTimeMillis();
+        Serializer serializer = ExtensionLoader.getExtensionLoader(Serializer.class).getExtension(RpcProperties.getSerializer());
+        // EmbeddedChannel 不走网络，直接驱动真实的编解码器
+        EmbeddedChannel channel = new EmbeddedChannel(new RpcMessageEncoder(serializer), new RpcMessageDecoder(serializer));
+        Method[] methods = interfaceClass.getMethods();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (Method method : methods) {
+                    warmupMethod(channel, serializer, service, method, i);
+                }
+                if (service instanceof Warmable) {
+                    ((Warmable) service).warmup();
+                }
+            }
+            log.info("服务预热完成: {}, 循环 {} 次, 耗时 {}ms", interfaceClass.getName(), iterations,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // 预热失败不影响服务发布
+            log.warn("服务预热失败: {}", interfaceClass.getName(), e);
+        } finally {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    private static void warmupMethod(EmbeddedChannel channel, Serializer serializer, Object service, Method method, int index) throws Exception {
+        String requestId = "warmup-" + index;
+        RpcRequest request = RpcRequest.builder()
+                .requestId(requestId)
+                .interfaceName(method.getDeclaringClass().getName())
+                .methodName(method.getName())
+                .paramTypes(method.getParameterTypes())
+                .parameters(sampleArgs(method.getParameterTypes()))
+                .build();
+
+        // 1. 请求编解码
+        RpcMessage decodedRequest = roundTrip(channel, RpcMessageType.REQUEST.getCode(), request);
+        RpcRequest received = (RpcRequest) decodedRequest.getData();
+        RpcRequestCodec.decodeParameters(received, serializer);
+
+        // 2. 反射查找方法 (与 NettyServerHandler 的调用路径一致)
+        service.getClass().getMethod(received.getMethodName(), received.getParamTypes());
+
+        // 3. 响应编解码
+        RpcMessage decodedResponse = roundTrip(channel, RpcMessageType.RESPONSE.getCode(),
+                RpcResponse.success(requestId, requestId));
+        RpcResponseCodec.decodeBody((RpcResponse) decodedResponse.getData(), serializer, String.class);
+    }
+
+    private static RpcMessage roundTrip(EmbeddedChannel channel, byte messageType, Object data) {
+        RpcMessage message = RpcMessage.builder()
+                .messageType(messageType)
+                .data(data)
+                .build();
+        channel.writeOutbound(message);
+        Object encoded = channel.readOutbound();
+        channel.writeInbound(encoded);
+        return channel.readInbound();
+    }
+
+    /**
+     * 构造示例参数：基本类型取默认值，String 取固定值，其他对象为 null
+     */
+    private static Object[] sampleArgs(Class<?>[] paramTypes) {
+        Object[] args = new Object[paramTypes.length];
+        for (int i = 0; i < paramTypes.length; i++) {
+            Class<?> type = paramTypes[i];
+            if (type == String.class) {
+                args[i] = "warmup";
+            } else if (type == boolean.class) {
+                args[i] = false;
+            } else if (type == char.class) {
+                args[i] = 'w';
+            } else if (type == long.class) {
+                args[i] = 0L;
+            } else if (type == double.class) {
+                args[i] = 0D;
+            } else if (type == float.class) {
+                args[i] = 0F;
+            } else if (type == short.class) {
+                args[i] = (short) 0;
+            } else if (type == byte.class) {
+                args[i] = (byte) 0;
+            } else if (type == int.class) {
+                args[i] = 0;
+            }
+        }
+        return args;
+    }
+}
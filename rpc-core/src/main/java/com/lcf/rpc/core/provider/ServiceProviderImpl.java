@@ -1,5 +1,9 @@
 package com.lcf.rpc.core.provider;
 
+import com.lcf.rpc.core.dispatch.PriorityPolicy;
+import com.lcf.rpc.core.filter.FilterConfig;
+import com.lcf.rpc.core.limit.ConcurrencyLimiterRegistry;
+import com.lcf.rpc.core.metrics.MetricsRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Map;
@@ -20,6 +24,17 @@ public class ServiceProviderImpl implements ServiceProvider {
             return;
         }
         serviceMap.put(serviceName, service);
+        // 发布时编译好各方法的过滤器调用链，并创建各方法的服务端指标组、优先级白名单和并发限流器
+        for (Class<?> interfaceClass : service.getClass().getInterfaces()) {
+            if (interfaceClass.getName().equals(serviceName)) {
+                FilterConfig.compile(interfaceClass);
+                MetricsRegistry.registerServer(interfaceClass);
+                PriorityPolicy.register(interfaceClass);
+                if (ConcurrencyLimiterRegistry.isEnabled()) {
+                    ConcurrencyLimiterRegistry.register(interfaceClass);
+                }
+            }
+        }
         log.info("向本地注册表注册服务: {} >>> {}", serviceName, service.getClass().getName());
     }
 
@@ -0,0 +1,11 @@
+package com.lcf.rpc.core.provider;
+
+/**
+ * 可预热的服务 (可选)
+ * 服务实现类实现这个接口后，服务端预热时会反复调用 warmup()，
+ * 业务可以在这里加载本地缓存、走一遍热点方法等。注意不要在这里产生业务副作用。
+ */
+public interface Warmable {
+
+    void warmup();
+}
@@ -1,48 +1,80 @@
 package com.lcf.rpc.core.proxy;
 
 import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.constant.AttachmentKeys;
 import com.lcf.rpc.common.enumeration.RpcMessageType;
+import com.lcf.rpc.common.enumeration.RpcPriority;
+import com.lcf.rpc.common.enumeration.RpcResponseCode;
 import com.lcf.rpc.common.enumeration.SerializerCode;
+import com.lcf.rpc.common.exception.RpcException;
 import com.lcf.rpc.common.extension.ExtensionLoader;
 import com.lcf.rpc.common.model.RpcMessage;
 import com.lcf.rpc.common.model.RpcRequest;
 import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.accesslog.AccessLog;
+import com.lcf.rpc.core.annotation.Priority;
+import com.lcf.rpc.core.context.RpcContext;
 import com.lcf.rpc.core.filter.FilterConfig;
-import com.lcf.rpc.core.filter.FilterData;
-import com.lcf.rpc.core.loadbalancer.ConsistentHashLoadBalancer;
+import com.lcf.rpc.core.filter.FilterChain;
+import com.lcf.rpc.core.filter.FilterContext;
+import com.lcf.rpc.core.filter.FilterGroup;
+import com.lcf.rpc.core.jfr.RpcEvents;
+import com.lcf.rpc.core.limit.Bulkhead;
 import com.lcf.rpc.core.loadbalancer.LoadBalancer;
+import com.lcf.rpc.core.metrics.CallTiming;
+import com.lcf.rpc.core.metrics.MetricsRegistry;
+import com.lcf.rpc.core.metrics.RpcMetrics;
+import com.lcf.rpc.core.netty.codec.RpcResponseCodec;
+import com.lcf.rpc.core.pool.MessagePool;
 import com.lcf.rpc.core.protection.CircuitBreaker;
+import com.lcf.rpc.core.protection.CircuitBreakerRegistry;
+import com.lcf.rpc.core.retry.HedgePolicy;
+import com.lcf.rpc.core.retry.RetryBudget;
+import com.lcf.rpc.core.retry.RetryPolicy;
+import com.lcf.rpc.core.serialization.Serializer;
+import com.lcf.rpc.core.status.RpcStatus;
+import com.lcf.rpc.core.trace.Span;
+import com.lcf.rpc.core.trace.Tracing;
 import com.lcf.rpc.core.transport.NettyClient;
 import com.lcf.rpc.registry.Registry;
+import com.lcf.rpc.registry.ServiceInstance;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 public class RpcClientProxy implements InvocationHandler {
 
+    // 方法上声明的优先级 (注解解析结果缓存)
+    private static final Map<Method, Optional<RpcPriority>> DECLARED_PRIORITIES = new ConcurrentHashMap<>();
+
     private final NettyClient nettyClient;
     private final Registry registry ;
     private final LoadBalancer loadBalancer ;
-    private static final Map<String, CircuitBreaker> CIRCUIT_BREAKER_MAP = new ConcurrentHashMap<>();
+    private final Serializer serializer;
     public RpcClientProxy(NettyClient nettyClient) {
         this.nettyClient = nettyClient;
         this.registry = ExtensionLoader.getExtensionLoader(Registry.class).getExtension(RpcProperties.getRegistryType());
+        this.serializer = ExtensionLoader.getExtensionLoader(Serializer.class).getExtension(RpcProperties.getSerializer());
         this.loadBalancer = ExtensionLoader.getExtensionLoader(LoadBalancer.class).getExtension(RpcProperties.getLoadBalancer());
     }
 
     @SuppressWarnings("unchecked")
     public <T> T getProxy(Class<T> clazz) {
+        // 创建代理时编译好各方法的过滤器调用链
+        FilterConfig.compile(clazz);
         return (T) Proxy.newProxyInstance(
                 clazz.getClassLoader(),
                 new Class<?>[]{clazz},
@@ -66,15 +98,39 @@ public class RpcClientProxy implements InvocationHandler {
                 .paramTypes(method.getParameterTypes())
                 .build();
 
-        // 定义一个本次调用的“临时黑名单”
-        // 用于记录在本次重试循环中失败过的节点地址
-        List<String> failedNodeList = new ArrayList<>();
-
-        // 2. 执行客户端前置过滤器 (逻辑保持不变)
-        FilterData filterData = new FilterData(rpcRequest);
-        FilterConfig.getClientBeforeChain().doFilter(filterData);
-        rpcRequest.setAttachments(filterData.getAttachments());
+        // 2. 执行客户端前置过滤器 (过滤器直接修改请求的 attachments；没有生效的过滤器时整段跳过)
+        String serviceName = method.getDeclaringClass().getName();
+        FilterChain beforeChain = FilterConfig.getChain(FilterGroup.CLIENT_BEFORE, serviceName, method.getName());
+        FilterChain afterChain = FilterConfig.getChain(FilterGroup.CLIENT_AFTER, serviceName, method.getName());
+        FilterContext filterContext = beforeChain.isEmpty() && afterChain.isEmpty()
+                ? null : FilterContext.forClient(rpcRequest);
+        // 方法级指标：一次调用 (含重试、对冲) 算一个样本
+        RpcMetrics metrics = MetricsRegistry.client(serviceName, method.getName());
+        long begin = System.nanoTime();
+        metrics.begin();
+        // 客户端 Span 同样覆盖整次调用，重试、对冲的请求带着同一个链路上下文
+        Span span = Tracing.startClientSpan(rpcRequest);
+        Throwable failure = null;
+        try {
+            if (!beforeChain.isEmpty()) {
+                beforeChain.doFilter(filterContext);
+            }
+            rpcRequest.setPriority(resolvePriority(method, rpcRequest.getAttachments()).getCode());
+            return invokeWithBulkhead(method, rpcRequest, codecCode, afterChain, filterContext, begin);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            metrics.end(System.nanoTime() - begin, failure != null);
+            span.finish(failure == null ? null : failure.toString());
+            if (filterContext != null) {
+                filterContext.clear();
+            }
+        }
+    }
 
+    private Object invokeWithBulkhead(Method method, RpcRequest rpcRequest, byte codecCode, FilterChain afterChain,
+                                      FilterContext filterContext, long startNanos) throws InterruptedException {
         // 3. 构建协议消息 (逻辑保持不变)
         RpcMessage rpcMessage = RpcMessage.builder()
                 .codec(codecCode)
@@ -82,99 +138,545 @@ public class RpcClientProxy implements InvocationHandler {
                 .data(rpcRequest)
                 .build();
 
-        // --- 重试机制参数 ---
-        int retryCount = 5;     // 重试次数
-        int timeout = 2000;     // 超时时间 (毫秒)
+        // 服务级舱壁：同时在途的调用数达到上限立即失败，不让一个卡住的服务占满调用方的线程
+        String serviceName = rpcRequest.getInterfaceName();
+        Bulkhead bulkhead = Bulkhead.ofService(serviceName);
+        if (!bulkhead.tryAcquire()) {
+            throw new RpcException(RpcException.ErrorType.REJECTED,
+                    "服务 " + serviceName + " 在途调用数达到上限 " + bulkhead.getMaxConcurrent() + "，快速失败");
+        }
+        try {
+            return invokeWithRetry(method, rpcRequest, rpcMessage, afterChain, filterContext, startNanos);
+        } finally {
+            bulkhead.release();
+        }
+    }
 
-        String serviceName = method.getDeclaringClass().getName();
-        Exception lastException = null;
+    /**
+     * 请求优先级：attachments 中的 "priority" > @Priority (方法 > 接口) > 上游请求的优先级 > NORMAL
+     * 这里只是声明，服务端只对白名单方法承认 CRITICAL
+     */
+    private static RpcPriority resolvePriority(Method method, Map<String, Object> attachments) {
+        Object attached = attachments != null ? attachments.get(AttachmentKeys.PRIORITY) : null;
+        if (attached != null) {
+            RpcPriority priority = RpcPriority.fromName(attached.toString());
+            if (priority != null) {
+                return priority;
+            }
+        }
+        Optional<RpcPriority> declared = DECLARED_PRIORITIES.get(method);
+        if (declared == null) {
+            declared = DECLARED_PRIORITIES.computeIfAbsent(method, m -> {
+                Priority annotation = m.getAnnotation(Priority.class);
+                if (annotation == null) {
+                    annotation = m.getDeclaringClass().getAnnotation(Priority.class);
+                }
+                return Optional.ofNullable(annotation == null ? null : annotation.value());
+            });
+        }
+        if (declared.isPresent()) {
+            return declared.get();
+        }
+        RpcPriority inherited = RpcContext.getContext().getPriority();
+        return inherited != null ? inherited : RpcPriority.NORMAL;
+    }
 
-        // 4. 开启重试循环
-        for (int i = 0; i < retryCount; i++) {
-            // 定义变量在 try 外面，以便 catch 块能获取到刚才选的是谁
-            String selectedAddr = null;
+    /**
+     * 选节点、发送、等待，按重试策略重试
+     */
+    private Object invokeWithRetry(Method method, RpcRequest rpcRequest, RpcMessage rpcMessage, FilterChain afterChain,
+                                   FilterContext filterContext, long startNanos)
+            throws InterruptedException {
+        // 定义一个本次调用的“临时黑名单”
+        // 用于记录在本次重试循环中失败过的节点地址 (第一次失败时才创建，大多数调用一次成功，用不到)
+        List<String> failedNodeList = null;
 
-            try {
-                // 4.1 服务发现
-                List<InetSocketAddress> addressList = registry.lookupAll(serviceName);
+        // --- 重试机制参数 (按方法解析并缓存：注解 > 方法级配置 > 服务级配置 > 全局配置) ---
+        String serviceName = method.getDeclaringClass().getName();
+        RetryPolicy retryPolicy = RetryPolicy.of(method);
+        int timeout = retryPolicy.getTimeout();
+        int maxAttempts = retryPolicy.getRetries() + 1;
+        // 重试预算：每个请求存一点令牌，重试时取令牌，限制重试流量占比
+        RetryBudget retryBudget = RetryBudget.of(serviceName);
+        retryBudget.onRequest();
+        // 对冲请求 (只对幂等方法生效，默认关闭)，同样受预算限制
+        HedgePolicy hedgePolicy = HedgePolicy.of(method);
+        RetryBudget hedgeBudget = RetryBudget.ofHedge(serviceName);
+        if (hedgePolicy.isEnabled()) {
+            hedgeBudget.onRequest();
+        }
+
+        // 熔断器粒度：方法 + 节点 (阈值可按服务/方法配置)
+        CircuitBreakerRegistry.MethodBreakers breakers = CircuitBreakerRegistry.of(method);
+        RpcException lastException = null;
 
+        // 继承上游的截止时间 (当前线程正在处理别人的 RPC 请求时，嵌套调用不能比上游等得更久)
+        long inheritedDeadline = RpcContext.getContext().getDeadline();
 
-                // 4.2 转换地址格式
-                List<String> stringList = new ArrayList<>();
-                for (InetSocketAddress addr : addressList) {
-                    stringList.add(addr.getHostString() + ":" + addr.getPort());
+        // 4. 开启重试循环
+        for (int i = 0; i < maxAttempts; i++) {
+            if (i > 0) {
+                // 业务异常、非幂等方法超时等不重试
+                if (!retryPolicy.isRetryable(lastException)) {
+                    break;
+                }
+                // 重试预算耗尽：大面积故障时不再放大流量
+                if (!retryBudget.tryAcquireRetry()) {
+                    log.warn("[第{}次调用] 重试预算耗尽，放弃重试: {}", i + 1, serviceName);
+                    break;
                 }
-                //  2. 过滤掉被熔断的节点
-                List<String> availableAddresses = new ArrayList<>();
-                for (String addr : stringList) {
-                    CircuitBreaker breaker = CIRCUIT_BREAKER_MAP.computeIfAbsent(addr, k -> new CircuitBreaker());
-                    if (breaker.allowRequest()) {
-                        availableAddresses.add(addr);
+                // 指数退避 + 随机抖动，不超过上游剩余的时间；退避期间就会到截止时间的话不再重试
+                long backoff = retryPolicy.backoffMillis(i);
+                if (inheritedDeadline > 0) {
+                    long left = inheritedDeadline - System.currentTimeMillis();
+                    backoff = Math.min(backoff, left);
+                    if (backoff == left) {
+                        log.debug("[第{}次调用] 剩余时间 {}ms 不够退避后重试，放弃重试: {}", i + 1, left, serviceName);
+                        break;
                     }
                 }
+                if (backoff > 0) {
+                    Thread.sleep(backoff);
+                }
+            }
+
+            // 本次尝试的超时：不超过上游剩余的时间；上游已经超时了就不再发请求
+            long attemptTimeout = timeout;
+            if (inheritedDeadline > 0) {
+                long left = inheritedDeadline - System.currentTimeMillis();
+                if (left <= 0) {
+                    throw new RpcException(RpcException.ErrorType.TIMEOUT,
+                            "上游调用已过截止时间，放弃调用: " + serviceName, lastException);
+                }
+                attemptTimeout = Math.min(timeout, left);
+            }
+
+            PendingCall primary = null;
+            try {
+                // 4.1 服务发现 (带权重的实例列表)
+                List<ServiceInstance> instanceList = registry.lookupInstances(serviceName);
 
-                // ：从候选名单中剔除黑名单里的节点
+                // 4.2 过滤掉被熔断的节点、在途请求已满的节点 (节点级舱壁)，以及本次调用中已经失败过的节点 (临时黑名单)
                 // 如果 ZK 还没来得及删死节点，我们自己手动在客户端屏蔽它
-                stringList.removeAll(failedNodeList);
+                List<ServiceInstance> availableInstances = new ArrayList<>(instanceList.size());
+                for (ServiceInstance instance : instanceList) {
+                    if (failedNodeList != null && failedNodeList.contains(instance.getKey())) {
+                        continue;
+                    }
+                    if (breakers.get(instance.getKey()).allowRequest()
+                            && !RpcStatus.getStatus(instance.getKey()).isSaturated()) {
+                        availableInstances.add(instance);
+                    }
+                }
 
-                if (stringList.isEmpty()) {
-                    throw new RuntimeException("无可用节点 (全部被熔断或拉黑)");
+                if (availableInstances.isEmpty()) {
+                    throw new RpcException(RpcException.ErrorType.NO_PROVIDER,
+                            "无可用节点 (全部被熔断、拉黑或并发已满): " + serviceName, lastException);
                 }
 
                 // 4.3 负载均衡选择
-                // 现在传进去的 stringList 已经是干净的（不包含刚才失败的节点）
-                selectedAddr = loadBalancer.select(stringList, rpcRequest);
-                log.info("[第{}次调用] 负载均衡选择地址: {}", i + 1, selectedAddr);
-
-                // 4.4 解析地址
-                String[] array = selectedAddr.split(":");
-                InetSocketAddress targetAddress = new InetSocketAddress(array[0], Integer.parseInt(array[1]));
-
-                // 4.5 发送请求 (Netty 异步发送)
-                CompletableFuture<RpcResponse> future = nettyClient.sendRequest(rpcMessage, targetAddress);
-
-                // 4.6 等待响应 (带超时)
-                RpcResponse rpcResponse = future.get(timeout, TimeUnit.MILLISECONDS);
-
-                // 4.7 执行客户端后置过滤器 (逻辑保持不变)
-                filterData.setResponse(rpcResponse);
-                FilterConfig.getClientAfterChain().doFilter(filterData);
-
-                // 4.8 检查结果
-                if (rpcResponse.getCode() == 200) {
-                    // 6.  调用成功：通知熔断器
-                    CircuitBreaker breaker = CIRCUIT_BREAKER_MAP.get(selectedAddr);
-                    if (breaker != null) {
-                        breaker.recordSuccess();
-                    }
-                    return rpcResponse.getData();
+                // 现在传进去的列表已经是干净的（不包含熔断和刚才失败的节点）
+                ServiceInstance selected = loadBalancer.select(availableInstances, rpcRequest);
+                if (selected == null) {
+                    throw new RpcException(RpcException.ErrorType.NO_PROVIDER,
+                            "无可用节点 (剩余节点权重均为 0): " + serviceName, lastException);
+                }
+                String selectedAddr = selected.getKey();
+                log.debug("[第{}次调用] 负载均衡选择地址: {}", i + 1, selectedAddr);
+
+                // 获取节点并发名额和熔断许可 (并发下名额可能已被别的请求抢完，换个节点重试)
+                CircuitBreaker breaker = breakers.get(selectedAddr);
+                if (!acquireEndpoint(selectedAddr, breaker)) {
+                    failedNodeList = addFailedNode(failedNodeList, selectedAddr);
+                    lastException = new RpcException(RpcException.ErrorType.REJECTED, "节点熔断中或并发已满: " + selectedAddr);
+                    continue;
+                }
+
+                // 4.4 发送请求 (Netty 异步发送) 并等待响应 (带超时)
+                // 开启对冲时，首选节点迟迟不响应会再发一份给其他节点，先回来的胜出
+                // 剩余超时时间随请求传给服务端，服务端据此丢弃调用方已经放弃的请求
+                rpcRequest.setTimeout(attemptTimeout);
+                primary = new PendingCall(rpcMessage, selected, breaker);
+                primary.send();
+                PendingCall call = primary;
+                long hedgeDelay = hedgePolicy.delayMillis(selectedAddr);
+                if (hedgeDelay >= 0 && hedgeDelay < attemptTimeout && availableInstances.size() > 1) {
+                    call = awaitHedged(primary, hedgeDelay, attemptTimeout, rpcMessage, availableInstances, breakers,
+                            hedgeBudget, failedNodeList);
                 } else {
-                    throw new RuntimeException("服务端业务报错: " + rpcResponse.getMessage());
+                    call.await(attemptTimeout);
                 }
+                RpcResponse rpcResponse = call.response;
+                CallTiming timing = null;
+                try {
+                    // 结果在调用线程中按方法返回类型反序列化 (I/O 线程只解析了请求号)
+                    decodeResponse(rpcResponse, method);
+                    // 各阶段耗时 (服务端的部分由响应头带回)
+                    timing = CallTiming.of(startNanos, call.request.getEncodedNanos(), rpcResponse, System.nanoTime());
 
-            } catch (Exception e) {
-                // 捕获异常，将刚才选中的地址加入黑名单
-                if (selectedAddr != null) {
-                    log.warn("[第{}次调用] 失败: {}, 将地址 {} 加入临时黑名单", i + 1, e.getMessage(), selectedAddr);
-                    CircuitBreaker breaker = CIRCUIT_BREAKER_MAP.get(selectedAddr);
-                    if (breaker != null) {
-                        breaker.recordFailure();
+                    // 4.6 执行客户端后置过滤器
+                    if (!afterChain.isEmpty()) {
+                        filterContext.setTiming(timing);
+                        filterContext.setResponse(rpcResponse);
+                        afterChain.doFilter(filterContext);
                     }
-                    failedNodeList.add(selectedAddr);
-                } else {
-                    log.warn("[第{}次调用] 失败: {}", i + 1, e.getMessage());
+
+                    // 4.7 检查结果
+                    if (rpcResponse.getCode() == 200) {
+                        return rpcResponse.getData();
+                    }
+                    // 服务端过载拒绝：请求没有执行，本次调用不再选这个节点，换个节点重试
+                    if (rpcResponse.getCode() == RpcResponseCode.OVERLOADED.getCode()) {
+                        call.blacklisted = true;
+                        throw new RpcException(RpcException.ErrorType.OVERLOADED,
+                                "服务端过载: " + call.instance.getKey() + ", " + rpcResponse.getMessage());
+                    }
+                    // 业务报错：服务端已经执行过了，直接抛给调用方，不重试也不拉黑节点
+                    throw new RpcException(RpcException.ErrorType.BIZ, "服务端业务报错: " + rpcResponse.getMessage());
+                } finally {
+                    call.complete(rpcResponse.getCode(), timing);
+                    // 结果已经取出，响应对象回收 (后置过滤器不能保存响应对象)
+                    if (filterContext != null) {
+                        filterContext.setResponse(null);
+                    }
+                    MessagePool.recycle(rpcResponse);
                 }
 
+            } catch (RpcException e) {
+                if (e.getErrorType() == RpcException.ErrorType.BIZ) {
+                    throw e;
+                }
+                // 失败的节点已经在 PendingCall 中记入熔断器，这里加入临时黑名单
+                if (primary != null) {
+                    failedNodeList = primary.collectBlacklisted(failedNodeList);
+                }
+                log.warn("[第{}次调用] 失败: {}", i + 1, e.getMessage());
                 lastException = e;
+            }
+        }
 
-                // 如果是最后一次重试，就不再 sleep 了，直接抛出
-                if (i == retryCount - 1) {
-                    break;
-                }
+        // 5. 重试结束 (次数耗尽 / 不可重试 / 预算耗尽)，抛出最后一次的异常
+        throw lastException;
+    }
+
+    private void decodeResponse(RpcResponse rpcResponse, Method method) {
+        try {
+            RpcResponseCodec.decodeBody(rpcResponse, serializer, method.getReturnType());
+        } catch (Exception e) {
+            // 服务端已经执行过了，换节点重试也解析不了，直接抛给调用方
+            throw new RpcException(RpcException.ErrorType.BIZ, "响应反序列化失败: " + method.getName(), e);
+        }
+    }
+
+    /**
+     * 对冲等待：首选请求 hedgeDelay 内没有响应，就向另一个节点发出同样的请求，先成功返回的一方胜出，
+     * 落败的一方被取消 (不再等待它的响应)。首选请求直接失败 (网络错误) 时不对冲，交给外层重试。
+     * @return 胜出的调用
+     */
+    private PendingCall awaitHedged(PendingCall primary, long hedgeDelay, long timeout, RpcMessage rpcMessage,
+                                    List<ServiceInstance> candidates, CircuitBreakerRegistry.MethodBreakers breakers,
+                                    RetryBudget hedgeBudget, List<String> failedNodeList) throws InterruptedException {
+        long deadline = primary.start + timeout;
+        if (primary.poll(hedgeDelay)) {
+            return primary;
+        }
+
+        PendingCall hedge = startHedge(primary, hedgeDelay, deadline, rpcMessage, candidates, breakers, hedgeBudget,
+                failedNodeList);
+        if (hedge == null) {
+            return primary.await(remaining(deadline));
+        }
+
+        // 两份请求赛跑
+        try {
+            CompletableFuture.anyOf(primary.future, hedge.future).get(remaining(deadline), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // 先结束的一方失败了，下面继续等另一方
+        } catch (TimeoutException e) {
+            primary.fail("等待响应超时");
+            hedge.fail("等待响应超时");
+            throw new RpcException(RpcException.ErrorType.TIMEOUT,
+                    "等待响应超时 (" + timeout + "ms, 含对冲请求): " + primary.instance.getKey(), e);
+        }
+
+        PendingCall first = primary.future.isDone() ? primary : hedge;
+        PendingCall second = first == primary ? hedge : primary;
+        try {
+            first.poll(0);
+        } catch (RpcException e) {
+            return second.await(remaining(deadline));
+        }
+        second.abandon();
+        return first;
+    }
+
+    /**
+     * 发出对冲请求 (换一个节点、换一个请求号)
+     * @return 没有其他可用节点 / 对冲预算耗尽 / 发送失败时返回 null
+     */
+    private PendingCall startHedge(PendingCall primary, long hedgeDelay, long deadline, RpcMessage rpcMessage,
+                                   List<ServiceInstance> candidates, CircuitBreakerRegistry.MethodBreakers breakers,
+                                   RetryBudget hedgeBudget, List<String> failedNodeList) {
+        List<ServiceInstance> others = new ArrayList<>(candidates.size() - 1);
+        for (ServiceInstance instance : candidates) {
+            if (instance != primary.instance
+                    && (failedNodeList == null || !failedNodeList.contains(instance.getKey()))) {
+                others.add(instance);
+            }
+        }
+        if (others.isEmpty()) {
+            return null;
+        }
+        // 对冲预算：对冲请求占比有上限，节点普遍变慢时不会把集群流量翻倍
+        if (!hedgeBudget.tryAcquireRetry()) {
+            log.debug("对冲预算耗尽，继续等待首选节点: {}", primary.instance.getKey());
+            return null;
+        }
+
+        RpcRequest request = (RpcRequest) rpcMessage.getData();
+        ServiceInstance target = loadBalancer.select(others, request);
+        if (target == null) {
+            return null;
+        }
+        CircuitBreaker breaker = breakers.get(target.getKey());
+        if (!acquireEndpoint(target.getKey(), breaker)) {
+            return null;
+        }
+
+        // 两份请求同时在途，请求号必须不同
+        RpcRequest hedgeRequest = RpcRequest.builder()
+                .requestId(UUID.randomUUID().toString())
+                .interfaceName(request.getInterfaceName())
+                .methodName(request.getMethodName())
+                .parameters(request.getParameters())
+                .paramTypes(request.getParamTypes())
+                .attachments(request.getAttachments())
+                .priority(request.getPriority())
+                .timeout(Math.max(1, remaining(deadline)))
+                .build();
+        RpcMessage hedgeMessage = RpcMessage.builder()
+                .codec(rpcMessage.getCodec())
+                .messageType(rpcMessage.getMessageType())
+                .data(hedgeRequest)
+                .build();
+
+        log.debug("[对冲] 节点 {} 超过 {}ms 未响应，向 {} 发出对冲请求", primary.instance.getKey(), hedgeDelay, target.getKey());
+        PendingCall hedge = new PendingCall(hedgeMessage, target, breaker);
+        hedge.methodMetrics.recordHedge();
+        // 挂到首选请求上：对冲请求失败 (包括发送失败) 时，节点随首选请求一起加入临时黑名单
+        primary.hedge = hedge;
+        try {
+            hedge.send();
+            return hedge;
+        } catch (RpcException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 发送前获取节点级舱壁名额 (活跃数 +1，供 LeastActive 负载均衡使用) 和熔断许可
+     * 先占并发名额再取熔断许可，取不到许可时归还名额，不会白白消耗半开探测名额
+     */
+    private static boolean acquireEndpoint(String endpoint, CircuitBreaker breaker) {
+        if (!RpcStatus.tryBeginCount(endpoint)) {
+            return false;
+        }
+        if (!breaker.tryAcquirePermission()) {
+            RpcStatus.endCount(endpoint);
+            return false;
+        }
+        return true;
+    }
+
+    private static List<String> addFailedNode(List<String> failedNodeList, String endpoint) {
+        List<String> list = failedNodeList != null ? failedNodeList : new ArrayList<>(4);
+        list.add(endpoint);
+        return list;
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.currentTimeMillis());
+    }
+
+    /**
+     * 一次在途的请求 (发往某个节点，创建前已经通过 acquireEndpoint 拿到了并发名额和熔断许可)
+     * 负责这次请求的全部记账：活跃数、熔断器、p95 耗时、负载信号，失败时标记节点，由重试循环加入临时黑名单，
+     * 每个请求只会结束一次 (成功 / 失败 / 对冲落败被放弃)。
+     * 只在调用线程中使用，不需要同步。
+     */
+    private final class PendingCall {
+        private final ServiceInstance instance;
+        private final CircuitBreaker breaker;
+        private final RpcRequest request;
+        private final String requestId;
+        private final String interfaceName;
+        private final String methodName;
+        private final long start;
+        // 节点级指标 (按纳秒计时)；响应大小同时记在方法级指标上
+        private final RpcMetrics metrics;
+        private final RpcMetrics methodMetrics;
+        private final long startNanos;
+        // JFR 事件 (未开启时为 null)
+        private final Object event;
+        private final RpcMessage rpcMessage;
+        private CompletableFuture<RpcResponse> future;
+        private RpcResponse response;
+        private boolean finished;
+        // 本次调用不再选这个节点 (请求失败或服务端过载)
+        private boolean blacklisted;
+        // 首选请求发出的对冲请求 (没有对冲时为 null)
+        private PendingCall hedge;
+
+        PendingCall(RpcMessage rpcMessage, ServiceInstance instance, CircuitBreaker breaker) {
+            this.rpcMessage = rpcMessage;
+            this.instance = instance;
+            this.breaker = breaker;
+            this.request = (RpcRequest) rpcMessage.getData();
+            this.requestId = request.getRequestId();
+            this.interfaceName = request.getInterfaceName();
+            this.methodName = request.getMethodName();
+            this.start = System.currentTimeMillis();
+            this.metrics = MetricsRegistry.clientEndpoint(interfaceName, methodName, instance.getKey());
+            this.methodMetrics = MetricsRegistry.client(interfaceName, methodName);
+            this.startNanos = System.nanoTime();
+            this.event = RpcEvents.beginClientCall();
+            metrics.begin();
+        }
+
+        /**
+         * 发出请求 (和构造分开：发送失败时调用方已经拿到了这个对象，可以把节点加入临时黑名单)
+         */
+        void send() {
+            try {
+                future = nettyClient.sendRequest(rpcMessage, instance.getAddress());
+            } catch (Exception e) {
+                fail("请求发送失败");
+                throw new RpcException(RpcException.ErrorType.NETWORK, "请求发送失败: " + instance.getKey(), e);
+            }
+        }
+
+        /**
+         * 把本请求和它的对冲请求中需要拉黑的节点加入临时黑名单
+         * @return 黑名单 (原来为 null 且有节点要加入时新建)
+         */
+        List<String> collectBlacklisted(List<String> failedNodeList) {
+            List<String> list = failedNodeList;
+            if (blacklisted) {
+                list = addFailedNode(list, instance.getKey());
+            }
+            if (hedge != null && hedge.blacklisted) {
+                list = addFailedNode(list, hedge.instance.getKey());
             }
+            return list;
         }
 
-        // 5. 重试耗尽，抛出最后一次的异常
-        throw new RuntimeException("RPC调用失败，重试次数耗尽", lastException);
+        /**
+         * 最多等待 waitMillis
+         * @return true 表示收到了响应；false 表示还没有响应 (请求仍在途)
+         * @throws RpcException 请求失败 (写出失败 / 连接断开)
+         */
+        boolean poll(long waitMillis) throws InterruptedException {
+            try {
+                succeed(future.get(waitMillis, TimeUnit.MILLISECONDS));
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException e) {
+                fail("请求发送失败");
+                throw new RpcException(RpcException.ErrorType.NETWORK, "请求发送失败: " + instance.getKey(), e.getCause());
+            }
+        }
+
+        /**
+         * 等待响应，超时即失败
+         */
+        PendingCall await(long timeoutMillis) throws InterruptedException {
+            if (!poll(timeoutMillis)) {
+                fail("等待响应超时");
+                throw new RpcException(RpcException.ErrorType.TIMEOUT,
+                        "等待响应超时 (" + (System.currentTimeMillis() - start) + "ms): " + instance.getKey());
+            }
+            return this;
+        }
+
+        /**
+         * 收到响应 (包括业务报错)：节点是健康的，对熔断器来说都是成功 (耗时超过阈值会记为慢调用)
+         */
+        private void succeed(RpcResponse rpcResponse) {
+            if (!finish()) {
+                return;
+            }
+            this.response = rpcResponse;
+            long duration = System.currentTimeMillis() - start;
+            RpcStatus status = RpcStatus.getStatus(instance.getKey());
+            // 记录服务端捎带回来的负载信号 (供 Adaptive 负载均衡使用) 和耗时 (供对冲使用)
+            status.updateServerLoad(rpcResponse.getServerLoad());
+            status.recordLatency(duration);
+            breaker.recordSuccess(duration);
+            metrics.end(System.nanoTime() - startNanos, false);
+            RpcEvents.endClientCall(event, interfaceName, methodName, instance.getKey(), requestId, rpcResponse.getCode(),
+                    rpcResponse.getWireSize());
+            metrics.recordResponseBytes(rpcResponse.getWireSize());
+            methodMetrics.recordResponseBytes(rpcResponse.getWireSize());
+        }
+
+        /**
+         * 请求失败：记入熔断器，并将节点加入临时黑名单
+         */
+        void fail(String reason) {
+            if (!finish()) {
+                return;
+            }
+            nettyClient.cancelRequest(requestId);
+            breaker.recordFailure(System.currentTimeMillis() - start);
+            record(AccessLog.NO_RESPONSE);
+            blacklisted = true;
+            log.warn("{}，将地址 {} 加入临时黑名单", reason, instance.getKey());
+        }
+
+        /**
+         * 对冲落败：不再等待响应。节点只是比另一个慢，并没有失败，按已耗时记一次成功 (可能是慢调用)，
+         * 也保证半开状态下的探测名额能正常结算。
+         */
+        void abandon() {
+            if (!finish()) {
+                return;
+            }
+            nettyClient.cancelRequest(requestId);
+            future.cancel(false);
+            breaker.recordSuccess(System.currentTimeMillis() - start);
+            record(AccessLog.ABANDONED);
+        }
+
+        /**
+         * 收到响应的请求在结果解析完成后调用：记录阶段耗时和访问日志
+         * @param timing 阶段耗时，结果解析失败时为 null
+         */
+        void complete(int code, CallTiming timing) {
+            if (timing != null) {
+                methodMetrics.recordPhases(timing);
+            }
+            AccessLog.log(AccessLog.CLIENT, interfaceName, methodName, requestId, instance.getKey(), code,
+                    System.nanoTime() - startNanos, timing);
+        }
+
+        /**
+         * 没有收到响应的请求：记录指标和访问日志 (节点级指标只把没有收到响应算作错误，业务报错说明节点是健康的)
+         */
+        private void record(int code) {
+            long elapsed = System.nanoTime() - startNanos;
+            metrics.end(elapsed, code == AccessLog.NO_RESPONSE);
+            RpcEvents.endClientCall(event, interfaceName, methodName, instance.getKey(), requestId, code, 0);
+            AccessLog.log(AccessLog.CLIENT, interfaceName, methodName, requestId, instance.getKey(), code, elapsed, null);
+        }
+
+        private boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            RpcStatus.endCount(instance.getKey());
+            return true;
+        }
     }
-}
\ No newline at end of file
+}
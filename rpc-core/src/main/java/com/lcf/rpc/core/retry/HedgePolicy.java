@@ -0,0 +1,111 @@
+package com.lcf.rpc.core.retry;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.core.annotation.RpcMethod;
+import com.lcf.rpc.core.status.RpcStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法级对冲请求 (Hedged Request) 策略
+ * 首次请求发出后等待 hedgeDelay 还没有响应，就把同一个请求再发给另一个节点，谁先回来用谁。
+ * 用于削掉单个节点 GC 停顿之类造成的长尾，只对 @Idempotent 方法生效 (两份请求都可能被执行)。
+ * 延迟配置 (@RpcMethod(hedgeDelay) > rpc.client.{服务}.{方法}.hedgeDelay > ... > rpc.client.hedgeDelay)：
+ * <pre>
+ * off  : 关闭 (默认)
+ * 50   : 固定 50ms
+ * p95  : 取首选节点最近的 p95 耗时，样本不足时不对冲
+ * </pre>
+ */
+@Slf4j
+public class HedgePolicy {
+
+    private static final String PREFIX = "rpc.client.";
+
+    private static final String OFF = "off";
+    private static final String P95 = "p95";
+
+    private static final Map<Method, HedgePolicy> POLICIES = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final boolean usePercentile;
+    private final long fixedDelay;
+
+    private HedgePolicy(Method method, RetryPolicy retryPolicy) {
+        RpcMethod rpcMethod = method.getAnnotation(RpcMethod.class);
+        String value = (rpcMethod != null && !rpcMethod.hedgeDelay().isEmpty())
+                ? rpcMethod.hedgeDelay()
+                : RpcProperties.getMethodProperty(PREFIX, method.getDeclaringClass().getName(), method.getName(),
+                "hedgeDelay", OFF);
+        value = value.trim();
+
+        if (OFF.equalsIgnoreCase(value) || value.isEmpty()) {
+            this.enabled = false;
+            this.usePercentile = false;
+            this.fixedDelay = -1;
+        } else if (!retryPolicy.isIdempotent()) {
+            log.warn("方法 {} 不是幂等的，忽略对冲配置: hedgeDelay={}", method, value);
+            this.enabled = false;
+            this.usePercentile = false;
+            this.fixedDelay = -1;
+        } else if (P95.equalsIgnoreCase(value)) {
+            this.enabled = true;
+            this.usePercentile = true;
+            this.fixedDelay = -1;
+        } else {
+            long delay = parseDelay(method, value);
+            this.enabled = delay >= 0;
+            this.usePercentile = false;
+            this.fixedDelay = delay;
+        }
+    }
+
+    /**
+     * 解析固定延迟 (ms)
+     * @return 配置无法识别或为负数时返回 -1 (按关闭处理，策略照常缓存，不会每次调用都重新解析、报错)
+     */
+    private static long parseDelay(Method method, String value) {
+        long delay;
+        try {
+            delay = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            delay = -1;
+        }
+        if (delay < 0) {
+            log.warn("方法 {} 的对冲延迟配置无法识别，按关闭处理: hedgeDelay={} (可选 off / p95 / 毫秒数)", method, value);
+        }
+        return delay;
+    }
+
+    public static HedgePolicy of(Method method) {
+        HedgePolicy policy = POLICIES.get(method);
+        if (policy == null) {
+            policy = POLICIES.computeIfAbsent(method, m -> new HedgePolicy(m, RetryPolicy.of(m)));
+        }
+        return policy;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 计算发往某个节点的请求在多久之后发出对冲
+     * @param endpoint 首选节点 "ip:port"
+     * @return 毫秒，-1 表示本次不对冲
+     */
+    public long delayMillis(String endpoint) {
+        if (!enabled) {
+            return -1;
+        }
+        if (!usePercentile) {
+            return fixedDelay;
+        }
+        long p95 = RpcStatus.getStatus(endpoint).getLatencyP95();
+        // p95 为 0 (极快的节点) 时至少等 1ms，避免每个请求都对冲
+        return p95 < 0 ? -1 : Math.max(1, p95);
+    }
+}
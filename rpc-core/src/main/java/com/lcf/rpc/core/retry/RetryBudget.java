@@ -0,0 +1,85 @@
+package com.lcf.rpc.core.retry;
+
+import com.lcf.rpc.common.config.RpcProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算 (令牌桶)
+ * 每个正常请求往桶里存 ratio 个令牌 (默认 0.1)，每次重试取走 1 个，取不到就放弃重试。
+ * 这样重试量最多是请求量的 10%：故障期间不会因为重试把服务端流量放大 N 倍。
+ * 桶里预置 minRetries 个令牌，保证低流量时偶发的失败也能重试。
+ * 按服务隔离，令牌按千分之一为单位存在一个 AtomicLong 里，存取都不加锁。
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private static final Map<String, RetryBudget> BUDGETS = new ConcurrentHashMap<>();
+
+    private static final Map<String, RetryBudget> HEDGE_BUDGETS = new ConcurrentHashMap<>();
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong tokens;
+
+    RetryBudget(double ratio, int minRetries, int maxRetries) {
+        this.deposit = Math.max(0, (long) (ratio * SCALE));
+        this.capacity = Math.max(minRetries, maxRetries) * SCALE;
+        this.tokens = new AtomicLong(minRetries * SCALE);
+    }
+
+    /**
+     * 获取服务的重试预算
+     */
+    public static RetryBudget of(String serviceName) {
+        return getOrCreate(BUDGETS, serviceName, "rpc.retry.budget.", "0.1");
+    }
+
+    /**
+     * 获取服务的对冲预算 (与重试预算分开计数，对冲发出的第二份请求同样会放大流量)
+     */
+    public static RetryBudget ofHedge(String serviceName) {
+        return getOrCreate(HEDGE_BUDGETS, serviceName, "rpc.hedge.budget.", "0.05");
+    }
+
+    private static RetryBudget getOrCreate(Map<String, RetryBudget> budgets, String serviceName,
+                                           String prefix, String defaultRatio) {
+        RetryBudget budget = budgets.get(serviceName);
+        if (budget == null) {
+            budget = budgets.computeIfAbsent(serviceName, k -> new RetryBudget(
+                    Double.parseDouble(RpcProperties.getProperty(prefix + "ratio", defaultRatio)),
+                    Integer.parseInt(RpcProperties.getProperty(prefix + "minRetries", "10")),
+                    Integer.parseInt(RpcProperties.getProperty(prefix + "maxRetries", "100"))));
+        }
+        return budget;
+    }
+
+    /**
+     * 每个请求 (首次调用) 存入令牌
+     * 桶满了就不存；判断和存入之间不加锁，并发下可能略微超出容量，不影响预算的效果
+     */
+    public void onRequest() {
+        if (tokens.get() < capacity) {
+            tokens.addAndGet(deposit);
+        }
+    }
+
+    /**
+     * 重试前取令牌
+     * @return false 表示预算耗尽，不允许重试
+     */
+    public boolean tryAcquireRetry() {
+        while (true) {
+            long current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.lcf.rpc.core.retry;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.exception.RpcException;
+import com.lcf.rpc.core.annotation.Idempotent;
+import com.lcf.rpc.core.annotation.RpcMethod;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 方法级重试策略
+ * 1. 超时时间 / 重试次数：@RpcMethod 注解 > rpc.client.{服务}.{方法}.xxx > rpc.client.{服务}.xxx > rpc.client.xxx
+ * 2. 能不能重试：
+ *    - 服务端业务报错：不重试 (服务端已经执行过了，重试也是同样的结果)
+ *    - 网络错误 / 节点熔断或并发已满 (请求没发出去) / 服务端过载 (请求被拒绝，没有执行)：重试
+ *    - 超时：只有 @Idempotent 方法重试，非幂等写操作不重试，防止重复执行
+ *    - 命中 @RpcMethod(retryOn) 的异常：重试
+ * 3. 重试间隔：指数退避 + 全抖动 (Full Jitter)，避免所有客户端同一时刻一起重试
+ * 策略按 Method 缓存，调用路径上不再解析注解和配置。
+ */
+@Getter
+public class RetryPolicy {
+
+    private static final String PREFIX = "rpc.client.";
+
+    private static final Map<Method, RetryPolicy> POLICIES = new ConcurrentHashMap<>();
+
+    private static final Class<?>[] NO_RETRY_ON = new Class<?>[0];
+
+    private final int timeout;
+    private final int retries;
+    private final boolean idempotent;
+    private final Class<?>[] retryOn;
+    private final long backoffBase;
+    private final long backoffMax;
+
+    private RetryPolicy(Method method) {
+        String serviceName = method.getDeclaringClass().getName();
+        String methodName = method.getName();
+        RpcMethod rpcMethod = method.getAnnotation(RpcMethod.class);
+
+        int configTimeout = getInt(serviceName, methodName, "timeout", 2000);
+        int configRetries = getInt(serviceName, methodName, "retries", 2);
+        this.timeout = (rpcMethod != null && rpcMethod.timeout() >= 0) ? rpcMethod.timeout() : configTimeout;
+        this.retries = (rpcMethod != null && rpcMethod.retries() >= 0) ? rpcMethod.retries() : configRetries;
+        this.retryOn = rpcMethod != null ? rpcMethod.retryOn() : NO_RETRY_ON;
+        this.idempotent = method.isAnnotationPresent(Idempotent.class)
+                || method.getDeclaringClass().isAnnotationPresent(Idempotent.class);
+        this.backoffBase = getInt(serviceName, methodName, "retryBackoffBase", 10);
+        this.backoffMax = getInt(serviceName, methodName, "retryBackoffMax", 500);
+    }
+
+    public static RetryPolicy of(Method method) {
+        RetryPolicy policy = POLICIES.get(method);
+        if (policy == null) {
+            policy = POLICIES.computeIfAbsent(method, RetryPolicy::new);
+        }
+        return policy;
+    }
+
+    /**
+     * 判断本次失败能不能重试
+     */
+    public boolean isRetryable(Throwable e) {
+        for (Class<?> type : retryOn) {
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                if (type.isInstance(t)) {
+                    return true;
+                }
+            }
+        }
+        if (e instanceof RpcException) {
+            switch (((RpcException) e).getErrorType()) {
+                case NETWORK:
+                case OVERLOADED:
+                case REJECTED:
+                    return true;
+                case TIMEOUT:
+                    return idempotent;
+                case BIZ:
+                case NO_PROVIDER:
+                default:
+                    return false;
+            }
+        }
+        // 未知异常：无法确定请求有没有到达服务端，按幂等性决定
+        return idempotent;
+    }
+
+    /**
+     * 第 retry 次重试前的等待时间 (毫秒)，retry 从 1 开始
+     * 指数退避：base * 2^(retry-1)，不超过 max；再在 [0, 上限] 之间随机 (Full Jitter)
+     */
+    public long backoffMillis(int retry) {
+        long cap = backoffBase << Math.min(retry - 1, 20);
+        cap = Math.min(cap, backoffMax);
+        if (cap <= 0) {
+            return 0;
+        }
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static int getInt(String serviceName, String methodName, String name, int defaultValue) {
+        String value = RpcProperties.getMethodProperty(PREFIX, serviceName, methodName, name, null);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -3,6 +3,7 @@ package com.lcf.rpc.core.spring;
 import com.lcf.rpc.common.config.RpcProperties;
 import com.lcf.rpc.common.extension.ExtensionLoader;
 import com.lcf.rpc.core.annotation.RpcService;
+import com.lcf.rpc.core.provider.ServerWarmer;
 import com.lcf.rpc.core.provider.ServiceProvider;
 import com.lcf.rpc.core.provider.ServiceProviderImpl;
 import com.lcf.rpc.core.transport.NettyServer;
@@ -53,7 +54,12 @@ public class RpcServicePostProcessor implements BeanPostProcessor, ApplicationLi
             // 1. 本地注册 (供 Netty 收到请求时查找实现类)
             serviceProvider.addServiceProvider(bean, serviceName);
 
-            // 2. 远程注册 (发布到 ZK/Nacos)
+            // 2. 预热 (可选)：注册之前先把编解码和反射链路跑热，避免刚上线就接满流量时出现毛刺
+            if (RpcProperties.isServerWarmupRoutineEnabled()) {
+                ServerWarmer.warmup(bean, interfaceClass, RpcProperties.getServerWarmupIterations());
+            }
+
+            // 3. 远程注册 (发布到 ZK/Nacos，带上启动时间，客户端据此做预热降权)
             // 这里的 host 应该获取本机真实 IP，这里简化写死或读配置
             String host = "127.0.0.1";
             registry.register(serviceName, new InetSocketAddress(host, serverPort));
@@ -0,0 +1,97 @@
+package com.lcf.rpc.core.status;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 节点耗时分位数统计 (对数分桶直方图 + 滚动窗口)
+ * 1. 分桶：0~15ms 每毫秒一个桶，之后每个 2 的幂区间再均分 8 个桶，相对误差 < 12.5%，
+ *    120 个桶覆盖 0 ~ 65s，记录时只做一次原子自增，不分配对象。
+ * 2. 窗口：每 windowMillis 滚动一次，由抢到 CAS 的线程计算上一个窗口的分位数并清零，
+ *    读分位数只是读一个 volatile 字段。样本太少的窗口不更新结果，避免抖动。
+ */
+public class LatencyRecorder {
+
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = 120;
+
+    private final long windowMillis;
+    private final int minSamples;
+    private final double percentile;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong windowStart;
+
+    // 上一个完整窗口的分位数 (毫秒)，-1 表示还没有足够的样本
+    private volatile long value = -1;
+
+    public LatencyRecorder(double percentile, long windowMillis, int minSamples) {
+        this.percentile = percentile;
+        this.windowMillis = windowMillis;
+        this.minSamples = minSamples;
+        this.windowStart = new AtomicLong(System.currentTimeMillis());
+    }
+
+    /**
+     * 记录一次调用耗时
+     */
+    public void record(long millis) {
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= windowMillis && windowStart.compareAndSet(start, now)) {
+            roll();
+        }
+        buckets.incrementAndGet(indexOf(Math.max(0, millis)));
+    }
+
+    /**
+     * @return 分位数耗时 (毫秒)，样本不足时返回 -1
+     */
+    public long getValue() {
+        return value;
+    }
+
+    private void roll() {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            // 清零与并发记录之间有极小的竞争，丢几个样本不影响分位数
+            counts[i] = buckets.getAndSet(i, 0);
+            total += counts[i];
+        }
+        if (total < minSamples) {
+            return;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                value = upperBoundOf(i);
+                return;
+            }
+        }
+    }
+
+    static int indexOf(long millis) {
+        if (millis < LINEAR_BUCKETS) {
+            return (int) millis;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(millis);
+        int sub = (int) (millis >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        int index = LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int sub = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + sub) * width + width - 1;
+    }
+}
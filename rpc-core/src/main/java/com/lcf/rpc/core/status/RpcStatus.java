@@ -0,0 +1,128 @@
+package com.lcf.rpc.core.status;
+
+import com.lcf.rpc.common.model.ServerLoad;
+import com.lcf.rpc.core.limit.Bulkhead;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 客户端视角的节点运行状态
+ * 作用：记录每个服务节点 ("ip:port") 当前正在处理中的请求数 (活跃数)，
+ * 以及服务端随响应捎带回来的负载信号，供 LeastActive / Adaptive 等负载均衡策略使用；
+ * 另外统计节点的 p95 耗时，供对冲请求 (Hedging) 决定何时发出第二份请求。
+ * 活跃数同时充当节点级舱壁：在途请求达到上限的节点不再被选中，拒绝次数和最高并发可作为监控指标。
+ * 全部基于原子变量，选路时只读不加锁。
+ */
+public class RpcStatus {
+
+    // Key: 节点地址 "ip:port", Value: 节点状态
+    private static final Map<String, RpcStatus> ENDPOINT_STATUS = new ConcurrentHashMap<>();
+
+    // 单个节点的最大在途请求数，0 表示不限制
+    private static final int MAX_PER_ENDPOINT = Bulkhead.getMaxPerEndpoint();
+
+    // 正在处理中的请求数 (活跃数)，同时是节点级舱壁：超过 rpc.client.bulkhead.maxPerEndpoint 不再发往该节点
+    private final Bulkhead active;
+
+    // 服务端最近一次上报的负载信号 (ServerLoad 压缩格式)
+    private volatile int serverLoad = ServerLoad.NONE;
+
+    // 负载信号的接收时间
+    private volatile long serverLoadTime;
+
+    // 耗时 p95 (10 秒滚动窗口，窗口内至少 20 个样本才更新)
+    private final LatencyRecorder latency = new LatencyRecorder(0.95, 10000, 20);
+
+    private RpcStatus(String endpoint) {
+        this.active = new Bulkhead(endpoint, MAX_PER_ENDPOINT);
+    }
+
+    /**
+     * 获取节点状态 (不存在则创建)
+     * @param endpoint 节点地址 "ip:port"
+     */
+    public static RpcStatus getStatus(String endpoint) {
+        RpcStatus status = ENDPOINT_STATUS.get(endpoint);
+        if (status == null) {
+            status = ENDPOINT_STATUS.computeIfAbsent(endpoint, RpcStatus::new);
+        }
+        return status;
+    }
+
+    /**
+     * 请求发出前调用
+     * @return false 表示节点在途请求已达上限 (节点级舱壁)，本次不应发往该节点
+     */
+    public static boolean tryBeginCount(String endpoint) {
+        return getStatus(endpoint).active.tryAcquire();
+    }
+
+    /**
+     * 请求结束后调用 (与 tryBeginCount 成功配对，无论成功失败都必须调用，一般放在 finally 中)
+     */
+    public static void endCount(String endpoint) {
+        getStatus(endpoint).active.release();
+    }
+
+    /**
+     * 所有节点的状态 (监控指标)
+     */
+    public static Map<String, RpcStatus> getAllStatus() {
+        return Collections.unmodifiableMap(ENDPOINT_STATUS);
+    }
+
+    /**
+     * 记录服务端捎带回来的负载信号
+     */
+    public void updateServerLoad(int load) {
+        if (ServerLoad.isPresent(load)) {
+            this.serverLoad = load;
+            this.serverLoadTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 记录一次收到响应的调用耗时
+     */
+    public void recordLatency(long millis) {
+        latency.record(millis);
+    }
+
+    /**
+     * 获取节点最近一个窗口的 p95 耗时 (毫秒)，样本不足时返回 -1
+     */
+    public long getLatencyP95() {
+        return latency.getValue();
+    }
+
+    public int getActive() {
+        return active.getConcurrent();
+    }
+
+    /**
+     * 节点级舱壁是否已满 (选路前过滤节点用)
+     */
+    public boolean isSaturated() {
+        return active.isFull();
+    }
+
+    /**
+     * 节点级舱壁 (在途请求数 / 最高并发 / 拒绝次数)
+     */
+    public Bulkhead getBulkhead() {
+        return active;
+    }
+
+    /**
+     * 获取负载信号，超过 maxAgeMillis 没更新的视为过期 (返回 ServerLoad.NONE)
+     */
+    public int getServerLoad(long maxAgeMillis) {
+        int load = serverLoad;
+        if (!ServerLoad.isPresent(load) || System.currentTimeMillis() - serverLoadTime > maxAgeMillis) {
+            return ServerLoad.NONE;
+        }
+        return load;
+    }
+}
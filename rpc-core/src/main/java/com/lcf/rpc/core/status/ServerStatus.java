@@ -0,0 +1,99 @@
+package com.lcf.rpc.core.status;
+
+import com.lcf.rpc.common.model.ServerLoad;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务端视角的负载状态
+ * 作用：统计正在执行的请求数、业务线程池排队数和近期 CPU 使用率，压缩成 ServerLoad 随响应返回。
+ * 生产成本：处理中请求数是一个原子计数，排队数直接读队列大小，
+ * CPU 由后台线程每秒采样一次做平滑，响应线程只读 volatile 变量。
+ */
+@Slf4j
+public class ServerStatus {
+
+    // CPU 采样间隔 (毫秒)
+    private static final long CPU_SAMPLE_INTERVAL = 1000;
+
+    // 平滑系数：新样本占 30%，避免瞬时抖动导致客户端来回切换节点
+    private static final double CPU_SMOOTHING = 0.3;
+
+    // 正在执行的请求数
+    private static final AtomicInteger INFLIGHT = new AtomicInteger(0);
+
+    // 业务线程池 (用于读取排队数)
+    private static volatile ThreadPoolExecutor businessExecutor;
+
+    // 平滑后的 CPU 使用率 (0~100)
+    private static volatile int cpuPercent = 0;
+
+    private static volatile ScheduledExecutorService cpuSampler;
+
+    private ServerStatus() {
+    }
+
+    /**
+     * 绑定业务线程池，并启动 CPU 采样
+     */
+    public static synchronized void bindExecutor(ThreadPoolExecutor executor) {
+        businessExecutor = executor;
+        if (cpuSampler == null) {
+            cpuSampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "rpc-server-cpu-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            cpuSampler.scheduleAtFixedRate(ServerStatus::sampleCpu, 0, CPU_SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 业务方法开始执行
+     */
+    public static void beginInvoke() {
+        INFLIGHT.incrementAndGet();
+    }
+
+    /**
+     * 业务方法执行结束 (必须放在 finally 中)
+     */
+    public static void endInvoke() {
+        INFLIGHT.decrementAndGet();
+    }
+
+    /**
+     * 当前负载信号 (压缩格式)
+     */
+    public static int currentLoad() {
+        ThreadPoolExecutor executor = businessExecutor;
+        int queueDepth = executor != null ? executor.getQueue().size() : 0;
+        return ServerLoad.pack(INFLIGHT.get(), queueDepth, cpuPercent);
+    }
+
+    private static void sampleCpu() {
+        try {
+            OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+            if (!(osBean instanceof com.sun.management.OperatingSystemMXBean)) {
+                return;
+            }
+            double load = ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuLoad();
+            if (load < 0) {
+                // JVM 刚启动时可能还拿不到数据
+                return;
+            }
+            int sample = (int) Math.round(load * 100);
+            cpuPercent = (int) Math.round(cpuPercent * (1 - CPU_SMOOTHING) + sample * CPU_SMOOTHING);
+        } catch (Throwable t) {
+            // 个别 JDK 不支持，采样失败就一直按 0 上报，不影响业务
+            log.debug("CPU 采样失败: {}", t.getMessage());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.lcf.rpc.core.trace;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 被采样的 Span (只在创建它的线程中使用)
+ */
+class DefaultSpan implements Span {
+
+    private final SpanExporter exporter;
+    private final TraceContext context;
+    private final TraceContext parent;
+    private final String kind;
+    private final String service;
+    private final String method;
+    private final long startMicros;
+    private final long startNanos;
+    private Map<String, String> tags;
+    private boolean finished;
+
+    DefaultSpan(SpanExporter exporter, TraceContext context, TraceContext parent, String kind, String service,
+                String method) {
+        this.exporter = exporter;
+        this.context = context;
+        this.parent = parent;
+        this.kind = kind;
+        this.service = service;
+        this.method = method;
+        this.startMicros = System.currentTimeMillis() * 1000;
+        this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public TraceContext context() {
+        return context;
+    }
+
+    @Override
+    public Span tag(String key, String value) {
+        if (tags == null) {
+            tags = new HashMap<>(4);
+        }
+        tags.put(key, value);
+        return this;
+    }
+
+    @Override
+    public void finish(String error) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        long durationMicros = (System.nanoTime() - startNanos) / 1000;
+        exporter.export(new SpanData(context.getTraceIdHex(), context.getSpanIdHex(),
+                parent == null ? null : parent.getSpanIdHex(), kind, service, method, startMicros, durationMicros,
+                error, tags));
+    }
+}
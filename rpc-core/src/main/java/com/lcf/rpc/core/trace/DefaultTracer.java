@@ -0,0 +1,81 @@
+package com.lcf.rpc.core.trace;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.constant.AttachmentKeys;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.common.model.RpcRequest;
+import com.lcf.rpc.core.context.RpcContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 默认 Tracer：头部采样 (链路的第一个调用按 rpc.trace.sampleRate 决定，下游全部沿用)
+ * 未采样的调用只传 1 字节的“不采样”标记，不生成 ID、不创建 Span 对象、不导出。
+ */
+public class DefaultTracer implements Tracer {
+
+    static final String CLIENT = "CLIENT";
+    static final String SERVER = "SERVER";
+
+    private final double sampleRate;
+    private final SpanExporter exporter;
+
+    public DefaultTracer() {
+        this.sampleRate = Double.parseDouble(RpcProperties.getProperty("rpc.trace.sampleRate", "0.01"));
+        String exporterName = RpcProperties.getProperty("rpc.trace.exporter", "memory");
+        this.exporter = ExtensionLoader.getExtensionLoader(SpanExporter.class).getExtension(exporterName);
+    }
+
+    @Override
+    public Span startClientSpan(RpcRequest request) {
+        TraceContext parent = RpcContext.getContext().getTraceContext();
+        boolean sampled = parent != null ? parent.isSampled() : sample();
+        if (!sampled) {
+            inject(request, TraceContext.UNSAMPLED);
+            return Span.NOOP;
+        }
+        TraceContext context = parent != null
+                ? parent.withSpanId(nextId())
+                : new TraceContext(nextId(), nextId(), nextId(), true);
+        inject(request, context);
+        return new DefaultSpan(exporter, context, parent, CLIENT, request.getInterfaceName(), request.getMethodName());
+    }
+
+    @Override
+    public Span startServerSpan(RpcRequest request) {
+        Map<String, Object> attachments = request.getAttachments();
+        Object value = attachments == null ? null : attachments.get(AttachmentKeys.TRACE_ID);
+        TraceContext remote = value instanceof byte[] ? TraceContext.fromBytes((byte[]) value) : null;
+        boolean sampled = remote != null ? remote.isSampled() : sample();
+        if (!sampled) {
+            return Span.NOOP;
+        }
+        TraceContext context = remote != null
+                ? remote.withSpanId(nextId())
+                : new TraceContext(nextId(), nextId(), nextId(), true);
+        return new DefaultSpan(exporter, context, remote, SERVER, request.getInterfaceName(), request.getMethodName());
+    }
+
+    private boolean sample() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static long nextId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    private static void inject(RpcRequest request, TraceContext context) {
+        Map<String, Object> attachments = request.getAttachments();
+        if (attachments == null) {
+            attachments = new HashMap<>(4);
+            request.setAttachments(attachments);
+        }
+        attachments.put(AttachmentKeys.TRACE_ID, context.toBytes());
+    }
+}
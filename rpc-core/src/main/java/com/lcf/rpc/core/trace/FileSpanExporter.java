@@ -0,0 +1,113 @@
+package com.lcf.rpc.core.trace;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把 Span 以 JSON Lines 格式追加到文件 (rpc.trace.file，默认 rpc-spans.jsonl)
+ * 写文件在后台线程中进行，队列满时丢弃 Span，不阻塞调用线程。
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+
+    private final BufferedWriter writer;
+    private final ExecutorService executor;
+
+    public FileSpanExporter() {
+        String file = RpcProperties.getProperty("rpc.trace.file", "rpc-spans.jsonl");
+        try {
+            this.writer = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new IllegalStateException("无法打开 Span 文件: " + file, e);
+        }
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(10000), r -> {
+            Thread thread = new Thread(r, "rpc-span-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Span 输出到文件: {}", file);
+    }
+
+    @Override
+    public void export(SpanData span) {
+        try {
+            executor.execute(() -> write(span));
+        } catch (RejectedExecutionException e) {
+            // 队列满了，丢弃
+        }
+    }
+
+    private void write(SpanData span) {
+        StringBuilder sb = new StringBuilder(256).append('{');
+        field(sb, "traceId", span.getTraceId()).append(',');
+        field(sb, "spanId", span.getSpanId()).append(',');
+        if (span.getParentSpanId() != null) {
+            field(sb, "parentSpanId", span.getParentSpanId()).append(',');
+        }
+        field(sb, "kind", span.getKind()).append(',');
+        field(sb, "service", span.getService()).append(',');
+        field(sb, "method", span.getMethod()).append(',');
+        sb.append("\"startMicros\":").append(span.getStartMicros()).append(',');
+        sb.append("\"durationMicros\":").append(span.getDurationMicros());
+        if (span.getError() != null) {
+            field(sb.append(','), "error", span.getError());
+        }
+        if (span.getTags() != null) {
+            sb.append(",\"tags\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> tag : span.getTags().entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                field(sb, tag.getKey(), tag.getValue());
+                first = false;
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+        try {
+            writer.write(sb.toString());
+            writer.newLine();
+            // 队列空了再刷盘，批量写出
+            if (((ThreadPoolExecutor) executor).getQueue().isEmpty()) {
+                writer.flush();
+            }
+        } catch (IOException e) {
+            log.warn("写入 Span 失败: {}", e.getMessage());
+        }
+    }
+
+    private static StringBuilder field(StringBuilder sb, String name, String value) {
+        quote(sb, name).append(':');
+        return value == null ? sb.append("null") : quote(sb, value);
+    }
+
+    private static StringBuilder quote(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+}
@@ -0,0 +1,39 @@
+package com.lcf.rpc.core.trace;
+
+import com.lcf.rpc.common.config.RpcProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 把 Span 保存在内存里 (测试、本地排查用)，最多保留 rpc.trace.memory.maxSpans 个 (默认 10000)，超出后丢弃最早的
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private static final ConcurrentLinkedQueue<SpanData> SPANS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger SIZE = new AtomicInteger();
+
+    private final int maxSpans = Integer.parseInt(RpcProperties.getProperty("rpc.trace.memory.maxSpans", "10000"));
+
+    @Override
+    public void export(SpanData span) {
+        SPANS.offer(span);
+        if (SIZE.incrementAndGet() > maxSpans && SPANS.poll() != null) {
+            SIZE.decrementAndGet();
+        }
+    }
+
+    /**
+     * 已结束的 Span (按结束顺序)
+     */
+    public static List<SpanData> getSpans() {
+        return new ArrayList<>(SPANS);
+    }
+
+    public static void clear() {
+        SPANS.clear();
+        SIZE.set(0);
+    }
+}
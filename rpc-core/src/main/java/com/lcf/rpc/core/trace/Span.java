@@ -0,0 +1,40 @@
+package com.lcf.rpc.core.trace;
+
+/**
+ * 一次调用在链路中的一段 (客户端 Span 或服务端 Span)
+ * 未采样的调用拿到的是 NOOP，所有方法都是空操作。
+ */
+public interface Span {
+
+    Span NOOP = new Span() {
+        @Override
+        public TraceContext context() {
+            return TraceContext.UNSAMPLED;
+        }
+
+        @Override
+        public Span tag(String key, String value) {
+            return this;
+        }
+
+        @Override
+        public void finish(String error) {
+        }
+    };
+
+    /**
+     * 本 Span 的上下文 (服务端 Span 的上下文会放进 RpcContext，业务方法中的嵌套调用以它为父 Span)
+     */
+    TraceContext context();
+
+    /**
+     * 附加标签
+     */
+    Span tag(String key, String value);
+
+    /**
+     * 结束 (只调用一次)
+     * @param error 失败原因，成功时为 null
+     */
+    void finish(String error);
+}
@@ -0,0 +1,32 @@
+package com.lcf.rpc.core.trace;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * 一个已结束的 Span (交给 SpanExporter 导出)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class SpanData {
+
+    private final String traceId;
+    private final String spanId;
+    // 父 Span，链路的第一个 Span 为 null
+    private final String parentSpanId;
+    // CLIENT / SERVER
+    private final String kind;
+    private final String service;
+    private final String method;
+    // 开始时间 (微秒时间戳) / 耗时 (微秒)
+    private final long startMicros;
+    private final long durationMicros;
+    // 失败原因，成功时为 null
+    private final String error;
+    // 标签，没有时为 null
+    private final Map<String, String> tags;
+}
@@ -0,0 +1,10 @@
+package com.lcf.rpc.core.trace;
+
+/**
+ * Span 导出 SPI (META-INF/extensions/com.lcf.rpc.core.trace.SpanExporter，用 rpc.trace.exporter 选择)
+ * 在结束 Span 的线程上调用，实现不要阻塞 (写文件、发网络请求应该交给后台线程)。
+ */
+public interface SpanExporter {
+
+    void export(SpanData span);
+}
@@ -0,0 +1,133 @@
+package com.lcf.rpc.core.trace;
+
+/**
+ * 链路上下文 (随请求传播，放在 attachments 的 traceId 中，二进制编码)
+ * <pre>
+ * 被采样：flags(1) | traceId(16) | spanId(8)   共 25 字节
+ * 未采样：flags(1)                             只有 1 字节，不生成 ID，下游沿用“不采样”的决定
+ * </pre>
+ * spanId 是发出请求的 Span (客户端 Span) 的 ID，服务端以它作为父 Span。
+ */
+public final class TraceContext {
+
+    private static final byte FLAG_SAMPLED = 1;
+
+    private static final int SAMPLED_LENGTH = 25;
+
+    /**
+     * 未采样的上下文 (全局共享)
+     */
+    public static final TraceContext UNSAMPLED = new TraceContext(0, 0, 0, false);
+
+    private static final byte[] UNSAMPLED_BYTES = {0};
+
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long spanId;
+    private final boolean sampled;
+
+    TraceContext(long traceIdHigh, long traceIdLow, long spanId, boolean sampled) {
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.sampled = sampled;
+    }
+
+    /**
+     * 同一条链路上的另一个 Span
+     */
+    TraceContext withSpanId(long newSpanId) {
+        return new TraceContext(traceIdHigh, traceIdLow, newSpanId, true);
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public long getTraceIdHigh() {
+        return traceIdHigh;
+    }
+
+    public long getTraceIdLow() {
+        return traceIdLow;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * 32 位十六进制 traceId
+     */
+    public String getTraceIdHex() {
+        return hex(traceIdHigh) + hex(traceIdLow);
+    }
+
+    public String getSpanIdHex() {
+        return hex(spanId);
+    }
+
+    /**
+     * 编码 (未采样时返回共享的 1 字节数组，不要修改)
+     */
+    public byte[] toBytes() {
+        if (!sampled) {
+            return UNSAMPLED_BYTES;
+        }
+        byte[] bytes = new byte[SAMPLED_LENGTH];
+        bytes[0] = FLAG_SAMPLED;
+        putLong(bytes, 1, traceIdHigh);
+        putLong(bytes, 9, traceIdLow);
+        putLong(bytes, 17, spanId);
+        return bytes;
+    }
+
+    /**
+     * 解码
+     * @return 格式不对时返回 null (当作没有上游上下文)
+     */
+    public static TraceContext fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & FLAG_SAMPLED) == 0) {
+            return UNSAMPLED;
+        }
+        if (bytes.length < SAMPLED_LENGTH) {
+            return null;
+        }
+        return new TraceContext(getLong(bytes, 1), getLong(bytes, 9), getLong(bytes, 17), true);
+    }
+
+    static String hex(long value) {
+        String s = Long.toHexString(value);
+        if (s.length() == 16) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(16);
+        for (int i = s.length(); i < 16; i++) {
+            sb.append('0');
+        }
+        return sb.append(s).toString();
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static long getLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return sampled ? getTraceIdHex() + "/" + getSpanIdHex() : "unsampled";
+    }
+}
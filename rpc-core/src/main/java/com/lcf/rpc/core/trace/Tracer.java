@@ -0,0 +1,21 @@
+package com.lcf.rpc.core.trace;
+
+import com.lcf.rpc.common.model.RpcRequest;
+
+/**
+ * 链路追踪 SPI (META-INF/extensions/com.lcf.rpc.core.trace.Tracer，用 rpc.trace.tracer 选择)
+ * 负责采样决定、创建 Span、在请求 attachments 中注入 / 提取链路上下文。
+ */
+public interface Tracer {
+
+    /**
+     * 客户端发起调用时创建 Span，并把链路上下文写进请求的 attachments
+     * 当前线程在处理上游请求时 (RpcContext 中有链路上下文)，新 Span 是它的子 Span，沿用上游的采样决定。
+     */
+    Span startClientSpan(RpcRequest request);
+
+    /**
+     * 服务端开始处理请求时创建 Span (从请求的 attachments 中提取上游的链路上下文)
+     */
+    Span startServerSpan(RpcRequest request);
+}
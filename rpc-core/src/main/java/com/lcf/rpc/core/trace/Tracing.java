@@ -0,0 +1,45 @@
+package com.lcf.rpc.core.trace;
+
+import com.lcf.rpc.common.config.RpcProperties;
+import com.lcf.rpc.common.extension.ExtensionLoader;
+import com.lcf.rpc.common.model.RpcRequest;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 链路追踪入口 (框架内部调用)
+ * <pre>
+ * rpc.trace.enabled     是否开启 (默认 false，关闭时不传播任何链路信息)
+ * rpc.trace.tracer      Tracer 扩展名 (默认 default)
+ * rpc.trace.sampleRate  链路第一个调用的采样率 0 ~ 1 (默认 0.01)
+ * rpc.trace.exporter    SpanExporter 扩展名：memory (内存，测试用) / file (JSON Lines 文件)
+ * </pre>
+ */
+@Slf4j
+public final class Tracing {
+
+    private static final Tracer TRACER = load();
+
+    private Tracing() {
+    }
+
+    private static Tracer load() {
+        if (!Boolean.parseBoolean(RpcProperties.getProperty("rpc.trace.enabled", "false"))) {
+            return null;
+        }
+        String name = RpcProperties.getProperty("rpc.trace.tracer", "default");
+        log.info("链路追踪已开启: {}", name);
+        return ExtensionLoader.getExtensionLoader(Tracer.class).getExtension(name);
+    }
+
+    public static boolean isEnabled() {
+        return TRACER != null;
+    }
+
+    public static Span startClientSpan(RpcRequest request) {
+        return TRACER == null ? Span.NOOP : TRACER.startClientSpan(request);
+    }
+
+    public static Span startServerSpan(RpcRequest request) {
+        return TRACER == null ? Span.NOOP : TRACER.startServerSpan(request);
+    }
+}
@@ -5,6 +5,7 @@ import com.lcf.rpc.common.extension.ExtensionLoader;
 import com.lcf.rpc.common.model.RpcMessage;
 import com.lcf.rpc.common.model.RpcRequest;
 import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.jfr.RpcEvents;
 import com.lcf.rpc.core.netty.codec.RpcMessageDecoder;
 import com.lcf.rpc.core.netty.codec.RpcMessageEncoder;
 import com.lcf.rpc.core.netty.handler.NettyClientHandler;
@@ -93,6 +94,13 @@ public class NettyClient {
         return resultFuture;
     }
 
+    /**
+     * 取消等待某个请求的响应 (只清理客户端上下文，已经发出的请求服务端仍会执行)
+     */
+    public void cancelRequest(String requestId) {
+        unprocessedRequests.remove(requestId);
+    }
+
     /**
      * 获取 Channel (优化版)
      */
@@ -132,7 +140,9 @@ public class NettyClient {
     @SneakyThrows
     private Channel doConnect(InetSocketAddress inetSocketAddress) {
         CompletableFuture<Channel> completableFuture = new CompletableFuture<>();
+        Object event = RpcEvents.beginConnection();
         bootstrap.connect(inetSocketAddress).addListener((ChannelFutureListener) future -> {
+            RpcEvents.endConnection(event, inetSocketAddress.toString(), future.isSuccess());
             if (future.isSuccess()) {
                 log.info("客户端连接成功: {}", inetSocketAddress.toString());
                 completableFuture.complete(future.channel());
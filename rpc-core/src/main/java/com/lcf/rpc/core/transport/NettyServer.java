@@ -4,14 +4,20 @@ import com.lcf.rpc.common.config.RpcProperties;
 import com.lcf.rpc.common.extension.ExtensionLoader;
 import com.lcf.rpc.common.model.RpcRequest;
 import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.capture.CaptureHandler;
+import com.lcf.rpc.core.capture.TrafficCapture;
+import com.lcf.rpc.core.dispatch.PriorityTaskQueue;
 import com.lcf.rpc.core.netty.codec.RpcMessageDecoder;
 import com.lcf.rpc.core.netty.codec.RpcMessageEncoder;
 import com.lcf.rpc.core.netty.handler.CommonDecoder;
 import com.lcf.rpc.core.netty.handler.CommonEncoder;
 import com.lcf.rpc.core.netty.handler.NettyServerHandler;
 import com.lcf.rpc.core.serialization.Serializer;
+import com.lcf.rpc.core.status.ServerStatus;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
@@ -21,13 +27,24 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.timeout.IdleStateHandler;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Slf4j
 public class NettyServer {
 
     private final int port;
 
+    // 监听端口的 Channel (启动成功后才有)
+    private volatile Channel serverChannel;
+
+    // 自定义入站 Handler 的工厂 (插在解码器和业务 Handler 之间)
+    private final List<Supplier<? extends ChannelHandler>> inboundHandlers = new CopyOnWriteArrayList<>();
+
     public NettyServer(int port) {
         this.port = port;
     }
@@ -37,6 +54,8 @@ public class NettyServer {
         // bossGroup 只负责接收连接，workerGroup 负责具体的读写业务
         EventLoopGroup bossGroup = new NioEventLoopGroup();
         EventLoopGroup workerGroup = new NioEventLoopGroup();
+        // 业务线程池：反射调用业务方法在这里执行，不占用 I/O 线程
+        ThreadPoolExecutor businessExecutor = createBusinessExecutor();
 
         try {
             ServerBootstrap serverBootstrap = new ServerBootstrap();
@@ -57,13 +76,21 @@ public class NettyServer {
 
                             // 替换原来的编解码器
                             ch.pipeline().addLast(new RpcMessageEncoder(serializer));
+                            if (TrafficCapture.isEnabled()) {
+                                // 流量录制：先按帧切分并录下请求帧，再交给解码器
+                                ch.pipeline().addLast(new CaptureHandler());
+                            }
                             ch.pipeline().addLast(new RpcMessageDecoder(serializer));
-                            ch.pipeline().addLast(new NettyServerHandler());
+                            for (Supplier<? extends ChannelHandler> factory : inboundHandlers) {
+                                ch.pipeline().addLast(factory.get());
+                            }
+                            ch.pipeline().addLast(new NettyServerHandler(businessExecutor, serializer));
                         }
                     });
 
             // 4. 绑定端口，同步等待成功
             ChannelFuture future = serverBootstrap.bind(port).sync();
+            serverChannel = future.channel();
             log.info("RPC 服务端启动成功，监听端口: {}", port);
 
             // 5. 等待服务端监听端口关闭
@@ -74,6 +101,40 @@ public class NettyServer {
         } finally {
             bossGroup.shutdownGracefully();
             workerGroup.shutdownGracefully();
+            businessExecutor.shutdown();
         }
     }
+
+    /**
+     * 在解码器之后、业务 Handler 之前插入入站 Handler，收到的是解码后的 RpcMessage (需要在 start() 之前调用)
+     * 每个新连接调用一次 factory，标注了 @Sharable 的 Handler 可以每次返回同一个实例。
+     */
+    public NettyServer addInboundHandler(Supplier<? extends ChannelHandler> factory) {
+        inboundHandlers.add(factory);
+        return this;
+    }
+
+    /**
+     * 关闭监听端口 (start() 随之返回，并释放线程组和业务线程池)
+     */
+    public void stop() {
+        Channel channel = serverChannel;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private ThreadPoolExecutor createBusinessExecutor() {
+        int threads = RpcProperties.getServerThreads();
+        int queues = RpcProperties.getServerQueueSize();
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        // 按优先级调度的有界队列，持续排队过久时先丢低优先级的请求
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new PriorityTaskQueue(queues, RpcProperties.getServerQueueTarget(), RpcProperties.getServerQueueInterval()),
+                r -> new Thread(r, "rpc-server-handler-" + threadIndex.incrementAndGet()));
+        // 绑定到负载统计，排队数会随响应上报给客户端
+        ServerStatus.bindExecutor(executor);
+        log.info("业务线程池创建完成: threads={}, queues={}", threads, queues);
+        return executor;
+    }
 }
\ No newline at end of file
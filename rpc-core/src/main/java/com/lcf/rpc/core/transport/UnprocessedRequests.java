@@ -1,6 +1,8 @@
 package com.lcf.rpc.core.transport;
 
 import com.lcf.rpc.common.model.RpcResponse;
+import com.lcf.rpc.core.pool.MessagePool;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -10,6 +12,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * 未处理的请求容器
  * 作用：存放发出去但还没收到响应的请求
  */
+@Slf4j
 public class UnprocessedRequests {
 
     // Key: RequestId, Value: CompletableFuture (用来等待结果)
@@ -22,6 +25,14 @@ public class UnprocessedRequests {
         UNPROCESSED_RESPONSE_FUTURES.put(requestId, future);
     }
 
+    /**
+     * 放弃等待某个请求 (超时 / 对冲请求中落败的一方)，防止 Future 一直留在容器里
+     * 之后迟到的响应会因为找不到上下文被丢弃
+     */
+    public void remove(String requestId) {
+        UNPROCESSED_RESPONSE_FUTURES.remove(requestId);
+    }
+
     /**
      * 收到响应后，完成对应的 Future
      */
@@ -32,7 +43,10 @@ public class UnprocessedRequests {
         if (future != null) {
             future.complete(rpcResponse);
         } else {
-            System.out.println("警告：收到在这个节点上未找到上下文的响应，可能是超时或重复响应。ID: " + rpcResponse.getRequestId());
+            // 超时、对冲落败的请求迟到的响应都会走到这里，属于正常情况，不在 I/O 线程上打日志
+            log.debug("收到未找到上下文的响应，可能是超时或重复响应: {}", rpcResponse.getRequestId());
+            // 没有人等待这个响应，直接回收
+            MessagePool.recycle(rpcResponse);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.lcf.rpc.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 熔断器状态切换
+ */
+@Name("com.lcf.rpc.CircuitBreakerTransition")
+@Label("RPC Circuit Breaker Transition")
+@Category({"LCF RPC", "Client"})
+@StackTrace(false)
+class CircuitBreakerTransitionEvent extends jdk.jfr.Event {
+
+    @Label("Breaker")
+    String breaker;
+
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+}
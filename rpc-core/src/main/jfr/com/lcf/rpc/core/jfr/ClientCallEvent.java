@@ -0,0 +1,43 @@
+package com.lcf.rpc.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 客户端发往某个节点的一次请求 (从发出到收到响应 / 失败 / 被放弃)
+ */
+@Name("com.lcf.rpc.ClientCall")
+@Label("RPC Client Call")
+@Description("A request sent to one endpoint, from send to response, failure or abandonment")
+@Category({"LCF RPC", "Client"})
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+class ClientCallEvent extends jdk.jfr.Event {
+
+    @Label("Service")
+    String service;
+
+    @Label("Method")
+    String method;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Request Id")
+    String requestId;
+
+    @Label("Status")
+    @Description("Response code, or -1 no response / -2 abandoned")
+    int status;
+
+    @Label("Response Size")
+    @DataAmount
+    int responseSize;
+}
@@ -0,0 +1,20 @@
+package com.lcf.rpc.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 客户端建立连接
+ */
+@Name("com.lcf.rpc.Connection")
+@Label("RPC Connection")
+@Category({"LCF RPC", "Client"})
+class ConnectionEvent extends jdk.jfr.Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Success")
+    boolean success;
+}
@@ -0,0 +1,161 @@
+package com.lcf.rpc.core.jfr;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * 把事件交给 JFR (只由 RpcEvents 通过反射加载，其他类不直接引用，没有 jdk.jfr 的 JVM 上不会加载到这里)
+ * 每种事件先检查 EventType 是否被某个录制开启，没开启时不创建事件对象。
+ */
+final class JfrEventSink implements RpcEventSink {
+
+    private final EventType clientCall;
+    private final EventType serverDispatch;
+    private final EventType serialization;
+    private final EventType connection;
+    private final EventType circuitBreakerTransition;
+    private final EventType rateLimitRejection;
+
+    JfrEventSink() {
+        if (!FlightRecorder.isAvailable()) {
+            throw new IllegalStateException("Flight Recorder is not available");
+        }
+        clientCall = EventType.getEventType(ClientCallEvent.class);
+        serverDispatch = EventType.getEventType(ServerDispatchEvent.class);
+        serialization = EventType.getEventType(SerializationEvent.class);
+        connection = EventType.getEventType(ConnectionEvent.class);
+        circuitBreakerTransition = EventType.getEventType(CircuitBreakerTransitionEvent.class);
+        rateLimitRejection = EventType.getEventType(RateLimitRejectionEvent.class);
+    }
+
+    @Override
+    public Object beginClientCall() {
+        if (!clientCall.isEnabled()) {
+            return null;
+        }
+        ClientCallEvent event = new ClientCallEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endClientCall(Object e, String service, String method, String endpoint, String requestId, int status,
+                              int responseSize) {
+        if (e == null) {
+            return;
+        }
+        ClientCallEvent event = (ClientCallEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.service = service;
+            event.method = method;
+            event.endpoint = endpoint;
+            event.requestId = requestId;
+            event.status = status;
+            event.responseSize = responseSize;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginServerDispatch() {
+        if (!serverDispatch.isEnabled()) {
+            return null;
+        }
+        ServerDispatchEvent event = new ServerDispatchEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endServerDispatch(Object e, String service, String method, Object peer, int status, int requestSize) {
+        if (e == null) {
+            return;
+        }
+        ServerDispatchEvent event = (ServerDispatchEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.service = service;
+            event.method = method;
+            event.peer = String.valueOf(peer);
+            event.status = status;
+            event.requestSize = requestSize;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginSerialization() {
+        if (!serialization.isEnabled()) {
+            return null;
+        }
+        SerializationEvent event = new SerializationEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endSerialization(Object e, Object serializer, boolean serialize, Class<?> type, int size) {
+        if (e == null) {
+            return;
+        }
+        SerializationEvent event = (SerializationEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.serializer = serializer.getClass().getSimpleName();
+            event.operation = serialize ? "serialize" : "deserialize";
+            event.type = type == null ? null : type.getName();
+            event.size = size;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Object beginConnection() {
+        if (!connection.isEnabled()) {
+            return null;
+        }
+        ConnectionEvent event = new ConnectionEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endConnection(Object e, String endpoint, boolean success) {
+        if (e == null) {
+            return;
+        }
+        ConnectionEvent event = (ConnectionEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void circuitBreakerTransition(String breaker, Object from, Object to) {
+        if (!circuitBreakerTransition.isEnabled()) {
+            return;
+        }
+        CircuitBreakerTransitionEvent event = new CircuitBreakerTransitionEvent();
+        event.breaker = breaker;
+        event.from = String.valueOf(from);
+        event.to = String.valueOf(to);
+        event.commit();
+    }
+
+    @Override
+    public void rateLimitRejection(String service, String method, String limiter, long limit) {
+        if (!rateLimitRejection.isEnabled()) {
+            return;
+        }
+        RateLimitRejectionEvent event = new RateLimitRejectionEvent();
+        event.service = service;
+        event.method = method;
+        event.limiter = limiter;
+        event.limit = limit;
+        event.commit();
+    }
+}
@@ -0,0 +1,28 @@
+package com.lcf.rpc.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 服务端因过载拒绝请求 (并发限流、固定 QPS 限流、线程池满、排队过久)
+ */
+@Name("com.lcf.rpc.RateLimitRejection")
+@Label("RPC Rate Limit Rejection")
+@Category({"LCF RPC", "Server"})
+@StackTrace(false)
+class RateLimitRejectionEvent extends jdk.jfr.Event {
+
+    @Label("Service")
+    String service;
+
+    @Label("Method")
+    String method;
+
+    @Label("Limiter")
+    String limiter;
+
+    @Label("Limit")
+    long limit;
+}
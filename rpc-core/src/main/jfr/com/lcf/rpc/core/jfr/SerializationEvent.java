@@ -0,0 +1,34 @@
+package com.lcf.rpc.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 一次参数 / 结果的序列化或反序列化
+ */
+@Name("com.lcf.rpc.Serialization")
+@Label("RPC Serialization")
+@Category({"LCF RPC", "Serialization"})
+@Enabled(false)
+@Threshold("1 ms")
+@StackTrace(false)
+class SerializationEvent extends jdk.jfr.Event {
+
+    @Label("Serializer")
+    String serializer;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Type")
+    String type;
+
+    @Label("Size")
+    @DataAmount
+    int size;
+}
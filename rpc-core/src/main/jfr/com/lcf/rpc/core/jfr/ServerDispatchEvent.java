@@ -0,0 +1,40 @@
+package com.lcf.rpc.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 服务端处理一个请求 (从 I/O 线程收到请求到写出响应，包含排队时间)
+ */
+@Name("com.lcf.rpc.ServerDispatch")
+@Label("RPC Server Dispatch")
+@Description("A request handled by the server, from receipt on the I/O thread to response write, including queueing")
+@Category({"LCF RPC", "Server"})
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+class ServerDispatchEvent extends jdk.jfr.Event {
+
+    @Label("Service")
+    String service;
+
+    @Label("Method")
+    String method;
+
+    @Label("Peer")
+    String peer;
+
+    @Label("Status")
+    @Description("Response code, or -3 expired in queue")
+    int status;
+
+    @Label("Request Size")
+    @DataAmount
+    int requestSize;
+}
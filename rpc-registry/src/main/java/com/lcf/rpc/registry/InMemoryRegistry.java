@@ -0,0 +1,73 @@
+package com.lcf.rpc.registry;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内注册中心 (rpc.registry.type=memory)
+ * 服务列表放在静态 Map 中，同一个 JVM 里的提供者和消费者共享，不需要 ZooKeeper / Nacos。
+ * 用于单机压测、集群测试 (一个 JVM 中启动多个提供者)：可以随时增删节点，变化对下一次服务发现立即可见。
+ */
+@Slf4j
+public class InMemoryRegistry implements Registry {
+
+    // 服务名 -> 节点列表 (不可变快照，变更时整体替换，读取不加锁)
+    private static final Map<String, List<ServiceInstance>> SERVICES = new ConcurrentHashMap<>();
+
+    // 本实例注册过的节点：服务名 -> 节点标识 "ip:port" (destroy 时只注销这些)
+    private final Map<String, Set<String>> registered = new ConcurrentHashMap<>();
+
+    @Override
+    public void register(String serviceName, ServiceInstance instance) {
+        SERVICES.compute(serviceName, (k, old) -> {
+            List<ServiceInstance> instances = old == null ? new ArrayList<>() : new ArrayList<>(old);
+            // 同一个地址重新注册时替换 (权重、启动时间可能变了)
+            instances.removeIf(i -> i.getKey().equals(instance.getKey()));
+            instances.add(instance);
+            return Collections.unmodifiableList(instances);
+        });
+        registered.computeIfAbsent(serviceName, k -> ConcurrentHashMap.newKeySet()).add(instance.getKey());
+        log.info("注册服务: {} -> {}", serviceName, instance);
+    }
+
+    /**
+     * 注销一个节点
+     * @param key 节点标识 "ip:port"
+     */
+    public void unregister(String serviceName, String key) {
+        SERVICES.computeIfPresent(serviceName, (k, old) -> {
+            List<ServiceInstance> instances = new ArrayList<>(old);
+            instances.removeIf(i -> i.getKey().equals(key));
+            return instances.isEmpty() ? null : Collections.unmodifiableList(instances);
+        });
+        Set<String> keys = registered.get(serviceName);
+        if (keys != null) {
+            keys.remove(key);
+        }
+        log.info("注销服务: {} -> {}", serviceName, key);
+    }
+
+    @Override
+    public List<ServiceInstance> lookupInstances(String serviceName) {
+        return SERVICES.getOrDefault(serviceName, Collections.emptyList());
+    }
+
+    /**
+     * 注销本实例注册过的节点 (同一个 JVM 里其他提供者注册的节点不受影响)
+     */
+    @Override
+    public void destroy() {
+        for (Map.Entry<String, Set<String>> entry : registered.entrySet()) {
+            for (String key : entry.getValue()) {
+                unregister(entry.getKey(), key);
+            }
+        }
+        registered.clear();
+    }
+}
@@ -21,10 +21,14 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class NacosRegistry implements Registry {
 
+    // metadata 中的启动时间戳 / 预热时长
+    private static final String META_TIMESTAMP = "timestamp";
+    private static final String META_WARMUP = "warmup";
+
     private final NamingService namingService;
 
-    // 本地缓存: serviceName -> list of addresses
-    private final Map<String, List<InetSocketAddress>> serviceCache = new ConcurrentHashMap<>();
+    // 本地缓存: serviceName -> list of instances
+    private final Map<String, List<ServiceInstance>> serviceCache = new ConcurrentHashMap<>();
 
     // 记录已订阅的服务
     private final Set<String> subscribingServices = new HashSet<>();
@@ -53,34 +57,43 @@ public class NacosRegistry implements Registry {
     }
 
     @Override
-    public void register(String serviceName, InetSocketAddress inetSocketAddress) {
+    public void register(String serviceName, ServiceInstance serviceInstance) {
         try {
-            namingService.registerInstance(serviceName, inetSocketAddress.getHostName(), inetSocketAddress.getPort());
+            // 权重直接使用 Nacos 原生的 Instance.weight
+            Instance instance = new Instance();
+            instance.setIp(serviceInstance.getHost());
+            instance.setPort(serviceInstance.getPort());
+            instance.setWeight(serviceInstance.getWeight());
+            // 启动时间和预热时长放在 metadata 里，客户端据此做预热降权
+            instance.addMetadata(META_TIMESTAMP, String.valueOf(serviceInstance.getStartTimestamp()));
+            instance.addMetadata(META_WARMUP, String.valueOf(serviceInstance.getWarmup()));
+            namingService.registerInstance(serviceName, instance);
 
             // 记录下来，以便 destroy 时注销
             registeredServiceNames.add(serviceName);
-            this.localAddress = inetSocketAddress;
+            this.localAddress = serviceInstance.getAddress();
 
-            log.info("Nacos 注册服务成功: {} -> {}", serviceName, inetSocketAddress);
+            log.info("Nacos 注册服务成功: {} -> {}", serviceName, serviceInstance);
         } catch (NacosException e) {
             throw new RuntimeException("Nacos 注册失败", e);
         }
     }
 
     @Override
-    public List<InetSocketAddress> lookupAll(String serviceName) {
-        if (serviceCache.containsKey(serviceName)) {
-            return serviceCache.get(serviceName);
+    public List<ServiceInstance> lookupInstances(String serviceName) {
+        List<ServiceInstance> cached = serviceCache.get(serviceName);
+        if (cached != null) {
+            return cached;
         }
 
         try {
             List<Instance> instances = namingService.selectInstances(serviceName, true);
-            List<InetSocketAddress> addressList = instancesToAddressList(instances);
+            List<ServiceInstance> instanceList = toServiceInstances(instances);
 
-            serviceCache.put(serviceName, addressList);
+            serviceCache.put(serviceName, instanceList);
             subscribeService(serviceName);
 
-            return addressList;
+            return instanceList;
         } catch (NacosException e) {
             throw new RuntimeException("Nacos 服务发现失败", e);
         }
@@ -122,9 +135,9 @@ public class NacosRegistry implements Registry {
                     if (event instanceof NamingEvent) {
                         NamingEvent namingEvent = (NamingEvent) event;
                         List<Instance> instances = namingEvent.getInstances();
-                        List<InetSocketAddress> newAddressList = instancesToAddressList(instances);
-                        serviceCache.put(serviceName, newAddressList);
-                        log.info("服务 [{}] 变动，更新缓存，实例数: {}", serviceName, newAddressList.size());
+                        List<ServiceInstance> newInstanceList = toServiceInstances(instances);
+                        serviceCache.put(serviceName, newInstanceList);
+                        log.info("服务 [{}] 变动，更新缓存，实例数: {}", serviceName, newInstanceList.size());
                     }
                 }
             });
@@ -132,15 +145,31 @@ public class NacosRegistry implements Registry {
         }
     }
 
-    private List<InetSocketAddress> instancesToAddressList(List<Instance> instances) {
-        List<InetSocketAddress> addressList = new ArrayList<>();
+    private long parseLong(Map<String, String> metadata, String key) {
+        String value = metadata != null ? metadata.get(key) : null;
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private List<ServiceInstance> toServiceInstances(List<Instance> instances) {
+        List<ServiceInstance> instanceList = new ArrayList<>();
         if (instances != null) {
             for (Instance instance : instances) {
                 if (instance.isHealthy() && instance.isEnabled()) {
-                    addressList.add(new InetSocketAddress(instance.getIp(), instance.getPort()));
+                    // Nacos 的权重是 double，按原值取整；(0, 1) 之间的按 1 处理避免被“饿死”，0 表示摘流
+                    double nacosWeight = instance.getWeight();
+                    int weight = nacosWeight <= 0 ? 0 : Math.max(1, (int) Math.round(nacosWeight));
+                    instanceList.add(new ServiceInstance(instance.getIp(), instance.getPort(), weight,
+                            parseLong(instance.getMetadata(), META_TIMESTAMP), (int) parseLong(instance.getMetadata(), META_WARMUP)));
                 }
             }
         }
-        return addressList;
+        return instanceList;
     }
 }
\ No newline at end of file
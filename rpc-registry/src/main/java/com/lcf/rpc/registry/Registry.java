@@ -1,27 +1,54 @@
 package com.lcf.rpc.registry;
 
+import com.lcf.rpc.common.config.RpcProperties;
+
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface Registry {
 
     /**
-     * 注册服务
+     * 注册服务 (权重取 rpc.server.weight，预热时长取 rpc.server.warmup，启动时间取当前时间)
      * @param serviceName 服务名称
      * @param inetSocketAddress 提供者的地址
      */
-    void register(String serviceName, InetSocketAddress inetSocketAddress);
+    default void register(String serviceName, InetSocketAddress inetSocketAddress) {
+        register(serviceName, new ServiceInstance(inetSocketAddress.getHostString(), inetSocketAddress.getPort(),
+                RpcProperties.getServerWeight(), System.currentTimeMillis(), RpcProperties.getServerWarmup()));
+    }
+
+    /**
+     * 注册服务 (携带权重等元数据)
+     * @param serviceName 服务名称
+     * @param instance 提供者实例
+     */
+    void register(String serviceName, ServiceInstance instance);
+
+    /**
+     * 发现服务
+     * @param serviceName 服务名称
+     * @return 服务实例列表 (带权重)
+     */
+    List<ServiceInstance> lookupInstances(String serviceName);
 
     /**
      * 发现服务
      * @param serviceName 服务名称
      * @return 服务地址列表
      */
-    List<InetSocketAddress> lookupAll(String serviceName);
+    default List<InetSocketAddress> lookupAll(String serviceName) {
+        List<ServiceInstance> instances = lookupInstances(serviceName);
+        List<InetSocketAddress> addressList = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            addressList.add(instance.getAddress());
+        }
+        return addressList;
+    }
 
     /**
      * 销毁/关闭注册中心 (优雅下线)
      * 作用：主动注销服务，关闭连接资源
      */
     void destroy();
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package com.lcf.rpc.registry;
+
+import lombok.Getter;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 服务实例 (注册中心里的一个节点)
+ * 作用：在地址之外携带权重、启动时间等元数据，供客户端负载均衡使用。
+ * 实例是不可变的，address / key 在构造时算好，选路时不会再拼字符串。
+ */
+@Getter
+public class ServiceInstance {
+
+    /**
+     * 默认权重 (与 Dubbo 保持一致，8 核机器可配 100，32 核机器可配 400)
+     */
+    public static final int DEFAULT_WEIGHT = 100;
+
+    private final String host;
+
+    private final int port;
+
+    /**
+     * 权重：越大分到的流量越多，0 表示不接流量
+     */
+    private final int weight;
+
+    /**
+     * 提供者启动 (注册) 的时间戳，0 表示未知 (老版本节点)
+     */
+    private final long startTimestamp;
+
+    /**
+     * 预热时长 (毫秒)：启动后这段时间内权重从 1 线性爬升到 weight，0 表示不预热
+     */
+    private final int warmup;
+
+    /**
+     * 网络地址 (建连用)
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * 节点唯一标识 "ip:port" (熔断器、活跃数统计等都以它为 Key)
+     */
+    private final String key;
+
+    public ServiceInstance(String host, int port, int weight, long startTimestamp, int warmup) {
+        this.host = host;
+        this.port = port;
+        this.weight = Math.max(weight, 0);
+        this.startTimestamp = startTimestamp;
+        this.warmup = Math.max(warmup, 0);
+        this.address = new InetSocketAddress(host, port);
+        this.key = host + ":" + port;
+    }
+
+    public ServiceInstance(String host, int port, int weight) {
+        this(host, port, weight, 0, 0);
+    }
+
+    public ServiceInstance(InetSocketAddress address, int weight) {
+        this(address.getHostString(), address.getPort(), weight);
+    }
+
+    /**
+     * 计算预热后的有效权重 (与 Dubbo 的预热算法一致)
+     * 启动后 uptime 毫秒时，权重 = weight * uptime / warmup，最少为 1，最多为 weight。
+     * @param now 当前时间戳 (由调用方传入，一次选路只取一次时间)
+     */
+    public int getWarmupWeight(long now) {
+        if (weight <= 0 || warmup <= 0 || startTimestamp <= 0) {
+            return weight;
+        }
+        long uptime = now - startTimestamp;
+        if (uptime >= warmup) {
+            return weight;
+        }
+        if (uptime <= 0) {
+            // 刚启动，或者两台机器时钟不一致
+            return 1;
+        }
+        int warmupWeight = (int) (uptime * weight / warmup);
+        return Math.max(1, Math.min(warmupWeight, weight));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ServiceInstance)) {
+            return false;
+        }
+        ServiceInstance that = (ServiceInstance) o;
+        return weight == that.weight && startTimestamp == that.startTimestamp
+                && warmup == that.warmup && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * key.hashCode() + weight) + Long.hashCode(startTimestamp);
+    }
+
+    @Override
+    public String toString() {
+        return key + "(weight=" + weight + ", timestamp=" + startTimestamp + ", warmup=" + warmup + ")";
+    }
+}
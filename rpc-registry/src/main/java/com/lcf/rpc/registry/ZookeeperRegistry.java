@@ -11,8 +11,9 @@ import org.apache.curator.framework.recipes.cache.PathChildrenCacheListener;
 import org.apache.curator.retry.ExponentialBackoffRetry;
 import org.apache.zookeeper.CreateMode;
 
-import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,7 +23,7 @@ public class ZookeeperRegistry implements Registry {
 
     private final CuratorFramework client;
     private static final String ROOT_PATH = "/my-rpc";
-    private final Map<String, List<InetSocketAddress>> serviceCache = new ConcurrentHashMap<>();
+    private final Map<String, List<ServiceInstance>> serviceCache = new ConcurrentHashMap<>();
     private final Map<String, PathChildrenCache> watcherCache = new ConcurrentHashMap<>();
 
     public ZookeeperRegistry() {
@@ -46,15 +47,16 @@ public class ZookeeperRegistry implements Registry {
     }
 
     @Override
-    public void register(String serviceName, InetSocketAddress inetSocketAddress) {
+    public void register(String serviceName, ServiceInstance instance) {
         try {
-            String servicePath = "/" + serviceName + "/" + getServiceAddress(inetSocketAddress);
+            String servicePath = "/" + serviceName + "/" + instance.getKey();
             if (client.checkExists().forPath(servicePath) == null) {
+                // 节点数据里存放元数据 (权重)，客户端拉取时解析
                 client.create()
                         .creatingParentsIfNeeded()
                         .withMode(CreateMode.EPHEMERAL)
-                        .forPath(servicePath);
-                log.info("Zookeeper 注册服务成功: {}", servicePath);
+                        .forPath(servicePath, encodeNodeData(instance));
+                log.info("Zookeeper 注册服务成功: {}, weight={}", servicePath, instance.getWeight());
             }
         } catch (Exception e) {
             throw new RuntimeException("Zookeeper 注册服务失败", e);
@@ -62,14 +64,15 @@ public class ZookeeperRegistry implements Registry {
     }
 
     @Override
-    public List<InetSocketAddress> lookupAll(String serviceName) {
-        if (serviceCache.containsKey(serviceName)) {
-            return serviceCache.get(serviceName);
+    public List<ServiceInstance> lookupInstances(String serviceName) {
+        List<ServiceInstance> instances = serviceCache.get(serviceName);
+        if (instances != null) {
+            return instances;
         }
-        List<InetSocketAddress> addresses = fetchAddressesFromZk(serviceName);
-        serviceCache.put(serviceName, addresses);
+        instances = fetchInstancesFromZk(serviceName);
+        serviceCache.put(serviceName, instances);
         registerWatcher(serviceName);
-        return addresses;
+        return instances;
     }
 
     /**
@@ -97,23 +100,70 @@ public class ZookeeperRegistry implements Registry {
 
     // --- 辅助方法保持不变 ---
 
-    private List<InetSocketAddress> fetchAddressesFromZk(String serviceName) {
+    private List<ServiceInstance> fetchInstancesFromZk(String serviceName) {
         try {
             String servicePath = "/" + serviceName;
             List<String> children = client.getChildren().forPath(servicePath);
-            List<InetSocketAddress> addressList = new ArrayList<>();
+            List<ServiceInstance> instanceList = new ArrayList<>();
             for (String node : children) {
                 String[] array = node.split(":");
                 String host = array[0];
                 int port = Integer.parseInt(array[1]);
-                addressList.add(new InetSocketAddress(host, port));
+                Map<String, String> metadata = null;
+                try {
+                    metadata = decodeNodeData(client.getData().forPath(servicePath + "/" + node));
+                } catch (Exception e) {
+                    // 节点在 getChildren 和 getData 之间下线了，按默认元数据处理，等 watcher 刷新
+                    log.debug("读取节点数据失败: {}", node);
+                }
+                instanceList.add(toServiceInstance(host, port, metadata));
             }
-            return addressList;
+            return instanceList;
         } catch (Exception e) {
             return new ArrayList<>();
         }
     }
 
+    /**
+     * 节点数据格式: "weight=100;timestamp=1700000000000;warmup=60000" (key=value，分号分隔)
+     */
+    private byte[] encodeNodeData(ServiceInstance instance) {
+        String data = "weight=" + instance.getWeight()
+                + ";timestamp=" + instance.getStartTimestamp()
+                + ";warmup=" + instance.getWarmup();
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Map<String, String> decodeNodeData(byte[] data) {
+        Map<String, String> metadata = new HashMap<>();
+        if (data == null || data.length == 0) {
+            // 老版本注册的节点没有数据
+            return metadata;
+        }
+        for (String pair : new String(data, StandardCharsets.UTF_8).split(";")) {
+            int ei = pair.indexOf('=');
+            if (ei > 0) {
+                metadata.put(pair.substring(0, ei).trim(), pair.substring(ei + 1).trim());
+            }
+        }
+        return metadata;
+    }
+
+    private ServiceInstance toServiceInstance(String host, int port, Map<String, String> metadata) {
+        if (metadata == null) {
+            return new ServiceInstance(host, port, ServiceInstance.DEFAULT_WEIGHT);
+        }
+        try {
+            int weight = Integer.parseInt(metadata.getOrDefault("weight", String.valueOf(ServiceInstance.DEFAULT_WEIGHT)));
+            long timestamp = Long.parseLong(metadata.getOrDefault("timestamp", "0"));
+            int warmup = Integer.parseInt(metadata.getOrDefault("warmup", "0"));
+            return new ServiceInstance(host, port, weight, timestamp, warmup);
+        } catch (NumberFormatException e) {
+            log.warn("非法的节点元数据: {}:{} -> {}", host, port, metadata);
+            return new ServiceInstance(host, port, ServiceInstance.DEFAULT_WEIGHT);
+        }
+    }
+
     private void registerWatcher(String serviceName) {
         if (watcherCache.containsKey(serviceName)) {
             return;
@@ -125,8 +175,8 @@ public class ZookeeperRegistry implements Registry {
                     event.getType() == PathChildrenCacheEvent.Type.CHILD_REMOVED ||
                     event.getType() == PathChildrenCacheEvent.Type.CHILD_UPDATED) {
                 log.info("检测到服务 [{}] 节点变化，更新本地缓存", serviceName);
-                List<InetSocketAddress> newAddresses = fetchAddressesFromZk(serviceName);
-                serviceCache.put(serviceName, newAddresses);
+                List<ServiceInstance> newInstances = fetchInstancesFromZk(serviceName);
+                serviceCache.put(serviceName, newInstances);
             }
         });
         try {
@@ -136,8 +186,4 @@ public class ZookeeperRegistry implements Registry {
             log.error("监听器启动失败", e);
         }
     }
-
-    private String getServiceAddress(InetSocketAddress serverAddress) {
-        return serverAddress.getHostString() + ":" + serverAddress.getPort();
-    }
 }
\ No newline at end of file